@@ -29,8 +29,11 @@ import org.silverpeas.core.annotation.Service;
 import javax.annotation.PreDestroy;
 import javax.inject.Singleton;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
@@ -45,11 +48,19 @@ public class DefaultServerEventContextManager implements SilverpeasServerEventCo
 
   final ReadWriteLock lock = new ReentrantReadWriteLock(true);
   final Set<SilverpeasServerEventContext> contexts = new HashSet<>(2000);
+  /**
+   * The registered contexts indexed by session and by user in order to route directly the
+   * events targeting some sessions or some users.
+   */
+  final Map<String, Set<SilverpeasServerEventContext>> contextsBySession = new HashMap<>(2000);
+  final Map<String, Set<SilverpeasServerEventContext>> contextsByUser = new HashMap<>(2000);
 
   @PreDestroy
   protected void cleanContexts() {
     safeWrite(null, s -> {
       contexts.clear();
+      contextsBySession.clear();
+      contextsByUser.clear();
       return true;
     });
   }
@@ -81,12 +92,71 @@ public class DefaultServerEventContextManager implements SilverpeasServerEventCo
     return safeRead(() -> new ArrayList<>(contexts));
   }
 
+  @Override
+  public List<SilverpeasServerEventContext> getContextSnapshotOfSessions(
+      final Collection<String> sessionIds) {
+    return safeRead(() -> snapshotOf(contextsBySession, sessionIds));
+  }
+
+  @Override
+  public List<SilverpeasServerEventContext> getContextSnapshotOfUsers(
+      final Collection<String> userIds) {
+    return safeRead(() -> snapshotOf(contextsByUser, userIds));
+  }
+
+  private List<SilverpeasServerEventContext> snapshotOf(
+      final Map<String, Set<SilverpeasServerEventContext>> index, final Collection<String> keys) {
+    final List<SilverpeasServerEventContext> snapshot = new ArrayList<>();
+    for (String key : keys) {
+      final Set<SilverpeasServerEventContext> indexed = index.get(key);
+      if (indexed != null) {
+        snapshot.addAll(indexed);
+      }
+    }
+    return snapshot;
+  }
+
   private boolean add(final SilverpeasServerEventContext context) {
-    return safeWrite(context, contexts::add);
+    return safeWrite(context, c -> {
+      final boolean added = contexts.add(c);
+      if (added) {
+        index(contextsBySession, c.getSessionId(), c);
+        index(contextsByUser, getUserId(c), c);
+      }
+      return added;
+    });
   }
 
   private boolean remove(final SilverpeasServerEventContext context) {
-    return safeWrite(context, contexts::remove);
+    return safeWrite(context, c -> {
+      final boolean removed = contexts.remove(c);
+      if (removed) {
+        unindex(contextsBySession, c.getSessionId(), c);
+        unindex(contextsByUser, getUserId(c), c);
+      }
+      return removed;
+    });
+  }
+
+  private static String getUserId(final SilverpeasServerEventContext context) {
+    return context.getUser() != null ? context.getUser().getId() : null;
+  }
+
+  private static void index(final Map<String, Set<SilverpeasServerEventContext>> index,
+      final String key, final SilverpeasServerEventContext context) {
+    if (key != null) {
+      index.computeIfAbsent(key, k -> new HashSet<>(2)).add(context);
+    }
+  }
+
+  private static void unindex(final Map<String, Set<SilverpeasServerEventContext>> index,
+      final String key, final SilverpeasServerEventContext context) {
+    if (key != null) {
+      index.computeIfPresent(key, (k, s) -> {
+        s.remove(context);
+        return s.isEmpty() ? null : s;
+      });
+    }
   }
 
   private int getContextSize() {
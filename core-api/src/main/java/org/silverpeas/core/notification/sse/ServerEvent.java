@@ -26,6 +26,9 @@ package org.silverpeas.core.notification.sse;
 import org.silverpeas.core.admin.user.model.User;
 
 import java.io.IOException;
+import java.util.Set;
+
+import static java.util.Collections.emptySet;
 
 import static org.silverpeas.kernel.util.StringUtil.EMPTY;
 import static org.silverpeas.kernel.util.StringUtil.defaultStringIfNotDefined;
@@ -104,6 +107,27 @@ public interface ServerEvent {
     return true;
   }
 
+  /**
+   * Gets the identifiers of the sessions this event is exclusively targeting. When some are
+   * given, the event is routed directly to the contexts linked to these sessions instead of being
+   * checked against all the registered contexts. By default, no session is targeted.
+   * @return a set of session identifiers, empty if the event isn't targeting specific sessions.
+   */
+  default Set<String> getTargetedSessionIds() {
+    return emptySet();
+  }
+
+  /**
+   * Gets the identifiers of the users this event is exclusively targeting. When some are given,
+   * and no sessions are targeted, the event is routed directly to the contexts of these users
+   * instead of being checked against all the registered contexts. By default, no user is
+   * targeted and the event is broadcast to all the contexts.
+   * @return a set of user identifiers, empty if the event isn't targeting specific users.
+   */
+  default Set<String> getTargetedUserIds() {
+    return emptySet();
+  }
+
   /**
    * Sends the event by using the given response and taking into account the receiver linked to.
    * <br>
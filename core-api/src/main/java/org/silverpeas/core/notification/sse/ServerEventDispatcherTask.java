@@ -43,6 +43,7 @@ import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
@@ -51,6 +52,7 @@ import java.util.stream.Stream;
 
 import static java.text.MessageFormat.format;
 import static java.util.Collections.emptyList;
+import static java.util.Collections.singleton;
 import static java.util.stream.Collectors.*;
 import static org.silverpeas.core.notification.user.client.NotificationManagerSettings.*;
 import static org.silverpeas.core.thread.ManagedThreadPool.ExecutionConfig.defaultConfig;
@@ -100,8 +102,8 @@ public class ServerEventDispatcherTask
    * @param sessionId an identifier od a session.
    */
   public static void unregisterBySessionId(String sessionId) {
-    getContextSnapshot().stream()
-        .filter(c -> sessionId.equals(c.getSessionId()))
+    SilverpeasServerEventContextManager.get()
+        .getContextSnapshotOfSessions(singleton(sessionId))
         .forEach(ServerEventDispatcherTask::unregisterContext);
   }
 
@@ -251,11 +253,21 @@ public class ServerEventDispatcherTask
 
     /**
      * Gets the context safely, so a list on which the caller can work without concurrency
-     * problems.
+     * problems. If the event targets some sessions or some users, only their contexts are
+     * returned. Otherwise, the event is a global one and all the contexts are returned.
      * @return the list of context.
      */
     List<SilverpeasServerEventContext> getSafeContexts() {
-      return getContextSnapshot();
+      final SilverpeasServerEventContextManager manager = SilverpeasServerEventContextManager.get();
+      final Set<String> sessionIds = serverEventToDispatch.getTargetedSessionIds();
+      if (!sessionIds.isEmpty()) {
+        return manager.getContextSnapshotOfSessions(sessionIds);
+      }
+      final Set<String> userIds = serverEventToDispatch.getTargetedUserIds();
+      if (!userIds.isEmpty()) {
+        return manager.getContextSnapshotOfUsers(userIds);
+      }
+      return manager.getContextSnapshot();
     }
 
     /**
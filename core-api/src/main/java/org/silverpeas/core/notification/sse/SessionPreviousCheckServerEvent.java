@@ -26,6 +26,10 @@ package org.silverpeas.core.notification.sse;
 import org.silverpeas.core.admin.user.model.User;
 import org.silverpeas.core.notification.sse.behavior.IgnoreStoring;
 
+import java.util.Set;
+
+import static java.util.Collections.singleton;
+
 /**
  * @author Yohann Chastagnier
  */
@@ -57,4 +61,9 @@ class SessionPreviousCheckServerEvent extends AbstractServerEvent implements Ign
   public boolean isConcerned(final String receiverSessionId, final User receiver) {
     return emitterSessionId.equals(receiverSessionId);
   }
+
+  @Override
+  public Set<String> getTargetedSessionIds() {
+    return singleton(emitterSessionId);
+  }
 }
@@ -26,8 +26,11 @@ package org.silverpeas.core.notification.sse;
 
 import org.silverpeas.core.util.ServiceProvider;
 
+import java.util.Collection;
 import java.util.List;
 
+import static java.util.stream.Collectors.toList;
+
 /**
  * This interface defines the management of {@link SilverpeasServerEventContext}.
  * <p>
@@ -65,4 +68,30 @@ public interface SilverpeasServerEventContextManager {
    * @return a list of {@link SilverpeasServerEventContext} instances.
    */
   List<SilverpeasServerEventContext> getContextSnapshot();
+
+  /**
+   * Gets safely a snapshot of the current registered asynchronous contexts linked to the given
+   * sessions.
+   * @param sessionIds the identifiers of the sessions.
+   * @return a list of {@link SilverpeasServerEventContext} instances.
+   */
+  default List<SilverpeasServerEventContext> getContextSnapshotOfSessions(
+      final Collection<String> sessionIds) {
+    return getContextSnapshot().stream()
+        .filter(c -> sessionIds.contains(c.getSessionId()))
+        .collect(toList());
+  }
+
+  /**
+   * Gets safely a snapshot of the current registered asynchronous contexts linked to the given
+   * users.
+   * @param userIds the identifiers of the users.
+   * @return a list of {@link SilverpeasServerEventContext} instances.
+   */
+  default List<SilverpeasServerEventContext> getContextSnapshotOfUsers(
+      final Collection<String> userIds) {
+    return getContextSnapshot().stream()
+        .filter(c -> c.getUser() != null && userIds.contains(c.getUser().getId()))
+        .collect(toList());
+  }
 }
@@ -215,6 +215,18 @@ public class NotificationManagerSettings {
     return getSettings().getBoolean("notification.subscription.confirmation.enabled", true);
   }
 
+  /**
+   * Gets the time to live in milliseconds of the cached user identifiers of the groups subscribed
+   * to a resource. Zero or less means the users of a subscribed group are fetched each time the
+   * subscribers of a resource are resolved.
+   * @return the time to live in milliseconds, 0 (default value) to deactivate the cache.
+   */
+  public static long getSubscriberGroupCacheTimeToLive() {
+    return Math.max(0,
+        getSettings().getInteger("notification.subscription.groupCache.timeToLive", 0)) *
+        (long) MS;
+  }
+
   /**
    * Gets the trigger of SSE communication jobs.
    * @return the timeout as long (seconds).
@@ -46,6 +46,9 @@ import java.io.Serializable;
 @NamedQuery(name = "DelayedNotificationUserSetting.findByUserIdAndChannel",
     query = "SELECT d FROM DelayedNotificationUserSetting d WHERE d.userId = :userId " +
         "AND d.channel = :channel")
+@NamedQuery(name = "DelayedNotificationUserSetting.findByUserIdsAndChannel",
+    query = "SELECT d FROM DelayedNotificationUserSetting d WHERE d.userId in :userIds " +
+        "AND d.channel = :channel")
 public class DelayedNotificationUserSetting
     extends BasicJpaEntity<DelayedNotificationUserSetting, UniqueIntegerIdentifier>
     implements Serializable {
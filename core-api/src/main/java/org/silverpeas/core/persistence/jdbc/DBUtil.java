@@ -25,6 +25,7 @@ package org.silverpeas.core.persistence.jdbc;
 
 import org.silverpeas.kernel.SilverpeasRuntimeException;
 import org.silverpeas.core.persistence.Transaction;
+import org.silverpeas.kernel.bundle.ResourceLocator;
 import org.silverpeas.kernel.util.StringUtil;
 import org.silverpeas.kernel.logging.SilverLogger;
 
@@ -37,13 +38,24 @@ import java.sql.Statement;
 import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class DBUtil {
 
-  private static final Object MUTEX = new Object();
   private static final int MAX_NB_ATTEMPT = 100;
+  private static final int LOCK_STRIPES = 64;
+  private static final Object[] LOCKS = new Object[LOCK_STRIPES];
+  private static final Map<String, IdentifierBlock> RESERVED_BLOCKS = new ConcurrentHashMap<>();
+
+  static {
+    for (int i = 0; i < LOCK_STRIPES; i++) {
+      LOCKS[i] = new Object();
+    }
+  }
 
   /**
    * @return the DateFieldLength
@@ -114,6 +126,15 @@ public class DBUtil {
 
   /**
    * Return a new unique identifier value referenced by a name.
+   * <p>
+   * The identifier values are reserved in the uniqueId table by blocks of
+   * {@code jdbc.uniqueId.blockSize} values (one value by default) and they are then handed out
+   * from memory without any lock until the block is exhausted. The reservation of a block is done
+   * with a compare-and-set update of the uniqueId table so that several servers sharing the same
+   * database never get the same block; it is serialized only between the threads asking for an
+   * identifier with the same name. The values of a block that aren't handed out before the
+   * server shutdown are lost, leaving some gaps in the identifiers.
+   * </p>
    * @param identifierName a name of an identifier can be the name of an existing table or a name
    * that does not correspond to something into persistence, but the caller needs to handle
    * unique identifiers for a resource.
@@ -126,16 +147,31 @@ public class DBUtil {
   @SuppressWarnings({"ThrowableResultOfMethodCallIgnored"})
   public static int getNextId(final String identifierName, final String tableFieldIdentifierName) {
     final String identifierNameLowerCase = identifierName.toLowerCase(Locale.ROOT);
-    for (int nbAttempts = 0; nbAttempts < MAX_NB_ATTEMPT; nbAttempts++) {
-      synchronized (MUTEX) {
-        // Getting the next unique identifier value from uniqueId table
-        Integer nextUniqueMaxId = nextUniqueIdentifierValue(identifierNameLowerCase);
-        if (nextUniqueMaxId == null) {
+    int nextId = nextIdInReservedBlock(identifierNameLowerCase);
+    if (nextId > 0) {
+      return nextId;
+    }
+    synchronized (lockOf(identifierNameLowerCase)) {
+      // another thread can have reserved a new block in the meantime
+      nextId = nextIdInReservedBlock(identifierNameLowerCase);
+      if (nextId > 0) {
+        return nextId;
+      }
+      final int blockSize = getIdentifierBlockSize();
+      for (int nbAttempts = 0; nbAttempts < MAX_NB_ATTEMPT; nbAttempts++) {
+        // Reserving the next block of unique identifier values from uniqueId table
+        Integer lastReservedId = reserveUniqueIdentifierValues(identifierNameLowerCase, blockSize);
+        if (lastReservedId == null) {
           // The identifier is not yet registered into uniqueId table
           registeringIdentifierName(identifierNameLowerCase, tableFieldIdentifierName);
-        } else if (nextUniqueMaxId != -1) {
-          // The next identifier value has been well computed
-          return nextUniqueMaxId;
+        } else if (lastReservedId != -1) {
+          // The block of identifier values has been well reserved
+          final int firstReservedId = lastReservedId - blockSize + 1;
+          if (blockSize > 1) {
+            RESERVED_BLOCKS.put(identifierNameLowerCase,
+                new IdentifierBlock(firstReservedId + 1, lastReservedId));
+          }
+          return firstReservedId;
         }
       }
     }
@@ -144,16 +180,34 @@ public class DBUtil {
             tableFieldIdentifierName + "primary key");
   }
 
+  private static int nextIdInReservedBlock(final String identifierNameLowerCase) {
+    final IdentifierBlock block = RESERVED_BLOCKS.get(identifierNameLowerCase);
+    return block == null ? -1 : block.next();
+  }
+
+  private static Object lockOf(final String identifierNameLowerCase) {
+    return LOCKS[Math.floorMod(identifierNameLowerCase.hashCode(), LOCKS.length)];
+  }
+
+  private static int getIdentifierBlockSize() {
+    final int blockSize = ResourceLocator.getGeneralSettingBundle()
+        .getInteger("jdbc.uniqueId.blockSize", 1);
+    return Math.max(1, blockSize);
+  }
+
   /**
-   * Updates and returns the next identifier value for given table name.
-   * @param identifierNameLowerCase the name of identifier for which the next unique identifier
-   * must be computed.
-   * @return the next unique identifier if the identifier name is already registered into uniqueId
-   * table, -1 if identifier name is already registered into uniqueId table but a concurrent server
-   * process has just performed an update too (so caller has just to retry to call the method),
-   * null if the identifier name is not yet registered into uniqueId table.
+   * Reserves the next block of identifier values for given table name by increasing in the
+   * uniqueId table its maximum identifier value by the given count of values.
+   * @param identifierNameLowerCase the name of identifier for which the next unique identifiers
+   * must be reserved.
+   * @param count the count of identifier values to reserve.
+   * @return the last reserved unique identifier if the identifier name is already registered into
+   * uniqueId table, -1 if identifier name is already registered into uniqueId table but a
+   * concurrent server process has just performed an update too (so caller has just to retry to
+   * call the method), null if the identifier name is not yet registered into uniqueId table.
    */
-  private static Integer nextUniqueIdentifierValue(String identifierNameLowerCase) {
+  private static Integer reserveUniqueIdentifierValues(String identifierNameLowerCase,
+      final int count) {
 
     return Transaction.performInNew(() -> {
 
@@ -171,29 +225,28 @@ public class DBUtil {
           }
         }
 
-        // If the current identifier value exists, then computing the next one
+        // If the current identifier value exists, then computing the last one of the block
         if (currentUniqueValue != null) {
-          final int nextUniqueValue = (currentUniqueValue + 1);
+          final int lastUniqueValue = (currentUniqueValue + count);
           // MaxId data is part of the SQL update query clause in order to avoid to perform an
           // update whereas another server process has updated the value for the same identifier
           // name (so a typical concurrency case)
           try (PreparedStatement updateMaxIdStmt = connection.prepareStatement(
               "UPDATE UniqueId SET maxId = ? WHERE tableName = ? AND maxId = ?")) {
-            updateMaxIdStmt.setInt(1, nextUniqueValue);
+            updateMaxIdStmt.setInt(1, lastUniqueValue);
             updateMaxIdStmt.setString(2, identifierNameLowerCase);
             updateMaxIdStmt.setInt(3, currentUniqueValue);
             if (updateMaxIdStmt.executeUpdate() != 0) {
-              // The next identifier value has been incremented successfully
-              return nextUniqueValue;
+              // The block of identifier values has been reserved successfully
+              return lastUniqueValue;
             } else {
               // Another server process has just updated the next unique identifier value, so the
-              // returned value indicates to the caller to retry to compute one
+              // returned value indicates to the caller to retry to reserve some
               SilverLogger.getLogger(DBUtil.class.getSimpleName()).debug(
-                  "The next unique identifier value '" + nextUniqueValue + "' for identifier '" +
-                      identifierNameLowerCase +
-                      "' has been computed by another server process call at the same time, " +
-                      "trying " +
-                      "again to get a next one");
+                  "The next unique identifier values up to '" + lastUniqueValue +
+                      "' for identifier '" + identifierNameLowerCase +
+                      "' have been reserved by another server process call at the same time, " +
+                      "trying again to reserve next ones");
               return -1;
             }
           }
@@ -343,4 +396,29 @@ public class DBUtil {
       return Collections.emptySet();
     }
   }
+
+  /**
+   * A block of unique identifier values reserved in the uniqueId table and handed out from
+   * memory.
+   */
+  private static class IdentifierBlock {
+    private final AtomicInteger nextId;
+    private final int lastId;
+
+    IdentifierBlock(final int firstId, final int lastId) {
+      this.nextId = new AtomicInteger(firstId);
+      this.lastId = lastId;
+    }
+
+    /**
+     * @return the next identifier value of the block or -1 if the block is exhausted.
+     */
+    int next() {
+      if (nextId.get() > lastId) {
+        return -1;
+      }
+      final int id = nextId.getAndIncrement();
+      return id <= lastId ? id : -1;
+    }
+  }
 }
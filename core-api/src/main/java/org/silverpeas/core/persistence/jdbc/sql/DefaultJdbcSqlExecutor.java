@@ -38,10 +38,13 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * @author Yohann Chastagnier
@@ -53,6 +56,8 @@ import java.util.List;
 class DefaultJdbcSqlExecutor implements JdbcSqlExecutor {
 
   private static final String SQL_REQUEST = ". SQL request: ";
+  private static final int DEFAULT_BATCH_SIZE = 100;
+  private static final int DEFAULT_FETCH_SIZE = 500;
 
   @Inject
   private SqlStatementParameterSetter sqlParamSetter;
@@ -117,6 +122,10 @@ class DefaultJdbcSqlExecutor implements JdbcSqlExecutor {
     } else {
       sqlQuery = selectQuery.getSqlQuery();
     }
+    final SqlPagination pagination = getNativePagination(con, queryConf, sqlQuery);
+    if (pagination != SqlPagination.NONE) {
+      return selectPage(con, selectQuery, process, pagination, sqlQuery, countOverPaginationMethod);
+    }
     try (PreparedStatement st = queryConf.isResultCountLimited() || queryConf.isFirstResultScrolled()
         ? con.prepareStatement(sqlQuery, ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY)
         : con.prepareStatement(sqlQuery)) {
@@ -136,6 +145,164 @@ class DefaultJdbcSqlExecutor implements JdbcSqlExecutor {
     }
   }
 
+  /**
+   * Selects the asked page of rows by delegating the pagination to the database itself: only the
+   * rows of the page are transferred, whatever the page number. The size of the whole result is
+   * then given either by the count over method or, when the page doesn't tell it, by a count
+   * query.
+   */
+  private <R> ListSlice<R> selectPage(final Connection con, final JdbcSqlQuery selectQuery,
+      final SelectResultRowProcess<R> process, final SqlPagination pagination,
+      final String sqlQuery, final boolean countOverPaginationMethod) throws SQLException {
+    final JdbcSqlQuery.Configuration queryConf = selectQuery.getConfiguration();
+    final int offset = queryConf.getOffset();
+    final int limit = queryConf.getResultLimit();
+    final String pageQuery = pagination.paginate(sqlQuery, offset, limit);
+    final ListSlice<R> entities;
+    final int rowCount;
+    long originalSize = -1;
+    try (PreparedStatement st = con.prepareStatement(pageQuery)) {
+      if (queryConf.isResultCountLimited()) {
+        st.setFetchSize(limit);
+      }
+      setParameters(st, selectQuery.getParameters());
+      try (ResultSet rs = st.executeQuery()) {
+        final ResultSetWrapper rsw = new ResultSetWrapper(rs);
+        final int lastIdx = queryConf.isResultCountLimited() ? offset + limit - 1 : offset;
+        entities = new ListSlice<>(offset, lastIdx);
+        int idx = offset;
+        for (; rsw.next(); idx++) {
+          if (idx == offset && countOverPaginationMethod) {
+            originalSize = rsw.getLong("SP_MAX_ROW_COUNT");
+          }
+          handleRow(idx, rsw, process, entities);
+        }
+        rowCount = idx - offset;
+      } catch (SQLException e) {
+        SilverLogger.getLogger(this).debug(e.getMessage() + SQL_REQUEST + pageQuery);
+        throw e;
+      }
+    }
+    if (!queryConf.isResultCountLimited()) {
+      originalSize = entities.size();
+    } else if (originalSize < 0 && queryConf.isNeedRealOriginalSize()) {
+      originalSize = rowCount > 0 && rowCount < limit || rowCount == 0 && offset == 0 ?
+          offset + (long) rowCount :
+          countRows(con, selectQuery, sqlQuery);
+    }
+    if (originalSize >= 0) {
+      entities.setOriginalListSize(originalSize);
+    }
+    return entities;
+  }
+
+  private long countRows(final Connection con, final JdbcSqlQuery selectQuery,
+      final String sqlQuery) throws SQLException {
+    final int orderBy = SqlPagination.indexOfTopLevelKeyword(sqlQuery, "order by");
+    final String rowsQuery = orderBy >= 0 && sqlQuery.indexOf('?', orderBy) < 0 ?
+        sqlQuery.substring(0, orderBy) :
+        sqlQuery;
+    final String countQuery = "SELECT COUNT(*) FROM (" + rowsQuery + ") SP_PAGINATED_ROWS";
+    try (PreparedStatement st = con.prepareStatement(countQuery)) {
+      setParameters(st, selectQuery.getParameters());
+      try (ResultSet rs = st.executeQuery()) {
+        return rs.next() ? rs.getLong(1) : 0;
+      } catch (SQLException e) {
+        SilverLogger.getLogger(this).debug(e.getMessage() + SQL_REQUEST + countQuery);
+        throw e;
+      }
+    }
+  }
+
+  @Override
+  public <R> Stream<R> stream(final JdbcSqlQuery selectQuery,
+      final SelectResultRowProcess<R> process) throws SQLException {
+    final Connection con = ConnectionPool.getConnection();
+    try {
+      // some drivers (PostgreSQL for example) fetch the rows by chunks only out of the auto-commit
+      final boolean autoCommit = con.getAutoCommit();
+      if (autoCommit) {
+        con.setAutoCommit(false);
+      }
+      return stream(con, selectQuery, process).onClose(() -> release(con, autoCommit));
+    } catch (SQLException | RuntimeException e) {
+      con.close();
+      throw e;
+    }
+  }
+
+  @Override
+  public <R> Stream<R> stream(final Connection con, final JdbcSqlQuery selectQuery,
+      final SelectResultRowProcess<R> process) throws SQLException {
+    final JdbcSqlQuery.Configuration queryConf = selectQuery.getConfiguration();
+    final String sqlQuery = selectQuery.getSqlQuery();
+    final SqlPagination pagination = getNativePagination(con, queryConf, sqlQuery);
+    final String executedQuery =
+        pagination.paginate(sqlQuery, queryConf.getOffset(), queryConf.getResultLimit());
+    final PreparedStatement st = con.prepareStatement(executedQuery, ResultSet.TYPE_FORWARD_ONLY,
+        ResultSet.CONCUR_READ_ONLY);
+    try {
+      st.setFetchSize(getFetchSize(queryConf));
+      if (pagination == SqlPagination.NONE && queryConf.isResultCountLimited()) {
+        st.setMaxRows(queryConf.getOffset() + queryConf.getResultLimit());
+      }
+      setParameters(st, selectQuery.getParameters());
+      final ResultSet rs = st.executeQuery();
+      if (pagination == SqlPagination.NONE) {
+        int skipped = 0;
+        while (skipped < queryConf.getOffset() && rs.next()) {
+          skipped++;
+        }
+      }
+      return StreamSupport.stream(new ResultSetSpliterator<>(rs, process, queryConf.getOffset()),
+          false).onClose(() -> close(st));
+    } catch (SQLException | RuntimeException e) {
+      SilverLogger.getLogger(this).debug(e.getMessage() + SQL_REQUEST + executedQuery);
+      st.close();
+      throw e;
+    }
+  }
+
+  private void close(final Statement statement) {
+    try {
+      statement.close();
+    } catch (SQLException e) {
+      SilverLogger.getLogger(this).warn(e);
+    }
+  }
+
+  private void release(final Connection con, final boolean autoCommit) {
+    try (con) {
+      if (autoCommit) {
+        con.rollback();
+        con.setAutoCommit(true);
+      }
+    } catch (SQLException e) {
+      SilverLogger.getLogger(this).warn(e);
+    }
+  }
+
+  private static int getFetchSize(final JdbcSqlQuery.Configuration queryConf) {
+    if (queryConf.getFetchSize() > 0) {
+      return queryConf.getFetchSize();
+    }
+    final int fetchSize = ResourceLocator.getGeneralSettingBundle()
+        .getInteger("jdbc.stream.fetchSize", DEFAULT_FETCH_SIZE);
+    return queryConf.isResultCountLimited() ?
+        Math.min(fetchSize, queryConf.getResultLimit()) :
+        fetchSize;
+  }
+
+  private SqlPagination getNativePagination(final Connection con,
+      final JdbcSqlQuery.Configuration queryConf, final String sqlQuery) throws SQLException {
+    if ((!queryConf.isResultCountLimited() && !queryConf.isFirstResultScrolled()) ||
+        !isNativePaginationMethod()) {
+      return SqlPagination.NONE;
+    }
+    final SqlPagination pagination = SqlPagination.of(con);
+    return pagination.isApplicableTo(sqlQuery) ? pagination : SqlPagination.NONE;
+  }
+
   @Transactional(Transactional.TxType.MANDATORY)
   @Override
   public long executeModify(final JdbcSqlQuery... modifySqlQueries) throws SQLException {
@@ -157,25 +324,81 @@ class DefaultJdbcSqlExecutor implements JdbcSqlExecutor {
     }
   }
 
+  /**
+   * The consecutive queries with the same SQL text are executed as a batch through a single
+   * prepared statement, by chunks of at most {@code jdbc.batch.size} queries, so that they are
+   * sent together to the database. The batching is disabled with a batch size lower than 2 or
+   * if the JDBC driver doesn't support it.
+   */
   @Transactional(Transactional.TxType.MANDATORY)
   @Override
   public long executeModify(final Connection con, final List<JdbcSqlQuery> modifySqlQueries)
       throws SQLException {
+    final int batchSize = modifySqlQueries.size() > 1 ? getBatchSize(con) : 1;
     long nbUpdate = 0;
-    for (JdbcSqlQuery modifyQuery : modifySqlQueries) {
+    int index = 0;
+    while (index < modifySqlQueries.size()) {
+      final JdbcSqlQuery modifyQuery = modifySqlQueries.get(index);
       modifyQuery.finalizeBeforeExecution();
-      try (PreparedStatement prepStmt = con.prepareStatement(modifyQuery.getSqlQuery())) {
-        setParameters(prepStmt, modifyQuery.getParameters());
-        nbUpdate += prepStmt.executeUpdate();
+      final String sqlQuery = modifyQuery.getSqlQuery();
+      final int end = getEndOfBatch(modifySqlQueries, index, batchSize, sqlQuery);
+      try (PreparedStatement prepStmt = con.prepareStatement(sqlQuery)) {
+        if (end - index == 1) {
+          setParameters(prepStmt, modifyQuery.getParameters());
+          nbUpdate += prepStmt.executeUpdate();
+        } else {
+          for (JdbcSqlQuery query : modifySqlQueries.subList(index, end)) {
+            setParameters(prepStmt, query.getParameters());
+            prepStmt.addBatch();
+          }
+          nbUpdate += countUpdates(prepStmt.executeBatch());
+        }
       } catch (SQLException e) {
-        SilverLogger.getLogger(this)
-            .debug(e.getMessage() + SQL_REQUEST + modifyQuery.getSqlQuery());
+        SilverLogger.getLogger(this).debug(e.getMessage() + SQL_REQUEST + sqlQuery);
         throw e;
       }
+      index = end;
     }
     return nbUpdate;
   }
 
+  /**
+   * Gets the index of the end (exclusive) of the batch of queries starting at the given index:
+   * the batch is made up of the consecutive queries with the same SQL text, up to the batch size.
+   */
+  private static int getEndOfBatch(final List<JdbcSqlQuery> queries, final int start,
+      final int batchSize, final String sqlQuery) {
+    int end = start + 1;
+    while (end < queries.size() && end - start < batchSize) {
+      final JdbcSqlQuery query = queries.get(end);
+      query.finalizeBeforeExecution();
+      if (!sqlQuery.equals(query.getSqlQuery())) {
+        break;
+      }
+      end++;
+    }
+    return end;
+  }
+
+  /**
+   * Counts the rows modified by a batch. Some drivers can't give the number of rows modified by
+   * a query of a batch ({@link Statement#SUCCESS_NO_INFO}): such a query is then counted as one
+   * modified row.
+   */
+  private static long countUpdates(final int[] updateCounts) {
+    long nbUpdate = 0;
+    for (int count : updateCounts) {
+      nbUpdate += count == Statement.SUCCESS_NO_INFO ? 1 : Math.max(0, count);
+    }
+    return nbUpdate;
+  }
+
+  private static int getBatchSize(final Connection con) throws SQLException {
+    final int batchSize = ResourceLocator.getGeneralSettingBundle()
+        .getInteger("jdbc.batch.size", DEFAULT_BATCH_SIZE);
+    return batchSize > 1 && con.getMetaData().supportsBatchUpdates() ? batchSize : 1;
+  }
+
   private <R> ListSlice<R> fetchEntities(final ResultSet rs,
       final SelectResultRowProcess<R> process, final JdbcSqlQuery.Configuration queryConf,
       final boolean countOverPaginationMethod)
@@ -248,6 +471,11 @@ class DefaultJdbcSqlExecutor implements JdbcSqlExecutor {
         .getBoolean("jdbc.pagination.method.countOver", false);
   }
 
+  private static boolean isNativePaginationMethod() {
+    return ResourceLocator.getGeneralSettingBundle()
+        .getBoolean("jdbc.pagination.method.native", true);
+  }
+
   /**
    * Centralization in order to sets the parameters on a prepare statement.
    * @param preparedStatement a prepared statement which parameters must be set.
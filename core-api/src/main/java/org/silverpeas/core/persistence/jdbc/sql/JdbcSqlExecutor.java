@@ -28,6 +28,7 @@ import org.silverpeas.core.util.ListSlice;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Implementations of this interface must permit to execute SQL queries into processes
@@ -84,6 +85,36 @@ interface JdbcSqlExecutor {
   <R> ListSlice<R> select(Connection connection, JdbcSqlQuery selectQuery,
       SelectResultRowProcess<R> process) throws SQLException;
 
+  /**
+   * Executes the specified query that selects some entities in the data source and streams them
+   * as they are read from a forward-only result set. A connection is opened for the stream and it
+   * is closed with it, so the returned stream must be closed once consumed.
+   * @param <R> The type of the items in the stream.
+   * @param selectQuery the SQL query to select some entities.
+   * @param process the processor of result rows.
+   * @return a stream on the entities, read from the data source by chunks of the fetch size of
+   * the query configuration.
+   * @throws java.sql.SQLException on SQL error.
+   */
+  <R> Stream<R> stream(JdbcSqlQuery selectQuery, SelectResultRowProcess<R> process)
+      throws SQLException;
+
+  /**
+   * Executes the specified query that selects some entities in the data source by using the given
+   * connection and streams them as they are read from a forward-only result set. The statement is
+   * closed with the stream, so the returned stream must be closed once consumed; the connection
+   * is left open.
+   * @param <R> The type of the items in the stream.
+   * @param connection an existing connection to the data source.
+   * @param selectQuery the SQL query to select some entities.
+   * @param process the processor of result rows.
+   * @return a stream on the entities, read from the data source by chunks of the fetch size of
+   * the query configuration.
+   * @throws java.sql.SQLException on SQL error.
+   */
+  <R> Stream<R> stream(Connection connection, JdbcSqlQuery selectQuery,
+      SelectResultRowProcess<R> process) throws SQLException;
+
   /**
    * Modify query executor.
    * @param modifySqlQueries the list of SQL query to execute. An SQL query is represented by a
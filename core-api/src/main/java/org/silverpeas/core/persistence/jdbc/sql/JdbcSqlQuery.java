@@ -27,6 +27,7 @@ import org.apache.commons.lang3.ArrayUtils;
 import org.silverpeas.core.persistence.datasource.repository.PaginationCriterion;
 import org.silverpeas.core.util.CollectionUtil;
 import org.silverpeas.core.util.ListSlice;
+import org.silverpeas.kernel.SilverpeasRuntimeException;
 import org.silverpeas.kernel.util.StringUtil;
 
 import javax.annotation.Nonnull;
@@ -37,13 +38,16 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import static java.util.stream.Collectors.toMap;
 import static org.silverpeas.core.persistence.jdbc.sql.JdbcSqlExecutorProvider.getJdbcSqlExecutor;
@@ -453,6 +457,66 @@ public class JdbcSqlQuery {
     return this;
   }
 
+  /**
+   * Configures the query in order to retrieve the page of items that follows the given last item
+   * of the previous page (keyset pagination, also known as seek method).<br>
+   * Unlike {@link #withPagination(PaginationCriterion)}, the database doesn't skip the rows of the
+   * previous pages but seeks directly the first row after the last key, so the cost of a page
+   * doesn't depend on its depth. The ordering key must identify uniquely each row (append the
+   * primary key to it if necessary). The original size of the result isn't computed.<br>
+   * This method has to be called once all the conditions of the query are set; it adds the
+   * seeking condition, the {@code ORDER BY} clause on the ordering key and the result limit.
+   * @param lastKey the values of the ordering key of the last item of the previous page, in the
+   * order of the key columns. Null or empty to get the first page.
+   * @param count the maximum number of items in the page.
+   * @param orderingKey the columns of the ordering key. A column can be suffixed by {@code DESC}
+   * to order it in descending order.
+   * @return the instance of {@link JdbcSqlQuery} that represents the SQL query.
+   */
+  public JdbcSqlQuery seekAfter(final List<?> lastKey, final int count,
+      final String... orderingKey) {
+    if (orderingKey == null || orderingKey.length == 0) {
+      throw new IllegalArgumentException(
+          "cannot seek the next page because no ordering key ! query=" + sqlQuery);
+    }
+    if (CollectionUtil.isNotEmpty(lastKey)) {
+      if (lastKey.size() != orderingKey.length) {
+        throw new IllegalArgumentException(
+            "the last key doesn't match the ordering key ! query=" + sqlQuery);
+      }
+      final StringBuilder condition = new StringBuilder("(");
+      final List<Object> params = new ArrayList<>();
+      for (int i = 0; i < orderingKey.length; i++) {
+        condition.append(i == 0 ? "(" : " OR (");
+        for (int j = 0; j < i; j++) {
+          condition.append(keyColumn(orderingKey[j])).append(" = ? AND ");
+          params.add(lastKey.get(j));
+        }
+        condition.append(keyColumn(orderingKey[i]))
+            .append(isDescending(orderingKey[i]) ? " < ?)" : " > ?)");
+        params.add(lastKey.get(i));
+      }
+      condition.append(")");
+      if (SqlPagination.indexOfTopLevelKeyword(getSqlQuery(), "where") >= 0) {
+        and(condition.toString(), params);
+      } else {
+        where(condition.toString(), params);
+      }
+    }
+    orderBy(orderingKey);
+    limit(count);
+    this.configuration.ignoreRealOriginalSize();
+    return this;
+  }
+
+  private static String keyColumn(final String orderingColumn) {
+    return orderingColumn.trim().replaceFirst("(?i)\\s+(asc|desc)$", "");
+  }
+
+  private static boolean isDescending(final String orderingColumn) {
+    return orderingColumn.trim().toLowerCase(Locale.ROOT).endsWith(" desc");
+  }
+
   /**
    * Centralization in order to populate the prepare statement parameters.
    * @param sqlPart the SQL part that contains the parameter.
@@ -732,6 +796,39 @@ public class JdbcSqlQuery {
     return result;
   }
 
+  /**
+   * Lazy split executor. Unlike {@link #streamBySplittingOn(Collection, SplitListProcess)}, the
+   * process is executed on a split chunk of the discriminant data only when the stream reaches
+   * it, so only the result of one chunk is held in memory at a time. The first chunk is executed
+   * at once so that an error in the query is thrown as an {@link SQLException}; an SQL error
+   * raised by a next chunk is thrown as a {@link SilverpeasRuntimeException} while consuming the
+   * stream. Any resource used by the process, like a connection, has then to be kept opened
+   * until the stream is consumed.
+   * @param <I> the type of list of discriminant data.
+   * @param <T> the type of the entity into result.
+   * @param discriminantData a discriminant list of data.
+   * @return a stream between given discriminant identifiers and the corresponding data.
+   * @throws java.sql.SQLException on SQL error with the first chunk.
+   */
+  public static <I, T> Stream<T> lazilyStreamBySplittingOn(final Collection<I> discriminantData,
+      final SplitListProcess<I, List<T>> process) throws SQLException {
+    final Iterator<Collection<I>> chunks =
+        CollectionUtil.split(discriminantData, SPLIT_BATCH).iterator();
+    if (!chunks.hasNext()) {
+      return Stream.empty();
+    }
+    final List<T> first = process.execute(chunks.next());
+    final Iterable<Collection<I>> next = () -> chunks;
+    return Stream.concat(first.stream(),
+        StreamSupport.stream(next.spliterator(), false).flatMap(d -> {
+          try {
+            return process.execute(d).stream();
+          } catch (SQLException e) {
+            throw new SilverpeasRuntimeException(e);
+          }
+        }));
+  }
+
   /**
    * Split executor giving a result sorted exactly like the discriminantData parameter is sorted.
    * @param <I> the type of list of discriminant data.
@@ -780,6 +877,41 @@ public class JdbcSqlQuery {
     }
   }
 
+  /**
+   * Stream select executor. Unlike {@link #execute(SelectResultRowProcess)}, the entities aren't
+   * gathered into a list: they are read lazily from a forward-only cursor, by chunks of the fetch
+   * size set in the query configuration, as the stream is consumed. The stream holds its own
+   * connection to the data source until it is closed, so it has to be closed once consumed, for
+   * example with a try-with-resources statement. An SQL error occurring while consuming the
+   * stream is thrown as a {@link SilverpeasRuntimeException}.
+   * @param <R> the type of the items in the stream.
+   * @param process the process to execute on the ResultSet objects.
+   * @return a stream on the entities matching the query.
+   * @throws java.sql.SQLException on SQL error.
+   */
+  public <R> Stream<R> stream(SelectResultRowProcess<R> process) throws SQLException {
+    return streamWith(null, process);
+  }
+
+  /**
+   * Stream select executor using the given connection. The connection isn't closed with the
+   * stream but the statement is, so the stream has to be closed once consumed.
+   * @param <R> the type of the items in the stream.
+   * @param connection existing connection.
+   * @param process the process to execute on the ResultSet objects.
+   * @return a stream on the entities matching the query.
+   * @throws java.sql.SQLException on SQL error.
+   * @see #stream(SelectResultRowProcess)
+   */
+  public <R> Stream<R> streamWith(Connection connection, SelectResultRowProcess<R> process)
+      throws SQLException {
+    if (connection == null) {
+      return getJdbcSqlExecutor().stream(this, process);
+    } else {
+      return getJdbcSqlExecutor().stream(connection, this, process);
+    }
+  }
+
   /**
    * Select executor.
    * @param <R> the type of the entity.
@@ -855,6 +987,7 @@ public class JdbcSqlQuery {
   public static class Configuration {
     private int limit = 0;
     private int offset = 0;
+    private int fetchSize = 0;
     private boolean needRealOriginalSize = true;
 
     int getResultLimit() {
@@ -865,6 +998,10 @@ public class JdbcSqlQuery {
       return offset;
     }
 
+    int getFetchSize() {
+      return fetchSize;
+    }
+
     boolean isFirstResultScrolled() {
       return offset > 0;
     }
@@ -895,6 +1032,22 @@ public class JdbcSqlQuery {
       return this;
     }
 
+    /**
+     * Sets the number of rows to fetch at once from the database when the result of the query
+     * is streamed. If not set, the one defined by the {@code jdbc.stream.fetchSize} property in
+     * the general settings is taken.
+     * @param fetchSize a positive number of rows.
+     * @return itself.
+     */
+    @SuppressWarnings("UnusedReturnValue")
+    public Configuration withFetchSize(final int fetchSize) {
+      if (fetchSize < 0) {
+        throw new IllegalArgumentException("Invalid fetch size: expected positive value");
+      }
+      this.fetchSize = fetchSize;
+      return this;
+    }
+
     @SuppressWarnings("UnusedReturnValue")
     public Configuration ignoreRealOriginalSize() {
       this.needRealOriginalSize = false;
@@ -0,0 +1,78 @@
+/*
+ * Copyright (C) 2000 - 2024 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.persistence.jdbc.sql;
+
+import org.silverpeas.kernel.SilverpeasRuntimeException;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+
+/**
+ * A spliterator walking forward a {@link ResultSet}: each row is read from the database only when
+ * the next entity is asked, and it is transformed into an entity by a
+ * {@link SelectResultRowProcess}. As with the select executor, the rows for which the process
+ * returns null are skipped. Any SQL error while walking the result set is thrown as a
+ * {@link SilverpeasRuntimeException}.
+ * @param <R> the type of the entities.
+ * @author mmoquillon
+ */
+class ResultSetSpliterator<R> extends Spliterators.AbstractSpliterator<R> {
+
+  private final ResultSetWrapper rsw;
+  private final SelectResultRowProcess<R> process;
+  private int rowIndex;
+
+  /**
+   * Constructs a new spliterator over the specified result set.
+   * @param rs a result set, positioned before the first row to walk.
+   * @param process the processor of the result rows.
+   * @param startIndex the index of the first row to walk.
+   */
+  ResultSetSpliterator(final ResultSet rs, final SelectResultRowProcess<R> process,
+      final int startIndex) {
+    super(Long.MAX_VALUE, ORDERED | NONNULL);
+    this.rsw = new ResultSetWrapper(rs);
+    this.process = process;
+    this.rowIndex = startIndex;
+  }
+
+  @Override
+  public boolean tryAdvance(final Consumer<? super R> action) {
+    try {
+      while (rsw.next()) {
+        rsw.setCurrentRowIndex(rowIndex++);
+        final R entity = process.currentRow(rsw);
+        if (entity != null) {
+          action.accept(entity);
+          return true;
+        }
+      }
+      return false;
+    } catch (SQLException e) {
+      throw new SilverpeasRuntimeException(e);
+    }
+  }
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright (C) 2000 - 2024 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.persistence.jdbc.sql;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Locale;
+
+/**
+ * The different ways a database can be asked to paginate itself the result of a SELECT query,
+ * sparing the JDBC driver to transfer and to materialize all the rows preceding the asked page.
+ * The pagination clause is appended to the query with literal values as both the offset and the
+ * limit are integers computed by the query configuration.
+ * @author mmoquillon
+ */
+enum SqlPagination {
+
+  /**
+   * The {@code LIMIT n OFFSET m} clause supported by PostgreSQL and H2. Each part of the clause
+   * is optional.
+   */
+  LIMIT_OFFSET {
+    @Override
+    String paginate(final String sqlQuery, final int offset, final int limit) {
+      final StringBuilder query = new StringBuilder(sqlQuery);
+      if (limit > 0) {
+        query.append(" LIMIT ").append(limit);
+      }
+      if (offset > 0) {
+        query.append(" OFFSET ").append(offset);
+      }
+      return query.toString();
+    }
+  },
+
+  /**
+   * The {@code LIMIT n OFFSET m} clause supported by MySQL and MariaDB. Unlike with
+   * {@link #LIMIT_OFFSET}, the {@code OFFSET} part cannot be used without the {@code LIMIT} one:
+   * the limit is then the greatest number of rows these databases accept.
+   */
+  MYSQL_LIMIT_OFFSET {
+    @Override
+    String paginate(final String sqlQuery, final int offset, final int limit) {
+      if (limit > 0 || offset == 0) {
+        return LIMIT_OFFSET.paginate(sqlQuery, offset, limit);
+      }
+      return sqlQuery + " LIMIT " + MYSQL_MAX_ROWS + " OFFSET " + offset;
+    }
+  },
+
+  /**
+   * The SQL:2008 {@code OFFSET m ROWS FETCH NEXT n ROWS ONLY} clause supported by Oracle (12c and
+   * later) and MS SQL Server. The latter requires the query to be ordered.
+   */
+  OFFSET_FETCH {
+    @Override
+    String paginate(final String sqlQuery, final int offset, final int limit) {
+      final StringBuilder query = new StringBuilder(sqlQuery);
+      query.append(" OFFSET ").append(offset).append(" ROWS");
+      if (limit > 0) {
+        query.append(" FETCH NEXT ").append(limit).append(" ROWS ONLY");
+      }
+      return query.toString();
+    }
+
+    @Override
+    boolean isApplicableTo(final String sqlQuery) {
+      return super.isApplicableTo(sqlQuery) && indexOfTopLevelKeyword(sqlQuery, "order by") >= 0;
+    }
+  },
+
+  /**
+   * The database isn't known to support a pagination clause: the pagination is then performed
+   * by scrolling the result set.
+   */
+  NONE {
+    @Override
+    String paginate(final String sqlQuery, final int offset, final int limit) {
+      return sqlQuery;
+    }
+
+    @Override
+    boolean isApplicableTo(final String sqlQuery) {
+      return false;
+    }
+  };
+
+  /**
+   * The greatest number of rows MySQL and MariaDB can return, as documented by both of them to
+   * get all the rows from an offset.
+   */
+  private static final String MYSQL_MAX_ROWS = "18446744073709551615";
+
+  /**
+   * Gets the pagination supported by the database behind the specified connection.
+   * @param connection a connection to a database.
+   * @return the pagination supported by the database. {@link #NONE} if the database isn't known.
+   * @throws SQLException if the metadata of the database cannot be read.
+   */
+  static SqlPagination of(final Connection connection) throws SQLException {
+    final String product = connection.getMetaData().getDatabaseProductName();
+    if (product == null) {
+      return NONE;
+    }
+    final String name = product.toLowerCase(Locale.ROOT);
+    if (name.contains("postgresql") || name.startsWith("h2")) {
+      return LIMIT_OFFSET;
+    } else if (name.contains("mysql") || name.contains("mariadb")) {
+      return MYSQL_LIMIT_OFFSET;
+    } else if (name.contains("oracle") || name.contains("sql server")) {
+      return OFFSET_FETCH;
+    }
+    return NONE;
+  }
+
+  /**
+   * Appends to the specified SELECT query the clause asking the database to return only the rows
+   * of the given window.
+   * @param sqlQuery a SELECT query.
+   * @param offset the index of the first row to return.
+   * @param limit the maximum number of rows to return, 0 meaning no limit.
+   * @return the paginated SQL query.
+   */
+  abstract String paginate(final String sqlQuery, final int offset, final int limit);
+
+  /**
+   * Is this pagination can be applied to the specified SELECT query? The queries already
+   * paginated or locking the rows they select are left as is.
+   * @param sqlQuery a SELECT query.
+   * @return true if the pagination clause can be appended to the query, false otherwise.
+   */
+  boolean isApplicableTo(final String sqlQuery) {
+    return indexOfTopLevelKeyword(sqlQuery, "limit") < 0 &&
+        indexOfTopLevelKeyword(sqlQuery, "offset") < 0 &&
+        indexOfTopLevelKeyword(sqlQuery, "fetch") < 0 &&
+        indexOfTopLevelKeyword(sqlQuery, "for update") < 0;
+  }
+
+  /**
+   * Gets the index in the specified SQL query of the given keyword when it is used at the top
+   * level of the query, that is to say neither within parenthesis (sub-queries, function calls)
+   * nor within a literal string.
+   * @param sqlQuery a SQL query.
+   * @param keyword a keyword in lower case. The words it is made of must be separated by only one
+   * space.
+   * @return the index of the last occurrence of the keyword at the top level of the query or -1
+   * if there is no such occurrence.
+   */
+  static int indexOfTopLevelKeyword(final String sqlQuery, final String keyword) {
+    final String query = sqlQuery.toLowerCase(Locale.ROOT).replaceAll("\\s", " ");
+    int found = -1;
+    int depth = 0;
+    boolean inLiteral = false;
+    for (int i = 0; i < query.length(); i++) {
+      final char c = query.charAt(i);
+      if (c == '\'') {
+        inLiteral = !inLiteral;
+      } else if (!inLiteral && c == '(') {
+        depth++;
+      } else if (!inLiteral && c == ')') {
+        depth--;
+      } else if (!inLiteral && depth == 0 && query.startsWith(keyword, i) &&
+          isWordBoundary(query, i - 1) && isWordBoundary(query, i + keyword.length())) {
+        found = i;
+      }
+    }
+    return found;
+  }
+
+  private static boolean isWordBoundary(final String query, final int index) {
+    return index < 0 || index >= query.length() ||
+        !(Character.isLetterOrDigit(query.charAt(index)) || query.charAt(index) == '_');
+  }
+}
@@ -268,6 +268,22 @@ public class ManagedThreadPool {
     return futures;
   }
 
+  /**
+   * Creates a new executor service backed by the managed threads of the application server and
+   * configured according to the given configuration. Only the maximum size of the pool of threads
+   * is taken into account.
+   * <p>
+   * Contrary to the invocation methods above, the executor service isn't shutdown once the tasks
+   * submitted: it is aimed to be kept by the caller for a long time and then it is of the
+   * caller's responsibility to shut it down once it doesn't need it anymore.
+   * </p>
+   * @param config the configuration of thread execution.
+   * @return a new {@link ExecutorService} instance.
+   */
+  public ExecutorService newExecutorService(ExecutionConfig config) {
+    return getExecutorService(config);
+  }
+
   /**
    * Gets a new executor service according to the given configuration.
    * @param config the configuration of thread execution.
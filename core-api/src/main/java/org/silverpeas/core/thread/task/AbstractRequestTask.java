@@ -27,6 +27,8 @@ import org.silverpeas.kernel.SilverpeasException;
 import org.silverpeas.core.cache.service.CacheAccessorProvider;
 import org.silverpeas.kernel.logging.SilverLogger;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.Callable;
 
 /**
@@ -35,7 +37,8 @@ import java.util.concurrent.Callable;
  * When there is no more {@link Request} to perform, the task ends.<br>
  * When adding a new {@link Request} to perform, the request is added into a queue and the task
  * is started if it is not running.<br>
- * Requests are performed one after one.<br>
+ * Requests are performed one after one unless the task declares a parallelism greater than 1
+ * (see {@link #getParallelism()}).<br>
  * To add a request to process, use {@link RequestTaskManager#push(Class, Request)}
  * @param <C> the type of the context given to a {@link Request} processing.
  */
@@ -43,6 +46,9 @@ public abstract class AbstractRequestTask<C extends AbstractRequestTask.ProcessC
     implements Callable<Void> {
 
   private static final int NO_REQUEST_QUEUE_LIMIT = 0;
+  private static final long NO_REQUEST_QUEUE_MAX_LATENCY = 0;
+  private static final int DEFAULT_PARALLELISM = 1;
+  private static final int DEFAULT_BATCH_SIZE = 1;
   RequestTaskManager.RequestTaskMonitor<? extends AbstractRequestTask<?>, C> monitor = null;
 
   /**
@@ -59,6 +65,23 @@ public abstract class AbstractRequestTask<C extends AbstractRequestTask.ProcessC
     return NO_REQUEST_QUEUE_LIMIT;
   }
 
+  /**
+   * Gets the maximum time in milliseconds the requests should wait into the queue before being
+   * processed.
+   * <p>
+   * By default, there is none and the limit of the queue is fixed. A value greater than 0 makes
+   * the limit of the queue adaptive: it follows the rate at which the requests are processed so
+   * that the queued ones are processed within this time, the threads pushing new requests being
+   * blocked sooner when the processing slows down. The limit returned by
+   * {@link #getRequestQueueLimit()} is then its maximum value and the batch size times the
+   * parallelism its minimum one. It has no effect if the queue isn't limited.
+   * </p>
+   * @return the maximum latency of the requests in milliseconds or 0 for a fixed queue limit.
+   */
+  protected long getRequestQueueMaxLatency() {
+    return NO_REQUEST_QUEUE_MAX_LATENCY;
+  }
+
   /**
    * Gets the context given for each request to process.
    * @return the instance of process context.
@@ -67,32 +90,69 @@ public abstract class AbstractRequestTask<C extends AbstractRequestTask.ProcessC
     return null;
   }
 
+  /**
+   * Gets the number of requests this task can process at the same time.
+   * <p>
+   * By default, the requests are processed one after one. A value greater than 1 means the
+   * requests having a partition key (see {@link Request#getPartitionKey()}) are dispatched among
+   * as many partitions as the parallelism: the requests of a same partition are processed one
+   * after one in the order they were pushed whereas the requests of different partitions are
+   * processed in parallel. The requests without partition key are then processed alone once all
+   * the requests pushed before them have been processed.
+   * </p>
+   * @return the maximum number of requests processed at the same time.
+   */
+  protected int getParallelism() {
+    return DEFAULT_PARALLELISM;
+  }
+
+  /**
+   * Gets the maximum number of requests taken together from the queue to be processed as a batch
+   * by the {@link #processBatch(List)} method.
+   * <p>
+   * By default, the requests are taken one by one. With a parallelism greater than 1, a batch is
+   * made up of requests of a same partition, and a request without partition key is always
+   * processed alone.
+   * </p>
+   * @return the maximum size of a batch of requests.
+   */
+  protected int getBatchSize() {
+    return DEFAULT_BATCH_SIZE;
+  }
+
   /**
    * Process all the requests. This method should be private but is already declared public in the
    * base class Thread.
    */
   @Override
   public final Void call() throws Exception {
+    final int parallelism = getParallelism();
+    final RequestPartitions<C> partitions =
+        parallelism > 1 ? new RequestPartitions<>(parallelism, getBatchSize(),
+            monitor.statistics.partitions(parallelism), this::perform) : null;
     Request<C> currentRequest = nextRequest();
 
     // The loop condition must be verified on a private attribute of run method (not on the static
     // running attribute) in order to avoid concurrent access.
     while (currentRequest != null) {
-      CacheAccessorProvider.getThreadCacheAccessor().getCache().clear();
-
-      /*
-       * Each request is processed out of the synchronized block so the others threads (which put
-       * the requests) will not be blocked.
-       */
-      try {
-        monitor.releaseAccess();
-        processRequest(currentRequest);
-      } catch (Exception e) {
-        SilverLogger.getLogger(this).error(e);
+      final String partitionKey = partitions != null ? currentRequest.getPartitionKey() : null;
+      if (partitionKey != null) {
+        partitions.dispatch(partitionKey, currentRequest);
+      } else {
+        if (partitions != null) {
+          debug("waiting the end of the partitioned requests before processing a global one");
+          partitions.awaitCompletion();
+        }
+        perform(partitions != null ? List.of(currentRequest) : nextBatch(currentRequest));
       }
 
       // Getting the next request if any.
       currentRequest = nextRequest();
+      if (currentRequest == null && partitions != null) {
+        debug("no more request to dispatch, waiting the end of the partitioned requests");
+        partitions.awaitCompletion();
+        currentRequest = nextRequest();
+      }
       if (currentRequest == null) {
         // No more request, but waiting 500ms in case of a nearly new one.
         debug("no more request to process, waiting 500ms about new requests");
@@ -117,6 +177,35 @@ public abstract class AbstractRequestTask<C extends AbstractRequestTask.ProcessC
     return null;
   }
 
+  /**
+   * Performs the given requests taken from the queue.
+   * <p>
+   * The requests are processed out of any synchronized block so the others threads (which put the
+   * requests) will not be blocked.
+   * </p>
+   * @param requests the requests to perform.
+   */
+  private void perform(final List<Request<C>> requests) {
+    CacheAccessorProvider.getThreadCacheAccessor().getCache().clear();
+    final long start = System.currentTimeMillis();
+    boolean failed = true;
+    try {
+      requests.forEach(r -> monitor.releaseAccess());
+      if (requests.size() == 1) {
+        processRequest(requests.get(0));
+      } else {
+        processBatch(requests);
+      }
+      failed = false;
+    } catch (Exception e) {
+      SilverLogger.getLogger(this).error(e);
+    } finally {
+      final long duration = System.currentTimeMillis() - start;
+      monitor.statistics.requestsProcessed(requests.size(), duration, failed);
+      monitor.requestsProcessed(requests.size(), duration);
+    }
+  }
+
   /**
    * Processes the given request.<br>
    * Useful for a task which needs to perform some stuffs around the process.
@@ -136,6 +225,25 @@ public abstract class AbstractRequestTask<C extends AbstractRequestTask.ProcessC
     }
   }
 
+  /**
+   * Processes the given batch of requests, in the order they were pushed.<br>
+   * By default, each request is processed by the {@link #processRequest(Request)} method. A task
+   * declaring a batch size greater than 1 (see {@link #getBatchSize()}) should override this
+   * method to apply the requests together in a cheaper way.
+   * @param requests the requests to process.
+   * @throws SilverpeasException on error.
+   */
+  protected void processBatch(final List<Request<C>> requests) throws SilverpeasException {
+    debug("processing a batch of {0} requests", requests.size());
+    for (Request<C> request : requests) {
+      try {
+        processRequest(request);
+      } catch (Exception e) {
+        SilverLogger.getLogger(this).error(e);
+      }
+    }
+  }
+
   /**
    * Invoked when it does not exist {@link Request} to process anymore.
    * Is is called in any case, even if a severe error has been thrown.
@@ -148,16 +256,29 @@ public abstract class AbstractRequestTask<C extends AbstractRequestTask.ProcessC
    * @return the next request.
    */
   private Request<C> nextRequest() {
-    synchronized (monitor.requestList) {
-      debug("checking the next request to process");
-      final Request<C> nextRequest;
-      if (!monitor.requestList.isEmpty()) {
-        nextRequest = monitor.requestList.remove(0);
-      } else {
-        nextRequest = null;
-      }
-      return nextRequest;
+    debug("checking the next request to process");
+    return monitor.nextRequest();
+  }
+
+  /**
+   * Gets the batch of requests starting with the given one, completed with the next requests
+   * awaiting into the queue, up to the batch size.
+   * @param first the first request of the batch.
+   * @return the batch of requests to process.
+   */
+  private List<Request<C>> nextBatch(final Request<C> first) {
+    final int batchSize = getBatchSize();
+    if (batchSize <= 1) {
+      return List.of(first);
+    }
+    final List<Request<C>> batch = new ArrayList<>(batchSize);
+    batch.add(first);
+    Request<C> request = batch.size() < batchSize ? monitor.nextRequest() : null;
+    while (request != null) {
+      batch.add(request);
+      request = batch.size() < batchSize ? monitor.nextRequest() : null;
     }
+    return batch;
   }
 
   private void debug(String message, Object... parameters) {
@@ -186,6 +307,22 @@ public abstract class AbstractRequestTask<C extends AbstractRequestTask.ProcessC
       return null;
     }
 
+    /**
+     * Gets the key of the partition of this request. It is taken into account only by the tasks
+     * declaring a parallelism greater than 1 (see {@link AbstractRequestTask#getParallelism()}).
+     * <p>
+     * The requests sharing a same partition key are processed one after one in the order they
+     * were pushed, whereas the requests with different partition keys can be processed in
+     * parallel. A request without partition key is processed alone, once all the requests pushed
+     * before it have been processed.
+     * </p>
+     * @return the key of the partition of the request or null if the request has to be processed
+     * alone.
+     */
+    default String getPartitionKey() {
+      return null;
+    }
+
     /**
      * Process the request according to the given context.
      * @param context the context of the process.
@@ -0,0 +1,206 @@
+/*
+ * Copyright (C) 2000 - 2024 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception. You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "http://www.silverpeas.org/docs/core/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.silverpeas.core.thread.task;
+
+import org.silverpeas.core.thread.ManagedThreadPool;
+import org.silverpeas.core.thread.task.AbstractRequestTask.Request;
+import org.silverpeas.core.thread.task.RequestTaskStatistics.PartitionStatistics;
+import org.silverpeas.kernel.logging.SilverLogger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * The partitions among which the requests taken by an {@link AbstractRequestTask} declaring a
+ * parallelism greater than 1 are dispatched according to their partition key (see
+ * {@link Request#getPartitionKey()}).
+ * <p>
+ * Each partition is a FIFO lane drained, by batches, by at most one thread of the
+ * {@link ManagedThreadPool} at a time: the requests sharing a same partition key are then processed one after one in the
+ * order they were dispatched whereas the requests of the different partitions are processed in
+ * parallel.
+ * </p>
+ * @param <C> the type of the context given to a {@link Request} processing.
+ * @author mmoquillon
+ */
+class RequestPartitions<C extends AbstractRequestTask.ProcessContext> {
+
+  private final Lane[] lanes;
+  private final int batchSize;
+  private final Consumer<List<Request<C>>> processor;
+  private final AtomicInteger pending = new AtomicInteger(0);
+
+  /**
+   * Constructs the partitions for the specified parallelism.
+   * @param parallelism the number of partitions, so the maximum number of requests processed at
+   * the same time.
+   * @param batchSize the maximum number of requests of a partition taken together to be processed.
+   * @param statistics the statistics of each partition, in the order of the partitions.
+   * @param processor the processor of a batch of requests. It is invoked within the thread
+   * draining the partition of the requests.
+   */
+  @SuppressWarnings("unchecked")
+  RequestPartitions(final int parallelism, final int batchSize,
+      final List<PartitionStatistics> statistics, final Consumer<List<Request<C>>> processor) {
+    this.batchSize = Math.max(1, batchSize);
+    this.processor = processor;
+    this.lanes = new RequestPartitions.Lane[parallelism];
+    for (int i = 0; i < parallelism; i++) {
+      lanes[i] = new Lane(statistics.get(i));
+    }
+  }
+
+  /**
+   * Dispatches the given request into the partition of the specified key and starts a thread to
+   * drain this partition if none is yet doing it.
+   * @param partitionKey the key of the partition.
+   * @param request the request to process.
+   */
+  void dispatch(final String partitionKey, final Request<C> request) {
+    final Lane lane = lanes[Math.floorMod(partitionKey.hashCode(), lanes.length)];
+    pending.incrementAndGet();
+    lane.statistics.requestDispatched();
+    lane.requests.add(new Dispatched<>(request));
+    lane.drainIfNecessary();
+  }
+
+  /**
+   * Waits for all the dispatched requests to be processed.
+   * @throws InterruptedException if the current thread is interrupted while waiting.
+   */
+  void awaitCompletion() throws InterruptedException {
+    synchronized (pending) {
+      while (pending.get() > 0) {
+        pending.wait();
+      }
+    }
+  }
+
+  private void processed(final int nbRequests) {
+    if (pending.addAndGet(-nbRequests) == 0) {
+      synchronized (pending) {
+        pending.notifyAll();
+      }
+    }
+  }
+
+  private class Lane {
+    private final Queue<Dispatched<C>> requests = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean draining = new AtomicBoolean(false);
+    private final PartitionStatistics statistics;
+
+    private Lane(final PartitionStatistics statistics) {
+      this.statistics = statistics;
+    }
+
+    private void drainIfNecessary() {
+      if (!requests.isEmpty() && draining.compareAndSet(false, true)) {
+        try {
+          ManagedThreadPool.getPool().invoke(this::drain);
+        } catch (InterruptedException e) {
+          SilverLogger.getLogger("silverpeas.core.thread").error(e);
+          Thread.currentThread().interrupt();
+          discard();
+        } catch (RuntimeException e) {
+          // no thread can be supplied (pool saturated or shutting down): drained by the caller
+          SilverLogger.getLogger("silverpeas.core.thread")
+              .warn("Partition {0} drained in the current thread: {1}", statistics.getIndex(),
+                  e.getMessage());
+          drain();
+        }
+      }
+    }
+
+    /**
+     * Removes the requests awaiting in this lane without processing them so that nobody waits
+     * for them.
+     */
+    private void discard() {
+      try {
+        List<Dispatched<C>> batch = nextBatch();
+        while (!batch.isEmpty()) {
+          SilverLogger.getLogger("silverpeas.core.thread")
+              .warn("{0} requests of partition {1} discarded", batch.size(),
+                  statistics.getIndex());
+          batch.forEach(d -> statistics.requestProcessed(d.dispatchedAt));
+          processed(batch.size());
+          batch = nextBatch();
+        }
+      } finally {
+        draining.set(false);
+        drainIfNecessary();
+      }
+    }
+
+    private Void drain() {
+      try {
+        List<Dispatched<C>> batch = nextBatch();
+        while (!batch.isEmpty()) {
+          try {
+            processor.accept(batch.stream().map(d -> d.request).collect(Collectors.toList()));
+          } finally {
+            batch.forEach(d -> statistics.requestProcessed(d.dispatchedAt));
+            processed(batch.size());
+          }
+          batch = nextBatch();
+        }
+      } finally {
+        // a request can be dispatched between the last poll and the end of the draining
+        draining.set(false);
+        drainIfNecessary();
+      }
+      return null;
+    }
+
+    private List<Dispatched<C>> nextBatch() {
+      final List<Dispatched<C>> batch = new ArrayList<>();
+      Dispatched<C> request = requests.poll();
+      while (request != null) {
+        batch.add(request);
+        request = batch.size() < batchSize ? requests.poll() : null;
+      }
+      statistics.requestsTaken(batch.size());
+      return batch;
+    }
+  }
+
+  /**
+   * A request dispatched into a partition with the time at which it was dispatched.
+   */
+  private static class Dispatched<C extends AbstractRequestTask.ProcessContext> {
+    private final Request<C> request;
+    private final long dispatchedAt = System.nanoTime();
+
+    private Dispatched(final Request<C> request) {
+      this.request = request;
+    }
+  }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright (C) 2000 - 2024 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception. You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "http://www.silverpeas.org/docs/core/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.silverpeas.core.thread.task;
+
+import org.silverpeas.core.thread.task.AbstractRequestTask.Request;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The queue of the requests awaiting to be processed by an {@link AbstractRequestTask}.
+ * <p>
+ * The queue is a non-blocking FIFO one that can be fed and consumed concurrently by several
+ * threads. The awaiting requests having a replacement identifier (see
+ * {@link Request#getReplacementId()}) are indexed by this identifier so that a new request with
+ * the same identifier replaces the awaiting one in constant time, keeping its place in the queue.
+ * </p>
+ * @param <C> the type of the context given to a {@link Request} processing.
+ * @author mmoquillon
+ */
+class RequestQueue<C extends AbstractRequestTask.ProcessContext> {
+
+  private final Queue<Slot<C>> slots = new ConcurrentLinkedQueue<>();
+  private final ConcurrentMap<String, Slot<C>> awaitingByReplacementId = new ConcurrentHashMap<>();
+  private final AtomicInteger size = new AtomicInteger(0);
+
+  /**
+   * Adds the given request at the tail of the queue. If the request has a replacement identifier
+   * and if a request with the same identifier is yet awaiting into the queue, then this one is
+   * replaced by the given request.
+   * @param request the request to add.
+   * @return true if the request has been added at the tail of the queue, false if it has replaced
+   * an awaiting one.
+   */
+  boolean add(final Request<C> request) {
+    final String replacementId = request.getReplacementId();
+    if (replacementId == null) {
+      enqueue(new Slot<>(request, null));
+      return true;
+    }
+    final boolean[] added = {false};
+    awaitingByReplacementId.compute(replacementId, (id, awaiting) -> {
+      if (awaiting != null && awaiting.replace(request)) {
+        return awaiting;
+      }
+      final Slot<C> slot = new Slot<>(request, id);
+      enqueue(slot);
+      added[0] = true;
+      return slot;
+    });
+    return added[0];
+  }
+
+  /**
+   * Retrieves and removes the request at the head of the queue.
+   * @return the slot of the next request to process or null if the queue is empty.
+   */
+  Slot<C> poll() {
+    Slot<C> slot = slots.poll();
+    while (slot != null) {
+      if (slot.take()) {
+        size.decrementAndGet();
+        if (slot.replacementId != null) {
+          awaitingByReplacementId.remove(slot.replacementId, slot);
+        }
+        return slot;
+      }
+      slot = slots.poll();
+    }
+    return null;
+  }
+
+  /**
+   * Gets the number of awaiting requests. Unlike {@link ConcurrentLinkedQueue#size()}, this
+   * method is performed in constant time.
+   * @return the number of requests into the queue.
+   */
+  int size() {
+    return size.get();
+  }
+
+  boolean isEmpty() {
+    return size() == 0;
+  }
+
+  private void enqueue(final Slot<C> slot) {
+    size.incrementAndGet();
+    slots.add(slot);
+  }
+
+  /**
+   * A place into the queue of a request. The request of a slot can be replaced as long as it
+   * isn't taken by a consumer.
+   * @param <C> the type of the context given to a {@link Request} processing.
+   */
+  static class Slot<C extends AbstractRequestTask.ProcessContext> {
+    private final AtomicReference<Request<C>> request;
+    private final String replacementId;
+    private final long queuedAt = System.nanoTime();
+    private Request<C> taken = null;
+
+    private Slot(final Request<C> request, final String replacementId) {
+      this.request = new AtomicReference<>(request);
+      this.replacementId = replacementId;
+    }
+
+    private boolean replace(final Request<C> newRequest) {
+      final Request<C> current = request.get();
+      return current != null && request.compareAndSet(current, newRequest);
+    }
+
+    private boolean take() {
+      taken = request.getAndSet(null);
+      return taken != null;
+    }
+
+    /**
+     * Gets the request of this slot. It has to be called only by the consumer that took it.
+     * @return the request to process.
+     */
+    Request<C> getRequest() {
+      return taken;
+    }
+
+    /**
+     * Gets the time in nanoseconds at which the slot was queued (see {@link System#nanoTime()}).
+     * A replaced request keeps the time of the request it replaces as it keeps its place.
+     * @return the time at which the slot has been queued.
+     */
+    long getQueuedAt() {
+      return queuedAt;
+    }
+  }
+}
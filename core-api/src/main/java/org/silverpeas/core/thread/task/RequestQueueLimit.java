@@ -0,0 +1,157 @@
+/*
+ * Copyright (C) 2000 - 2024 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception. You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "http://www.silverpeas.org/docs/core/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.thread.task;
+
+import java.util.concurrent.Semaphore;
+
+/**
+ * The limit of the number of requests pushed to an {@link AbstractRequestTask} and not yet
+ * processed. Above it, the threads pushing new requests are blocked until some requests are
+ * processed.
+ * <p>
+ * The limit is either fixed or adaptive. An adaptive limit follows the drain rate of the requests,
+ * measured at the end of each processing, so that the requests in the queue can be processed
+ * within a maximum latency: the slower the processing, the sooner the pushing threads are
+ * blocked. It is kept between the number of requests the partitions can take at once (the batch
+ * size times the parallelism) and the limit of the queue declared by the task.
+ * </p>
+ * @author mmoquillon
+ */
+class RequestQueueLimit {
+
+  /**
+   * Weight of the last measure in the moving average of the drain rate.
+   */
+  private static final double SMOOTHING_FACTOR = 0.2;
+
+  private final ResizableSemaphore permits;
+  private final int minLimit;
+  private final int maxLimit;
+  private final long maxLatency;
+  private final int parallelism;
+  private int limit;
+  private double drainRate = -1;
+
+  /**
+   * Constructs a fixed limit.
+   * @param limit the maximum number of requests pushed and not yet processed.
+   */
+  RequestQueueLimit(final int limit) {
+    this(limit, limit, 0, 1);
+  }
+
+  /**
+   * Constructs an adaptive limit. It starts at its maximum value, until the drain rate of the
+   * requests is measured.
+   * @param minLimit the minimum value of the limit.
+   * @param maxLimit the maximum value of the limit.
+   * @param maxLatency the maximum time in milliseconds the queued requests should wait. 0 for a
+   * fixed limit.
+   * @param parallelism the number of requests processed at the same time.
+   */
+  RequestQueueLimit(final int minLimit, final int maxLimit, final long maxLatency,
+      final int parallelism) {
+    this.maxLimit = Math.max(1, maxLimit);
+    this.minLimit = Math.max(1, Math.min(minLimit, this.maxLimit));
+    this.maxLatency = maxLatency;
+    this.parallelism = Math.max(1, parallelism);
+    this.limit = this.maxLimit;
+    this.permits = new ResizableSemaphore(this.limit);
+  }
+
+  /**
+   * Acquires a place for a new request, blocking until one is available.
+   * @throws InterruptedException if the current thread is interrupted while waiting.
+   */
+  void acquire() throws InterruptedException {
+    permits.acquire();
+  }
+
+  /**
+   * Releases the place of a request.
+   */
+  void release() {
+    permits.release();
+  }
+
+  /**
+   * Gets the number of places currently available. It can be negative after a shrinking of the
+   * limit, while the requests above the new limit aren't yet processed.
+   * @return the number of available places.
+   */
+  int availablePermits() {
+    return permits.availablePermits();
+  }
+
+  /**
+   * Gets the current value of the limit.
+   * @return the maximum number of requests pushed and not yet processed.
+   */
+  synchronized int getLimit() {
+    return limit;
+  }
+
+  /**
+   * Informs the given number of requests has been processed in the given time. If the limit is
+   * adaptive, it is then adjusted to the drain rate of the requests. As the requests of the
+   * different partitions are processed in parallel, the drain rate is the one of a partition times
+   * the parallelism.
+   * @param nbRequests the number of processed requests.
+   * @param durationInMs the time taken by their processing in milliseconds.
+   */
+  void requestsProcessed(final int nbRequests, final long durationInMs) {
+    if (maxLatency <= 0 || nbRequests <= 0) {
+      return;
+    }
+    final double rate = nbRequests * 1000.0 * parallelism / Math.max(1, durationInMs);
+    synchronized (this) {
+      drainRate = drainRate < 0 ? rate :
+          SMOOTHING_FACTOR * rate + (1 - SMOOTHING_FACTOR) * drainRate;
+      final long target = (long) (drainRate * maxLatency / 1000.0);
+      final int newLimit = (int) Math.max(minLimit, Math.min(maxLimit, target));
+      if (newLimit > limit) {
+        permits.release(newLimit - limit);
+      } else if (newLimit < limit) {
+        permits.reducePermits(limit - newLimit);
+      }
+      limit = newLimit;
+    }
+  }
+
+  /**
+   * A semaphore whose number of permits can be reduced without blocking.
+   */
+  private static class ResizableSemaphore extends Semaphore {
+    private static final long serialVersionUID = 1L;
+
+    ResizableSemaphore(final int permits) {
+      super(permits, true);
+    }
+
+    @Override
+    protected void reducePermits(final int reduction) {
+      super.reducePermits(reduction);
+    }
+  }
+}
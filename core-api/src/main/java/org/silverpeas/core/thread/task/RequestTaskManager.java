@@ -35,16 +35,15 @@ import org.silverpeas.kernel.logging.SilverLogger;
 
 import javax.annotation.PreDestroy;
 import javax.inject.Singleton;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.ListIterator;
+import java.util.Optional;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
-import java.util.concurrent.Semaphore;
+import java.util.stream.Collectors;
 
 /**
  * This manager handles the threading side of {@link AbstractRequestTask} processing.
@@ -151,12 +150,15 @@ public class RequestTaskManager {
 
   /**
    * This method is the only entry point to add a request to process.
-   * <p>There is three synchronized steps performed into this method:</p>
+   * <p>There is three steps performed into this method:</p>
    * <ul><li>first, starting the consummation task if exists at least one request into the queue and
    * if the task is not running</li>
    * <li>then, acquiring a semaphore access if the queue size is limited</li>
-   * <li>finally, adding the request into the queue and starting the task if it is not running</li>
+   * <li>finally, adding the request into the queue, or replacing in constant time the awaiting
+   * one with the same replacement identifier, and starting the task if it is not running</li>
    * </ul>
+   * <p>Only the first and the last steps are synchronized on the task lifecycle: the queue is
+   * a non-blocking one shared by the pushing threads and the consuming ones.</p>
    * @param taskClass the class of the {@link AbstractRequestTask} implementation which provides
    * the
    * {@link AbstractRequestTask.Request}.
@@ -172,41 +174,44 @@ public class RequestTaskManager {
           T taskForInit = (T) ServiceProvider.getService(c);
           return new RequestTaskMonitor<>(taskForInit);
         });
-    synchronized (monitor.requestList) {
+    synchronized (monitor) {
       restartIfNecessary(monitor);
     }
     monitor.acquireAccess();
-    synchronized (monitor.requestList) {
-      debug(taskClass, "pushing new request {0} ({1} requests queued before push)",
-          newRequest.getClass().getSimpleName(), monitor.requestList.size());
-      final String uniqueType = newRequest.getReplacementId();
-      boolean replaced = false;
-      if (uniqueType != null) {
-        debug(taskClass, "searching awaiting request {0} of type {1} to replace",
-            newRequest.getClass().getSimpleName(), uniqueType);
-        final ListIterator<Request<C>> it = monitor.requestList.listIterator();
-        while (it.hasNext()) {
-          final Request<C> queueRequest = it.next();
-          if (uniqueType.equals(queueRequest.getReplacementId())) {
-            debug(taskClass, "replacing awaiting request {0} of type {1} with new one",
-                newRequest.getClass().getSimpleName(), uniqueType);
-            it.set(newRequest);
-            replaced = true;
-            break;
-          }
-        }
-        if (!replaced) {
-          debug(taskClass, "no awaiting request {0} of type {1} to replace",
-              newRequest.getClass().getSimpleName(), uniqueType);
-        }
-      }
-      if (!replaced) {
-        monitor.requestList.add(newRequest);
-      }
+    debug(taskClass, "pushing new request {0} ({1} requests queued before push)",
+        newRequest.getClass().getSimpleName(), monitor.requestList.size());
+    final boolean added = monitor.requestList.add(newRequest);
+    if (!added) {
+      debug(taskClass, "awaiting request {0} of type {1} replaced with new one",
+          newRequest.getClass().getSimpleName(), newRequest.getReplacementId());
+      // the replaced request doesn't occupy anymore a place into the queue
+      monitor.releaseAccess();
+    }
+    monitor.statistics.requestPushed(!added);
+    synchronized (monitor) {
       startIfNecessary(monitor);
     }
   }
 
+  /**
+   * Gets the statistics about the processing of the requests pushed to the specified task.
+   * @param taskClass the class of the {@link AbstractRequestTask} implementation.
+   * @return optionally the statistics of the task, none if no request has been yet pushed to it.
+   */
+  public Optional<RequestTaskStatistics> getStatistics(
+      Class<? extends AbstractRequestTask<?>> taskClass) {
+    return Optional.ofNullable(tasks.get(taskClass)).map(m -> m.statistics);
+  }
+
+  /**
+   * Gets the statistics about the processing of the requests of all the tasks to which some
+   * requests have been pushed.
+   * @return a list of statistics, one per task.
+   */
+  public List<RequestTaskStatistics> getAllStatistics() {
+    return tasks.values().stream().map(m -> m.statistics).collect(Collectors.toList());
+  }
+
   @PreDestroy
   protected void shutdownAllTasks() {
     tasks.forEach((t, m) -> m.shutdown());
@@ -248,7 +253,7 @@ public class RequestTaskManager {
         error(this.monitor.taskClass, e);
         Thread.currentThread().interrupt();
       }
-      synchronized (monitor.requestList) {
+      synchronized (monitor) {
         debug(this.monitor.taskClass, "task watcher - watched " +
             (endedOnError ? "task has been terminated on error" : "task ended without error"));
         if (!restartIfNecessary(this.monitor) && !this.monitor.isTaskRunning()) {
@@ -269,8 +274,9 @@ public class RequestTaskManager {
   class RequestTaskMonitor<T extends AbstractRequestTask<C>, C extends AbstractRequestTask
       .ProcessContext> {
     final Class<T> taskClass;
-    final List<Request<C>> requestList;
-    private final Semaphore queueSemaphore;
+    final RequestQueue<C> requestList;
+    final RequestTaskStatistics statistics;
+    private final RequestQueueLimit queueLimit;
     Future<Void> task = null;
     Future<Void> taskWatcher = null;
 
@@ -279,10 +285,33 @@ public class RequestTaskManager {
      */
     @SuppressWarnings("unchecked")
     RequestTaskMonitor(final T taskForInit) {
-      final int queueLimit = taskForInit.getRequestQueueLimit();
-      this.queueSemaphore = queueLimit > 0 ? new Semaphore(queueLimit, true) : null;
-      this.requestList = queueLimit > 0 ? new ArrayList<>(queueLimit) : new ArrayList<>();
+      final int limit = taskForInit.getRequestQueueLimit();
+      final long maxLatency = taskForInit.getRequestQueueMaxLatency();
+      if (limit <= 0) {
+        this.queueLimit = null;
+      } else if (maxLatency <= 0) {
+        this.queueLimit = new RequestQueueLimit(limit);
+      } else {
+        final int parallelism = Math.max(1, taskForInit.getParallelism());
+        this.queueLimit = new RequestQueueLimit(
+            Math.max(1, taskForInit.getBatchSize()) * parallelism, limit, maxLatency, parallelism);
+      }
+      this.requestList = new RequestQueue<>();
       this.taskClass = (Class<T>) taskForInit.getClass();
+      this.statistics = new RequestTaskStatistics(taskClass, requestList);
+    }
+
+    /**
+     * Takes the next request to process from the queue.
+     * @return the next request or null if the queue is empty.
+     */
+    Request<C> nextRequest() {
+      final RequestQueue.Slot<C> slot = requestList.poll();
+      if (slot == null) {
+        return null;
+      }
+      statistics.requestTaken(slot.getQueuedAt());
+      return slot.getRequest();
     }
 
     boolean isTaskRunning() {
@@ -300,11 +329,11 @@ public class RequestTaskManager {
     }
 
     void acquireAccess() {
-      if (queueSemaphore != null) {
+      if (queueLimit != null) {
         try {
           debug(taskClass, "acquiring queue semaphore ({0} available permits before acquire)",
-              queueSemaphore.availablePermits());
-          queueSemaphore.acquire();
+              queueLimit.availablePermits());
+          queueLimit.acquire();
         } catch (InterruptedException e) {
           error(taskClass, "not possible to acquire semaphore");
           Thread.currentThread().interrupt();
@@ -314,11 +343,23 @@ public class RequestTaskManager {
     }
 
     void releaseAccess() {
-      if (queueSemaphore != null) {
+      if (queueLimit != null) {
         debug(taskClass,
             "consumer thread - releasing queue semaphore ({0} available permits before release)",
-            queueSemaphore.availablePermits());
-        queueSemaphore.release();
+            queueLimit.availablePermits());
+        queueLimit.release();
+      }
+    }
+
+    /**
+     * Informs the given number of requests has been processed in the given time so that an
+     * adaptive queue limit follows the drain rate of the requests.
+     * @param nbRequests the number of processed requests.
+     * @param durationInMs the time taken by their processing in milliseconds.
+     */
+    void requestsProcessed(final int nbRequests, final long durationInMs) {
+      if (queueLimit != null) {
+        queueLimit.requestsProcessed(nbRequests, durationInMs);
       }
     }
   }
@@ -0,0 +1,245 @@
+/*
+ * Copyright (C) 2000 - 2024 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception. You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "http://www.silverpeas.org/docs/core/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.silverpeas.core.thread.task;
+
+import org.silverpeas.core.util.ExecutionStatistics;
+
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Statistics about the processing of the requests pushed to a given {@link AbstractRequestTask}:
+ * the current depth of its queue, the number of pushed and replaced requests, the time the
+ * requests wait into the queue, the time they take to be processed and the throughput of the task.
+ * For a task processing its requests in parallel partitions, the statistics of each partition are
+ * also given.
+ * <p>
+ * The statistics are thread-safe and recording them doesn't block the producers and the consumers
+ * of the requests.
+ * </p>
+ * @author mmoquillon
+ */
+public class RequestTaskStatistics {
+
+  private final Class<?> taskClass;
+  private final RequestQueue<?> queue;
+  private final long since = System.nanoTime();
+  private final LongAdder pushed = new LongAdder();
+  private final LongAdder replaced = new LongAdder();
+  private final ExecutionStatistics waiting;
+  private final ExecutionStatistics processing;
+  private volatile List<PartitionStatistics> partitions = Collections.emptyList();
+
+  RequestTaskStatistics(final Class<?> taskClass, final RequestQueue<?> queue) {
+    this.taskClass = taskClass;
+    this.queue = queue;
+    this.waiting = new ExecutionStatistics(taskClass.getSimpleName() + " waiting");
+    this.processing = new ExecutionStatistics(taskClass.getSimpleName() + " processing");
+  }
+
+  void requestPushed(final boolean replacing) {
+    pushed.increment();
+    if (replacing) {
+      replaced.increment();
+    }
+  }
+
+  void requestTaken(final long queuedAtInNanos) {
+    waiting.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - queuedAtInNanos));
+  }
+
+  void requestsProcessed(final int nbRequests, final long durationInMs, final boolean failed) {
+    for (int i = 0; i < nbRequests; i++) {
+      if (failed) {
+        processing.recordFailure();
+      } else {
+        processing.record(durationInMs / nbRequests);
+      }
+    }
+  }
+
+  /**
+   * Gets the statistics of the given number of partitions, creating them if they don't exist yet.
+   * @param parallelism the number of partitions.
+   * @return the statistics of each partition.
+   */
+  synchronized List<PartitionStatistics> partitions(final int parallelism) {
+    if (partitions.size() != parallelism) {
+      final List<PartitionStatistics> newPartitions = new ArrayList<>(parallelism);
+      for (int i = 0; i < parallelism; i++) {
+        newPartitions.add(new PartitionStatistics(i));
+      }
+      partitions = Collections.unmodifiableList(newPartitions);
+    }
+    return partitions;
+  }
+
+  /**
+   * Gets the class of the task these statistics are about.
+   * @return the class of an {@link AbstractRequestTask} implementation.
+   */
+  public Class<?> getTaskClass() {
+    return taskClass;
+  }
+
+  /**
+   * Gets the number of requests currently awaiting into the queue of the task.
+   * @return the depth of the queue.
+   */
+  public int getQueueDepth() {
+    return queue.size();
+  }
+
+  /**
+   * Gets the number of requests pushed to the task, the ones replacing an awaiting request
+   * included.
+   * @return the number of pushed requests.
+   */
+  public long getPushedCount() {
+    return pushed.sum();
+  }
+
+  /**
+   * Gets the number of pushed requests that have replaced an awaiting one into the queue.
+   * @return the number of replacements.
+   */
+  public long getReplacedCount() {
+    return replaced.sum();
+  }
+
+  /**
+   * Gets the statistics about the time in milliseconds the requests waited into the queue before
+   * being taken by a consumer.
+   * @return the statistics about the waiting of the requests.
+   */
+  public ExecutionStatistics getWaitingStatistics() {
+    return waiting;
+  }
+
+  /**
+   * Gets the statistics about the time in milliseconds taken by the processing of the requests.
+   * The time taken by a batch of requests is shared out among its requests.
+   * @return the statistics about the processing of the requests.
+   */
+  public ExecutionStatistics getProcessingStatistics() {
+    return processing;
+  }
+
+  /**
+   * Gets the mean number of requests processed per second since the first request was pushed to
+   * the task.
+   * @return the throughput of the task in requests per second.
+   */
+  public double getThroughput() {
+    final double elapsedInSeconds = (System.nanoTime() - since) / 1e9;
+    final long processed = processing.getCount() + processing.getFailureCount();
+    return elapsedInSeconds <= 0 ? 0 : processed / elapsedInSeconds;
+  }
+
+  /**
+   * Gets the statistics of each partition among which the requests are dispatched when the task
+   * processes them in parallel (see {@link AbstractRequestTask#getParallelism()}).
+   * @return the statistics of the partitions. Empty if the requests aren't processed in parallel.
+   */
+  public List<PartitionStatistics> getPartitionStatistics() {
+    return partitions;
+  }
+
+  @Override
+  public String toString() {
+    final String global = MessageFormat.format(
+        "{0}: {1} queued, {2} pushed ({3} replaced), {4} req/s, [{5}], [{6}]",
+        taskClass.getSimpleName(), getQueueDepth(), getPushedCount(), getReplacedCount(),
+        String.format("%.2f", getThroughput()), waiting, processing);
+    final List<PartitionStatistics> current = partitions;
+    return current.isEmpty() ? global : global + ", partitions: " +
+        current.stream().map(PartitionStatistics::toString).collect(Collectors.joining(", "));
+  }
+
+  /**
+   * Statistics about one partition of requests: the number of requests awaiting in it and the
+   * latency of its requests, that is to say the time between their dispatching into the partition
+   * and the end of their processing.
+   */
+  public static class PartitionStatistics {
+
+    private final int index;
+    private final AtomicInteger depth = new AtomicInteger(0);
+    private final ExecutionStatistics latency;
+
+    PartitionStatistics(final int index) {
+      this.index = index;
+      this.latency = new ExecutionStatistics("partition " + index + " latency");
+    }
+
+    void requestDispatched() {
+      depth.incrementAndGet();
+    }
+
+    void requestsTaken(final int nbRequests) {
+      depth.addAndGet(-nbRequests);
+    }
+
+    void requestProcessed(final long dispatchedAtInNanos) {
+      latency.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - dispatchedAtInNanos));
+    }
+
+    /**
+     * Gets the index of the partition.
+     * @return the index of the partition, starting at 0.
+     */
+    public int getIndex() {
+      return index;
+    }
+
+    /**
+     * Gets the number of requests currently awaiting into the partition.
+     * @return the depth of the partition.
+     */
+    public int getQueueDepth() {
+      return depth.get();
+    }
+
+    /**
+     * Gets the statistics about the time in milliseconds between the dispatching of the requests
+     * into the partition and the end of their processing.
+     * @return the statistics about the latency of the partition.
+     */
+    public ExecutionStatistics getLatencyStatistics() {
+      return latency;
+    }
+
+    @Override
+    public String toString() {
+      return MessageFormat.format("#{0}: {1} queued, [{2}]", index, getQueueDepth(), latency);
+    }
+  }
+}
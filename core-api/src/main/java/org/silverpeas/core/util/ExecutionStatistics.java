@@ -0,0 +1,137 @@
+/*
+ * Copyright (C) 2000 - 2024 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.util;
+
+import java.text.MessageFormat;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Statistics about the executions of a given operation: the number of executions, the number of
+ * failures, and the mean and the maximum duration of the executions. It is aimed to be used to
+ * expose some metrics about the performance of a technical service.
+ * <p>
+ * The statistics are thread-safe and recording an execution doesn't block the callers.
+ * </p>
+ * @author mmoquillon
+ */
+public class ExecutionStatistics {
+
+  private final String name;
+  private final LongAdder count = new LongAdder();
+  private final LongAdder failures = new LongAdder();
+  private final LongAdder totalDuration = new LongAdder();
+  private final AtomicLong maxDuration = new AtomicLong(0);
+
+  /**
+   * Constructs new statistics for the specified operation.
+   * @param name the name of the operation.
+   */
+  public ExecutionStatistics(final String name) {
+    this.name = name;
+  }
+
+  /**
+   * Gets the name of the operation these statistics are about.
+   * @return the name of the operation.
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Records a successful execution of the operation.
+   * @param durationInMs the duration of the execution in milliseconds.
+   */
+  public void record(final long durationInMs) {
+    count.increment();
+    totalDuration.add(durationInMs);
+    maxDuration.accumulateAndGet(durationInMs, Math::max);
+  }
+
+  /**
+   * Records a failed execution of the operation.
+   */
+  public void recordFailure() {
+    failures.increment();
+  }
+
+  /**
+   * Gets the number of successful executions.
+   * @return the number of successful executions.
+   */
+  public long getCount() {
+    return count.sum();
+  }
+
+  /**
+   * Gets the number of failed executions.
+   * @return the number of failures.
+   */
+  public long getFailureCount() {
+    return failures.sum();
+  }
+
+  /**
+   * Gets the cumulated duration in milliseconds of all the successful executions.
+   * @return the total duration in milliseconds.
+   */
+  public long getTotalDuration() {
+    return totalDuration.sum();
+  }
+
+  /**
+   * Gets the mean duration in milliseconds of the successful executions.
+   * @return the mean duration in milliseconds or 0 if no execution was recorded.
+   */
+  public double getMeanDuration() {
+    final long nb = getCount();
+    return nb == 0 ? 0 : (double) getTotalDuration() / nb;
+  }
+
+  /**
+   * Gets the longest duration in milliseconds among the successful executions.
+   * @return the maximum duration in milliseconds.
+   */
+  public long getMaxDuration() {
+    return maxDuration.get();
+  }
+
+  /**
+   * Resets the statistics.
+   */
+  public void reset() {
+    count.reset();
+    failures.reset();
+    totalDuration.reset();
+    maxDuration.set(0);
+  }
+
+  @Override
+  public String toString() {
+    return MessageFormat.format("{0}: {1} execution(s), {2} failure(s), mean {3}ms, max {4}ms",
+        name, getCount(), getFailureCount(), String.format("%.2f", getMeanDuration()),
+        getMaxDuration());
+  }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2000 - 2024 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.persistence.jdbc.sql;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests on the pagination clauses appended to the SELECT queries according to the
+ * database.
+ * @author mmoquillon
+ */
+class SqlPaginationTest {
+
+  private static final String QUERY = "SELECT * FROM a_table ORDER BY id";
+
+  @Test
+  void eachDatabaseGetsItsPagination() throws SQLException {
+    assertThat(SqlPagination.of(connectionTo("PostgreSQL")), is(SqlPagination.LIMIT_OFFSET));
+    assertThat(SqlPagination.of(connectionTo("H2")), is(SqlPagination.LIMIT_OFFSET));
+    assertThat(SqlPagination.of(connectionTo("MySQL")), is(SqlPagination.MYSQL_LIMIT_OFFSET));
+    assertThat(SqlPagination.of(connectionTo("MariaDB")), is(SqlPagination.MYSQL_LIMIT_OFFSET));
+    assertThat(SqlPagination.of(connectionTo("Oracle")), is(SqlPagination.OFFSET_FETCH));
+    assertThat(SqlPagination.of(connectionTo("Microsoft SQL Server")),
+        is(SqlPagination.OFFSET_FETCH));
+    assertThat(SqlPagination.of(connectionTo("Derby")), is(SqlPagination.NONE));
+  }
+
+  @Test
+  void aLimitAndAnOffsetArePaginatedTheSameWayWithAllTheLimitOffsetDatabases() {
+    assertThat(SqlPagination.LIMIT_OFFSET.paginate(QUERY, 20, 10),
+        is(QUERY + " LIMIT 10 OFFSET 20"));
+    assertThat(SqlPagination.MYSQL_LIMIT_OFFSET.paginate(QUERY, 20, 10),
+        is(QUERY + " LIMIT 10 OFFSET 20"));
+    assertThat(SqlPagination.MYSQL_LIMIT_OFFSET.paginate(QUERY, 0, 10),
+        is(QUERY + " LIMIT 10"));
+  }
+
+  @Test
+  void anOffsetWithoutLimitIsPaginatedWithTheGreatestLimitWithMySQL() {
+    assertThat(SqlPagination.LIMIT_OFFSET.paginate(QUERY, 20, 0), is(QUERY + " OFFSET 20"));
+    assertThat(SqlPagination.MYSQL_LIMIT_OFFSET.paginate(QUERY, 20, 0),
+        is(QUERY + " LIMIT 18446744073709551615 OFFSET 20"));
+    assertThat(SqlPagination.OFFSET_FETCH.paginate(QUERY, 20, 0),
+        is(QUERY + " OFFSET 20 ROWS"));
+  }
+
+  private static Connection connectionTo(final String product) throws SQLException {
+    final DatabaseMetaData metaData = mock(DatabaseMetaData.class);
+    when(metaData.getDatabaseProductName()).thenReturn(product);
+    final Connection connection = mock(Connection.class);
+    when(connection.getMetaData()).thenReturn(metaData);
+    return connection;
+  }
+}
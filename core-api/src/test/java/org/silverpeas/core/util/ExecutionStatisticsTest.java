@@ -0,0 +1,78 @@
+/*
+ * Copyright (C) 2000 - 2024 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * @author mmoquillon
+ */
+class ExecutionStatisticsTest {
+
+  @Test
+  void noExecutionRecorded() {
+    final ExecutionStatistics stats = new ExecutionStatistics("test");
+    assertThat(stats.getCount(), is(0L));
+    assertThat(stats.getMeanDuration(), is(0.0));
+    assertThat(stats.getMaxDuration(), is(0L));
+  }
+
+  @Test
+  void executionsAndFailuresAreRecorded() {
+    final ExecutionStatistics stats = new ExecutionStatistics("test");
+    stats.record(10);
+    stats.record(30);
+    stats.recordFailure();
+    assertThat(stats.getCount(), is(2L));
+    assertThat(stats.getFailureCount(), is(1L));
+    assertThat(stats.getTotalDuration(), is(40L));
+    assertThat(stats.getMeanDuration(), is(20.0));
+    assertThat(stats.getMaxDuration(), is(30L));
+  }
+
+  @Test
+  void concurrentExecutionsAreAllRecorded() {
+    final ExecutionStatistics stats = new ExecutionStatistics("test");
+    IntStream.rangeClosed(1, 1000).parallel().forEach(stats::record);
+    assertThat(stats.getCount(), is(1000L));
+    assertThat(stats.getTotalDuration(), is(500500L));
+    assertThat(stats.getMaxDuration(), is(1000L));
+  }
+
+  @Test
+  void resetClearsAllTheStatistics() {
+    final ExecutionStatistics stats = new ExecutionStatistics("test");
+    stats.record(10);
+    stats.recordFailure();
+    stats.reset();
+    assertThat(stats.getCount(), is(0L));
+    assertThat(stats.getFailureCount(), is(0L));
+    assertThat(stats.getMaxDuration(), is(0L));
+  }
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright (C) 2000 - 2024 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.admin.service.cache;
+
+import com.carrotsearch.junitbenchmarks.BenchmarkOptions;
+import com.carrotsearch.junitbenchmarks.BenchmarkRule;
+import com.carrotsearch.junitbenchmarks.annotation.BenchmarkMethodChart;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.junit.Arquillian;
+import org.jboss.shrinkwrap.api.Archive;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.RuleChain;
+import org.junit.runner.RunWith;
+import org.silverpeas.core.admin.component.dao.ComponentDAO;
+import org.silverpeas.core.persistence.jdbc.DBUtil;
+import org.silverpeas.core.test.WarBuilder4LibCore;
+import org.silverpeas.core.test.integration.rule.DbSetupRule;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+
+/**
+ * Benchmark of the computation of the component instances accessible by a user in an
+ * organization of 50k users and 5k component instances: the in-memory access index against the
+ * SQL queries of {@link ComponentDAO}. The organization is loaded once per benchmark, before the
+ * warmup rounds, and each round computes the accesses of another user.
+ * @author mmoquillon
+ */
+@RunWith(Arquillian.class)
+@BenchmarkMethodChart
+@BenchmarkOptions(benchmarkRounds = 2000, warmupRounds = 200)
+public class ComponentAccessIndexBenchmarkIT {
+
+  private static final int NB_COMPONENTS = 5000;
+  private static final int NB_USERS = 50000;
+  private static final int NB_GROUPS = 500;
+  private static final int BATCH_SIZE = 1000;
+  private static final List<String> GROUPS = asList("1", "2", "3");
+
+  private final DbSetupRule dbSetupRule =
+      DbSetupRule.createTablesFrom("/org/silverpeas/core/admin/create_space_components_database.sql");
+
+  // the database is set up once per benchmark and not at each of its rounds
+  @Rule
+  public RuleChain rules = RuleChain.outerRule(dbSetupRule).around(new BenchmarkRule());
+
+  private final ComponentAccessIndex index = new ComponentAccessIndex();
+  private boolean organizationLoaded = false;
+  private int round = 0;
+
+  @Deployment
+  public static Archive<?> createTestArchive() {
+    return WarBuilder4LibCore.onWarForTestClass(ComponentAccessIndexBenchmarkIT.class)
+        .addSilverpeasExceptionBases()
+        .addAdministrationFeatures()
+        .addBenchmarkTestFeatures()
+        .testFocusedOn(warBuilder -> warBuilder.addClasses(ComponentAccessIndex.class,
+            ComponentAccessMatrix.class))
+        .build();
+  }
+
+  @Test
+  public void accessesComputedByTheSQLQueries() throws SQLException {
+    loadOrganization();
+    final int userId = nextUser();
+    final List<String> ids;
+    try (Connection connection = DBUtil.openConnection()) {
+      ids = ComponentDAO.getAllAvailableComponentIds(connection, GROUPS, userId, null);
+    }
+    assertThat(ids, hasSize(expectedAccessesCount(userId)));
+  }
+
+  @Test
+  public void accessesComputedByTheInMemoryIndex() throws SQLException {
+    loadOrganization();
+    final int userId = nextUser();
+    final List<String> ids = index.getAllowedComponentIds(userId, GROUPS, null);
+    assertThat(ids, hasSize(expectedAccessesCount(userId)));
+  }
+
+  private int nextUser() {
+    return 1 + (int) ((round++ * 7919L) % NB_USERS);
+  }
+
+  /**
+   * The 50 public instances, the 3 * 10 instances granted through the groups and the one granted
+   * directly when it isn't already granted through one of the groups or public.
+   */
+  private static int expectedAccessesCount(int userId) {
+    final int directlyGranted = 1 + (userId % NB_COMPONENTS);
+    final boolean grantedByGroup = directlyGranted % NB_GROUPS >= 1 &&
+        directlyGranted % NB_GROUPS <= 3;
+    final boolean isPublic = directlyGranted % 100 == 0;
+    return 80 + (grantedByGroup || isPublic ? 0 : 1);
+  }
+
+  /**
+   * Loads an organization in which each component instance has one role, each user plays the
+   * role of one component instance and each group the role of 10 component instances. One
+   * component instance out of 100 is public.
+   */
+  private void loadOrganization() throws SQLException {
+    if (organizationLoaded) {
+      return;
+    }
+    try (Connection connection = dbSetupRule.getSafeConnectionFromDifferentThread()) {
+      try (PreparedStatement instance = connection.prepareStatement(
+          "INSERT INTO ST_ComponentInstance (id, spaceId, name, componentName, isPublic) " +
+              "VALUES (?, 1, ?, 'kmelia', ?)");
+           PreparedStatement role = connection.prepareStatement(
+               "INSERT INTO ST_UserRole (id, instanceId, roleName) VALUES (?, ?, 'user')")) {
+        for (int i = 1; i <= NB_COMPONENTS; i++) {
+          instance.setInt(1, i);
+          instance.setString(2, "kmelia " + i);
+          instance.setInt(3, i % 100 == 0 ? 1 : 0);
+          instance.addBatch();
+          role.setInt(1, i);
+          role.setInt(2, i);
+          role.addBatch();
+          if (i % BATCH_SIZE == 0) {
+            instance.executeBatch();
+            role.executeBatch();
+          }
+        }
+        instance.executeBatch();
+        role.executeBatch();
+      }
+      try (PreparedStatement userRole = connection.prepareStatement(
+          "INSERT INTO ST_UserRole_User_Rel (userRoleId, userId) VALUES (?, ?)")) {
+        for (int u = 1; u <= NB_USERS; u++) {
+          userRole.setInt(1, 1 + (u % NB_COMPONENTS));
+          userRole.setInt(2, u);
+          userRole.addBatch();
+          if (u % BATCH_SIZE == 0) {
+            userRole.executeBatch();
+          }
+        }
+        userRole.executeBatch();
+      }
+      try (PreparedStatement groupRole = connection.prepareStatement(
+          "INSERT INTO ST_UserRole_Group_Rel (userRoleId, groupId) VALUES (?, ?)")) {
+        for (int g = 1; g <= NB_GROUPS; g++) {
+          for (int i = g; i <= NB_COMPONENTS; i += NB_GROUPS) {
+            groupRole.setInt(1, i);
+            groupRole.setInt(2, g);
+            groupRole.addBatch();
+          }
+          groupRole.executeBatch();
+        }
+      }
+    }
+    organizationLoaded = true;
+  }
+}
@@ -189,6 +189,40 @@ public class DelayedNotificationDelegateIT {
     }
   }
 
+  @Test
+  public void newNotificationsOfSeveralRecipients() throws Exception {
+    final List<DelayedNotificationData> dndTests = new ArrayList<>();
+
+    // Has to be delayed
+    dndTests.add(buildValidDelayedNotificationData());
+
+    // Has to be sent because is flagged to be sent immediately
+    DelayedNotificationData dndTest = buildValidDelayedNotificationData();
+    dndTest.setSendImmediately(true);
+    dndTests.add(dndTest);
+
+    // Has to be sent because of a bad user id
+    dndTest = buildValidDelayedNotificationData();
+    dndTest.setUserId((Integer) null);
+    dndTests.add(dndTest);
+
+    // Has to be sent because of a bad channel
+    dndTest = buildValidDelayedNotificationData();
+    dndTest.setChannel(null);
+    dndTests.add(dndTest);
+
+    // Has to be sent because of a bad frequency
+    for (final int userId : new int[]{10, -100}) {
+      dndTest = buildValidDelayedNotificationData();
+      dndTest.setUserId(userId);
+      dndTests.add(dndTest);
+    }
+
+    final DelayedNotificationDelegateStub stub = new DelayedNotificationDelegateStub();
+    stub.performNewNotificationsSending(dndTests);
+    assertThat(stub.sendedList.size(), is(dndTests.size() - 1));
+  }
+
   private void assertNewNotificationIsSent(
       final DelayedNotificationData delayedNotificationDataTest, final int nbExpectedResults)
       throws Exception {
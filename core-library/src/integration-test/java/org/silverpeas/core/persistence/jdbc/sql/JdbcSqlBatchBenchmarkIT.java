@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2000 - 2024 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.persistence.jdbc.sql;
+
+import com.carrotsearch.junitbenchmarks.BenchmarkOptions;
+import com.carrotsearch.junitbenchmarks.BenchmarkRule;
+import com.carrotsearch.junitbenchmarks.annotation.BenchmarkMethodChart;
+import com.ninja_squad.dbsetup.Operations;
+import com.ninja_squad.dbsetup.operation.Operation;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.junit.Arquillian;
+import org.jboss.shrinkwrap.api.Archive;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.RuleChain;
+import org.junit.runner.RunWith;
+import org.silverpeas.core.persistence.Transaction;
+import org.silverpeas.core.test.WarBuilder4LibCore;
+import org.silverpeas.core.test.integration.rule.DbSetupRule;
+import org.silverpeas.kernel.test.extension.SettingBundleStub;
+
+import java.sql.SQLException;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.silverpeas.core.persistence.jdbc.sql.JdbcSqlQuery.*;
+
+/**
+ * Benchmark of the execution of many modification queries in one call of
+ * {@link JdbcSqlQueries#execute()}: the consecutive same queries sent by JDBC batches against
+ * the queries sent one at a time, as done with a batch size of 1. Each round inserts, updates and
+ * then deletes some hundreds of rows.
+ * @author mmoquillon
+ */
+@RunWith(Arquillian.class)
+@BenchmarkMethodChart
+@BenchmarkOptions(benchmarkRounds = 50, warmupRounds = 10)
+public class JdbcSqlBatchBenchmarkIT {
+
+  private static final int NB_ROWS = 500;
+
+  public static final Operation TABLES_CREATION = Operations
+      .sql("CREATE TABLE a_table (id int8 PRIMARY KEY NOT NULL , value varchar(50) NOT NULL)");
+
+  private final DbSetupRule dbSetupRule = DbSetupRule.createDefaultTables()
+      .loadInitialDataSetFrom(TABLES_CREATION);
+
+  // the database is set up once per benchmark and not at each of its rounds
+  @Rule
+  public RuleChain rules = RuleChain.outerRule(dbSetupRule).around(new BenchmarkRule());
+
+  private SettingBundleStub generalSettings;
+
+  @Deployment
+  public static Archive<?> createTestArchive() {
+    return WarBuilder4LibCore.onWarForTestClass(JdbcSqlBatchBenchmarkIT.class)
+        .addCommonBasicUtilities()
+        .addSilverpeasExceptionBases()
+        .addBenchmarkTestFeatures()
+        .build();
+  }
+
+  @Before
+  public void stubGeneralSettings() throws Exception {
+    generalSettings = new SettingBundleStub("org.silverpeas.general");
+    generalSettings.beforeEach(null);
+  }
+
+  @After
+  public void resetGeneralSettings() throws Exception {
+    generalSettings.afterEach(null);
+  }
+
+  @Test
+  public void modifyManyRowsOneQueryAtATime() throws SQLException {
+    generalSettings.put("jdbc.batch.size", "1");
+    modifyManyRows();
+  }
+
+  @Test
+  public void modifyManyRowsByBatches() throws SQLException {
+    generalSettings.put("jdbc.batch.size", "100");
+    modifyManyRows();
+  }
+
+  private void modifyManyRows() throws SQLException {
+    final JdbcSqlQueries queries = new JdbcSqlQueries();
+    for (int i = 0; i < NB_ROWS; i++) {
+      queries.add(insertInto("a_table").withInsertParam("id", i)
+          .withInsertParam("value", "value_" + i));
+    }
+    for (int i = 0; i < NB_ROWS; i++) {
+      queries.add(update("a_table").withUpdateParam("value", "value_" + i + "_updated")
+          .where("id = ?", i));
+    }
+    for (int i = 0; i < NB_ROWS; i++) {
+      queries.add(deleteFrom("a_table").where("id = ?", i));
+    }
+    final long modifyCount = Transaction.performInOne(queries::execute);
+    assertThat(modifyCount, is(3L * NB_ROWS));
+    assertThat(countAll().from("a_table").execute(), is(0L));
+  }
+}
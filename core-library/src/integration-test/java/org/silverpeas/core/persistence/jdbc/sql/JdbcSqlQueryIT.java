@@ -34,8 +34,10 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.silverpeas.core.persistence.Transaction;
+import org.silverpeas.core.persistence.datasource.repository.PaginationCriterion;
 import org.silverpeas.core.test.WarBuilder4LibCore;
 import org.silverpeas.core.test.integration.rule.DbSetupRule;
+import org.silverpeas.core.util.ListSlice;
 
 import javax.annotation.Resource;
 import javax.enterprise.concurrent.ManagedThreadFactory;
@@ -47,6 +49,9 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
 
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -340,6 +345,93 @@ public class JdbcSqlQueryIT {
     assertThat(rows.get(1).getRight(), is("value_60"));
   }
 
+  @Test
+  public void selectPagesPaginatedByTheDatabase() throws SQLException {
+    ListSlice<Pair<Long, String>> rows = select("*").from("a_table").orderBy("id")
+        .withPagination(new PaginationCriterion(3, 10)).execute(new TableResultProcess(false));
+    assertThat(rows, hasSize(10));
+    assertThat(rows.get(0).getLeft(), is(20L));
+    assertThat(rows.get(9).getLeft(), is(29L));
+    assertThat(rows.originalListSize(), is(NB_ROW_AT_BEGINNING));
+
+    rows = select("*").from("a_table").where("id >= ?", 5).orderBy("id")
+        .withPagination(new PaginationCriterion(10, 10)).execute(new TableResultProcess(false));
+    assertThat(rows, hasSize(5));
+    assertThat(rows.get(0).getLeft(), is(95L));
+    assertThat(rows.originalListSize(), is(95L));
+
+    rows = select("*").from("a_table").orderBy("id")
+        .withPagination(new PaginationCriterion(20, 10)).execute(new TableResultProcess(false));
+    assertThat(rows, empty());
+    assertThat(rows.originalListSize(), is(NB_ROW_AT_BEGINNING));
+  }
+
+  @Test
+  public void streamRowsFetchedByChunks() throws SQLException {
+    try (Stream<Pair<Long, String>> rows = select("*").from("a_table").orderBy("id")
+        .configure(config -> config.withFetchSize(7)).stream(new TableResultProcess())) {
+      final List<Long> ids = rows.map(Pair::getLeft).collect(Collectors.toList());
+      assertThat(ids, hasSize((int) NB_ROW_AT_BEGINNING));
+      assertThat(ids.get(0), is(0L));
+      assertThat(ids.get(99), is(99L));
+    }
+
+    try (Stream<Pair<Long, String>> rows = select("*").from("a_table").orderBy("id")
+        .configure(config -> config.withOffset(10).withResultLimit(5))
+        .stream(new TableResultProcess(false))) {
+      assertThat(rows.map(Pair::getLeft).collect(Collectors.toList()),
+          contains(10L, 11L, 12L, 13L, 14L));
+    }
+  }
+
+  @Test
+  public void streamRowsBySplittingOnManyIdentifiers() throws SQLException {
+    final List<Long> ids = LongStream.range(0, 4000).boxed().collect(Collectors.toList());
+    final List<Long> found = streamBySplittingOn(ids, idBatch ->
+        select("*").from("a_table").where("id").in(idBatch).execute(new TableResultProcess(false)))
+        .map(Pair::getLeft)
+        .collect(Collectors.toList());
+    assertThat(found, hasSize((int) NB_ROW_AT_BEGINNING));
+
+    final List<Long> lazilyFound = lazilyStreamBySplittingOn(ids, idBatch ->
+        select("*").from("a_table").where("id").in(idBatch).execute(new TableResultProcess(false)))
+        .map(Pair::getLeft)
+        .collect(Collectors.toList());
+    assertThat(lazilyFound, is(found));
+  }
+
+  @Test(expected = SQLException.class)
+  public void anSQLErrorInALaterChunkIsThrownAsIsWhenStreamingBySplitting() throws SQLException {
+    final List<Long> ids = LongStream.range(0, 4000).boxed().collect(Collectors.toList());
+    streamBySplittingOn(ids, idBatch ->
+        select("*").from(idBatch.contains(0L) ? "a_table" : "an_unknown_table")
+            .where("id").in(idBatch).execute(new TableResultProcess(false)));
+  }
+
+  @Test
+  public void selectPagesBySeekingAfterTheLastKey() throws SQLException {
+    final List<Long> ids = new ArrayList<>();
+    List<Pair<Long, String>> page = select("*").from("a_table").where("id < ?", 50)
+        .seekAfter(null, 15, "id desc").execute(new TableResultProcess(false));
+    while (!page.isEmpty()) {
+      page.forEach(r -> ids.add(r.getLeft()));
+      final Pair<Long, String> last = page.get(page.size() - 1);
+      page = select("*").from("a_table").where("id < ?", 50)
+          .seekAfter(List.of(last.getLeft()), 15, "id desc").execute(new TableResultProcess(false));
+    }
+    assertThat(ids, hasSize(50));
+    assertThat(ids.get(0), is(49L));
+    assertThat(ids.get(49), is(0L));
+
+    page = select("*").from("a_table")
+        .seekAfter(List.of("value_8", 8L), 3, "value", "id")
+        .execute(new TableResultProcess(false));
+    assertThat(page, hasSize(3));
+    assertThat(page.get(0).getRight(), is("value_80"));
+    assertThat(page.get(1).getRight(), is("value_81"));
+    assertThat(page.get(2).getRight(), is("value_82"));
+  }
+
   @Test
   public void createRowUsingAppendSaveParameter() {
     assertThat(getTableLines(), hasSize(100));
@@ -418,6 +510,38 @@ public class JdbcSqlQueryIT {
     assertThat(getTableLines().get(38), is("38@value_38_updated"));
   }
 
+  @Test
+  public void insertAndUpdateManyRowsByBatchesOfConsecutiveSameQueries() {
+    assertThat(getTableLines(), hasSize(100));
+    final JdbcSqlQueries queries = new JdbcSqlQueries();
+    for (int i = 1000; i < 1250; i++) {
+      queries.add(insertInto("a_table").withInsertParam("id", i)
+          .withInsertParam("value", "value_" + i + "_inserted"));
+    }
+    queries.add(update("a_table").withUpdateParam("value", "value_26_updated").where("id = ?", 26));
+    queries.add(update("a_table").withUpdateParam("value", "value_1001_updated")
+        .where("id = ?", 1001));
+    queries.add(update("a_table").withUpdateParam("value", "value_2000_updated")
+        .where("id = ?", 2000));
+    queries.add(deleteFrom("a_table").where("id = ?", 1002));
+    queries.add(insertInto("a_table").withInsertParam("id", 1002)
+        .withInsertParam("value", "value_1002_reinserted"));
+
+    Transaction.performInOne(() -> {
+      long modifyCount = queries.execute();
+      assertThat(modifyCount, is(254L));
+      return null;
+    });
+
+    final List<String> lines = getTableLines();
+    assertThat(lines, hasSize(350));
+    assertThat(lines.get(26), is("26@value_26_updated"));
+    assertThat(lines.get(100), is("1000@value_1000_inserted"));
+    assertThat(lines.get(101), is("1001@value_1001_updated"));
+    assertThat(lines.get(102), is("1002@value_1002_reinserted"));
+    assertThat(lines.get(349), is("1249@value_1249_inserted"));
+  }
+
   @Test
   public void deleteRows() {
     assertThat(getTableLines(), hasSize(100));
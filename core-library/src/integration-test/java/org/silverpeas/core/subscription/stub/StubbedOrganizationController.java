@@ -32,6 +32,8 @@ import org.silverpeas.core.annotation.Service;
 import javax.annotation.Priority;
 import javax.enterprise.inject.Alternative;
 import javax.inject.Singleton;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 
 import static javax.interceptor.Interceptor.Priority.APPLICATION;
@@ -73,6 +75,15 @@ public class StubbedOrganizationController extends DefaultOrganizationController
     }
   }
 
+  @Override
+  public List<String> getAllUserIdsOfGroup(final String groupId) {
+    if (GROUPID_WITH_ONE_USER.equals(groupId)) {
+      return Collections.singletonList(USERID_OF_GROUP_WITH_ONE_USER);
+    } else {
+      return Collections.emptyList();
+    }
+  }
+
   @Override
   public String[] getAllGroupIdsOfUser(final String userId) {
     if (USERID_OF_GROUP_WITH_ONE_USER.equals(userId)) {
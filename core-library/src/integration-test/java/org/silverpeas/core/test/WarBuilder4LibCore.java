@@ -101,6 +101,8 @@ import org.silverpeas.core.exception.UtilException;
 import org.silverpeas.core.exception.WithNested;
 import org.silverpeas.core.html.PermalinkRegistry;
 import org.silverpeas.core.index.indexing.model.FullIndexEntry;
+import org.silverpeas.core.io.file.ImageResizingService;
+import org.silverpeas.core.io.file.ImageResizingStatistics;
 import org.silverpeas.core.io.media.Definition;
 import org.silverpeas.core.io.media.MetaData;
 import org.silverpeas.core.io.media.MetadataExtractor;
@@ -794,12 +796,19 @@ public class WarBuilder4LibCore extends WarBuilder<WarBuilder4LibCore> {
   }
 
   /**
-   * Add image tool features. ImageMagick must be installed on machine.
+   * Add image tool features, including the resizing of the images into the cache of resized
+   * images. ImageMagick must be installed on machine.
    * @return the instance of the war with image tool feature.
    */
   public WarBuilder4LibCore addImageToolFeatures() {
     addMavenDependencies("org.im4java:im4java");
     addPackages(true, "org.silverpeas.core.io.media.image");
+    if (!contains(ImageResizingService.class)) {
+      addClasses(ImageResizingService.class, ImageResizingStatistics.class);
+      applyManually(war -> war.addClass("org.silverpeas.core.io.file.ResizingParameters")
+          .addClass("org.silverpeas.core.io.file.JavaImageResizer")
+          .addClass("org.silverpeas.core.io.file.ImageCache"));
+    }
     return this;
   }
 
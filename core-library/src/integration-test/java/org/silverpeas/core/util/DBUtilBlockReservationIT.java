@@ -0,0 +1,190 @@
+/*
+ * Copyright (C) 2000 - 2024 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.util;
+
+import com.ninja_squad.dbsetup.Operations;
+import com.ninja_squad.dbsetup.operation.Operation;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.junit.Arquillian;
+import org.jboss.shrinkwrap.api.Archive;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.silverpeas.core.persistence.jdbc.DBUtil;
+import org.silverpeas.core.test.WarBuilder4LibCore;
+import org.silverpeas.core.test.integration.rule.DbSetupRule;
+import org.silverpeas.kernel.test.extension.SettingBundleStub;
+
+import javax.annotation.Resource;
+import javax.enterprise.concurrent.ManagedThreadFactory;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Integration tests on the reservation by blocks of the unique identifiers computed by
+ * {@link DBUtil#getNextId(String, String)}. As the reserved blocks are kept in memory for the
+ * whole run, each test works on its own identifier name.
+ * @author mmoquillon
+ */
+@RunWith(Arquillian.class)
+public class DBUtilBlockReservationIT {
+
+  private static final int BLOCK_SIZE = 5;
+
+  public static final Operation TABLES_CREATION = Operations.sql(
+      "create table if not exists UniqueId (maxId int not null, tableName varchar(100) not null)");
+  public static final Operation CLEAN_UP = Operations.deleteAllFrom("UniqueId");
+
+  @Resource
+  private ManagedThreadFactory managedThreadFactory;
+
+  @Rule
+  public DbSetupRule dbSetupRule = DbSetupRule.createDefaultTables()
+      .loadInitialDataSetFrom(TABLES_CREATION, CLEAN_UP);
+
+  private SettingBundleStub generalSettings;
+
+  @Deployment
+  public static Archive<?> createTestArchive() {
+    return WarBuilder4LibCore.onWarForTestClass(DBUtilBlockReservationIT.class)
+        .testFocusedOn(warBuilder -> warBuilder.addClasses(DBUtil.class))
+        .build();
+  }
+
+  @Before
+  public void setUpBlockSize() throws Exception {
+    generalSettings = new SettingBundleStub("org.silverpeas.general");
+    generalSettings.beforeEach(null);
+    generalSettings.put("jdbc.uniqueId.blockSize", String.valueOf(BLOCK_SIZE));
+  }
+
+  @After
+  public void resetBlockSize() throws Exception {
+    generalSettings.afterEach(null);
+  }
+
+  @Test
+  public void theIdentifiersOfABlockAreContiguous() throws SQLException {
+    final String name = "Contiguous_Ids";
+    final List<Integer> ids = new ArrayList<>();
+    for (int i = 0; i < BLOCK_SIZE; i++) {
+      ids.add(DBUtil.getNextId(name, null));
+      // the whole block is reserved at the first call
+      assertThat(actualMaxIdInUniqueIdFor(name), is(BLOCK_SIZE));
+    }
+    assertThat(ids, contains(1, 2, 3, 4, 5));
+  }
+
+  @Test
+  public void aNewBlockIsReservedWhenTheCurrentOneIsExhausted() throws SQLException {
+    final String name = "Exhausted_Block";
+    for (int i = 1; i <= BLOCK_SIZE; i++) {
+      assertThat(DBUtil.getNextId(name, null), is(i));
+    }
+    assertThat(actualMaxIdInUniqueIdFor(name), is(BLOCK_SIZE));
+
+    assertThat(DBUtil.getNextId(name, null), is(BLOCK_SIZE + 1));
+    assertThat(actualMaxIdInUniqueIdFor(name), is(2 * BLOCK_SIZE));
+    assertThat(DBUtil.getNextId(name, null), is(BLOCK_SIZE + 2));
+    assertThat(actualMaxIdInUniqueIdFor(name), is(2 * BLOCK_SIZE));
+  }
+
+  @Test
+  public void noIdentifierIsHandedOutTwiceToConcurrentCallers() throws Exception {
+    final String name = "Concurrent_Ids";
+    final int nbThreads = 10;
+    final int nbIdsPerThread = 3 * BLOCK_SIZE + 1;
+    final Set<Integer> ids = ConcurrentHashMap.newKeySet();
+    final List<Integer> duplicates = new ArrayList<>();
+    final CountDownLatch start = new CountDownLatch(1);
+    final Thread[] threads = new Thread[nbThreads];
+    for (int i = 0; i < nbThreads; i++) {
+      threads[i] = managedThreadFactory.newThread(() -> {
+        try {
+          start.await();
+          for (int j = 0; j < nbIdsPerThread; j++) {
+            final int id = DBUtil.getNextId(name, null);
+            if (!ids.add(id)) {
+              synchronized (duplicates) {
+                duplicates.add(id);
+              }
+            }
+          }
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      });
+    }
+
+    try {
+      for (Thread thread : threads) {
+        thread.start();
+      }
+      start.countDown();
+      for (Thread thread : threads) {
+        thread.join();
+      }
+    } finally {
+      for (Thread thread : threads) {
+        if (thread.isAlive()) {
+          thread.interrupt();
+        }
+      }
+    }
+
+    final int nbIds = nbThreads * nbIdsPerThread;
+    assertThat(duplicates, empty());
+    assertThat(ids.size(), is(nbIds));
+    // all the reserved blocks but the last one are fully handed out
+    final int lastReservedId = actualMaxIdInUniqueIdFor(name);
+    assertThat(lastReservedId, is((nbIds + BLOCK_SIZE - 1) / BLOCK_SIZE * BLOCK_SIZE));
+    assertThat(ids, everyItem(allOf(greaterThanOrEqualTo(1), lessThanOrEqualTo(nbIds))));
+  }
+
+  private int actualMaxIdInUniqueIdFor(String tableName) throws SQLException {
+    final String query = "select maxId from UniqueId where tableName = ?";
+    try (Connection connection = dbSetupRule.getSafeConnectionFromDifferentThread();
+         PreparedStatement statement = connection.prepareStatement(query)) {
+      statement.setString(1, tableName.toLowerCase());
+      try (ResultSet resultSet = statement.executeQuery()) {
+        if (resultSet.next()) {
+          return resultSet.getInt(1);
+        }
+        throw new SQLException("No result!");
+      }
+    }
+  }
+}
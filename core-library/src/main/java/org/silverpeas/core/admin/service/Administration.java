@@ -917,6 +917,16 @@ public interface Administration {
    */
   UserDetail[] getAllUsersOfGroup(String groupId) throws AdminException;
 
+  /**
+   * Gets the unique identifiers of all users of a group, including these of its subgroups. Unlike
+   * {@link #getAllUsersOfGroup(String)}, the users aren't loaded.
+   *
+   * @param groupId the identifier of the group from which users are retrieved.
+   * @return a list of user identifiers.
+   * @throws AdminException on any technical error.
+   */
+  List<String> getAllUserIdsOfGroup(String groupId) throws AdminException;
+
   UserDetail[] getUsersOfDomain(String domainId) throws AdminException;
 
   /**
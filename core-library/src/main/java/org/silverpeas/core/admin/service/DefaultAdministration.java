@@ -2961,6 +2961,18 @@ class DefaultAdministration implements Administration {
     }
   }
 
+  @Override
+  public List<String> getAllUserIdsOfGroup(String groupId) throws AdminException {
+    try {
+      List<String> groupIds = new ArrayList<>();
+      groupIds.add(groupId);
+      groupIds.addAll(groupManager.getAllSubGroupIdsRecursively(groupId));
+      return userManager.getAllUserIdsInGroups(groupIds);
+    } catch (Exception e) {
+      throw new AdminException(failureOnGetting("all user ids in group", groupId), e);
+    }
+  }
+
   @Override
   public UserDetail[] getUsersOfDomain(String domainId) throws AdminException {
     try {
@@ -3114,8 +3126,19 @@ class DefaultAdministration implements Administration {
       throws AdminException {
     // getting all groups of users
     List<String> allGroupsOfUser = getAllGroupsOfUser(userId);
-
-    return componentManager.getAllowedComponentIds(Integer.parseInt(userId), allGroupsOfUser, null,
+    final int userLocalId = Integer.parseInt(userId);
+    try {
+      // the accesses are first computed from the in-memory index
+      Optional<List<String>> componentIds =
+          cache.getAllowedComponentIds(userLocalId, allGroupsOfUser, componentName);
+      if (componentIds.isPresent()) {
+        return componentIds.get();
+      }
+    } catch (SQLException e) {
+      throw new AdminException(failureOnGetting("component instances of component " + componentName,
+          " accessible to user " + userId), e);
+    }
+    return componentManager.getAllowedComponentIds(userLocalId, allGroupsOfUser, null,
         componentName);
   }
 
@@ -629,6 +629,16 @@ public class DefaultOrganizationController implements OrganizationController {
     }
   }
 
+  @Override
+  public List<String> getAllUserIdsOfGroup(String groupId) {
+    try {
+      return getAdminService().getAllUserIdsOfGroup(groupId);
+    } catch (Exception e) {
+      SilverLogger.getLogger(this).error(e.getMessage(), e);
+      return new ArrayList<>();
+    }
+  }
+
   @Override
   public List<String> getPathToGroup(String groupId) {
 
@@ -414,6 +414,11 @@ public interface OrganizationController {
    */
   <T extends User> T[] getAllUsersOfGroup(String groupId);
 
+  /**
+   * Get the identifiers of ALL the users that are in a group or his subgroups
+   */
+  List<String> getAllUserIdsOfGroup(String groupId);
+
   /**
    * Get path to Group
    */
@@ -33,8 +33,11 @@ import org.silverpeas.core.annotation.Bean;
 import org.silverpeas.kernel.annotation.Technical;
 import org.silverpeas.kernel.util.StringUtil;
 
+import javax.inject.Inject;
 import javax.inject.Singleton;
+import java.sql.SQLException;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
@@ -63,6 +66,8 @@ public class AdminCache {
   private Map<String, Map<String, String[]>> availCompoIdsCache = new ConcurrentHashMap<>();
   private boolean useProfileIdsCache = true;
   private Map<String, String[]> profileIdsCache = new ConcurrentHashMap<>();
+  @Inject
+  private ComponentAccessIndex componentAccessIndex;
 
   public void setCacheAvailable(boolean useCache) {
     // Cache management
@@ -80,6 +85,7 @@ public class AdminCache {
     manageableSpaceIdsCache.clear();
     availCompoIdsCache.clear();
     profileIdsCache.clear();
+    componentAccessIndex.invalidate();
   }
 
   /*
@@ -345,6 +351,27 @@ public class AdminCache {
     }
   }
 
+  /**
+   * Gets the identifiers of all the component instances accessible by the specified user. The
+   * answer is computed from the in-memory {@link ComponentAccessIndex}.
+   * @param userId the unique identifier of a user or -1 if only the groups have to be taken into
+   * account.
+   * @param groupIds all the groups in which the user is part of.
+   * @param componentName the name of an application to filter the component instances with or
+   * null.
+   * @return optionally the identifiers of the accessible component instances. Nothing if the
+   * cache is disabled.
+   * @throws SQLException if an error occurs while loading the index of the accesses.
+   */
+  public Optional<List<String>> getAllowedComponentIds(int userId, List<String> groupIds,
+      String componentName) throws SQLException {
+    if (useCache) {
+      return Optional.of(
+          componentAccessIndex.getAllowedComponentIds(userId, groupIds, componentName));
+    }
+    return Optional.empty();
+  }
+
   public Optional<String[]> getProfileIds(String userId) {
     if (useCache && useProfileIdsCache) {
       return Optional.ofNullable(profileIdsCache.get(userId));
@@ -394,6 +421,7 @@ public class AdminCache {
     resetProfileIds();
     resetAvailCompoIds();
     resetManageableSpaceIds();
+    componentAccessIndex.invalidate();
   }
 
   // ----- Components -----
@@ -417,6 +445,7 @@ public class AdminCache {
     removeComponent(component);
     resetProfileIds();
     resetAvailCompoIds();
+    componentAccessIndex.invalidateComponent(component.getLocalId());
   }
 
   private void removeComponent(final ComponentInst component) {
@@ -449,6 +478,7 @@ public class AdminCache {
     removeProfileInst(profile);
     resetProfileIds();
     resetAvailCompoIds();
+    componentAccessIndex.invalidateComponent(profile.getComponentFatherId());
   }
 
   // ----- Space Profiles -----
@@ -459,6 +489,7 @@ public class AdminCache {
       theSpace.ifPresent(s -> s.addSpaceProfileInst(profile));
     }
     resetManageableSpaceIds();
+    componentAccessIndex.invalidate();
   }
 
   public void opUpdateSpaceProfile(final SpaceProfileInst profile) {
@@ -471,6 +502,7 @@ public class AdminCache {
       });
     }
     resetManageableSpaceIds();
+    componentAccessIndex.invalidate();
   }
 
   public void opRemoveSpaceProfile(final SpaceProfileInst profile) {
@@ -480,6 +512,7 @@ public class AdminCache {
       theSpace.ifPresent(s -> s.deleteSpaceProfileInst(profile));
     }
     resetManageableSpaceIds();
+    componentAccessIndex.invalidate();
   }
 
   // ----- Groups -----
@@ -508,6 +541,7 @@ public class AdminCache {
     resetProfileIds();
     resetAvailCompoIds();
     resetManageableSpaceIds();
+    componentAccessIndex.removeGroup(groupId);
   }
 
   public void opAddUserInGroup(String userId) {
@@ -532,6 +566,7 @@ public class AdminCache {
     removeUserInSpaceInst(userId);
     removeUserInComponentInst(userId);
     removeUserInProfileInst(userId);
+    componentAccessIndex.removeUser(userId);
   }
 
   private void opResetUserRights(String userId) {
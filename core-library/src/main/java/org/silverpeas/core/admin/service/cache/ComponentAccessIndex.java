@@ -0,0 +1,277 @@
+/*
+ * Copyright (C) 2000 - 2024 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.admin.service.cache;
+
+import org.silverpeas.core.annotation.Bean;
+import org.silverpeas.core.persistence.jdbc.sql.JdbcSqlQuery;
+import org.silverpeas.kernel.annotation.Technical;
+import org.silverpeas.kernel.logging.SilverLogger;
+import org.silverpeas.kernel.util.StringUtil;
+
+import javax.enterprise.event.Event;
+import javax.enterprise.event.Observes;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import javax.transaction.Transactional;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static java.util.Collections.singletonList;
+import static javax.enterprise.event.TransactionPhase.AFTER_SUCCESS;
+
+/**
+ * An in-memory index of the component instances accessible by the users, either directly or
+ * through the groups they are part of, or because the component instances are public. It answers
+ * the question "which component instances can the user X access?" without requesting the
+ * database.
+ * <p>
+ * The index is loaded lazily, at first request, in a few set-based queries. Then it is kept
+ * up-to-date by the operations of the {@link AdminCache}: the modification of a component
+ * instance or of one of its profiles marks the component instance as dirty and only the
+ * rights on it are reloaded at next request; the deletion of a user or of a group removes directly
+ * its rights from the index; any other structural change (on spaces or on space profiles for
+ * which the inheritance rules make the impact too complicated to compute) invalidates the whole
+ * index. The changes in the group memberships of the users have no impact on the index as the
+ * groups of a user are resolved apart, by the caller.
+ * </p>
+ * <p>
+ * The changes are applied on the index only once the transaction within which they were done is
+ * successfully committed; otherwise a concurrent request could reload the rights from the
+ * database before the change is visible and then keep them as up-to-date.
+ * </p>
+ * @author mmoquillon
+ */
+@Technical
+@Bean
+@Singleton
+public class ComponentAccessIndex {
+
+  private static final String USER_ROLE_TABLE = "st_userrole r";
+  private static final String ROLE_ON_INSTANCE = "r.objectId IS NULL";
+
+  private final ComponentAccessMatrix matrix = new ComponentAccessMatrix();
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private final Set<Integer> dirtyComponents = ConcurrentHashMap.newKeySet();
+  private final AtomicLong version = new AtomicLong(0);
+  private volatile long loadedVersion = -1;
+  // The changes in the accesses, applied on the index once committed
+  @Inject
+  private Event<AccessChange> accessChanges;
+
+  /**
+   * Gets the identifiers of all the component instances the specified user can access.
+   * @param userId the unique identifier of a user or -1 if only the groups have to be taken into
+   * account.
+   * @param groupIds all the groups in which the user is part of.
+   * @param componentName the name of an application to filter the component instances with or
+   * null.
+   * @return a list with the identifiers of the component instances accessible by the user.
+   * @throws SQLException if an error occurs while loading the index.
+   */
+  public List<String> getAllowedComponentIds(int userId, Collection<String> groupIds,
+      String componentName) throws SQLException {
+    refreshIfNeeded();
+    lock.readLock().lock();
+    try {
+      return matrix.getAllowedComponentIds(userId, groupIds, componentName);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Invalidates the whole index. It will be reloaded at next request following the commit of the
+   * current transaction.
+   */
+  public void invalidate() {
+    accessChanges.fire(new AccessChange(AccessChange.Kind.ALL, null));
+  }
+
+  /**
+   * Invalidates the rights on the specified component instance. They will be reloaded at next
+   * request following the commit of the current transaction.
+   * @param componentLocalId the local identifier of a component instance.
+   */
+  public void invalidateComponent(int componentLocalId) {
+    accessChanges.fire(
+        new AccessChange(AccessChange.Kind.COMPONENT, String.valueOf(componentLocalId)));
+  }
+
+  /**
+   * Removes all the rights of the specified user once the current transaction is committed.
+   * @param userId the unique identifier of a user.
+   */
+  public void removeUser(String userId) {
+    if (StringUtil.isInteger(userId)) {
+      accessChanges.fire(new AccessChange(AccessChange.Kind.USER, userId));
+    }
+  }
+
+  /**
+   * Removes all the rights of the specified group once the current transaction is committed.
+   * @param groupId the unique identifier of a group.
+   */
+  public void removeGroup(String groupId) {
+    if (StringUtil.isInteger(groupId)) {
+      accessChanges.fire(new AccessChange(AccessChange.Kind.GROUP, groupId));
+    }
+  }
+
+  /**
+   * Applies on the index the specified change once the transaction within which the change was
+   * done is successfully committed. Without any transaction, the change is applied directly.
+   * @param change a change in the accesses on the component instances.
+   */
+  @Transactional(Transactional.TxType.NOT_SUPPORTED)
+  void onAccessChange(@Observes(during = AFTER_SUCCESS) final AccessChange change) {
+    switch (change.kind) {
+      case ALL:
+        version.incrementAndGet();
+        break;
+      case COMPONENT:
+        dirtyComponents.add(Integer.parseInt(change.id));
+        break;
+      default:
+        lock.writeLock().lock();
+        try {
+          if (change.kind == AccessChange.Kind.USER) {
+            matrix.removeUser(Integer.parseInt(change.id));
+          } else {
+            matrix.removeGroup(Integer.parseInt(change.id));
+          }
+        } finally {
+          lock.writeLock().unlock();
+        }
+        break;
+    }
+  }
+
+  private void refreshIfNeeded() throws SQLException {
+    if (loadedVersion == version.get() && dirtyComponents.isEmpty()) {
+      return;
+    }
+    lock.writeLock().lock();
+    try {
+      final long currentVersion = version.get();
+      if (loadedVersion != currentVersion) {
+        dirtyComponents.clear();
+        loadAll();
+        loadedVersion = currentVersion;
+      } else {
+        for (Integer componentId : new ArrayList<>(dirtyComponents)) {
+          dirtyComponents.remove(componentId);
+          loadComponent(componentId);
+        }
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private void loadAll() throws SQLException {
+    final long start = System.currentTimeMillis();
+    matrix.clear();
+    try {
+      loadRights(null);
+    } catch (SQLException e) {
+      matrix.clear();
+      throw e;
+    }
+    SilverLogger.getLogger(this)
+        .debug(() -> "Access index of component instances loaded in " +
+            (System.currentTimeMillis() - start) + "ms");
+  }
+
+  private void loadComponent(int componentLocalId) throws SQLException {
+    matrix.removeComponent(componentLocalId);
+    try {
+      loadRights(componentLocalId);
+    } catch (SQLException e) {
+      dirtyComponents.add(componentLocalId);
+      throw e;
+    }
+  }
+
+  private void loadRights(final Integer componentLocalId) throws SQLException {
+    final JdbcSqlQuery instances = JdbcSqlQuery.select("id, componentName, isPublic")
+        .from("st_componentinstance")
+        .where("componentStatus IS NULL");
+    final JdbcSqlQuery userRoles = JdbcSqlQuery.select("r.instanceId, ur.userId")
+        .from(USER_ROLE_TABLE, "st_userrole_user_rel ur")
+        .where("r.id = ur.userroleid")
+        .and(ROLE_ON_INSTANCE);
+    final JdbcSqlQuery groupRoles = JdbcSqlQuery.select("r.instanceId, gr.groupId")
+        .from(USER_ROLE_TABLE, "st_userrole_group_rel gr")
+        .where("r.id = gr.userroleid")
+        .and(ROLE_ON_INSTANCE);
+    if (componentLocalId != null) {
+      instances.and("id").in(singletonList(componentLocalId));
+      userRoles.and("r.instanceId").in(singletonList(componentLocalId));
+      groupRoles.and("r.instanceId").in(singletonList(componentLocalId));
+    }
+    instances.execute(r -> {
+      matrix.putComponent(r.getInt(1), r.getString(2), r.getInt(3) == 1);
+      return null;
+    });
+    userRoles.execute(r -> {
+      final int instanceId = r.getInt(1);
+      if (matrix.isComponentRegistered(instanceId)) {
+        matrix.grantUser(r.getInt(2), instanceId);
+      }
+      return null;
+    });
+    groupRoles.execute(r -> {
+      final int instanceId = r.getInt(1);
+      if (matrix.isComponentRegistered(instanceId)) {
+        matrix.grantGroup(r.getInt(2), instanceId);
+      }
+      return null;
+    });
+  }
+
+  /**
+   * A change in the accesses on the component instances: either all of them, or those on a given
+   * component instance, or those of a given user or group.
+   */
+  static class AccessChange {
+    enum Kind {
+      ALL, COMPONENT, USER, GROUP
+    }
+
+    private final Kind kind;
+    private final String id;
+
+    AccessChange(final Kind kind, final String id) {
+      this.kind = kind;
+      this.id = id;
+    }
+  }
+}
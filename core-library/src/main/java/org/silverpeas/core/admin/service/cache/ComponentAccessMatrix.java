@@ -0,0 +1,173 @@
+/*
+ * Copyright (C) 2000 - 2024 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.admin.service.cache;
+
+import org.silverpeas.kernel.util.StringUtil;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * An in-memory matrix of the access rights of users and of groups of users on the component
+ * instances. Each user and each group is mapped to a bitset in which a bit is set for each
+ * component instance for which it plays a role (the index of the bit is the local identifier of
+ * the component instance). The public component instances are registered in their own bitset.
+ * <p>
+ * The matrix isn't thread-safe; it is expected to be guarded by its owner.
+ * </p>
+ * @author mmoquillon
+ */
+class ComponentAccessMatrix {
+
+  private final Map<Integer, String> componentNames = new HashMap<>();
+  private final BitSet publicComponents = new BitSet();
+  private final Map<Integer, BitSet> componentsByUser = new HashMap<>();
+  private final Map<Integer, BitSet> componentsByGroup = new HashMap<>();
+
+  /**
+   * Clears the matrix of all its data.
+   */
+  void clear() {
+    componentNames.clear();
+    publicComponents.clear();
+    componentsByUser.clear();
+    componentsByGroup.clear();
+  }
+
+  /**
+   * Registers the specified active component instance.
+   * @param localId the local identifier of the component instance.
+   * @param componentName the name of the application the instance is about.
+   * @param isPublic is the component instance publicly accessible?
+   */
+  void putComponent(int localId, String componentName, boolean isPublic) {
+    componentNames.put(localId, componentName);
+    publicComponents.set(localId, isPublic);
+  }
+
+  /**
+   * Unregisters the specified component instance and removes it from all the access rights of
+   * the users and of the groups.
+   * @param localId the local identifier of the component instance.
+   */
+  void removeComponent(int localId) {
+    componentNames.remove(localId);
+    publicComponents.clear(localId);
+    componentsByUser.values().forEach(b -> b.clear(localId));
+    componentsByGroup.values().forEach(b -> b.clear(localId));
+  }
+
+  /**
+   * Is the specified component instance registered in this matrix?
+   * @param localId the local identifier of the component instance.
+   * @return true if the component instance is active and registered, false otherwise.
+   */
+  boolean isComponentRegistered(int localId) {
+    return componentNames.containsKey(localId);
+  }
+
+  /**
+   * Grants the specified user an access to the given component instance.
+   * @param userId the unique identifier of the user.
+   * @param localId the local identifier of the component instance.
+   */
+  void grantUser(int userId, int localId) {
+    componentsByUser.computeIfAbsent(userId, k -> new BitSet()).set(localId);
+  }
+
+  /**
+   * Grants the specified group an access to the given component instance.
+   * @param groupId the unique identifier of the group.
+   * @param localId the local identifier of the component instance.
+   */
+  void grantGroup(int groupId, int localId) {
+    componentsByGroup.computeIfAbsent(groupId, k -> new BitSet()).set(localId);
+  }
+
+  /**
+   * Removes all the access rights of the specified user.
+   * @param userId the unique identifier of the user.
+   */
+  void removeUser(int userId) {
+    componentsByUser.remove(userId);
+  }
+
+  /**
+   * Removes all the access rights of the specified group.
+   * @param groupId the unique identifier of the group.
+   */
+  void removeGroup(int groupId) {
+    componentsByGroup.remove(groupId);
+  }
+
+  /**
+   * Gets the identifiers of all the component instances accessible by the specified user, either
+   * directly or through the given groups, or because they are public. The rules applied on the
+   * component name filter are the same as the ones in the SQL queries of
+   * {@link org.silverpeas.core.admin.component.dao.ComponentDAO}.
+   * @param userId the unique identifier of the user or -1 if only the groups have to be taken
+   * into account.
+   * @param groupIds the unique identifier of the groups in which the user is (or null).
+   * @param componentName the name of an application to filter the component instances with or
+   * null.
+   * @return a list of component instance identifiers.
+   */
+  List<String> getAllowedComponentIds(int userId, Collection<String> groupIds,
+      String componentName) {
+    final boolean filtered = StringUtil.isDefined(componentName);
+    final BitSet allowed = new BitSet();
+    if (groupIds != null) {
+      groupIds.stream()
+          .map(id -> componentsByGroup.get(Integer.parseInt(id)))
+          .filter(Objects::nonNull)
+          .forEach(allowed::or);
+    }
+    if (userId != -1) {
+      final BitSet ofUser = componentsByUser.get(userId);
+      if (ofUser != null) {
+        allowed.or(ofUser);
+      }
+    }
+    final BitSet matching = new BitSet();
+    allowed.stream().forEach(i -> {
+      final String name = componentNames.get(i);
+      if (name != null && (!filtered || componentName.equalsIgnoreCase(name))) {
+        matching.set(i);
+      }
+    });
+    publicComponents.stream().forEach(i -> {
+      if (!filtered || (componentNames.get(i) + i).startsWith(componentName)) {
+        matching.set(i);
+      }
+    });
+    final List<String> componentIds = new ArrayList<>(matching.cardinality());
+    matching.stream().forEach(i -> componentIds.add(componentNames.get(i) + i));
+    return componentIds;
+  }
+}
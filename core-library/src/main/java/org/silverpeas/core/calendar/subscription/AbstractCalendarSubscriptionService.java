@@ -27,16 +27,13 @@ import org.silverpeas.core.ResourceReference;
 import org.silverpeas.core.calendar.Calendar;
 import org.silverpeas.core.subscription.SubscriberDirective;
 import org.silverpeas.core.subscription.SubscriptionFactory;
+import org.silverpeas.core.subscription.SubscriptionResource;
 import org.silverpeas.core.subscription.SubscriptionResourceType;
-import org.silverpeas.core.subscription.SubscriptionSubscriber;
 import org.silverpeas.core.subscription.service.AbstractResourceSubscriptionService;
-import org.silverpeas.core.subscription.util.SubscriptionSubscriberList;
 
 import java.util.Collection;
-import java.util.HashSet;
 
 import static org.silverpeas.core.calendar.subscription.CalendarSubscriptionConstants.CALENDAR;
-import static org.silverpeas.core.subscription.SubscriptionServiceProvider.getSubscribeService;
 import static org.silverpeas.core.subscription.constant.CommonSubscriptionResourceConstants.COMPONENT;
 
 /**
@@ -56,29 +53,26 @@ public abstract class AbstractCalendarSubscriptionService extends AbstractResour
   }
 
   @Override
-  public SubscriptionSubscriberList getSubscribersOfComponentAndTypedResource(
-      final String componentInstanceId, final SubscriptionResourceType resourceType,
-      final String resourceId, final SubscriberDirective... directives) {
-    final Collection<SubscriptionSubscriber> subscribers = new HashSet<>();
+  protected void collectSubscriptionResources(final String componentInstanceId,
+      final SubscriptionResourceType resourceType, final String resourceId,
+      final Collection<SubscriptionResource> resources, final SubscriberDirective... directives) {
     SubscriptionResourceType nextTypeToHandle = resourceType;
     if (nextTypeToHandle == CALENDAR) {
       // In that case, subscribers of forum and their parents and of component must be verified.
-      verifyCalendar(componentInstanceId, resourceId, subscribers);
+      verifyCalendar(componentInstanceId, resourceId, resources);
       nextTypeToHandle = COMPONENT;
     }
     if (nextTypeToHandle == COMPONENT) {
       // In that case, subscribers of component must be verified.
-      subscribers.addAll(super.getSubscribersOfComponentAndTypedResource(componentInstanceId,
-          COMPONENT, resourceId));
+      super.collectSubscriptionResources(componentInstanceId, COMPONENT, resourceId, resources);
     }
-    return new SubscriptionSubscriberList(subscribers);
   }
 
   private void verifyCalendar(final String componentInstanceId, final String resourceId,
-      final Collection<SubscriptionSubscriber> subscribers) {
+      final Collection<SubscriptionResource> resources) {
     final Calendar calendar = Calendar.getById(resourceId);
     if (calendar != null && calendar.getComponentInstanceId().equals(componentInstanceId)) {
-      subscribers.addAll(getSubscribeService().getSubscribers(CalendarSubscriptionResource.from(calendar)));
+      resources.add(CalendarSubscriptionResource.from(calendar));
     }
   }
 }
@@ -0,0 +1,483 @@
+/*
+ * Copyright (C) 2000 - 2024 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.contribution.attachment.repository;
+
+import org.apache.commons.io.FilenameUtils;
+import org.silverpeas.core.contribution.attachment.model.SimpleDocument;
+import org.silverpeas.core.contribution.attachment.util.AttachmentSettings;
+import org.silverpeas.core.util.file.FileRepositoryManager;
+import org.silverpeas.kernel.logging.SilverLogger;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileStore;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A content-addressed store of the attachment files. A file is stored once in the store, under
+ * the SHA-256 hash of its content, and it is shared by all the attachments having the same content
+ * through hard links: the path of the file of an attachment is a hard link to a blob of the store.
+ * So copying the attachments of a publication or of a whole space doesn't duplicate their content
+ * on the disk and it is a metadata-only operation, as the moving was already.
+ * <p>
+ * A blob is referred by the hard links of the attachments; the number of references of a blob is
+ * then given by the count of links of its file minus the one of the store itself. A blob that
+ * isn't referred anymore by any attachment is deleted at the next {@link #sweep()}.
+ * </p>
+ * <p>
+ * As the content of a blob is shared, it is read-only. Any code that rewrites the file of an
+ * attachment in place has to {@link #detach(File)} it first. The store requires a POSIX file
+ * system supporting hard links and it must be on the same file store as the upload directory.
+ * Otherwise it is disabled and the attachment files are stored privately as before. If a hard
+ * link cannot be created all the same (for example, the upload directory of a component is a
+ * mount point of another device), the content is copied instead of being shared.
+ * </p>
+ * @author mmoquillon
+ */
+public class ContentBlobStore {
+
+  private static final String LINK_COUNT_ATTRIBUTE = "unix:nlink";
+  private static final String DIGEST_ALGORITHM = "SHA-256";
+  private static final String TEMPORARY_DIRECTORY = "tmp";
+  private static final long TEMPORARY_FILE_LIFETIME = 3_600_000L;
+  private static final int LINK_ATTEMPTS = 3;
+
+  private final Path root;
+  private final boolean enabled;
+
+  /**
+   * Constructs a blob store rooted at the specified directory.
+   * @param root the root directory of the store.
+   * @param uploadDirectory the directory into which the attachments are uploaded.
+   * @param enabled is the store enabled?
+   */
+  ContentBlobStore(final Path root, final Path uploadDirectory, final boolean enabled) {
+    this.root = root;
+    this.enabled = enabled && isSupported(root, uploadDirectory);
+  }
+
+  /**
+   * Gets the blob store of the attachments as configured in the attachment settings.
+   * @return the {@link ContentBlobStore} instance.
+   */
+  public static ContentBlobStore get() {
+    return InstanceHolder.instance;
+  }
+
+  /**
+   * Is the content-addressed storage of the attachments enabled?
+   * @return true if the attachment files are stored into this store, false otherwise.
+   */
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Gets the root directory of the store.
+   * @return the path of the store.
+   */
+  public Path getRoot() {
+    return root;
+  }
+
+  /**
+   * Stores the content read from the specified stream as the given file: the content is stored
+   * into the store, if not already, and the file is then a link to it. Any existing file at the
+   * same location is replaced.
+   * @param in the stream with the content to store.
+   * @param target the file to which the content belongs.
+   * @param processing a processing to apply on the content before storing it. Null if none.
+   * @return the size of the stored content.
+   * @throws IOException if the content cannot be stored.
+   */
+  public long store(final InputStream in, final File target, final ContentProcessing processing)
+      throws IOException {
+    final Path temporary = newTemporaryFile(target.getName());
+    try {
+      final MessageDigest digest = newDigest();
+      try (DigestInputStream content = new DigestInputStream(in, digest)) {
+        Files.copy(content, temporary, StandardCopyOption.REPLACE_EXISTING);
+      }
+      String hash = toHex(digest.digest());
+      if (processing != null) {
+        processing.process(temporary.toFile());
+        hash = hash(temporary);
+      }
+      link(temporary, hash, target.toPath());
+      return Files.size(target.toPath());
+    } finally {
+      Files.deleteIfExists(temporary);
+    }
+  }
+
+  /**
+   * Copies the specified file or directory to the given target. The content of the files is
+   * shared with the copies instead of being duplicated: the files of the source are moved into
+   * the store, if not already, and their copies are links to them.
+   * @param source the file or the directory to copy.
+   * @param target the copy.
+   * @throws IOException if the copy fails.
+   */
+  public void copy(final File source, final File target) throws IOException {
+    final Path sourcePath = source.toPath();
+    final Path targetPath = target.toPath();
+    if (Files.isDirectory(sourcePath)) {
+      final List<Path> paths;
+      try (Stream<Path> walk = Files.walk(sourcePath)) {
+        paths = walk.collect(Collectors.toList());
+      }
+      for (Path path : paths) {
+        final Path copy = targetPath.resolve(sourcePath.relativize(path).toString());
+        if (Files.isDirectory(path)) {
+          Files.createDirectories(copy);
+        } else if (Files.isRegularFile(path)) {
+          link(path, share(path), copy);
+        }
+      }
+    } else {
+      link(sourcePath, share(sourcePath), targetPath);
+    }
+  }
+
+  /**
+   * Detaches the specified file from the store before rewriting it in place: the shared content
+   * mustn't be modified through the file. Nothing is done if the file isn't in the store. The
+   * file is detached even if the store is disabled: it can have been stored into it before the
+   * store was disabled, and then it is still a link to a shared blob.
+   * @param file the file of an attachment.
+   * @throws IOException if the file cannot be detached.
+   */
+  public void detach(final File file) throws IOException {
+    final Path path = file.toPath();
+    if (Files.isRegularFile(path) && (isLinked(path) || !Files.isWritable(path))) {
+      Files.delete(path);
+    }
+  }
+
+  /**
+   * Moves into the store all the attachment files found in the specified upload directory that
+   * aren't yet in it. Identical files are then stored only once.
+   * @param uploadDirectory the directory into which the attachments are uploaded.
+   * @return a report of the migration with the space saved.
+   * @throws IOException if the migration fails.
+   */
+  public ContentBlobStoreReport migrate(final Path uploadDirectory) throws IOException {
+    final ContentBlobStoreReport report = new ContentBlobStoreReport();
+    for (Path documentDirectory : listDocumentDirectories(uploadDirectory)) {
+      final List<Path> files;
+      try (Stream<Path> walk = Files.walk(documentDirectory)) {
+        files = walk.filter(Files::isRegularFile).collect(Collectors.toList());
+      }
+      for (Path file : files) {
+        if (getLinkCount(file) == 1) {
+          try {
+            share(file);
+            report.fileMigrated(Files.size(file));
+          } catch (IOException e) {
+            SilverLogger.getLogger(this)
+                .warn("Attachment file {0} not moved into the blob store: {1}", file,
+                    e.getMessage());
+          }
+        }
+      }
+    }
+    return report(report);
+  }
+
+  /**
+   * Deletes the blobs that aren't referred anymore by any attachment and the temporary files
+   * left by interrupted storages.
+   * @return a report with the count and the size of the deleted blobs.
+   * @throws IOException if the store cannot be swept.
+   */
+  public ContentBlobStoreReport sweep() throws IOException {
+    final ContentBlobStoreReport report = new ContentBlobStoreReport();
+    if (!Files.isDirectory(root)) {
+      return report;
+    }
+    final long now = System.currentTimeMillis();
+    final Path temporaryDirectory = root.resolve(TEMPORARY_DIRECTORY);
+    for (Path file : listFiles(root)) {
+      final boolean orphan = file.startsWith(temporaryDirectory) ?
+          now - Files.getLastModifiedTime(file).toMillis() > TEMPORARY_FILE_LIFETIME :
+          getLinkCount(file) <= 1;
+      if (orphan) {
+        final long size = Files.size(file);
+        if (Files.deleteIfExists(file)) {
+          report.blobSwept(size);
+        }
+      }
+    }
+    return report(report);
+  }
+
+  /**
+   * Computes a report about the blobs in the store and the space saved by sharing them.
+   * @return a report of the store.
+   * @throws IOException if the store cannot be read.
+   */
+  public ContentBlobStoreReport report() throws IOException {
+    return report(new ContentBlobStoreReport());
+  }
+
+  private ContentBlobStoreReport report(final ContentBlobStoreReport report) throws IOException {
+    if (!Files.isDirectory(root)) {
+      return report;
+    }
+    final Path temporaryDirectory = root.resolve(TEMPORARY_DIRECTORY);
+    for (Path blob : listFiles(root)) {
+      if (!blob.startsWith(temporaryDirectory)) {
+        try {
+          report.blobFound(Files.size(blob), getLinkCount(blob) - 1);
+        } catch (NoSuchFileException e) {
+          // swept in the meantime
+        }
+      }
+    }
+    return report;
+  }
+
+  /**
+   * Stores the specified file into the store, if not already, and makes it a link to its blob.
+   * @param file the file to share.
+   * @return the hash of the content of the file.
+   * @throws IOException if the file cannot be stored.
+   */
+  private String share(final Path file) throws IOException {
+    final String hash = hash(file);
+    link(file, hash, file);
+    return hash;
+  }
+
+  /**
+   * Links the specified target to the blob with the given hash. If there is no such blob, the
+   * given file with the content becomes it. An existing target is atomically replaced by the link,
+   * so it is never missing, and the linking is attempted again if the blob is swept meanwhile.
+   */
+  private void link(final Path file, final String hash, final Path target) throws IOException {
+    final Path blob = getBlobPath(hash);
+    for (int attempt = 1; ; attempt++) {
+      try {
+        if (!Files.exists(blob)) {
+          Files.createDirectories(blob.getParent());
+          setReadOnly(file);
+          createLink(blob, file);
+        }
+        if (!Files.exists(target) || !Files.isSameFile(target, blob)) {
+          Files.createDirectories(target.getParent());
+          final Path link =
+              target.resolveSibling(target.getFileName() + "." + System.nanoTime() + ".link");
+          createLinkOrCopy(link, blob);
+          Files.move(link, target, StandardCopyOption.REPLACE_EXISTING,
+              StandardCopyOption.ATOMIC_MOVE);
+        }
+        return;
+      } catch (NoSuchFileException e) {
+        if (attempt >= LINK_ATTEMPTS) {
+          throw e;
+        }
+      }
+    }
+  }
+
+  private void createLink(final Path link, final Path existing) throws IOException {
+    try {
+      createLinkOrCopy(link, existing);
+    } catch (FileAlreadyExistsException e) {
+      // the same content was stored concurrently
+    }
+  }
+
+  /**
+   * Creates a hard link to the specified existing file. If the link is refused by the file system
+   * (the two paths aren't on the same device, for example), the file is copied instead: its
+   * content isn't shared but it is stored all the same.
+   */
+  private void createLinkOrCopy(final Path link, final Path existing) throws IOException {
+    try {
+      Files.createLink(link, existing);
+    } catch (FileAlreadyExistsException | NoSuchFileException e) {
+      throw e;
+    } catch (FileSystemException | UnsupportedOperationException e) {
+      SilverLogger.getLogger(this)
+          .warn("Cannot link {0} to {1}, it is copied instead: {2}", link, existing,
+              e.getMessage());
+      Files.copy(existing, link);
+    }
+  }
+
+  private Path getBlobPath(final String hash) {
+    return root.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash);
+  }
+
+  private Path newTemporaryFile(final String fileName) throws IOException {
+    final Path temporaryDirectory = root.resolve(TEMPORARY_DIRECTORY);
+    Files.createDirectories(temporaryDirectory);
+    final String extension = FilenameUtils.getExtension(fileName);
+    return Files.createTempFile(temporaryDirectory, "blob",
+        extension.isEmpty() ? null : "." + extension);
+  }
+
+  private List<Path> listDocumentDirectories(final Path uploadDirectory) throws IOException {
+    final List<Path> documentDirectories = new ArrayList<>();
+    try (Stream<Path> instances = Files.list(uploadDirectory)) {
+      for (Path instance : (Iterable<Path>) instances::iterator) {
+        if (Files.isDirectory(instance) && !root.startsWith(instance)) {
+          try (Stream<Path> documents = Files.list(instance)) {
+            documents.filter(Files::isDirectory)
+                .filter(d -> isDocumentDirectory(d.getFileName().toString()))
+                .forEach(documentDirectories::add);
+          }
+        }
+      }
+    }
+    return documentDirectories;
+  }
+
+  private static boolean isDocumentDirectory(final String name) {
+    return name.startsWith(SimpleDocument.DOCUMENT_PREFIX) ||
+        name.startsWith(SimpleDocument.VERSION_PREFIX);
+  }
+
+  private static List<Path> listFiles(final Path directory) throws IOException {
+    try (Stream<Path> walk = Files.walk(directory)) {
+      return walk.filter(Files::isRegularFile).collect(Collectors.toList());
+    }
+  }
+
+  private static boolean isLinked(final Path file) throws IOException {
+    return file.getFileSystem().supportedFileAttributeViews().contains("unix") &&
+        getLinkCount(file) > 1;
+  }
+
+  private static int getLinkCount(final Path file) throws IOException {
+    return (Integer) Files.getAttribute(file, LINK_COUNT_ATTRIBUTE);
+  }
+
+  private static void setReadOnly(final Path file) {
+    if (!file.toFile().setWritable(false, false)) {
+      SilverLogger.getLogger(ContentBlobStore.class).warn("Blob {0} not set read-only", file);
+    }
+  }
+
+  private static String hash(final Path file) throws IOException {
+    final MessageDigest digest = newDigest();
+    try (InputStream in = new DigestInputStream(Files.newInputStream(file), digest)) {
+      final byte[] buffer = new byte[8192];
+      //noinspection StatementWithEmptyBody
+      while (in.read(buffer) != -1) {
+        // the content is digested while read
+      }
+    }
+    return toHex(digest.digest());
+  }
+
+  private static MessageDigest newDigest() {
+    try {
+      return MessageDigest.getInstance(DIGEST_ALGORITHM);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static String toHex(final byte[] bytes) {
+    final StringBuilder hex = new StringBuilder(bytes.length * 2);
+    for (byte b : bytes) {
+      hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+    }
+    return hex.toString();
+  }
+
+  private static boolean isSupported(final Path root, final Path uploadDirectory) {
+    final SilverLogger logger = SilverLogger.getLogger(ContentBlobStore.class);
+    if (!root.getFileSystem().supportedFileAttributeViews().contains("unix")) {
+      logger.warn("The blob store of the attachments requires a POSIX file system. It is disabled");
+      return false;
+    }
+    try {
+      final FileStore storeOfBlobs = getFileStore(root);
+      final FileStore storeOfUploads = getFileStore(uploadDirectory);
+      if (!storeOfBlobs.equals(storeOfUploads)) {
+        logger.warn("The blob store of the attachments {0} is not on the same file store as the " +
+            "upload directory {1}. It is disabled", root, uploadDirectory);
+        return false;
+      }
+      return true;
+    } catch (IOException e) {
+      logger.warn("The file store of the attachments cannot be checked: {0}. It is disabled",
+          e.getMessage());
+      return false;
+    }
+  }
+
+  /**
+   * Gets the file store of the specified path or, if it doesn't exist yet, of its nearest
+   * existing parent: it is the one into which the path will be created.
+   */
+  private static FileStore getFileStore(final Path path) throws IOException {
+    Path existing = path.toAbsolutePath();
+    while (existing != null && !Files.exists(existing)) {
+      existing = existing.getParent();
+    }
+    if (existing == null) {
+      throw new NoSuchFileException(path.toString());
+    }
+    return Files.getFileStore(existing);
+  }
+
+  /**
+   * A processing on the content of a file before it is stored.
+   */
+  @FunctionalInterface
+  public interface ContentProcessing {
+
+    /**
+     * Processes the specified file. The file can be modified.
+     * @param file the file with the content to store.
+     * @throws IOException if the processing fails.
+     */
+    void process(final File file) throws IOException;
+  }
+
+  private static class InstanceHolder {
+    private static final ContentBlobStore instance =
+        new ContentBlobStore(Paths.get(AttachmentSettings.getBlobStorePath()),
+            Paths.get(FileRepositoryManager.getUploadPath()),
+            AttachmentSettings.isBlobStoreEnabled());
+  }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (C) 2000 - 2024 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.contribution.attachment.repository;
+
+import org.silverpeas.core.annotation.Service;
+import org.silverpeas.core.contribution.attachment.util.AttachmentSettings;
+import org.silverpeas.core.initialization.Initialization;
+import org.silverpeas.core.scheduler.Job;
+import org.silverpeas.core.scheduler.JobExecutionContext;
+import org.silverpeas.core.scheduler.Scheduler;
+import org.silverpeas.core.scheduler.SchedulerProvider;
+import org.silverpeas.core.scheduler.trigger.JobTrigger;
+import org.silverpeas.core.thread.ManagedThreadPool;
+import org.silverpeas.core.util.file.FileRepositoryManager;
+import org.silverpeas.kernel.SilverpeasException;
+import org.silverpeas.kernel.logging.SilverLogger;
+import org.silverpeas.kernel.util.StringUtil;
+
+import javax.inject.Singleton;
+import java.io.IOException;
+import java.nio.file.Paths;
+
+/**
+ * Initializes the content-addressed blob store of the attachments when it is enabled: it moves
+ * the existing attachment files into the store at start if asked and it schedules the sweeping of
+ * the blobs that aren't referred anymore by any attachment.
+ * @author mmoquillon
+ */
+@Service
+@Singleton
+public class ContentBlobStoreInitializer implements Initialization {
+
+  private static final String JOB_NAME = "ContentBlobStoreSweepJob";
+
+  @Override
+  public void init() throws Exception {
+    final ContentBlobStore blobStore = ContentBlobStore.get();
+    if (!blobStore.isEnabled()) {
+      return;
+    }
+    if (AttachmentSettings.isBlobStoreMigrationAtStartupEnabled()) {
+      ManagedThreadPool.getPool().invoke(() -> migrate(blobStore));
+    }
+    final String cron = AttachmentSettings.getBlobStoreSweepCron();
+    final Scheduler scheduler = SchedulerProvider.getVolatileScheduler();
+    scheduler.unscheduleJob(JOB_NAME);
+    if (StringUtil.isDefined(cron)) {
+      scheduler.scheduleJob(new SweepJob(blobStore), JobTrigger.triggerAt(cron));
+    }
+  }
+
+  private static void migrate(final ContentBlobStore blobStore) {
+    final SilverLogger logger = SilverLogger.getLogger(ContentBlobStoreInitializer.class);
+    try {
+      logger.info("Attachment files moving into the blob store {0}", blobStore.getRoot());
+      final ContentBlobStoreReport report =
+          blobStore.migrate(Paths.get(FileRepositoryManager.getUploadPath()));
+      logger.info("Attachment files moved into the blob store: {0}", report);
+    } catch (IOException e) {
+      logger.error(e);
+    }
+  }
+
+  /**
+   * Sweeps the blobs that aren't referred anymore by any attachment.
+   */
+  private static class SweepJob extends Job {
+
+    private final ContentBlobStore blobStore;
+
+    SweepJob(final ContentBlobStore blobStore) {
+      super(JOB_NAME);
+      this.blobStore = blobStore;
+    }
+
+    @Override
+    public void execute(final JobExecutionContext context) throws SilverpeasException {
+      try {
+        final ContentBlobStoreReport report = blobStore.sweep();
+        SilverLogger.getLogger(ContentBlobStoreInitializer.class)
+            .info("Blob store of the attachments swept: {0}", report);
+      } catch (IOException e) {
+        throw new SilverpeasException(e);
+      }
+    }
+  }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright (C) 2000 - 2024 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.contribution.attachment.repository;
+
+import java.text.MessageFormat;
+
+/**
+ * A report about the content-addressed blob store of the attachments: the blobs in the store,
+ * the number of attachment files referring them and then the disk space saved by sharing them.
+ * It reports also the files moved into the store by a migration and the blobs deleted by a
+ * sweeping.
+ * @author mmoquillon
+ */
+public class ContentBlobStoreReport {
+
+  private long blobCount = 0;
+  private long referenceCount = 0;
+  private long physicalSize = 0;
+  private long logicalSize = 0;
+  private long migratedFileCount = 0;
+  private long migratedSize = 0;
+  private long sweptBlobCount = 0;
+  private long sweptSize = 0;
+
+  void blobFound(final long size, final int references) {
+    blobCount++;
+    referenceCount += references;
+    physicalSize += size;
+    logicalSize += size * references;
+  }
+
+  void fileMigrated(final long size) {
+    migratedFileCount++;
+    migratedSize += size;
+  }
+
+  void blobSwept(final long size) {
+    sweptBlobCount++;
+    sweptSize += size;
+  }
+
+  /**
+   * Gets the number of blobs in the store.
+   * @return the number of blobs.
+   */
+  public long getBlobCount() {
+    return blobCount;
+  }
+
+  /**
+   * Gets the number of attachment files referring a blob of the store.
+   * @return the number of references to the blobs.
+   */
+  public long getReferenceCount() {
+    return referenceCount;
+  }
+
+  /**
+   * Gets the size in bytes really taken by the blobs on the disk.
+   * @return the physical size of the store.
+   */
+  public long getPhysicalSize() {
+    return physicalSize;
+  }
+
+  /**
+   * Gets the size in bytes the attachment files referring the blobs would take on the disk
+   * without the store.
+   * @return the logical size of the store.
+   */
+  public long getLogicalSize() {
+    return logicalSize;
+  }
+
+  /**
+   * Gets the size in bytes saved on the disk by sharing the blobs among the attachments.
+   * @return the saved disk space.
+   */
+  public long getSavedSize() {
+    return Math.max(0, logicalSize - physicalSize);
+  }
+
+  /**
+   * Gets the number of attachment files moved into the store by a migration.
+   * @return the number of migrated files.
+   */
+  public long getMigratedFileCount() {
+    return migratedFileCount;
+  }
+
+  /**
+   * Gets the size in bytes of the attachment files moved into the store by a migration.
+   * @return the size of the migrated files.
+   */
+  public long getMigratedSize() {
+    return migratedSize;
+  }
+
+  /**
+   * Gets the number of blobs deleted by a sweeping as they weren't referred anymore.
+   * @return the number of swept blobs.
+   */
+  public long getSweptBlobCount() {
+    return sweptBlobCount;
+  }
+
+  /**
+   * Gets the size in bytes freed by a sweeping.
+   * @return the size of the swept blobs.
+   */
+  public long getSweptSize() {
+    return sweptSize;
+  }
+
+  @Override
+  public String toString() {
+    return MessageFormat.format(
+        "{0} blobs ({1} bytes) referred by {2} attachment files ({3} bytes): {4} bytes saved. " +
+            "{5} files ({6} bytes) migrated, {7} blobs ({8} bytes) swept",
+        String.valueOf(blobCount), String.valueOf(physicalSize), String.valueOf(referenceCount),
+        String.valueOf(logicalSize), String.valueOf(getSavedSize()),
+        String.valueOf(migratedFileCount), String.valueOf(migratedSize),
+        String.valueOf(sweptBlobCount), String.valueOf(sweptSize));
+  }
+}
@@ -30,6 +30,7 @@ import org.silverpeas.kernel.cache.model.SimpleCache;
 import org.silverpeas.core.contribution.attachment.model.*;
 import org.silverpeas.core.contribution.attachment.util.SimpleDocumentList;
 import org.silverpeas.core.i18n.I18NHelper;
+import org.silverpeas.core.io.file.ImageResizingService;
 import org.silverpeas.core.io.media.image.ImageTool;
 import org.silverpeas.core.io.media.image.option.OrientationOption;
 import org.silverpeas.core.jcr.JCRSession;
@@ -1272,11 +1273,26 @@ public class DocumentRepository {
         FileUtils.forceMkdir(parentFile);
       }
     }
-    FileUtils.copyInputStreamToFile(in, file);
+    final ContentBlobStore blobStore = ContentBlobStore.get();
+    final long size;
+    if (blobStore.isEnabled()) {
+      size = blobStore.store(in, file, document.isContentImage() ? this::orientImage : null);
+    } else {
+      blobStore.detach(file);
+      FileUtils.copyInputStreamToFile(in, file);
+      if (document.isContentImage()) {
+        orientImage(file);
+      }
+      size = file.length();
+    }
     if (document.isContentImage()) {
-      ImageTool.get().convert(file, null, OrientationOption.auto().modifyImageOnlyIfNecessary());
+      ImageResizingService.get().pregenerate(file);
     }
-    return file.length();
+    return size;
+  }
+
+  private void orientImage(final File image) {
+    ImageTool.get().convert(image, null, OrientationOption.auto().modifyImageOnlyIfNecessary());
   }
 
   public long storeContent(SimpleDocument document, InputStream in) throws IOException {
@@ -1299,7 +1315,7 @@ public class DocumentRepository {
     for (File langDir : children) {
       File targetLangDir = new File(target, langDir.getName());
       if (!targetLangDir.exists()) {
-        FileUtils.copyDirectory(langDir, targetLangDir);
+        copyDirectory(langDir, targetLangDir);
       }
     }
   }
@@ -1325,7 +1341,7 @@ public class DocumentRepository {
     if (target.exists()) {
       FileUtils.cleanDirectory(target);
     }
-    FileUtils.copyDirectory(source, target);
+    copyDirectory(source, target);
   }
 
   public void copyFullContent(SimpleDocument origin, SimpleDocument copy) throws IOException {
@@ -1340,7 +1356,20 @@ public class DocumentRepository {
     if (target.exists()) {
       FileUtils.cleanDirectory(target);
     }
-    FileUtils.copyDirectory(source, target);
+    copyDirectory(source, target);
+  }
+
+  /**
+   * Copies the specified directory with the files of documents. If the content-addressed blob
+   * store is enabled, the files aren't duplicated but shared with the copy.
+   */
+  private void copyDirectory(final File source, final File target) throws IOException {
+    final ContentBlobStore blobStore = ContentBlobStore.get();
+    if (blobStore.isEnabled()) {
+      blobStore.copy(source, target);
+    } else {
+      FileUtils.copyDirectory(source, target);
+    }
   }
 
   public void moveMultilangContent(SimpleDocument origin, SimpleDocument copy) throws IOException {
@@ -24,6 +24,7 @@
 package org.silverpeas.core.contribution.attachment.util;
 
 import org.silverpeas.core.admin.component.model.SilverpeasComponent;
+import org.silverpeas.core.util.file.FileRepositoryManager;
 import org.silverpeas.kernel.bundle.ResourceLocator;
 import org.silverpeas.kernel.bundle.SettingBundle;
 import org.silverpeas.kernel.util.StringUtil;
@@ -118,4 +119,43 @@ public class AttachmentSettings {
   public static boolean defaultValueOfEditableSimultaneously() {
     return settings.getBoolean("attachment.onlineEditing.simultaneously.default", true);
   }
+
+  /**
+   * Indicates if the content of the attachments is stored into the content-addressed blob store,
+   * so that identical files are stored only once. (defined in properties by
+   * attachment.blobStore.enabled)
+   * @return true if the blob store is enabled, false otherwise (default value).
+   */
+  public static boolean isBlobStoreEnabled() {
+    return settings.getBoolean("attachment.blobStore.enabled", false);
+  }
+
+  /**
+   * Gets the path of the root directory of the content-addressed blob store. It must be on the
+   * same file system as the upload directory. (defined in properties by attachment.blobStore.path)
+   * @return the absolute path of the blob store, by default the blobstore directory in the upload
+   * directory.
+   */
+  public static String getBlobStorePath() {
+    return settings.getString("attachment.blobStore.path",
+        FileRepositoryManager.getUploadPath() + "blobstore");
+  }
+
+  /**
+   * Gets the CRON of the sweeping of the blobs that aren't referred anymore by any attachment.
+   * (defined in properties by attachment.blobStore.sweep.cron)
+   * @return a CRON expression, empty if no sweeping is scheduled.
+   */
+  public static String getBlobStoreSweepCron() {
+    return settings.getString("attachment.blobStore.sweep.cron", "0 3 * * *");
+  }
+
+  /**
+   * Indicates if the existing attachment files must be moved into the blob store at server start.
+   * (defined in properties by attachment.blobStore.migrateAtStartup)
+   * @return true if the migration must be performed at start, false otherwise (default value).
+   */
+  public static boolean isBlobStoreMigrationAtStartupEnabled() {
+    return settings.getBoolean("attachment.blobStore.migrateAtStartup", false);
+  }
 }
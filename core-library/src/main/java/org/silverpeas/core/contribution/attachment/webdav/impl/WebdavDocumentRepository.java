@@ -28,6 +28,7 @@ import org.apache.commons.io.IOUtils;
 import org.silverpeas.core.annotation.Repository;
 import org.silverpeas.core.contribution.attachment.model.DocumentType;
 import org.silverpeas.core.contribution.attachment.model.SimpleDocument;
+import org.silverpeas.core.contribution.attachment.repository.ContentBlobStore;
 import org.silverpeas.core.contribution.attachment.webdav.WebdavRepository;
 import org.silverpeas.core.i18n.I18NHelper;
 import org.silverpeas.core.persistence.jcr.JcrDataConverter;
@@ -248,8 +249,11 @@ public class WebdavDocumentRepository implements WebdavRepository {
     Node rootNode = session.getRootNode();
     Node webdavFileNode = rootNode.getNode(attachment.getWebdavJcrPath());
     Binary webdavBinary = webdavFileNode.getNode(JCR_CONTENT).getProperty(JCR_DATA).getBinary();
+    final File file = new File(attachment.getAttachmentPath());
+    // the content can be shared with other documents: it mustn't be rewritten in place
+    ContentBlobStore.get().detach(file);
     try (final InputStream in = webdavBinary.getStream();
-         final OutputStream out = FileUtils.openOutputStream(new File(attachment.getAttachmentPath()))) {
+         final OutputStream out = FileUtils.openOutputStream(file)) {
       IOUtils.copy(in, out);
     } finally {
       webdavBinary.dispose();
@@ -345,6 +345,9 @@ public class ContentManagementEngine implements Serializable {
     } finally {
       DBUtil.close(prepStmt);
     }
+
+    ServiceProvider.getAllServices(SilverContentPostUpdate.class)
+        .forEach(c -> c.postSilverpeasContentUpdate(nSilverContentId));
   }
 
   private int getSilverContentId(Connection connection, String sInternalContentId,
@@ -30,15 +30,13 @@ import org.silverpeas.core.contribution.publication.model.PublicationPK;
 import org.silverpeas.core.contribution.publication.service.PublicationService;
 import org.silverpeas.core.subscription.SubscriberDirective;
 import org.silverpeas.core.subscription.SubscriptionFactory;
+import org.silverpeas.core.subscription.SubscriptionResource;
 import org.silverpeas.core.subscription.SubscriptionResourceType;
-import org.silverpeas.core.subscription.SubscriptionSubscriber;
 import org.silverpeas.core.subscription.service.AbstractResourceSubscriptionService;
-import org.silverpeas.core.subscription.util.SubscriptionSubscriberList;
 import org.silverpeas.kernel.util.Mutable;
 import org.silverpeas.kernel.util.Pair;
 
 import java.util.Collection;
-import java.util.HashSet;
 import java.util.List;
 import java.util.function.Predicate;
 
@@ -47,7 +45,6 @@ import static java.util.stream.Collectors.toList;
 import static org.silverpeas.core.contribution.publication.subscription.OnLocationDirective.onLocationId;
 import static org.silverpeas.core.contribution.publication.subscription.PublicationSubscriptionConstants.PUBLICATION;
 import static org.silverpeas.core.contribution.publication.subscription.PublicationSubscriptionConstants.PUBLICATION_ALIAS;
-import static org.silverpeas.core.subscription.SubscriptionServiceProvider.getSubscribeService;
 import static org.silverpeas.core.subscription.constant.CommonSubscriptionResourceConstants.COMPONENT;
 import static org.silverpeas.core.subscription.constant.CommonSubscriptionResourceConstants.NODE;
 import static org.silverpeas.kernel.util.Mutable.of;
@@ -72,16 +69,14 @@ public abstract class AbstractPublicationSubscriptionService extends AbstractRes
   }
 
   @Override
-  public SubscriptionSubscriberList getSubscribersOfComponentAndTypedResource(
-      final String componentInstanceId, final SubscriptionResourceType resourceType,
-      final String resourceId, final SubscriberDirective... directives) {
-    final Collection<SubscriptionSubscriber> subscribers = new HashSet<>();
+  protected void collectSubscriptionResources(final String componentInstanceId,
+      final SubscriptionResourceType resourceType, final String resourceId,
+      final Collection<SubscriptionResource> resources, final SubscriberDirective... directives) {
     final Mutable<Pair<SubscriptionResourceType, String>> reference = of(Pair.of(resourceType, resourceId));
     if (reference.get().getFirst() == PUBLICATION_ALIAS) {
       // In that case, subscribers of publication alias must be verified.
       final PublicationPK publicationPK = new PublicationPK(resourceId, componentInstanceId);
-      subscribers.addAll(getSubscribeService().getSubscribers(
-          PublicationAliasSubscriptionResource.from(publicationPK)));
+      resources.add(PublicationAliasSubscriptionResource.from(publicationPK));
       // If a location is given, then verifying also the node corresponding to it
       stream(directives)
           .filter(OnLocationDirective.class::isInstance)
@@ -92,8 +87,7 @@ public abstract class AbstractPublicationSubscriptionService extends AbstractRes
     if (reference.get().getFirst() == PUBLICATION) {
       // In that case, subscribers of publication must be verified.
       final PublicationPK publicationPK = new PublicationPK(resourceId, componentInstanceId);
-      subscribers.addAll(getSubscribeService().getSubscribers(
-          PublicationSubscriptionResource.from(publicationPK)));
+      resources.add(PublicationSubscriptionResource.from(publicationPK));
       // Next parent type / reference to verify
       final List<Predicate<Location>> locationFilters = stream(directives)
           .filter(LocationFilterDirective.class::isInstance)
@@ -112,12 +106,12 @@ public abstract class AbstractPublicationSubscriptionService extends AbstractRes
                       .filter(locationFilters.stream().reduce(Predicate::and).orElse(x -> true))
                       .forEach(l -> {
                         if (l.isAlias()) {
-                          subscribers.addAll(
-                              getSubscribersOfComponentAndTypedResource(l.getComponentInstanceId(),
-                                  PUBLICATION_ALIAS, resourceId, onLocationId(l.getLocalId())));
+                          collectSubscriptionResources(l.getComponentInstanceId(),
+                              PUBLICATION_ALIAS, resourceId, resources,
+                              onLocationId(l.getLocalId()));
                         } else {
-                          subscribers.addAll(getSubscribersOfComponentAndTypedResource(
-                              l.getComponentInstanceId(), NODE, l.getLocalId()));
+                          collectSubscriptionResources(l.getComponentInstanceId(), NODE,
+                              l.getLocalId(), resources);
                         }
                       }),
               () ->
@@ -125,12 +119,11 @@ public abstract class AbstractPublicationSubscriptionService extends AbstractRes
                   reference.set(Pair.of(COMPONENT, componentInstanceId)));
     }
     if (reference.get().getFirst() == NODE) {
-      subscribers.addAll(super.getSubscribersOfComponentAndTypedResource(componentInstanceId, NODE,
-          reference.get().getSecond()));
+      super.collectSubscriptionResources(componentInstanceId, NODE, reference.get().getSecond(),
+          resources);
     }
     if (reference.get().getFirst() == COMPONENT) {
-      subscribers.addAll(super.getSubscribersOfComponent(reference.get().getSecond()));
+      super.collectSubscriptionResources(reference.get().getSecond(), COMPONENT, null, resources);
     }
-    return new SubscriptionSubscriberList(subscribers);
   }
 }
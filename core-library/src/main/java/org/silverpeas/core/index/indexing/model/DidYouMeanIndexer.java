@@ -23,13 +23,27 @@
  */
 package org.silverpeas.core.index.indexing.model;
 
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexNotFoundException;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.search.spell.LuceneDictionary;
 import org.apache.lucene.search.spell.SpellChecker;
 import org.apache.lucene.store.FSDirectory;
 import org.silverpeas.core.i18n.I18NHelper;
+import org.silverpeas.kernel.bundle.ResourceLocator;
 import org.silverpeas.kernel.util.StringUtil;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
 
 import static org.silverpeas.core.index.indexing.IndexingLogger.indexingLogger;
 
@@ -37,6 +51,28 @@ import static org.silverpeas.core.index.indexing.IndexingLogger.indexingLogger;
  * This class allows to manage the specific index of "did you mean" functionality. <br>
  * creates new entry into index <br>
  * clear all the entries from index
+ * <p>
+ * The spelling indexes aren't updated each time their source index is flushed: the flushed
+ * indexes are just marked as changed (see {@link #indexChanged(String)}) and their spelling
+ * index are updated later, in the background, by the {@link DidYouMeanIndexingScheduler}. An
+ * update adds only the new words of the source index; the spelling index is rebuilt from scratch
+ * once every {@code dym.indexing.fullRebuildPeriod} updates in order to forget the words that
+ * aren't anymore in the source index.
+ * </p>
+ * <p>
+ * A spelling index is fed from the field of the source index in the default language and from
+ * the field of each other language, named after the field and suffixed by the language
+ * ({@code content_en}, {@code content_de}, ...). Before, the language suffixes were accumulated
+ * ({@code content_en_de}, ...) so that the words in the third language onwards were missing from
+ * the spelling indexes. The spelling indexes fed from the fields as they are named now are marked
+ * with a {@value #LOCALIZED_FIELDS_MARKER} file; the others are completed at the first run of the
+ * {@link DidYouMeanIndexingScheduler} (see {@link #markOutdatedSpellIndexes(Path)}).
+ * </p>
+ * <p>
+ * All the operations on the spelling indexes are serialized so that an explicit creation or
+ * clearing of a spelling index never runs at the same time than the background update of the
+ * same spelling index: Lucene allows only one writer per index directory.
+ * </p>
  */
 public class DidYouMeanIndexer {
 
@@ -45,6 +81,25 @@ public class DidYouMeanIndexer {
    */
   private static final String SUFFIX_SPELLING_INDEX_PATH = "Spell";
   private static final String DEFAULT_LANGUAGE = "fr";
+  /**
+   * Name of the file marking a spelling index fed from the localized fields as they are named
+   * now.
+   */
+  static final String LOCALIZED_FIELDS_MARKER = "localizedFields";
+  /**
+   * The maximum depth of the indexes in the index repository.
+   */
+  private static final int MAX_INDEX_DEPTH = 4;
+  private static final int FULL_REBUILD_PERIOD = ResourceLocator.getSettingBundle(
+      "org.silverpeas.index.indexing.IndexEngine").getInteger("dym.indexing.fullRebuildPeriod", 24);
+  /**
+   * The path of the indexes that have changed since the last update of their spelling index.
+   */
+  private static final Set<String> changedIndexes = ConcurrentHashMap.newKeySet();
+  /**
+   * The number of updates of the spelling index of each index since its last full rebuild.
+   */
+  private static final Map<String, Integer> updateCounts = new ConcurrentHashMap<>();
 
   /**
    * default constructor is private this class contains only static method
@@ -61,7 +116,7 @@ public class DidYouMeanIndexer {
    * @param originalIndexDirectory represents the source index path
    * @param spellIndexDirectory represents the spelling index path
    */
-  public static void createSpellIndex(String field, String originalIndexDirectory,
+  public static synchronized void createSpellIndex(String field, String originalIndexDirectory,
       String spellIndexDirectory) {
     // stop the process if method parameters is null or empty
     if (!StringUtil.isDefined(field) || !StringUtil.isDefined(originalIndexDirectory) ||
@@ -69,6 +124,120 @@ public class DidYouMeanIndexer {
       indexingLogger().error("Invalid argument passed to create a spell index");
       return;
     }
+    updateSpellIndex(field, originalIndexDirectory, spellIndexDirectory);
+  }
+
+  /**
+   * Marks the specified index as changed: its spelling index will be updated at the next run of
+   * the {@link DidYouMeanIndexingScheduler}.
+   * @param originalIndexDirectory the path of the changed index.
+   */
+  public static void indexChanged(String originalIndexDirectory) {
+    changedIndexes.add(originalIndexDirectory);
+  }
+
+  /**
+   * Updates the spelling index, for all the languages, of each index that has changed since the
+   * last update. The spelling index of an index is rebuilt from scratch once every
+   * {@code dym.indexing.fullRebuildPeriod} updates.
+   * @param field name of the field of the index source that will be used to feed the spelling index
+   */
+  public static void updateSpellIndexesOfChangedIndexes(String field) {
+    updateSpellIndexesOfChangedIndexes(field, FULL_REBUILD_PERIOD);
+  }
+
+  /**
+   * Updates the spelling index, for all the languages, of each index that has changed since the
+   * last update. The spelling index of an index is rebuilt from scratch once every specified
+   * number of updates.
+   * @param field name of the field of the index source that will be used to feed the spelling index
+   * @param fullRebuildPeriod the number of updates between two full rebuilds of a spelling index.
+   */
+  static synchronized void updateSpellIndexesOfChangedIndexes(String field,
+      int fullRebuildPeriod) {
+    final Iterator<String> it = changedIndexes.iterator();
+    while (it.hasNext()) {
+      final String indexPath = it.next();
+      it.remove();
+      final boolean rebuild = updateCounts.merge(indexPath, 1, Integer::sum) >= fullRebuildPeriod;
+      if (rebuild) {
+        updateCounts.remove(indexPath);
+      }
+      updateSpellIndexForAllLanguage(field, indexPath, rebuild);
+    }
+  }
+
+  /**
+   * Marks as changed the indexes, found in the specified index repository, whose spelling index
+   * was fed from the localized fields as they were named before: their spelling index is then
+   * completed with the words of all the languages at the next run of the
+   * {@link DidYouMeanIndexingScheduler}.
+   * @param indexRepository the root directory of the indexes.
+   */
+  public static void markOutdatedSpellIndexes(Path indexRepository) {
+    if (!Files.isDirectory(indexRepository)) {
+      return;
+    }
+    try (Stream<Path> paths = Files.walk(indexRepository, MAX_INDEX_DEPTH)) {
+      paths.filter(p -> p.getFileName().toString().endsWith(SUFFIX_SPELLING_INDEX_PATH))
+          .filter(Files::isDirectory)
+          .filter(p -> !Files.exists(p.resolve(LOCALIZED_FIELDS_MARKER)))
+          .map(p -> p.toString()
+              .substring(0, p.toString().length() - SUFFIX_SPELLING_INDEX_PATH.length()))
+          .filter(p -> new File(p).isDirectory())
+          .forEach(p -> {
+            indexingLogger().info("spelling index of {0} to complete with all the languages", p);
+            changedIndexes.add(p);
+          });
+    } catch (IOException e) {
+      indexingLogger().error("Cannot look for the outdated spelling indexes", e);
+    }
+  }
+
+  private static void updateSpellIndexForAllLanguage(String field, String originalIndexDirectory,
+      boolean rebuild) {
+    final String spellIndexDirectory = originalIndexDirectory + SUFFIX_SPELLING_INDEX_PATH;
+    if (rebuild) {
+      // cleared once for all the languages: each of them then adds its words
+      clearSpellIndex(spellIndexDirectory);
+    }
+    boolean updated = true;
+    for (String localizedField : getLocalizedFields(field)) {
+      updated &= updateSpellIndex(localizedField, originalIndexDirectory, spellIndexDirectory);
+    }
+    indexingLogger().debug("spelling index {0} {1}", spellIndexDirectory,
+        rebuild ? "rebuilt" : "updated");
+    if (updated) {
+      try {
+        Files.write(new File(spellIndexDirectory, LOCALIZED_FIELDS_MARKER).toPath(),
+            new byte[0]);
+      } catch (IOException e) {
+        indexingLogger().warn("Cannot mark the spelling index {0}: {1}", spellIndexDirectory,
+            e.getMessage());
+      }
+    }
+  }
+
+  private static boolean updateSpellIndex(String field, String originalIndexDirectory,
+      String spellIndexDirectory) {
+    final File originalIndex = new File(originalIndexDirectory);
+    if (!originalIndex.exists()) {
+      return false;
+    }
+    try (FSDirectory source = FSDirectory.open(originalIndex.toPath());
+         IndexReader reader = DirectoryReader.open(source);
+         FSDirectory spellIndex = FSDirectory.open(new File(spellIndexDirectory).toPath());
+         SpellChecker spellChecker = new SpellChecker(spellIndex)) {
+      // only the words that aren't yet in the spelling index are added
+      spellChecker.indexDictionary(new LuceneDictionary(reader, field), new IndexWriterConfig(),
+          false);
+      return true;
+    } catch (IndexNotFoundException e) {
+      indexingLogger().debug("no index yet in {0}", originalIndexDirectory);
+    } catch (IOException | RuntimeException e) {
+      indexingLogger().error("Cannot update the spelling index " + spellIndexDirectory, e);
+    }
+    return false;
   }
 
   /**
@@ -92,7 +261,7 @@ public class DidYouMeanIndexer {
    * @param pathSpellChecker The SpellChecker's path to clear. The path must be a directory path.
    * @return true whether the index have been cleared otherwise false.
    */
-  public static boolean clearSpellIndex(String pathSpellChecker) {
+  public static synchronized boolean clearSpellIndex(String pathSpellChecker) {
     boolean isCleared = false;
 
       // create a file object with given path
@@ -134,15 +303,20 @@ public class DidYouMeanIndexer {
    * @param field name of the field of the index source that will be used to feed the spelling index
    * @param originalIndexDirectory represents the source index path
    */
-  public static void createSpellIndexForAllLanguage(String field, String originalIndexDirectory) {
-    StringBuilder localizedField = new StringBuilder(field);
-    for (String language : I18NHelper.getAllSupportedLanguages()) {
-      if (!language.equalsIgnoreCase(DEFAULT_LANGUAGE)) {
-        localizedField.append("_").append(language);
-      }
-      DidYouMeanIndexer.createSpellIndex(localizedField.toString(), originalIndexDirectory,
-          originalIndexDirectory + SUFFIX_SPELLING_INDEX_PATH);
+  public static synchronized void createSpellIndexForAllLanguage(String field, String originalIndexDirectory) {
+    if (!StringUtil.isDefined(field) || !StringUtil.isDefined(originalIndexDirectory)) {
+      indexingLogger().error("Invalid argument passed to create a spell index");
+      return;
     }
+    updateSpellIndexForAllLanguage(field, originalIndexDirectory, false);
+  }
 
+  private static Set<String> getLocalizedFields(String field) {
+    final Set<String> localizedFields = new LinkedHashSet<>();
+    for (String language : I18NHelper.getAllSupportedLanguages()) {
+      localizedFields.add(language.equalsIgnoreCase(DEFAULT_LANGUAGE) ? field :
+          field + "_" + language);
+    }
+    return localizedFields;
   }
 }
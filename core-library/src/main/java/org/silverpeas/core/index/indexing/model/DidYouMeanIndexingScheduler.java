@@ -0,0 +1,80 @@
+/*
+ * Copyright (C) 2000 - 2024 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.index.indexing.model;
+
+import org.silverpeas.core.annotation.Service;
+import org.silverpeas.core.index.indexing.IndexFileManager;
+import org.silverpeas.core.initialization.Initialization;
+import org.silverpeas.core.scheduler.Job;
+import org.silverpeas.core.scheduler.JobExecutionContext;
+import org.silverpeas.core.scheduler.Scheduler;
+import org.silverpeas.core.scheduler.SchedulerProvider;
+import org.silverpeas.core.scheduler.trigger.JobTrigger;
+import org.silverpeas.kernel.bundle.ResourceLocator;
+import org.silverpeas.kernel.bundle.SettingBundle;
+
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Schedules the update in the background of the spelling indexes of the "did you mean"
+ * functionality, once it is enabled. Each run updates the spelling index of only the indexes
+ * that were flushed since the previous run (see {@link DidYouMeanIndexer}).
+ * @author mmoquillon
+ */
+@Service
+public class DidYouMeanIndexingScheduler implements Initialization {
+
+  protected static final String JOB_NAME = "DidYouMeanIndexingJob";
+  private static final int DEFAULT_DELAY = 10;
+
+  @Override
+  public void init() throws Exception {
+    final SettingBundle settings =
+        ResourceLocator.getSettingBundle("org.silverpeas.index.indexing.IndexEngine");
+    if (settings.getBoolean("enableDymIndexing", false)) {
+      // the spelling indexes fed from the localized fields as they were named before are
+      // completed at the first run
+      DidYouMeanIndexer.markOutdatedSpellIndexes(
+          Paths.get(IndexFileManager.getIndexUpLoadPath()));
+      final int delay = settings.getInteger("dym.indexing.delay", DEFAULT_DELAY);
+      final Scheduler scheduler = SchedulerProvider.getVolatileScheduler();
+      scheduler.unscheduleJob(JOB_NAME);
+      scheduler.scheduleJob(new DidYouMeanIndexingJob(),
+          JobTrigger.triggerEvery(delay, TimeUnit.MINUTES));
+    }
+  }
+
+  static class DidYouMeanIndexingJob extends Job {
+
+    DidYouMeanIndexingJob() {
+      super(JOB_NAME);
+    }
+
+    @Override
+    public void execute(final JobExecutionContext context) {
+      DidYouMeanIndexer.updateSpellIndexesOfChangedIndexes(IndexManager.CONTENT);
+    }
+  }
+}
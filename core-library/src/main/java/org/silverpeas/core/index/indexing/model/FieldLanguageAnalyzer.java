@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) 2000 - 2024 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.index.indexing.model;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.DelegatingAnalyzerWrapper;
+import org.silverpeas.core.i18n.I18NHelper;
+
+import java.util.function.Function;
+
+/**
+ * An analyzer of the fields of the indexed documents that delegates the analysis of each field
+ * to the analyzer of the language in which the field is written. The language of a field is
+ * given by the suffix of its name ({@code <name>_<language>}) as set by the
+ * {@link IndexManager}; the fields without any language suffix are written in the default
+ * language.
+ * <p>
+ * As the writers of the indexes are kept opened and are shared by the indexing of documents in
+ * different languages, the analyzer of a writer cannot be the one of the language of the first
+ * indexed document.
+ * </p>
+ * @author mmoquillon
+ */
+class FieldLanguageAnalyzer extends DelegatingAnalyzerWrapper {
+
+  private static final char LANGUAGE_SEPARATOR = '_';
+  private final Function<String, Analyzer> analyzers;
+
+  /**
+   * Constructs a new analyzer of fields.
+   * @param analyzers the provider of the analyzer of a given language. The language is empty for
+   * the fields in the default language.
+   */
+  FieldLanguageAnalyzer(final Function<String, Analyzer> analyzers) {
+    super(PER_FIELD_REUSE_STRATEGY);
+    this.analyzers = analyzers;
+  }
+
+  @Override
+  protected Analyzer getWrappedAnalyzer(final String fieldName) {
+    return analyzers.apply(getLanguage(fieldName));
+  }
+
+  /**
+   * Gets the language of the specified field.
+   * @param fieldName the name of a field.
+   * @return the language of the field or an empty string if the field is in the default
+   * language.
+   */
+  static String getLanguage(final String fieldName) {
+    final int separator = fieldName.lastIndexOf(LANGUAGE_SEPARATOR);
+    if (separator > 0) {
+      final String language = fieldName.substring(separator + 1);
+      if (I18NHelper.getAllSupportedLanguages().contains(language)) {
+        return language;
+      }
+    }
+    return "";
+  }
+}
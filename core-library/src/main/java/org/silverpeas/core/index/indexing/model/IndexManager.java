@@ -29,6 +29,7 @@ import org.apache.lucene.analysis.miscellaneous.LimitTokenCountAnalyzer;
 import org.apache.lucene.analysis.standard.StandardAnalyzer;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field;
+import org.apache.lucene.document.SortedDocValuesField;
 import org.apache.lucene.document.StringField;
 import org.apache.lucene.document.TextField;
 import org.apache.lucene.index.IndexWriter;
@@ -36,20 +37,22 @@ import org.apache.lucene.index.IndexWriterConfig;
 import org.apache.lucene.index.LogDocMergePolicy;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.BytesRef;
 import org.silverpeas.kernel.SilverpeasRuntimeException;
 import org.silverpeas.core.annotation.Bean;
 import org.silverpeas.kernel.annotation.Technical;
 import org.silverpeas.core.i18n.I18NHelper;
 import org.silverpeas.core.index.indexing.IndexFileManager;
-import org.silverpeas.core.index.indexing.parser.Parser;
-import org.silverpeas.core.index.indexing.parser.ParserManager;
+import org.silverpeas.core.index.indexing.parser.FileContentExtractor;
 import org.silverpeas.core.index.search.SearchEnginePropertiesManager;
 import org.silverpeas.kernel.bundle.ResourceLocator;
+import org.silverpeas.core.util.ExecutionStatistics;
 import org.silverpeas.core.util.ServiceProvider;
 import org.silverpeas.kernel.bundle.SettingBundle;
 import org.silverpeas.kernel.util.StringUtil;
 import org.silverpeas.kernel.logging.SilverLogger;
 
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import java.io.File;
@@ -59,11 +62,10 @@ import java.nio.file.Paths;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Iterator;
-import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Stream;
 
 import static java.lang.System.currentTimeMillis;
 import static java.text.MessageFormat.format;
@@ -74,8 +76,11 @@ import static org.silverpeas.core.index.indexing.model.IndexProcessor.doFlush;
 import static org.silverpeas.core.index.indexing.model.IndexProcessor.doRemoveAll;
 
 /**
- * An IndexManager manage all the index in Silverpeas. An IndexManager is NOT thread safe: to share
- * an IndexManager between several threads use an IndexerThread.
+ * An IndexManager manage all the index in Silverpeas. An IndexManager is thread safe: the writers
+ * on the indexes are shared in a pool and each of them is pinned in the pool for the time of a
+ * change or of a batch of changes, so that it cannot be closed by another thread while in use.
+ * Nevertheless, all the updates of the indexes should be done through an IndexerTask that takes
+ * care to not update a same index from several threads at the same time.
  */
 @Technical
 @Bean
@@ -108,6 +113,11 @@ public class IndexManager {
   public static final String FILENAME = "filename";
   public static final String PATH = "path";
   public static final String ALIAS = "alias";
+  /**
+   * The field by which the matching entries with a same relevance are sorted among the results
+   * of a search. It carries the key of the entry.
+   */
+  public static final String SORT_KEY = "sortKey";
 
   /**
    * Exhaustive list of indexation's operations Used by objects which must be indexed
@@ -131,9 +141,17 @@ public class IndexManager {
   // enable the "Did you mean " indexing
   private static final boolean ENABLE_DYM_INDEXING;
   private static final String SILVERPEAS_SERVER_NAME;
-  private final Map<String, IndexWriter> indexWriters = new LinkedHashMap<>();
+  private static final int DEFAULT_MAX_OPENED_WRITERS = 50;
+  private static final int DEFAULT_MAX_PENDING_DOCS = 1000;
+  private static final long DEFAULT_MAX_COMMIT_DELAY = 60000;
+  private final IndexWriterPool indexWriters = new IndexWriterPool(
+      settings.getInteger("lucene.writers.maxOpened", DEFAULT_MAX_OPENED_WRITERS),
+      settings.getInteger("lucene.commit.maxPendingDocs", DEFAULT_MAX_PENDING_DOCS),
+      settings.getLong("lucene.commit.maxDelay", DEFAULT_MAX_COMMIT_DELAY), this::indexFlushed);
+  // the writers are shared by the documents of all the languages
+  private final Analyzer fieldAnalyzer = new FieldLanguageAnalyzer(this::getAnalyzer);
   @Inject
-  private ParserManager parserManager;
+  private FileContentExtractor contentExtractor;
 
   /**
    * The constructor takes no parameters and all the index engine parameters are taken from the
@@ -155,10 +173,16 @@ public class IndexManager {
     final long start = currentTimeMillis();
     try {
       indexEntry.setServerName(SILVERPEAS_SERVER_NAME);
+      prefetchFileContents(indexEntry);
       String indexPath = getIndexDirectoryPath(indexEntry);
-      IndexWriter writer = getIndexWriter(indexPath, indexEntry.getLang());
-      removeIndexEntry(writer, indexEntry.getPK());
-      index(writer, indexEntry);
+      try (IndexWriterPool.Lease lease = acquireIndexWriter(indexPath)) {
+        if (lease != null) {
+          removeIndexEntry(lease.getWriter(), indexEntry.getPK());
+          index(lease.getWriter(), indexEntry);
+          lease.documentsChanged(1);
+          IndexReadersCache.indexUpdated(indexPath);
+        }
+      }
     } finally {
       indexingLogger().debug(() ->
           format("addIndexEntry {0} in {1}", indexEntry.getPK(), formatDurationHMS(currentTimeMillis() - start)));
@@ -166,35 +190,56 @@ public class IndexManager {
   }
 
   /**
-   * Optimize all the modified index.
+   * Commits all the modified index. The writers are kept opened in a pool for the next indexing
+   * batches, unless the pool is configured to not keep any writer opened.
    */
   public void flush() {
     doFlush(() -> {
       final SilverLogger logger = indexingLogger();
-      final List<String> pathProcessed = new ArrayList<>(indexWriters.size());
-      final Iterator<Map.Entry<String, IndexWriter>> it = indexWriters.entrySet().iterator();
-      logger.debug("flushing manager of indexation about {0} writer(s)", indexWriters.size());
-      while(it.hasNext()) {
-        final Map.Entry<String, IndexWriter> entry = it.next();
-        final String path = entry.getKey();
-        final IndexWriter writer = entry.getValue();
-        pathProcessed.add(path);
-        logger.debug("\t- closing writer of path {0}", path);
-        try {
-          writer.close();
-        } catch (IOException e) {
-          indexingLogger().error("Cannot close index " + path, e);
-        }
-        // update the spelling index
-        if (ENABLE_DYM_INDEXING) {
-          DidYouMeanIndexer.createSpellIndexForAllLanguage(CONTENT, path);
-        }
-        it.remove();
-      }
+      logger.debug("flushing manager of indexation about {0} writer(s) with {1} pending document(s)",
+          indexWriters.getOpenedWriterCount(), indexWriters.getPendingDocumentCount());
+      final List<String> pathProcessed = indexWriters.flush();
+      logger.debug("{0}", indexWriters.getCommitStatistics());
       return pathProcessed;
     });
   }
 
+  /**
+   * Invoked by the pool of writers for each index whose changes were committed since the
+   * previous flush, whatever the way they were committed.
+   * @param path the path of the flushed index.
+   */
+  private void indexFlushed(final String path) {
+    // the spelling indexes are updated later, in the background
+    if (ENABLE_DYM_INDEXING) {
+      DidYouMeanIndexer.indexChanged(path);
+    }
+  }
+
+  /**
+   * Closes cleanly all the writers opened on the indexes.
+   */
+  @PreDestroy
+  void closeAllIndexWriters() {
+    doFlush(indexWriters::closeAll);
+  }
+
+  /**
+   * Gets the statistics about the commits of the changes in the indexes.
+   * @return the statistics about the commit latency.
+   */
+  public ExecutionStatistics getCommitStatistics() {
+    return indexWriters.getCommitStatistics();
+  }
+
+  /**
+   * Gets the number of documents that are indexed or removed but not yet committed.
+   * @return the number of pending documents in all the indexes.
+   */
+  public long getPendingDocumentCount() {
+    return indexWriters.getPendingDocumentCount();
+  }
+
   private void removeIndexEntry(IndexWriter writer, IndexEntryKey indexEntryKey) {
     Term term = new Term(KEY, indexEntryKey.toString());
     try {
@@ -212,9 +257,12 @@ public class IndexManager {
    */
   void removeIndexEntry(IndexEntryKey indexEntry) {
     String indexPath = getIndexDirectoryPath(indexEntry);
-    IndexWriter writer = getIndexWriter(indexPath, "");
-    if (writer != null) {
-      removeIndexEntry(writer, indexEntry);
+    try (IndexWriterPool.Lease lease = acquireIndexWriter(indexPath)) {
+      if (lease != null) {
+        removeIndexEntry(lease.getWriter(), indexEntry);
+        lease.documentsChanged(1);
+        IndexReadersCache.indexUpdated(indexPath);
+      }
     }
   }
 
@@ -230,15 +278,27 @@ public class IndexManager {
 
   void removeIndexEntries(String scope) {
     String indexPath = getIndexDirectoryPath(scope);
-    IndexWriter writer = getIndexWriter(indexPath, "");
-    if (writer != null) {
-      removeIndexEntries(writer, scope);
+    try (IndexWriterPool.Lease lease = acquireIndexWriter(indexPath)) {
+      if (lease != null) {
+        removeIndexEntries(lease.getWriter(), scope);
+        lease.documentsChanged(1);
+        IndexReadersCache.indexUpdated(indexPath);
+      }
     }
   }
 
+  /**
+   * Starts a batch of changes in the index of the specified component instance.
+   * @param componentId the unique identifier of a component instance.
+   * @return a batch of changes in the index of the component instance.
+   */
+  IndexingBatch newBatch(String componentId) {
+    return new IndexingBatch(getIndexDirectoryPath(componentId));
+  }
+
   void removeAllIndexEntries() {
     doRemoveAll(() -> {
-      flush();
+      indexWriters.closeAll();
       final File indexRepository = Paths.get(IndexFileManager.getIndexUpLoadPath()).toFile();
       final File savedIndexRepository = Paths.get(indexRepository.getAbsolutePath() + "_" +
           LocalDateTime.now().toString().replaceAll("[:']", "")).toFile();
@@ -295,6 +355,8 @@ public class IndexManager {
 
   /**
    * Get optionally a reader able to read the content of the specified file in order to index it.
+   * The content is provided by the {@link FileContentExtractor} extraction stage, either from its
+   * cache or by parsing the file if it was changed since its last extraction.
    * @param file a file description
    * @return the optional {@link Reader} specific of the file described by the file description
    */
@@ -302,13 +364,24 @@ public class IndexManager {
     final String filePath = file.getPath();
     return ofNullable(file.getFormat())
         .map(f -> hasMimetypeToBeIgnored(filePath, f) ? null : f)
-        .flatMap(parserManager::getParser)
-        .map(p -> p.getContext(filePath, file.getEncoding()))
-        .filter(c -> c.getMetadata().getValue("Content-Type")
+        .flatMap(f -> contentExtractor.extract(filePath, file.getEncoding(), f))
+        .filter(c -> c.getContentType()
             .map(t -> hasMimetypeToBeIgnored(filePath, t))
             .filter(Boolean.TRUE::equals)
             .isEmpty())
-        .map(Parser.Context::getReader);
+        .map(FileContentExtractor.Content::openReader);
+  }
+
+  /**
+   * Starts ahead the extraction of the content of the files of the specified index entry so that
+   * they are parsed in parallel before the entry is indexed.
+   * @param indexEntry the entry to index.
+   */
+  void prefetchFileContents(FullIndexEntry indexEntry) {
+    Stream.concat(indexEntry.getFileContentList().stream(),
+            indexEntry.getLinkedFileContentList().stream())
+        .filter(f -> f.getFormat() != null && !hasMimetypeToBeIgnored(f.getPath(), f.getFormat()))
+        .forEach(f -> contentExtractor.prefetch(f.getPath(), f.getEncoding(), f.getFormat()));
   }
 
   /**
@@ -329,19 +402,27 @@ public class IndexManager {
     return hasToBeIgnored;
   }
 
+  /**
+   * Gets the IndexWriter currently opened on the index stored at the given path. This is for
+   * opening near-real-time readers on the index.
+   * @param path the path to the index root directory
+   * @return optionally the opened IndexWriter. Nothing if no writer is currently opened on the
+   * index.
+   */
+  Optional<IndexWriter> getOpenedIndexWriter(String path) {
+    return indexWriters.getOpened(path);
+  }
+
   /**
    *
-   * Returns an IndexWriter to the index stored at the given path.The index directory and files are
-   * created if not found .
+   * Leases an IndexWriter on the index stored at the given path.The index directory and files are
+   * created if not found. The writer is pinned in the pool of writers until the lease is closed.
    *
    * @param path the path to the index root directory
-   * @param language the language of the indexed documents.
-   * @return an IndexWriter or null if the index can't be found or create or read.
+   * @return the lease of an IndexWriter or null if the index can't be found or create or read.
    */
-  private IndexWriter getIndexWriter(String path, String language) {
-    //noinspection resource
-    indexWriters.computeIfPresent(path, (s, w) -> w.isOpen() ? w : null);
-    return indexWriters.computeIfAbsent(path, p -> {
+  private IndexWriterPool.Lease acquireIndexWriter(String path) {
+    return indexWriters.acquire(path, p -> {
       try {
         final File file = new File(path);
         if (!file.exists()) {
@@ -352,13 +433,13 @@ public class IndexManager {
         policy.setMergeFactor(mergeFactor);
         policy.setMaxMergeDocs(maxMergeDocs);
         final IndexWriterConfig configuration =
-            new IndexWriterConfig(getAnalyzer(language)).setRAMBufferSizeMB(DEFAULT_RAM_BUFFER_SIZE_MB)
+            new IndexWriterConfig(fieldAnalyzer).setRAMBufferSizeMB(DEFAULT_RAM_BUFFER_SIZE_MB)
                 .setMergePolicy(policy);
         return new IndexWriter(FSDirectory.open(file.toPath()), configuration);
       } catch (IOException e) {
         indexingLogger().error("Unknown index file " + path, e);
       }
-      // The map is not filled
+      // The pool is not filled
       return null;
     });
   }
@@ -390,6 +471,7 @@ public class IndexManager {
 
     // fields creation
     doc.add(new StringField(KEY, indexEntry.getPK().toString(), Field.Store.YES));
+    doc.add(new SortedDocValuesField(SORT_KEY, new BytesRef(indexEntry.getPK().toString())));
     doc.add(new StringField(SCOPE, indexEntry.getPK().getComponentId(), Field.Store.YES));
     setTitleField(indexEntry, doc);
     setPreviewAndKeyWordsField(indexEntry, doc);
@@ -644,6 +726,101 @@ public class IndexManager {
     }
   }
 
+  /**
+   * A batch of changes in a given index. The changes are applied in the order they are added to
+   * the batch: the successive removals are performed together, and each added entry atomically
+   * replaces its previous version in the index. The pool of writers is informed of the changes
+   * once, at the end of the batch, so that the index is committed at most once per batch. The
+   * writer of the index is leased at the first change and it is released only once the batch
+   * applied: the batch has to be applied even if a failure occurred in its filling.
+   */
+  class IndexingBatch {
+    private final String indexPath;
+    private final List<Term> removals = new ArrayList<>();
+    private IndexWriterPool.Lease lease;
+    private int nbChanges = 0;
+
+    private IndexingBatch(final String indexPath) {
+      this.indexPath = indexPath;
+    }
+
+    /**
+     * Adds the given entry into the index, replacing its previous version if any.
+     * @param indexEntry the entry to add.
+     */
+    void add(FullIndexEntry indexEntry) {
+      indexEntry.setServerName(SILVERPEAS_SERVER_NAME);
+      IndexWriter writer = getWriter();
+      if (writer != null) {
+        applyRemovals(writer);
+        index(writer, indexEntry);
+        nbChanges++;
+      }
+    }
+
+    /**
+     * Removes the given entry from the index.
+     * @param indexEntry the key of the entry to remove.
+     */
+    void remove(IndexEntryKey indexEntry) {
+      removals.add(new Term(KEY, indexEntry.toString()));
+    }
+
+    /**
+     * Removes all the entries of the given scope from the index.
+     * @param scope the scope of the entries to remove.
+     */
+    void removeScope(String scope) {
+      removals.add(new Term(SCOPE, scope));
+    }
+
+    /**
+     * Applies the changes that are still pending, informs the pool of writers about all the
+     * changes of the batch and then releases the writer of the index.
+     */
+    void apply() {
+      try {
+        if (!removals.isEmpty()) {
+          IndexWriter writer = getWriter();
+          if (writer != null) {
+            applyRemovals(writer);
+          }
+          removals.clear();
+        }
+        if (nbChanges > 0) {
+          indexingLogger().debug("{0} change(s) applied in batch on index {1}", nbChanges, indexPath);
+          lease.documentsChanged(nbChanges);
+          IndexReadersCache.indexUpdated(indexPath);
+          nbChanges = 0;
+        }
+      } finally {
+        if (lease != null) {
+          lease.close();
+          lease = null;
+        }
+      }
+    }
+
+    private IndexWriter getWriter() {
+      if (lease == null) {
+        lease = acquireIndexWriter(indexPath);
+      }
+      return lease == null ? null : lease.getWriter();
+    }
+
+    private void applyRemovals(final IndexWriter writer) {
+      if (!removals.isEmpty()) {
+        try {
+          writer.deleteDocuments(removals.toArray(new Term[0]));
+        } catch (IOException e) {
+          indexingLogger().error("Index deletion failure in " + indexPath, e);
+        }
+        nbChanges += removals.size();
+        removals.clear();
+      }
+    }
+  }
+
   static {
     // Reads and set the index engine parameters from the given properties file
     maxFieldLength = settings.getInteger("lucene.maxFieldLength", maxFieldLength);
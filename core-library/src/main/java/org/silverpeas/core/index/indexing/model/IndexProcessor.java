@@ -29,8 +29,6 @@ import org.silverpeas.kernel.bundle.SettingBundle;
 import org.silverpeas.kernel.logging.SilverLogger;
 
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.locks.StampedLock;
 import java.util.function.Supplier;
@@ -44,9 +42,6 @@ public class IndexProcessor {
   private static final SettingBundle searchSettings =
       ResourceLocator.getSettingBundle("org.silverpeas.index.search.searchEngineSettings");
   private static final StampedLock SEARCH_LOCK = new StampedLock();
-  private static final Object UPDATED_MUTEX = new Object();
-  private static final Object MUTEX = new Object();
-  private static final List<String> UPDATED_INDEXES = new ArrayList<>();
 
   /**
    * Hidden constructor.
@@ -56,41 +51,30 @@ public class IndexProcessor {
 
   public static <R> R doSearch(SearchIndexProcess<R> searchIndexProcess, Supplier<R> defaultReturn) throws ParseException {
     final SilverLogger logger = indexingLogger();
-    final long stamp;
-    synchronized (MUTEX) {
-      stamp = SEARCH_LOCK.tryReadLock();
-      if (stamp == 0) {
-        logger.debug("starting and ending directly search processing because of index removing");
-      } else {
-        logger.debug(
-            "starting search processing and there are currently {0} search process(es) performing",
-            SEARCH_LOCK.getReadLockCount());
-      }
-    }
+    final long stamp = SEARCH_LOCK.tryReadLock();
     if (stamp == 0) {
+      logger.debug("starting and ending directly search processing because of index removing");
       return defaultReturn.get();
     }
+    logger.debug(
+        "starting search processing and there are currently {0} search process(es) performing",
+        SEARCH_LOCK.getReadLockCount());
     try {
       return searchIndexProcess.process();
     } finally {
-      synchronized (MUTEX) {
-        SEARCH_LOCK.unlockRead(stamp);
-        logger.debug(
-            "ending search processing and there are currently {0} search process(es) performing",
-            SEARCH_LOCK.getReadLockCount());
-        closeIndexReaders();
-      }
+      SEARCH_LOCK.unlockRead(stamp);
+      logger.debug(
+          "ending search processing and there are currently {0} search process(es) performing",
+          SEARCH_LOCK.getReadLockCount());
+      closeIndexReadersIfRequired();
     }
   }
 
   public static void doFlush(FlushIndexProcess flushIndexProcess) {
     final List<String> updatedPaths = flushIndexProcess.process();
-    synchronized (UPDATED_MUTEX) {
-      UPDATED_INDEXES.addAll(updatedPaths);
-    }
-    synchronized (MUTEX) {
-      closeIndexReaders();
-    }
+    // the readers are shared and reference-counted, so they are refreshed in the background
+    // without waiting for the end of the searches currently using them
+    updatedPaths.forEach(IndexReadersCache::indexFlushed);
   }
 
   static void doRemoveAll(RemoveAllIndexesProcess removeAllIndexesProcess) {
@@ -109,27 +93,11 @@ public class IndexProcessor {
     }
   }
 
-  private static void closeIndexReaders() {
-    final SilverLogger logger = indexingLogger();
-    if (SEARCH_LOCK.getReadLockCount() == 0) {
-      synchronized (UPDATED_MUTEX) {
-        if (searchSettings.getBoolean("index.reader.closeAfterLastSearch", false)) {
-          logger.debug("no search is currently being performed, so closing all readers");
-          IndexReadersCache.closeAllIndexReaders();
-          UPDATED_INDEXES.clear();
-        } else {
-          logger.debug("no search is currently being performed, so closing readers if any");
-          final Iterator<String> it = UPDATED_INDEXES.iterator();
-          while (it.hasNext()) {
-            final String path = it.next();
-            IndexReadersCache.closeIndexReader(path);
-            it.remove();
-          }
-        }
-      }
-    } else {
-      logger.debug("no reader close is performed as {0} search process(es) are currently performed",
-          SEARCH_LOCK.getReadLockCount());
+  private static void closeIndexReadersIfRequired() {
+    if (SEARCH_LOCK.getReadLockCount() == 0 &&
+        searchSettings.getBoolean("index.reader.closeAfterLastSearch", false)) {
+      indexingLogger().debug("no search is currently being performed, so closing all readers");
+      IndexReadersCache.closeAllIndexReaders();
     }
   }
 
@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) 2000 - 2024 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.index.indexing.model;
+
+import org.silverpeas.core.annotation.Bean;
+import org.silverpeas.core.thread.task.AbstractRequestTask;
+import org.silverpeas.core.thread.task.RequestTaskManager;
+import org.silverpeas.kernel.annotation.Technical;
+
+/**
+ * This task is in charge of refreshing in the background the readers of the indexes so that the
+ * searches never wait for the reopening of a reader.
+ * <p>
+ * A refresh request on an index replaces any refresh request on the same index that is still
+ * waiting in the queue.
+ * </p>
+ * @see IndexReadersCache
+ */
+@Technical
+@Bean
+public class IndexReaderRefreshTask
+    extends AbstractRequestTask<AbstractRequestTask.ProcessContext> {
+
+  /**
+   * Add a request 'refresh the reader of an index'.
+   * @param path the root path of the index.
+   */
+  static void refresh(String path) {
+    RequestTaskManager.get().push(IndexReaderRefreshTask.class, new RefreshRequest(path));
+  }
+
+  /**
+   * A RefreshRequest refreshes the reader of an index.
+   */
+  static class RefreshRequest implements AbstractRequestTask.Request<ProcessContext> {
+    private final String path;
+
+    /**
+     * @param path the root path of the index.
+     */
+    RefreshRequest(final String path) {
+      this.path = path;
+    }
+
+    @Override
+    public String getReplacementId() {
+      return path;
+    }
+
+    /**
+     * @param context process context.
+     */
+    @Override
+    public void process(final ProcessContext context) {
+      IndexReadersCache.refreshIndexReader(path);
+    }
+  }
+}
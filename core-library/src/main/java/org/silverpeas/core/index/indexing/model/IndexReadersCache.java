@@ -25,30 +25,41 @@ package org.silverpeas.core.index.indexing.model;
 
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.store.AlreadyClosedException;
 import org.apache.lucene.store.FSDirectory;
 import org.silverpeas.core.util.ArrayUtil;
+import org.silverpeas.kernel.bundle.ResourceLocator;
+import org.silverpeas.kernel.bundle.SettingBundle;
 import org.silverpeas.kernel.logging.SilverLogger;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.function.BiConsumer;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import static org.silverpeas.core.index.indexing.IndexingLogger.indexingLogger;
 
+/**
+ * Cache of the {@link IndexReader} opened on the indexes. For each index, one reader is shared
+ * among all the searches and it is reference-counted: a search acquires the reader and then
+ * releases it once done. So, a search never waits for another one and a reader is closed only
+ * when it isn't used anymore.
+ * <p>
+ * The readers are opened, whenever possible, from the live {@link IndexWriter} of the
+ * {@link IndexManager} so that the searches see the near-real-time state of the indexes. They
+ * are refreshed in the background by the {@link IndexReaderRefreshTask}, either after each flush
+ * of the indexes or while indexing once the reader is staler than the maximum staleness defined
+ * by the <code>index.reader.maxStaleness</code> property (in milliseconds).
+ * </p>
+ */
 public class IndexReadersCache {
-  private static final Object READER_MUTEX = new Object();
-  private static final Map<String, IndexReader> INDEX_READERS = new HashMap<>();
-  private static final BiConsumer<String, IndexReader> CLOSE_INDEX_CONSUMER = (s, r) -> {
-    final SilverLogger logger = indexingLogger();
-    try {
-      logger.debug("closing reader of path {0}", s);
-      r.close();
-    } catch (IOException e) {
-      logger.warn(e);
-    }
-  };
+  private static final SettingBundle searchSettings =
+      ResourceLocator.getSettingBundle("org.silverpeas.index.search.searchEngineSettings");
+  private static final long DEFAULT_MAX_STALENESS = 5000;
+  private static final ConcurrentMap<String, SharedIndexReader> INDEX_READERS =
+      new ConcurrentHashMap<>();
 
   /**
    * Hidden constructor
@@ -57,48 +68,217 @@ public class IndexReadersCache {
   }
 
   /**
+   * Acquires the reader of the index located at the specified path. The reader has to be released
+   * with {@link #releaseIndexReader(IndexReader)} once the search is done.
+   * <p>
    * This method must be called only within a
    * {@link IndexProcessor.SearchIndexProcess#process()} implementation in order to get a
-   * right behavior against the concurrent accesses.
+   * right behavior against the removing of all the indexes.
+   * </p>
    * @param path the index root path.
-   * @return the {@link IndexReader} well initialized if necessary.
+   * @return the {@link IndexReader} or null if there is no index data at the given path.
    */
-  public static IndexReader getIndexReader(String path) {
-    synchronized (READER_MUTEX) {
-      final File rootPath = new File(path);
-      final boolean validRootPath = ArrayUtil.isNotEmpty(rootPath.list());
-      IndexReader indexReader = INDEX_READERS.get(path);
-      if (indexReader == null && validRootPath) {
-        try {
-          indexReader = DirectoryReader.open(FSDirectory.open(rootPath.toPath()));
-          INDEX_READERS.put(path, indexReader);
-        } catch (Exception e) {
-          indexingLogger().warn(e);
-        }
-      } else if (indexReader != null && !validRootPath) {
-        indexingLogger().warn("index reader exists in cache but no index path is existing! ({0})", path);
+  public static IndexReader acquireIndexReader(String path) {
+    final File rootPath = new File(path);
+    final boolean validRootPath = ArrayUtil.isNotEmpty(rootPath.list());
+    if (!validRootPath) {
+      if (INDEX_READERS.containsKey(path)) {
+        indexingLogger().warn("index reader exists in cache but no index path is existing! ({0})",
+            path);
         closeIndexReader(path);
-        indexReader = null;
-      } else if (!validRootPath) {
-        indexingLogger().debug("index reader for path {0} can not be open as there is no index data", path);
+      } else {
+        indexingLogger().debug(
+            "index reader for path {0} can not be open as there is no index data", path);
       }
-      return indexReader;
+      return null;
     }
+    IndexReader indexReader = null;
+    while (indexReader == null) {
+      final SharedIndexReader sharedReader =
+          INDEX_READERS.computeIfAbsent(path, SharedIndexReader::new);
+      try {
+        indexReader = sharedReader.acquire();
+      } catch (IOException | RuntimeException e) {
+        indexingLogger().warn(e);
+        INDEX_READERS.remove(path, sharedReader);
+        return null;
+      }
+      if (indexReader == null) {
+        // the shared reader has been closed in the meantime
+        INDEX_READERS.remove(path, sharedReader);
+      }
+    }
+    return indexReader;
   }
 
-  static void closeIndexReader(String path) {
-    synchronized (READER_MUTEX) {
-      final IndexReader indexReader = INDEX_READERS.remove(path);
-      if (indexReader != null) {
-        CLOSE_INDEX_CONSUMER.accept(path, indexReader);
+  /**
+   * Releases the specified reader that was previously acquired with
+   * {@link #acquireIndexReader(String)}.
+   * @param indexReader the reader to release.
+   */
+  public static void releaseIndexReader(IndexReader indexReader) {
+    if (indexReader != null) {
+      try {
+        indexReader.decRef();
+      } catch (IOException e) {
+        indexingLogger().warn(e);
+      }
+    }
+  }
+
+  /**
+   * Informs the cache the index located at the specified path has been modified. If the reader
+   * on this index is staler than the maximum staleness, a refresh of it is asked.
+   * @param path the index root path.
+   */
+  static void indexUpdated(String path) {
+    final SharedIndexReader sharedReader = INDEX_READERS.get(path);
+    if (sharedReader != null && sharedReader.isStale(
+        searchSettings.getLong("index.reader.maxStaleness", DEFAULT_MAX_STALENESS))) {
+      IndexReaderRefreshTask.refresh(path);
+    }
+  }
+
+  /**
+   * Informs the cache the index located at the specified path has been flushed. If a reader is
+   * opened on this index, a refresh of it is asked.
+   * @param path the index root path.
+   */
+  static void indexFlushed(String path) {
+    if (INDEX_READERS.containsKey(path)) {
+      IndexReaderRefreshTask.refresh(path);
+    }
+  }
+
+  /**
+   * Refreshes the reader of the index located at the specified path. Only the changes since the
+   * last opening of the reader are loaded. The previous reader is closed once all the searches
+   * using it are done.
+   * @param path the index root path.
+   */
+  static void refreshIndexReader(String path) {
+    final SharedIndexReader sharedReader = INDEX_READERS.get(path);
+    if (sharedReader != null) {
+      try {
+        sharedReader.refresh();
+      } catch (IOException | RuntimeException e) {
+        indexingLogger().warn(e);
+        closeIndexReader(path);
       }
     }
   }
 
+  static void closeIndexReader(String path) {
+    final SharedIndexReader sharedReader = INDEX_READERS.remove(path);
+    if (sharedReader != null) {
+      sharedReader.close();
+    }
+  }
+
   static void closeAllIndexReaders() {
-    synchronized (READER_MUTEX) {
-      INDEX_READERS.forEach(CLOSE_INDEX_CONSUMER);
-      INDEX_READERS.clear();
+    INDEX_READERS.keySet().forEach(IndexReadersCache::closeIndexReader);
+  }
+
+  private static Optional<IndexWriter> getLiveIndexWriter(final String path) {
+    return IndexManager.get().getOpenedIndexWriter(path);
+  }
+
+  /**
+   * A reader shared by all the searches on a given index.
+   */
+  private static class SharedIndexReader {
+    private final String path;
+    private volatile DirectoryReader current;
+    private volatile long lastRefresh;
+    private boolean closed = false;
+
+    SharedIndexReader(final String path) {
+      this.path = path;
+    }
+
+    /**
+     * Acquires the current reader, opening it if necessary.
+     * @return the current reader with its reference count incremented or null if this shared
+     * reader is closed.
+     * @throws IOException if the reader cannot be opened.
+     */
+    DirectoryReader acquire() throws IOException {
+      DirectoryReader reader = current;
+      while (reader == null || !reader.tryIncRef()) {
+        synchronized (this) {
+          if (closed) {
+            return null;
+          }
+          if (current == null) {
+            current = open();
+          }
+          reader = current;
+        }
+      }
+      return reader;
+    }
+
+    boolean isStale(final long maxStaleness) {
+      return System.currentTimeMillis() - lastRefresh > maxStaleness;
+    }
+
+    synchronized void refresh() throws IOException {
+      if (closed || current == null) {
+        return;
+      }
+      final long start = System.currentTimeMillis();
+      final DirectoryReader oldReader = current;
+      final Optional<IndexWriter> writer = getLiveIndexWriter(path);
+      DirectoryReader newReader;
+      try {
+        newReader = writer.isPresent() ?
+            DirectoryReader.openIfChanged(oldReader, writer.get()) :
+            DirectoryReader.openIfChanged(oldReader);
+      } catch (AlreadyClosedException e) {
+        // the writer from which the reader was opened has been closed
+        newReader = openFromDirectory();
+      }
+      lastRefresh = System.currentTimeMillis();
+      if (newReader != null) {
+        current = newReader;
+        oldReader.decRef();
+        final SilverLogger logger = indexingLogger();
+        logger.debug("reader of path {0} refreshed in {1}ms", path, lastRefresh - start);
+      }
+    }
+
+    synchronized void close() {
+      closed = true;
+      if (current != null) {
+        try {
+          indexingLogger().debug("closing reader of path {0}", path);
+          current.decRef();
+        } catch (IOException e) {
+          indexingLogger().warn(e);
+        }
+        current = null;
+      }
+    }
+
+    private DirectoryReader open() throws IOException {
+      final Optional<IndexWriter> writer = getLiveIndexWriter(path);
+      DirectoryReader reader = null;
+      if (writer.isPresent()) {
+        try {
+          reader = DirectoryReader.open(writer.get());
+        } catch (AlreadyClosedException e) {
+          indexingLogger().debug("writer of path {0} closed while opening a reader on it", path);
+        }
+      }
+      if (reader == null) {
+        reader = openFromDirectory();
+      }
+      lastRefresh = System.currentTimeMillis();
+      return reader;
+    }
+
+    private DirectoryReader openFromDirectory() throws IOException {
+      return DirectoryReader.open(FSDirectory.open(new File(path).toPath()));
     }
   }
 }
@@ -0,0 +1,449 @@
+/*
+ * Copyright (C) 2000 - 2024 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.index.indexing.model;
+
+import org.apache.lucene.index.IndexWriter;
+import org.silverpeas.core.util.ExecutionStatistics;
+import org.silverpeas.kernel.SilverpeasRuntimeException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import static java.util.Optional.ofNullable;
+import static org.silverpeas.core.index.indexing.IndexingLogger.indexingLogger;
+
+/**
+ * A pool of long-lived {@link IndexWriter}s, one per index, in order to avoid the cost of opening
+ * a writer (and of acquiring the lock on the index) for each indexing batch.
+ * <p>
+ * A writer is leased from the pool for the time of a batch of changes: while it is leased, the
+ * writer is pinned and it is never closed by the pool. The pool is bounded: when the maximum
+ * number of opened writers is reached, the least recently used writer that isn't pinned is
+ * committed and then closed; if all the writers are pinned, the pool exceeds temporarily its
+ * maximum size until a writer is released. A writer is committed once the number of its pending
+ * documents reaches a given threshold or once its last commit is older than a given delay; all
+ * the writers having pending documents are also committed at each flush of the indexes. If the
+ * maximum number of opened writers is 0, the writers that aren't pinned are closed at each flush
+ * as no writer is kept opened.
+ * </p>
+ * <p>
+ * Whatever the way the changes in an index are committed (by the commit policy, by a flush, by
+ * the eviction or by the closing of its writer), the index is reported as flushed to the listener
+ * of the pool at the next flush, or directly when its writer is evicted or closed. An index is
+ * marked as reported only once the listener has been invoked.
+ * </p>
+ * <p>
+ * The pool is thread-safe. The writers are opened, committed and closed outside the lock of the
+ * pool so that the leasing of the writers of other indexes isn't blocked by these costly
+ * operations. A writer being opened or closed on a given index blocks any lease of a writer on
+ * the same index, as only one writer at a time can hold the lock on an index.
+ * </p>
+ */
+class IndexWriterPool {
+
+  private final int maxOpened;
+  private final int maxPendingDocs;
+  private final long maxCommitDelay;
+  private final Map<String, PooledIndexWriter> writers = new LinkedHashMap<>(16, 0.75f, true);
+  private final Set<String> opening = new HashSet<>();
+  private final Map<String, PooledIndexWriter> closing = new HashMap<>();
+  private final ExecutionStatistics commitStatistics = new ExecutionStatistics("index commits");
+  private final Consumer<String> flushListener;
+
+  /**
+   * Constructs a new pool of writers.
+   * @param maxOpened the maximum number of writers kept opened. 0 means the writers are closed at
+   * each flush.
+   * @param maxPendingDocs the number of pending documents from which a writer is committed.
+   * @param maxCommitDelay the maximum delay in milliseconds between two commits of a writer.
+   * @param flushListener the listener to which the path of each index whose changes were
+   * committed is reported.
+   */
+  IndexWriterPool(final int maxOpened, final int maxPendingDocs, final long maxCommitDelay,
+      final Consumer<String> flushListener) {
+    this.maxOpened = maxOpened;
+    this.maxPendingDocs = maxPendingDocs;
+    this.maxCommitDelay = maxCommitDelay;
+    this.flushListener = flushListener;
+  }
+
+  /**
+   * Leases the writer of the index located at the specified path, opening it if necessary. The
+   * writer is pinned in the pool until the lease is closed: it has to be closed once the changes
+   * in the index are done.
+   * @param path the path of the index.
+   * @param opener the function to open a writer on the index at the given path. It returns null
+   * if the writer cannot be opened.
+   * @return the lease of the writer or null if the writer cannot be opened.
+   */
+  Lease acquire(final String path, final Function<String, IndexWriter> opener) {
+    synchronized (this) {
+      waitForAvailability(path);
+      PooledIndexWriter pooled = writers.get(path);
+      if (pooled != null && !pooled.writer.isOpen()) {
+        writers.remove(path);
+        pooled = null;
+      }
+      if (pooled != null) {
+        pooled.pins++;
+        return new Lease(pooled);
+      }
+      opening.add(path);
+    }
+    IndexWriter writer = null;
+    try {
+      writer = opener.apply(path);
+    } finally {
+      if (writer == null) {
+        synchronized (this) {
+          opening.remove(path);
+          notifyAll();
+        }
+      }
+    }
+    if (writer == null) {
+      return null;
+    }
+    final Lease lease;
+    final List<PooledIndexWriter> evicted;
+    synchronized (this) {
+      opening.remove(path);
+      final PooledIndexWriter pooled = new PooledIndexWriter(path, writer);
+      pooled.pins = 1;
+      writers.put(path, pooled);
+      lease = new Lease(pooled);
+      evicted = evictIfNecessary();
+      notifyAll();
+    }
+    evict(evicted);
+    return lease;
+  }
+
+  /**
+   * Gets the writer currently opened on the index located at the specified path.
+   * @param path the path of the index.
+   * @return optionally the opened writer.
+   */
+  synchronized Optional<IndexWriter> getOpened(final String path) {
+    return ofNullable(writers.get(path)).map(p -> p.writer).filter(IndexWriter::isOpen);
+  }
+
+  /**
+   * Flushes the pool: all the writers having pending documents are committed or, if no writer
+   * has to be kept opened, closed. The writers that are pinned are only committed. Then all the
+   * indexes whose changes were committed since the previous flush, including by the commit
+   * policy, are reported to the listener of the pool.
+   * @return the path of the indexes that were flushed.
+   */
+  List<String> flush() {
+    final List<PooledIndexWriter> toClose = new ArrayList<>();
+    final List<PooledIndexWriter> toCommit = new ArrayList<>();
+    synchronized (this) {
+      final Iterator<PooledIndexWriter> it = writers.values().iterator();
+      while (it.hasNext()) {
+        final PooledIndexWriter pooled = it.next();
+        if (maxOpened <= 0 && pooled.pins == 0) {
+          it.remove();
+          closing.put(pooled.path, pooled);
+          toClose.add(pooled);
+        } else if (pooled.pendingDocs > 0) {
+          // the writer is pinned while committed
+          pooled.pins++;
+          toCommit.add(pooled);
+        }
+      }
+    }
+    toClose.forEach(this::close);
+    toCommit.forEach(p -> {
+      try {
+        p.commit();
+      } finally {
+        release(p);
+      }
+    });
+    final List<PooledIndexWriter> flushed;
+    synchronized (this) {
+      flushed = new ArrayList<>(toClose);
+      flushed.addAll(writers.values());
+    }
+    return reportFlushed(flushed);
+  }
+
+  /**
+   * Closes cleanly all the writers of the pool. The writers that are pinned are closed once
+   * released: the method waits for them.
+   * @return the path of the indexes whose writer was closed.
+   */
+  List<String> closeAll() {
+    final List<PooledIndexWriter> toClose;
+    synchronized (this) {
+      while (!opening.isEmpty() || !closing.isEmpty() ||
+          writers.values().stream().anyMatch(p -> p.pins > 0)) {
+        await("all the writers");
+      }
+      toClose = new ArrayList<>(writers.values());
+      writers.clear();
+      toClose.forEach(p -> closing.put(p.path, p));
+    }
+    final List<String> paths = new ArrayList<>(toClose.size());
+    toClose.forEach(p -> {
+      close(p);
+      paths.add(p.path);
+    });
+    reportFlushed(toClose);
+    return paths;
+  }
+
+  /**
+   * Gets the number of documents that are pending to be committed in all the indexes.
+   * @return the number of pending documents.
+   */
+  synchronized long getPendingDocumentCount() {
+    return writers.values().stream().mapToLong(p -> p.pendingDocs).sum();
+  }
+
+  /**
+   * Gets the number of writers currently opened.
+   * @return the number of opened writers.
+   */
+  synchronized int getOpenedWriterCount() {
+    return writers.size();
+  }
+
+  /**
+   * Gets the statistics about the commits of the writers.
+   * @return the statistics about the commits.
+   */
+  ExecutionStatistics getCommitStatistics() {
+    return commitStatistics;
+  }
+
+  private void waitForAvailability(final String path) {
+    while (opening.contains(path) || closing.containsKey(path)) {
+      await("the writer of path " + path);
+    }
+  }
+
+  private void await(final String what) {
+    try {
+      wait();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new SilverpeasRuntimeException("Interrupted while waiting for " + what, e);
+    }
+  }
+
+  private void release(final PooledIndexWriter pooled) {
+    final List<PooledIndexWriter> evicted;
+    synchronized (this) {
+      pooled.pins--;
+      evicted = pooled.pins == 0 ? evictIfNecessary() : Collections.emptyList();
+      notifyAll();
+    }
+    evict(evicted);
+  }
+
+  private List<PooledIndexWriter> evictIfNecessary() {
+    final int max = Math.max(1, maxOpened);
+    final List<PooledIndexWriter> evicted = new ArrayList<>();
+    final Iterator<PooledIndexWriter> it = writers.values().iterator();
+    while (writers.size() > max && it.hasNext()) {
+      final PooledIndexWriter eldest = it.next();
+      if (eldest.pins == 0) {
+        it.remove();
+        closing.put(eldest.path, eldest);
+        evicted.add(eldest);
+      }
+    }
+    return evicted;
+  }
+
+  private void evict(final List<PooledIndexWriter> evicted) {
+    evicted.forEach(p -> {
+      indexingLogger().debug("evicting writer of path {0} from the pool", p.path);
+      close(p);
+      IndexReadersCache.indexFlushed(p.path);
+    });
+    reportFlushed(evicted);
+  }
+
+  /**
+   * Reports to the listener of the pool the indexes among the specified ones whose committed
+   * changes weren't yet reported. An index is marked as reported once the listener is invoked.
+   * @param flushed the writers of the indexes that could have been flushed.
+   * @return the path of the reported indexes.
+   */
+  private List<String> reportFlushed(final List<PooledIndexWriter> flushed) {
+    final List<String> paths = new ArrayList<>(flushed.size());
+    for (PooledIndexWriter pooled : flushed) {
+      final long committed;
+      final boolean toReport;
+      synchronized (this) {
+        committed = pooled.committedChanges;
+        toReport = committed > pooled.reportedChanges;
+      }
+      if (toReport) {
+        flushListener.accept(pooled.path);
+        synchronized (this) {
+          pooled.reportedChanges = Math.max(pooled.reportedChanges, committed);
+        }
+        paths.add(pooled.path);
+      }
+    }
+    return paths;
+  }
+
+  private void close(final PooledIndexWriter pooled) {
+    try {
+      pooled.close();
+    } finally {
+      synchronized (this) {
+        closing.remove(pooled.path, pooled);
+        notifyAll();
+      }
+    }
+  }
+
+  /**
+   * The lease of a writer of the pool. The writer is pinned in the pool until the lease is
+   * closed.
+   */
+  class Lease implements AutoCloseable {
+    private final PooledIndexWriter pooled;
+    private boolean released = false;
+
+    private Lease(final PooledIndexWriter pooled) {
+      this.pooled = pooled;
+    }
+
+    /**
+     * Gets the leased writer.
+     * @return the writer of the index.
+     */
+    IndexWriter getWriter() {
+      return pooled.writer;
+    }
+
+    /**
+     * Informs the pool some documents have been changed with the leased writer. The writer is
+     * then committed if the commit policy requires it.
+     * @param nbDocuments the number of changed documents.
+     */
+    void documentsChanged(final int nbDocuments) {
+      final boolean toCommit;
+      synchronized (IndexWriterPool.this) {
+        pooled.pendingDocs += nbDocuments;
+        pooled.changes += nbDocuments;
+        toCommit = pooled.pendingDocs >= maxPendingDocs ||
+            System.currentTimeMillis() - pooled.lastCommit >= maxCommitDelay;
+      }
+      if (toCommit) {
+        pooled.commit();
+      }
+    }
+
+    /**
+     * Releases the writer. It can then be closed by the pool.
+     */
+    @Override
+    public void close() {
+      if (!released) {
+        released = true;
+        release(pooled);
+      }
+    }
+  }
+
+  private class PooledIndexWriter {
+    private final String path;
+    private final IndexWriter writer;
+    private int pins = 0;
+    private int pendingDocs = 0;
+    private long lastCommit = System.currentTimeMillis();
+    // the number of changes done with the writer, of committed ones and of reported ones
+    private long changes = 0;
+    private long committedChanges = 0;
+    private long reportedChanges = 0;
+
+    PooledIndexWriter(final String path, final IndexWriter writer) {
+      this.path = path;
+      this.writer = writer;
+    }
+
+    void commit() {
+      final long start = System.currentTimeMillis();
+      final int committed;
+      final long committing;
+      synchronized (IndexWriterPool.this) {
+        committed = pendingDocs;
+        committing = changes;
+      }
+      try {
+        writer.commit();
+        final long end = System.currentTimeMillis();
+        synchronized (IndexWriterPool.this) {
+          lastCommit = end;
+          pendingDocs = Math.max(0, pendingDocs - committed);
+          committedChanges = Math.max(committedChanges, committing);
+        }
+        commitStatistics.record(end - start);
+        indexingLogger().debug("writer of path {0} committed with {1} pending document(s) in {2}ms",
+            path, committed, end - start);
+      } catch (IOException | RuntimeException e) {
+        commitStatistics.recordFailure();
+        indexingLogger().error("Cannot commit index " + path, e);
+      }
+    }
+
+    void close() {
+      final long start = System.currentTimeMillis();
+      try {
+        indexingLogger().debug("closing writer of path {0}", path);
+        // closing a writer commits first its pending documents
+        writer.close();
+        synchronized (IndexWriterPool.this) {
+          if (pendingDocs > 0) {
+            commitStatistics.record(System.currentTimeMillis() - start);
+          }
+          pendingDocs = 0;
+          committedChanges = changes;
+        }
+      } catch (IOException | RuntimeException e) {
+        commitStatistics.recordFailure();
+        indexingLogger().error("Cannot close index " + path, e);
+      }
+    }
+  }
+}
@@ -27,17 +27,48 @@ import org.silverpeas.core.annotation.Bean;
 import org.silverpeas.kernel.annotation.Technical;
 import org.silverpeas.core.thread.task.AbstractRequestTask;
 import org.silverpeas.core.thread.task.RequestTaskManager;
+import org.silverpeas.kernel.SilverpeasException;
+import org.silverpeas.kernel.bundle.ResourceLocator;
+import org.silverpeas.kernel.bundle.SettingBundle;
 
 import javax.inject.Inject;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * This task is in charge of processing indexation requests.
+ * <p>
+ * The requests are partitioned by component instance: the ones about a same component instance,
+ * and then about a same index, are processed one after one whereas the ones about different
+ * component instances are processed in parallel, up to the parallelism set by the
+ * {@code lucene.indexing.parallelism} property in the index engine settings.
+ * </p>
+ * <p>
+ * The requests are taken from the queue by batches, up to the size set by the
+ * {@code lucene.indexing.batchSize} property, and the changes of a batch are applied together,
+ * index by index. The limit of the queue is sized according to the batches so that a new batch
+ * is ready for each partition once the previous one is applied.
+ * </p>
+ * <p>
+ * The limit of the queue adapts to the measured indexing throughput so that a request doesn't
+ * wait more than the time set by the {@code lucene.indexing.maxQueueLatency} property before
+ * being applied: when the indexing slows down (large files to parse, merges, ...), the threads
+ * pushing new requests are blocked sooner and the indexing lag stays bounded.
+ * </p>
  */
 @Technical
 @Bean
 public class IndexerTask extends AbstractRequestTask<IndexerTask.IndexerProcessContext> {
 
   private static final int QUEUE_LIMIT = 200;
+  private static final int ADAPTIVE_QUEUE_LIMIT = 1000;
+  private static final SettingBundle settings =
+      ResourceLocator.getSettingBundle("org.silverpeas.index.indexing.IndexEngine");
+  private static final int PARALLELISM = settings.getInteger("lucene.indexing.parallelism", 1);
+  private static final int BATCH_SIZE = settings.getInteger("lucene.indexing.batchSize", 1);
+  private static final long MAX_QUEUE_LATENCY =
+      settings.getLong("lucene.indexing.maxQueueLatency", 30000);
 
   /**
    * This instance must be set with the thread which is pushing a new request and not the one
@@ -79,7 +110,57 @@ public class IndexerTask extends AbstractRequestTask<IndexerTask.IndexerProcessC
 
   @Override
   protected int getRequestQueueLimit() {
-    return QUEUE_LIMIT;
+    // with an adaptive limit, the queue can absorb bursts of requests as long as the indexing
+    // keeps up with them
+    final int limit = MAX_QUEUE_LATENCY > 0 ? ADAPTIVE_QUEUE_LIMIT : QUEUE_LIMIT;
+    return Math.max(limit, 2 * Math.max(1, BATCH_SIZE) * Math.max(1, PARALLELISM));
+  }
+
+  @Override
+  protected long getRequestQueueMaxLatency() {
+    return MAX_QUEUE_LATENCY;
+  }
+
+  @Override
+  protected int getParallelism() {
+    return PARALLELISM;
+  }
+
+  @Override
+  protected int getBatchSize() {
+    return BATCH_SIZE;
+  }
+
+  /**
+   * Applies the changes carried by the given requests index by index. A request about all the
+   * indexes is performed once the changes of the requests before it are applied.
+   * @param requests the requests to process.
+   * @throws SilverpeasException on error.
+   */
+  @Override
+  protected void processBatch(final List<Request<IndexerProcessContext>> requests)
+      throws SilverpeasException {
+    // the files to index are parsed in parallel ahead of the indexation
+    requests.stream()
+        .filter(AddIndexEntryRequest.class::isInstance)
+        .forEach(r -> indexManager.prefetchFileContents(((AddIndexEntryRequest) r).indexEntry));
+    final Map<String, IndexManager.IndexingBatch> batches = new LinkedHashMap<>();
+    try {
+      for (Request<IndexerProcessContext> request : requests) {
+        final String componentId = request.getPartitionKey();
+        if (componentId == null) {
+          batches.values().forEach(IndexManager.IndexingBatch::apply);
+          batches.clear();
+          processRequest(request);
+        } else {
+          ((IndexingRequest) request).addTo(
+              batches.computeIfAbsent(componentId, indexManager::newBatch));
+        }
+      }
+    } finally {
+      // the batches are always applied to release the writers they lease
+      batches.values().forEach(IndexManager.IndexingBatch::apply);
+    }
   }
 
   @Override
@@ -105,10 +186,23 @@ public class IndexerTask extends AbstractRequestTask<IndexerTask.IndexerProcessC
     }
   }
 
+  /**
+   * A request about the index of a given component instance. Its change can be applied within a
+   * batch of changes in this index.
+   */
+  interface IndexingRequest extends AbstractRequestTask.Request<IndexerProcessContext> {
+
+    /**
+     * Adds the change carried by this request into the given batch.
+     * @param batch a batch of changes in the index targeted by this request.
+     */
+    void addTo(IndexManager.IndexingBatch batch);
+  }
+
   /**
    * An AddEntryIndex add an entry index.
    */
-  static class AddIndexEntryRequest implements AbstractRequestTask.Request<IndexerProcessContext> {
+  static class AddIndexEntryRequest implements IndexingRequest {
     private final FullIndexEntry indexEntry;
 
     /**
@@ -118,6 +212,11 @@ public class IndexerTask extends AbstractRequestTask<IndexerTask.IndexerProcessC
       this.indexEntry = indexEntry;
     }
 
+    @Override
+    public String getPartitionKey() {
+      return indexEntry.getComponent();
+    }
+
     /**
      * @param context process context.
      */
@@ -125,13 +224,17 @@ public class IndexerTask extends AbstractRequestTask<IndexerTask.IndexerProcessC
     public void process(IndexerProcessContext context) {
       context.getIndexManager().addIndexEntry(indexEntry);
     }
+
+    @Override
+    public void addTo(IndexManager.IndexingBatch batch) {
+      batch.add(indexEntry);
+    }
   }
 
   /**
    * A RemoveEntryIndex remove an entry index.
    */
-  static class RemoveIndexEntryRequest
-      implements AbstractRequestTask.Request<IndexerProcessContext> {
+  static class RemoveIndexEntryRequest implements IndexingRequest {
     private final IndexEntryKey indexEntry;
 
     /**
@@ -141,6 +244,11 @@ public class IndexerTask extends AbstractRequestTask<IndexerTask.IndexerProcessC
       this.indexEntry = indexEntry;
     }
 
+    @Override
+    public String getPartitionKey() {
+      return indexEntry.getComponentId();
+    }
+
     /**
      * @param context process context.
      */
@@ -148,13 +256,17 @@ public class IndexerTask extends AbstractRequestTask<IndexerTask.IndexerProcessC
     public void process(IndexerProcessContext context) {
       context.getIndexManager().removeIndexEntry(indexEntry);
     }
+
+    @Override
+    public void addTo(IndexManager.IndexingBatch batch) {
+      batch.remove(indexEntry);
+    }
   }
 
   /**
    * A RemoveEntryIndex remove an entry index.
    */
-  static class RemoveScopedIndexEntriesRequest
-      implements AbstractRequestTask.Request<IndexerProcessContext> {
+  static class RemoveScopedIndexEntriesRequest implements IndexingRequest {
     private final String scope;
 
     /**
@@ -164,6 +276,11 @@ public class IndexerTask extends AbstractRequestTask<IndexerTask.IndexerProcessC
       this.scope = scope;
     }
 
+    @Override
+    public String getPartitionKey() {
+      return scope;
+    }
+
     /**
      * @param context process context.
      */
@@ -171,6 +288,11 @@ public class IndexerTask extends AbstractRequestTask<IndexerTask.IndexerProcessC
     public void process(IndexerProcessContext context) {
       context.getIndexManager().removeIndexEntries(scope);
     }
+
+    @Override
+    public void addTo(IndexManager.IndexingBatch batch) {
+      batch.removeScope(scope);
+    }
   }
 
   /**
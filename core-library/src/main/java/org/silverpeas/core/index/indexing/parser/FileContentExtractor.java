@@ -0,0 +1,636 @@
+/*
+ * Copyright (C) 2000 - 2024 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.index.indexing.parser;
+
+import org.silverpeas.core.annotation.Bean;
+import org.silverpeas.core.thread.ManagedThreadPool;
+import org.silverpeas.core.util.ServiceProvider;
+import org.silverpeas.core.util.file.FileRepositoryManager;
+import org.silverpeas.kernel.annotation.Technical;
+import org.silverpeas.kernel.bundle.ResourceLocator;
+import org.silverpeas.kernel.bundle.SettingBundle;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.Writer;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static java.util.Optional.empty;
+import static java.util.Optional.ofNullable;
+import static org.silverpeas.core.index.indexing.IndexingLogger.indexingLogger;
+import static org.silverpeas.core.thread.ManagedThreadPool.ExecutionConfig.maxThreadPoolSizeOf;
+
+/**
+ * The extraction stage of the text content of the files to index.
+ * <p>
+ * The files are parsed, with the parser registered for their MIME type in the
+ * {@link ParserManager}, by a bounded pool of threads so that the files of the entries to index
+ * can be parsed in parallel ahead of their indexation (see {@link #prefetch(String, String,
+ * String)}). The result of a prefetched extraction is kept until the content is asked for the
+ * indexation, or until it expires. When the content of a file is asked while its prefetched
+ * extraction isn't yet started, the file is parsed directly by the asking thread instead of
+ * waiting for its turn in the pool.
+ * </p>
+ * <p>
+ * The extraction of a file is bounded both in time and in length: the text read from the parser
+ * once the timeout is expired, counted from the start of the parsing, or beyond the maximum
+ * length is ignored.
+ * </p>
+ * <p>
+ * The text extracted from a file is kept into an on-disk cache with the size and the last
+ * modification date of the file, so that re-indexing a file that didn't change doesn't require
+ * to parse it again. The text is written into the cache while it is read from the parser, and it
+ * is then read from the cache for its indexation, so that it is never held in memory. An
+ * extraction cut by the timeout isn't kept in the cache: its text is used only for the current
+ * indexation and the file will be parsed again at its next indexation. The cache is bounded in
+ * size: above its maximum size, the least recently used entries are evicted. The entries of the
+ * files that don't exist anymore are removed at the first use of the cache and at each eviction.
+ * A file being extracted is parsed only once, whatever the number of threads asking for its
+ * content.
+ * </p>
+ * @author mmoquillon
+ */
+@Technical
+@Bean
+@Singleton
+public class FileContentExtractor {
+
+  private static final int DEFAULT_PARALLELISM = 4;
+  private static final long DEFAULT_TIMEOUT = 30000;
+  private static final int DEFAULT_MAX_LENGTH = 10_000_000;
+  private static final long DEFAULT_CACHE_MAX_SIZE = 1024;
+  private static final long EXTRACTION_RETENTION = TimeUnit.MINUTES.toMillis(10);
+  private static final long WAITING_GRACE_DELAY = 1000;
+  private static final int BUFFER_SIZE = 8192;
+  private static final String NO_CONTENT_TYPE = "";
+  private static final String TMP_SUFFIX = ".tmp";
+  private static final String PARTIAL_SUFFIX = ".partial";
+  // the size, the last modification date and the content type of the file, and its path
+  private static final int HEADER_LINES = 4;
+
+  private final ConcurrentMap<String, Extraction> extractions = new ConcurrentHashMap<>();
+  private final AtomicLong cacheSize = new AtomicLong(-1);
+  private final AtomicBoolean evicting = new AtomicBoolean(false);
+  @Inject
+  private ParserManager parserManager;
+  private Function<String, Optional<Parser>> parsers;
+  private ExecutorService executor;
+  private int parallelism;
+  private long timeout;
+  private int maxLength;
+  private Path cachePath;
+  private long cacheMaxSize;
+
+  protected FileContentExtractor() {
+    // constructor to be used only by the IoD container
+  }
+
+  /**
+   * Constructs a new extraction stage.
+   * @param parsers the function providing the parser of a given MIME type.
+   * @param parallelism the maximum number of files parsed at the same time.
+   * @param timeout the timeout in milliseconds of the parsing of a file.
+   * @param maxLength the maximum number of characters extracted from a file.
+   * @param cachePath the path of the on-disk cache or null if the content isn't cached.
+   * @param cacheMaxSize the maximum size in bytes of the cache.
+   */
+  FileContentExtractor(final Function<String, Optional<Parser>> parsers, final int parallelism,
+      final long timeout, final int maxLength, final Path cachePath, final long cacheMaxSize) {
+    this.parsers = parsers;
+    this.parallelism = parallelism;
+    this.timeout = timeout;
+    this.maxLength = maxLength;
+    this.cachePath = cachePath;
+    this.cacheMaxSize = cacheMaxSize;
+  }
+
+  public static FileContentExtractor get() {
+    return ServiceProvider.getService(FileContentExtractor.class);
+  }
+
+  @PostConstruct
+  private void init() {
+    final SettingBundle settings =
+        ResourceLocator.getSettingBundle("org.silverpeas.index.indexing.IndexEngine");
+    parsers = parserManager::getParser;
+    parallelism = Math.max(1,
+        settings.getInteger("index.content.extraction.parallelism", DEFAULT_PARALLELISM));
+    timeout = settings.getLong("TimeOutParameter", DEFAULT_TIMEOUT);
+    maxLength = settings.getInteger("index.content.extraction.maxLength", DEFAULT_MAX_LENGTH);
+    cachePath = settings.getBoolean("index.content.cache.enabled", true) ?
+        Paths.get(FileRepositoryManager.getAbsolutePath("indexContentCache")) : null;
+    cacheMaxSize = settings.getLong("index.content.cache.maxSize", DEFAULT_CACHE_MAX_SIZE) *
+        1024 * 1024;
+  }
+
+  @PreDestroy
+  synchronized void shutdown() {
+    if (executor != null) {
+      executor.shutdownNow();
+      executor = null;
+    }
+  }
+
+  private synchronized ExecutorService getExecutor() {
+    if (executor == null) {
+      executor = ManagedThreadPool.getPool().newExecutorService(maxThreadPoolSizeOf(parallelism));
+    }
+    return executor;
+  }
+
+  /**
+   * Starts in the background the extraction of the text content of the specified file, if it
+   * isn't yet cached or being extracted. The content can then be got later with the
+   * {@link #extract(String, String, String)} method.
+   * @param path the absolute path of the file.
+   * @param encoding the encoding of the file if any.
+   * @param mimeType the MIME type of the file.
+   */
+  public void prefetch(final String path, final String encoding, final String mimeType) {
+    final File file = new File(path);
+    if (file.isFile()) {
+      final Extraction extraction = getExtraction(file, encoding, mimeType);
+      if (extraction.scheduled.compareAndSet(false, true)) {
+        getExecutor().execute(extraction);
+      }
+    }
+  }
+
+  /**
+   * Gets the text content of the specified file. If the content was prefetched, the result of
+   * the extraction is taken. Otherwise, if the content isn't yet cached, the file is parsed by
+   * the current thread, unless it is already being parsed by another thread. In this case, the
+   * caller waits for the end of the extraction, at most the extraction timeout counted from the
+   * start of the parsing.
+   * @param path the absolute path of the file.
+   * @param encoding the encoding of the file if any.
+   * @param mimeType the MIME type of the file.
+   * @return optionally the text content of the file. Nothing if the file doesn't exist or if its
+   * content cannot be extracted.
+   */
+  public Optional<Content> extract(final String path, final String encoding,
+      final String mimeType) {
+    final File file = new File(path);
+    if (!file.isFile()) {
+      return empty();
+    }
+    final Extraction extraction = getExtraction(file, encoding, mimeType);
+    try {
+      // if the extraction isn't yet started by the pool, it is performed by the current thread
+      extraction.run();
+      return extraction.await();
+    } catch (TimeoutException e) {
+      indexingLogger().warn("The extraction of the content of {0} has exceeded {1}ms",
+          path, timeout);
+    } catch (ExecutionException e) {
+      indexingLogger().error("Failed to parse file " + path, e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      // the result of the extraction is consumed
+      if (extraction.isDone()) {
+        extractions.remove(extraction.key, extraction);
+      }
+    }
+    return empty();
+  }
+
+  /**
+   * Gets the extraction of the content of the specified file, creating it if there is no
+   * extraction for the current state of the file. The expired extractions are removed.
+   */
+  private Extraction getExtraction(final File file, final String encoding,
+      final String mimeType) {
+    final long size = file.length();
+    final long lastModified = file.lastModified();
+    final Extraction[] created = new Extraction[1];
+    final Extraction extraction = extractions.compute(file.getAbsolutePath(), (k, e) -> {
+      if (e != null && e.isAbout(size, lastModified)) {
+        return e;
+      }
+      created[0] = new Extraction(file, encoding, mimeType, size, lastModified);
+      return created[0];
+    });
+    if (extraction == created[0]) {
+      final long now = System.currentTimeMillis();
+      extractions.values().removeIf(e -> e.isExpired(now));
+    }
+    return extraction;
+  }
+
+  private Optional<Content> parse(final File file, final String encoding, final String mimeType,
+      final long size, final long lastModified) {
+    final String path = file.getAbsolutePath();
+    return parsers.apply(mimeType).map(p -> {
+      final long start = System.currentTimeMillis();
+      final Parser.Context context = p.getContext(path, encoding);
+      final String contentType = context.getMetadata().getValue("Content-Type").orElse(null);
+      return cache(file, size, lastModified, contentType, context.getReader(), start)
+          .orElseGet(() -> new Content(read(path, context.getReader(), start), contentType));
+    });
+  }
+
+  private String read(final String path, final Reader reader, final long start) {
+    final StringBuilder text = new StringBuilder();
+    try (reader) {
+      final char[] buffer = new char[BUFFER_SIZE];
+      int nb = reader.read(buffer);
+      while (nb >= 0 && text.length() < maxLength && isInTime(path, start)) {
+        text.append(buffer, 0, Math.min(nb, maxLength - text.length()));
+        nb = reader.read(buffer);
+      }
+    } catch (IOException e) {
+      indexingLogger().error("Failed to read the content of the file " + path, e);
+    }
+    return text.toString();
+  }
+
+  /**
+   * Copies the text read from the parser into the specified writer, up to the maximum length of
+   * an extraction.
+   * @return true if the text was fully read or truncated to the maximum length, false if the
+   * reading was cut by the timeout or by an interruption.
+   */
+  private boolean copy(final String path, final Reader reader, final Writer writer,
+      final long start) throws IOException {
+    try (reader) {
+      final char[] buffer = new char[BUFFER_SIZE];
+      long length = 0;
+      int nb = reader.read(buffer);
+      while (nb >= 0 && length < maxLength) {
+        if (!isInTime(path, start)) {
+          return false;
+        }
+        final int count = (int) Math.min(nb, maxLength - length);
+        writer.write(buffer, 0, count);
+        length += count;
+        nb = reader.read(buffer);
+      }
+      return true;
+    }
+  }
+
+  private boolean isInTime(final String path, final long start) {
+    if (Thread.currentThread().isInterrupted()) {
+      return false;
+    }
+    if (System.currentTimeMillis() - start > timeout) {
+      indexingLogger().warn("The parsing of {0} has exceeded {1}ms: its remaining text is ignored",
+          path, timeout);
+      return false;
+    }
+    return true;
+  }
+
+  private Optional<Content> getCachedContent(final File file) {
+    if (cachePath == null) {
+      return empty();
+    }
+    final Path entry = cachePath.resolve(hash(file.getAbsolutePath()));
+    if (!Files.exists(entry)) {
+      return empty();
+    }
+    try (BufferedReader reader = Files.newBufferedReader(entry, StandardCharsets.UTF_8)) {
+      final String size = reader.readLine();
+      final String lastModified = reader.readLine();
+      final String contentType = reader.readLine();
+      final String path = reader.readLine();
+      if (!String.valueOf(file.length()).equals(size) ||
+          !String.valueOf(file.lastModified()).equals(lastModified) ||
+          !file.getAbsolutePath().equals(path)) {
+        return empty();
+      }
+      // the modification date of an entry is the date of its last use for the eviction
+      Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+      indexingLogger().debug("content of file {0} got from the cache", file.getAbsolutePath());
+      return Optional.of(new Content(entry, NO_CONTENT_TYPE.equals(contentType) ? null :
+          contentType));
+    } catch (IOException e) {
+      indexingLogger().warn("Cannot read the cached content of {0}: {1}", file.getAbsolutePath(),
+          e.getMessage());
+      return empty();
+    }
+  }
+
+  /**
+   * Writes into the cache the text read from the parser of the specified file. If the parsing is
+   * cut by the timeout, the text is written apart, in a partial entry that is never got from the
+   * cache, so that the file is fully extracted at its next indexation.
+   * @return the content of the file in the cache or nothing if the cache is disabled.
+   */
+  private Optional<Content> cache(final File file, final long size, final long lastModified,
+      final String contentType, final Reader reader, final long start) {
+    if (cachePath == null) {
+      return empty();
+    }
+    final String path = file.getAbsolutePath();
+    Path entry = cachePath.resolve(hash(path));
+    Path tmp = null;
+    boolean complete;
+    try {
+      Files.createDirectories(cachePath);
+      tmp = Files.createTempFile(cachePath, entry.getFileName().toString(), TMP_SUFFIX);
+      try (BufferedWriter writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+        writer.write(String.valueOf(size));
+        writer.newLine();
+        writer.write(String.valueOf(lastModified));
+        writer.newLine();
+        writer.write(ofNullable(contentType).orElse(NO_CONTENT_TYPE));
+        writer.newLine();
+        writer.write(path);
+        writer.newLine();
+        complete = copy(path, reader, writer, start);
+      }
+      final long entrySize = Files.size(tmp);
+      final Path partial = cachePath.resolve(entry.getFileName() + PARTIAL_SUFFIX);
+      if (complete) {
+        deleteQuietly(partial);
+      } else {
+        // the previous extraction of the file, if any, is outdated
+        deleteQuietly(entry);
+        entry = partial;
+      }
+      Files.move(tmp, entry, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      entryAdded(entrySize);
+    } catch (IOException e) {
+      indexingLogger().error("Failed to extract the content of the file " + path, e);
+      deleteQuietly(tmp);
+      return Optional.of(new Content("", contentType));
+    }
+    return Optional.of(new Content(entry, contentType));
+  }
+
+  /**
+   * Accounts the size of a new entry in the cache and evicts in the background the least
+   * recently used entries if the cache exceeds its maximum size.
+   */
+  private void entryAdded(final long entrySize) {
+    final boolean firstUse = cacheSize.get() < 0 && cacheSize.compareAndSet(-1, computeCacheSize());
+    if (!firstUse) {
+      cacheSize.addAndGet(entrySize);
+    }
+    // at first use, the entries of the files deleted since the previous run are removed
+    if ((firstUse || cacheSize.get() > cacheMaxSize) && evicting.compareAndSet(false, true)) {
+      getExecutor().execute(() -> {
+        try {
+          evictCacheEntries();
+        } finally {
+          evicting.set(false);
+        }
+      });
+    }
+  }
+
+  /**
+   * Evicts the least recently used entries of the cache until its size is below 90% of its
+   * maximum size. The entries of the files that don't exist anymore and the temporary files older
+   * than the extraction timeout, left by an abrupt stop, are also removed.
+   */
+  void evictCacheEntries() {
+    final long now = System.currentTimeMillis();
+    try (Stream<Path> files = Files.list(cachePath)) {
+      final List<Path> entries = files.sorted(Comparator.comparingLong(this::lastModified))
+          .collect(Collectors.toList());
+      long size = 0;
+      for (Path entry : entries) {
+        size += size(entry);
+      }
+      final long threshold = cacheMaxSize / 10 * 9;
+      for (Path entry : entries) {
+        // a temporary file is an entry being written, unless it is older than the timeout
+        final boolean toDelete = entry.getFileName().toString().endsWith(TMP_SUFFIX) ?
+            now - lastModified(entry) > timeout :
+            size > threshold || isOrphan(entry);
+        if (toDelete) {
+          final long entrySize = size(entry);
+          if (deleteQuietly(entry)) {
+            size -= entrySize;
+          }
+        }
+      }
+      indexingLogger().debug("content cache reduced to {0} bytes", size);
+      cacheSize.set(size);
+    } catch (IOException e) {
+      indexingLogger().warn("Cannot evict the entries of the content cache: {0}", e.getMessage());
+    }
+  }
+
+  /**
+   * Is the specified entry of the cache about a file that doesn't exist anymore?
+   */
+  private boolean isOrphan(final Path entry) {
+    try (BufferedReader reader = Files.newBufferedReader(entry, StandardCharsets.UTF_8)) {
+      String path = null;
+      for (int i = 0; i < HEADER_LINES; i++) {
+        path = reader.readLine();
+      }
+      // an entry without any path was written by a previous version of the cache
+      return path == null || !Files.exists(Paths.get(path));
+    } catch (IOException | RuntimeException e) {
+      return true;
+    }
+  }
+
+  private long computeCacheSize() {
+    try (Stream<Path> files = Files.list(cachePath)) {
+      return files.mapToLong(this::size).sum();
+    } catch (IOException e) {
+      indexingLogger().warn("Cannot compute the size of the content cache: {0}", e.getMessage());
+      return 0;
+    }
+  }
+
+  private long size(final Path entry) {
+    try {
+      return Files.size(entry);
+    } catch (IOException e) {
+      return 0;
+    }
+  }
+
+  private long lastModified(final Path entry) {
+    try {
+      return Files.getLastModifiedTime(entry).toMillis();
+    } catch (IOException e) {
+      return 0;
+    }
+  }
+
+  private static boolean deleteQuietly(final Path file) {
+    try {
+      return file != null && Files.deleteIfExists(file);
+    } catch (IOException e) {
+      indexingLogger().warn("Cannot delete {0}: {1}", file, e.getMessage());
+      return false;
+    }
+  }
+
+  private static String hash(final String path) {
+    try {
+      final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      return new BigInteger(1, digest.digest(path.getBytes(StandardCharsets.UTF_8))).toString(16);
+    } catch (NoSuchAlgorithmException e) {
+      indexingLogger().warn(e.getMessage());
+      return String.valueOf(path.hashCode());
+    }
+  }
+
+  /**
+   * The extraction of the content of a file in a given state. Once done, it is kept for the
+   * thread asking for the content of the file until it consumes it, or until it expires.
+   */
+  private class Extraction extends FutureTask<Optional<Content>> {
+    private final String key;
+    private final long size;
+    private final long lastModified;
+    private final AtomicBoolean scheduled = new AtomicBoolean(false);
+    private volatile long startedAt = 0;
+    private volatile long doneAt = 0;
+
+    private Extraction(final File file, final String encoding, final String mimeType,
+        final long size, final long lastModified) {
+      super(() -> getCachedContent(file).or(
+          () -> parse(file, encoding, mimeType, size, lastModified)));
+      this.key = file.getAbsolutePath();
+      this.size = size;
+      this.lastModified = lastModified;
+    }
+
+    @Override
+    public void run() {
+      if (startedAt == 0) {
+        startedAt = System.currentTimeMillis();
+      }
+      super.run();
+    }
+
+    @Override
+    protected void done() {
+      doneAt = System.currentTimeMillis();
+    }
+
+    boolean isAbout(final long size, final long lastModified) {
+      return this.size == size && this.lastModified == lastModified;
+    }
+
+    boolean isExpired(final long now) {
+      return isDone() && now - doneAt > EXTRACTION_RETENTION;
+    }
+
+    /**
+     * Waits for the end of the extraction, at most the timeout of a parsing counted from the
+     * start of the extraction. As the text read beyond the timeout is ignored, the extraction
+     * normally ends in time.
+     */
+    Optional<Content> await() throws InterruptedException, ExecutionException,
+        TimeoutException {
+      final long remaining = startedAt + timeout + WAITING_GRACE_DELAY - System.currentTimeMillis();
+      return get(Math.max(0, remaining), TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /**
+   * The text content extracted from a file. The text is either in memory or, when the cache is
+   * enabled, in the entry of the file in the cache.
+   */
+  public static class Content {
+    private final Path entry;
+    private final String text;
+    private final String contentType;
+
+    Content(final String text, final String contentType) {
+      this.entry = null;
+      this.text = text;
+      this.contentType = contentType;
+    }
+
+    Content(final Path entry, final String contentType) {
+      this.entry = entry;
+      this.text = null;
+      this.contentType = contentType;
+    }
+
+    /**
+     * Opens a reader on the text extracted from the file, truncated to the maximum length of an
+     * extraction. The reader has to be closed by the caller.
+     * @return a reader on the text content of the file.
+     */
+    public Reader openReader() {
+      if (entry == null) {
+        return new StringReader(text);
+      }
+      try {
+        final BufferedReader reader = Files.newBufferedReader(entry, StandardCharsets.UTF_8);
+        // skips the header of the entry: the size, the last modification date, the content
+        // type and the path of the file
+        for (int i = 0; i < HEADER_LINES; i++) {
+          reader.readLine();
+        }
+        return reader;
+      } catch (IOException e) {
+        indexingLogger().warn("Cannot read the cached content {0}: {1}", entry, e.getMessage());
+        return new StringReader("");
+      }
+    }
+
+    /**
+     * Gets the content type of the file as detected by the parser.
+     * @return optionally the detected content type.
+     */
+    public Optional<String> getContentType() {
+      return ofNullable(contentType);
+    }
+  }
+}
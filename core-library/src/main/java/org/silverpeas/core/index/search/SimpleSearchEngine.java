@@ -23,6 +23,7 @@
  */
 package org.silverpeas.core.index.search;
 
+import org.silverpeas.core.admin.component.model.ComponentInst;
 import org.silverpeas.core.admin.domain.model.DomainProperties;
 import org.silverpeas.core.admin.service.Administration;
 import org.silverpeas.core.admin.service.OrganizationController;
@@ -84,6 +85,7 @@ public class SimpleSearchEngine implements SearchEngine {
   private final float minScore = pdcSettings.getFloat("wordSpellingMinScore", 0.5f);
   private final boolean enableWordSpelling = pdcSettings.getBoolean("enableWordSpelling", false);
   private final String localServerName = pdcSettings.getString("server.name");
+  private final int maxFilteredPages = pdcSettings.getInteger("search.filtering.maxPages", 3);
 
   /**
    * Hide constructor.
@@ -94,15 +96,16 @@ public class SimpleSearchEngine implements SearchEngine {
   @Override
   public PlainSearchResult search(QueryDescription query) throws ParseException {
     try {
-      List<MatchingIndexEntry> results = Arrays.asList(indexSearcher.search(query));
-      if (!query.isAdminScope()) {
+      final List<MatchingIndexEntry> results;
+      if (query.isAdminScope()) {
+        results = Arrays.asList(indexSearcher.search(query));
+      } else {
         final long startTime = System.currentTimeMillis();
-        // filter results to checkout specific rights
-        results = filterMatchingIndexEntries(results, query.getSearchingUser());
+        results = searchAuthorizedEntries(query);
         final long endTime = System.currentTimeMillis();
         final int nbResultItemsAfterFiltering = results.size();
         SilverLogger.getLogger(this).debug(() -> MessageFormat
-            .format(" search index filtering duration in {0} and keeping {1} entries",
+            .format(" search index with filtering duration in {0} and keeping {1} entries",
                 formatDurationHMS(endTime - startTime), nbResultItemsAfterFiltering));
       }
       Set<String> spellingWords = emptySet();
@@ -145,16 +148,53 @@ public class SimpleSearchEngine implements SearchEngine {
     return completion.getSuggestions(keywordFragment);
   }
 
-  private List<MatchingIndexEntry> filterMatchingIndexEntries(
-      List<MatchingIndexEntry> matchingIndexEntries, String userId) {
-    if (matchingIndexEntries == null || matchingIndexEntries.isEmpty()) {
-      return new ArrayList<>();
-    }
+  /**
+   * Searches the entries matching the specified query among those the searching user is
+   * authorized to access. The component instances the user cannot access are removed from the
+   * scope of the search so that their entries are filtered out directly by the index searcher.
+   * The finer rights (on the contributions themselves) are then checked on the matching entries
+   * and, as long as some of them are discarded, the next results are fetched after the last
+   * matching entry in order to fill the page, up to a maximum number of pages.
+   */
+  private List<MatchingIndexEntry> searchAuthorizedEntries(final QueryDescription query)
+      throws ParseException {
+    final String userId = query.getSearchingUser();
     // This allows to optimize search (instead of requesting the organization on each result of
     // type 'Component')
     final Set<String> allowedComponentIds = isDefined(userId)
         ? Stream.of(organization.getAvailCompoIds(userId)).collect(Collectors.toSet())
         : emptySet();
+    // the query of the caller is left untouched
+    final QueryDescription authorizedQuery = query.copy();
+    if (isDefined(userId)) {
+      authorizedQuery.setAuthorizedScopes(query.getWhereToSearch().stream()
+          .filter(s -> ComponentInst.getComponentLocalId(s) == -1 ||
+              allowedComponentIds.contains(s))
+          .collect(Collectors.toSet()));
+    }
+    final List<MatchingIndexEntry> results = new ArrayList<>();
+    // a page shorter than the maximum number of results means there is no more matching entries
+    final int maxResults = indexSearcher.getMaxResults(authorizedQuery);
+    MatchingIndexEntry[] page = indexSearcher.search(authorizedQuery);
+    int pageCount = 1;
+    results.addAll(filterMatchingIndexEntries(Arrays.asList(page), userId, allowedComponentIds));
+    while (results.size() < maxResults && page.length == maxResults &&
+        pageCount < maxFilteredPages) {
+      authorizedQuery.setSearchAfter(page[page.length - 1].getSearchCursor());
+      page = indexSearcher.search(authorizedQuery);
+      pageCount++;
+      results.addAll(
+          filterMatchingIndexEntries(Arrays.asList(page), userId, allowedComponentIds));
+    }
+    return results.size() > maxResults ? results.subList(0, maxResults) : results;
+  }
+
+  private List<MatchingIndexEntry> filterMatchingIndexEntries(
+      List<MatchingIndexEntry> matchingIndexEntries, String userId,
+      Set<String> allowedComponentIds) {
+    if (matchingIndexEntries == null || matchingIndexEntries.isEmpty()) {
+      return new ArrayList<>();
+    }
     // Convert into items
     final List<FilterMatchingIndexEntryItem> filterItems = matchingIndexEntries.stream()
         .map(FilterMatchingIndexEntryItem::new)
@@ -41,7 +41,9 @@ import org.silverpeas.core.index.indexing.model.FieldDescription;
 import org.silverpeas.core.index.indexing.model.IndexEntry;
 import org.silverpeas.core.index.indexing.model.IndexEntryKey;
 import org.silverpeas.core.index.indexing.model.IndexManager;
+import org.silverpeas.core.index.indexing.model.IndexReadersCache;
 import org.silverpeas.core.index.search.SearchEnginePropertiesManager;
+import org.silverpeas.core.thread.ManagedThreadPool;
 import org.silverpeas.core.util.DateUtil;
 import org.silverpeas.kernel.bundle.ResourceLocator;
 import org.silverpeas.core.util.ServiceProvider;
@@ -50,6 +52,7 @@ import org.silverpeas.kernel.util.StringUtil;
 import org.silverpeas.kernel.logging.SilverLogger;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import java.io.File;
@@ -57,12 +60,15 @@ import java.io.IOException;
 import java.text.MessageFormat;
 import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static org.apache.commons.lang3.time.DurationFormatUtils.formatDurationHMS;
+import static org.silverpeas.core.thread.ManagedThreadPool.ExecutionConfig.maxThreadPoolSizeOf;
 import static org.silverpeas.core.index.indexing.model.IndexProcessor.doSearch;
-import static org.silverpeas.core.index.indexing.model.IndexReadersCache.getIndexReader;
+import static org.silverpeas.core.index.indexing.model.IndexReadersCache.acquireIndexReader;
 import static org.silverpeas.kernel.util.StringUtil.getBooleanValue;
 
 /**
@@ -77,6 +83,7 @@ public class IndexSearcher {
   private static final String INDEX_SEARCH_ERROR = "Index search failure";
   private static final int DEFAULT_MAX_RESULT = 100;
   private static final int DEFAULT_FIELD_HEADER_BOOST = 3;
+  private static final int DEFAULT_MAX_SEARCH_PARALLELISM = 4;
 
   private QueryParser.Operator defaultOperator;
 
@@ -94,6 +101,17 @@ public class IndexSearcher {
    */
   private int maxNumberResult;
 
+  /**
+   * indicates the number maximum of threads among which a search over several indexes is
+   * parallelized. With 1, a search is performed within the thread of the caller.
+   */
+  private int searchParallelism;
+
+  /**
+   * the executor in charge of the parallel searches, created at the first need.
+   */
+  private ExecutorService searchExecutor;
+
   /**
    * The no parameters constructor retrieves all the needed data from the IndexEngine.properties
    * file.
@@ -110,6 +128,16 @@ public class IndexSearcher {
     return defaultOperator;
   }
 
+  /**
+   * Gets the maximum number of entries a search with the specified query returns at once: the
+   * one asked by the query itself or, if not set, the one configured for the search engine.
+   * @param query a query description.
+   * @return the maximum number of matching entries fetched by a search with the given query.
+   */
+  public int getMaxResults(final QueryDescription query) {
+    return query.getMaxResults() > 0 ? query.getMaxResults() : maxNumberResult;
+  }
+
   @PostConstruct
   private void init() {
     SettingBundle settings =
@@ -124,6 +152,25 @@ public class IndexSearcher {
     maxNumberResult = settings.getInteger("maxResults", DEFAULT_MAX_RESULT);
 
     fieldHeaderBoost = settings.getInteger("boost.field.header", DEFAULT_FIELD_HEADER_BOOST);
+
+    searchParallelism = settings.getInteger("search.parallelism",
+        Math.min(DEFAULT_MAX_SEARCH_PARALLELISM, Runtime.getRuntime().availableProcessors()));
+  }
+
+  @PreDestroy
+  private synchronized void release() {
+    if (searchExecutor != null) {
+      searchExecutor.shutdownNow();
+      searchExecutor = null;
+    }
+  }
+
+  private synchronized Executor getSearchExecutor() {
+    if (searchExecutor == null) {
+      searchExecutor = ManagedThreadPool.getPool()
+          .newExecutorService(maxThreadPoolSizeOf(searchParallelism));
+    }
+    return searchExecutor;
   }
 
   /**
@@ -150,6 +197,8 @@ public class IndexSearcher {
         matchingIndexEntry = createMatchingIndexEntry(scoreDoc, "*", searcher);
       } catch (IOException ioe) {
         SilverLogger.getLogger(this).error("Index file corrupted", ioe);
+      } finally {
+        close(searcher);
       }
       return matchingIndexEntry;
     }, () -> null);
@@ -180,20 +229,24 @@ public class IndexSearcher {
         // but the query cannot be empty : if so, then pass date range in the query
         BooleanQuery booleanQuery = booleanQueryBuilder.build();
         BooleanQuery rangeClauses = rangeClausesBuilder.build();
+        final int maxResults = getMaxResults(query);
+        final SearchCursor after = query.getSearchAfter().orElse(null);
         TopDocs topDocs;
         if (booleanQuery.clauses().isEmpty()) {
-          topDocs = searcher.search(rangeClauses, maxNumberResult);
+          topDocs = SearchCursor.searchAfter(searcher, after, rangeClauses, maxResults);
           SilverLogger.getLogger(this).info(rangeClauses.toString());
         } else {
           booleanQueryBuilder.add(rangeClauses, BooleanClause.Occur.FILTER);
           booleanQuery = booleanQueryBuilder.build();
           SilverLogger.getLogger(this).info(booleanQuery.toString());
-          topDocs = searcher.search(booleanQuery, maxNumberResult);
+          topDocs = SearchCursor.searchAfter(searcher, after, booleanQuery, maxResults);
         }
         results = makeList(topDocs, query, searcher);
       } catch (IOException ioe) {
         SilverLogger.getLogger(this).error("Index file corrupted", ioe);
         results = new ArrayList<>();
+      } finally {
+        close(searcher);
       }
       final long endTime = System.currentTimeMillis();
       final int nbResults = results.size();
@@ -437,6 +490,7 @@ public class IndexSearcher {
     indexEntry.setEmbeddedFileIds(doc.getValues(IndexManager.EMBEDDED_FILE_IDS));
     indexEntry.setAlias(getBooleanValue(doc.get(IndexManager.ALIAS)));
     indexEntry.setScore(scoreDoc.score);
+    indexEntry.setSearchCursor(SearchCursor.of(scoreDoc));
     final String[] paths = doc.getValues(IndexManager.PATH);
     if (paths != null && paths.length > 0) {
       indexEntry.setPaths(Stream.of(paths).collect(Collectors.toList()));
@@ -481,17 +535,12 @@ public class IndexSearcher {
 
     List<IndexReader> readers = new ArrayList<>();
     for (String path : indexPathSet) {
-      final IndexReader indexReader = getIndexReader(path);
+      final IndexReader indexReader = acquireIndexReader(path);
       if (indexReader != null) {
         readers.add(indexReader);
       }
     }
-    try {
-      return new org.apache.lucene.search.IndexSearcher(
-          new MultiReader(readers.toArray(new IndexReader[0])));
-    } catch (IOException e) {
-      throw new org.silverpeas.core.index.search.model.ParseException(INDEX_SEARCH_ERROR, e);
-    }
+    return newSearcher(readers);
   }
 
   /**
@@ -499,10 +548,10 @@ public class IndexSearcher {
    */
   private org.apache.lucene.search.IndexSearcher getSearcher(QueryDescription query)
       throws ParseException {
-    Set<String> indexPathSet = getIndexPathSet(query.getWhereToSearch());
+    Set<String> indexPathSet = getIndexPathSet(query.getScopesToSearch());
     List<IndexReader> readers = new ArrayList<>();
     for (String path : indexPathSet) {
-      IndexReader indexReader = getIndexReader(path);
+      IndexReader indexReader = acquireIndexReader(path);
       if (indexReader != null) {
         readers.add(indexReader);
       }
@@ -512,16 +561,43 @@ public class IndexSearcher {
     Set<ExternalComponent> extSearchers = query.getExtComponents();
     for (ExternalComponent externalComponent : extSearchers) {
       String externalComponentPath = getExternalComponentPath(externalComponent);
-      IndexReader searcher = getIndexReader(externalComponentPath);
+      IndexReader searcher = acquireIndexReader(externalComponentPath);
       if (searcher != null) {
         readers.add(searcher);
       }
     }
+    return newSearcher(readers);
+  }
+
+  /**
+   * Creates a searcher over the specified acquired readers. The searcher holds its own reference
+   * on each of them, so the readers are released here and the searcher has to be closed once the
+   * search is done. When the search is over several indexes, it is parallelized by slicing the
+   * segments of the indexes among the threads of the search executor.
+   */
+  private org.apache.lucene.search.IndexSearcher newSearcher(List<IndexReader> readers)
+      throws ParseException {
     try {
-      return new org.apache.lucene.search.IndexSearcher(
-          new MultiReader(readers.toArray(new IndexReader[0])));
+      final MultiReader multiReader = new MultiReader(readers.toArray(new IndexReader[0]), false);
+      if (searchParallelism > 1 && readers.size() > 1) {
+        return new org.apache.lucene.search.IndexSearcher(multiReader, getSearchExecutor());
+      }
+      return new org.apache.lucene.search.IndexSearcher(multiReader);
     } catch (IOException ioe) {
       throw new org.silverpeas.core.index.search.model.ParseException(INDEX_SEARCH_ERROR, ioe);
+    } finally {
+      readers.forEach(IndexReadersCache::releaseIndexReader);
+    }
+  }
+
+  /**
+   * Closes the specified searcher, releasing then the readers on which it was built.
+   */
+  private void close(org.apache.lucene.search.IndexSearcher searcher) {
+    try {
+      searcher.getIndexReader().close();
+    } catch (IOException e) {
+      SilverLogger.getLogger(this).warn(e);
     }
   }
 
@@ -603,9 +679,14 @@ public class IndexSearcher {
     return null;
   }
 
+  /**
+   * Gets the filter on the scopes to search, that is to say on the component instances the
+   * searching user is authorized to access. Being a filter clause, the documents matching it are
+   * cached by the query cache of Lucene and then shared between the searches on the same scopes.
+   */
   private TermInSetQuery getScopeQuery(QueryDescription query) {
     List<BytesRef> terms = new ArrayList<>();
-    for (String scope : query.getWhereToSearch()) {
+    for (String scope : query.getScopesToSearch()) {
       terms.add(new BytesRef(scope));
     }
     return new TermInSetQuery(IndexManager.SCOPE, terms);
@@ -47,6 +47,8 @@ public class MatchingIndexEntry extends IndexEntry implements Serializable {
 
   private boolean externalResult = false;
 
+  private SearchCursor searchCursor = null;
+
   /**
    * The constructor set only the key part of the entry.
    */
@@ -112,6 +114,19 @@ public class MatchingIndexEntry extends IndexEntry implements Serializable {
     return xmlFormFieldsForFacet;
   }
 
+  /**
+   * Gets the cursor on this entry among the results of the search. It can be passed to a
+   * {@link QueryDescription} to get the entries coming after this one for the same query.
+   * @return the cursor on this entry or null if the entry isn't coming from a search.
+   */
+  public SearchCursor getSearchCursor() {
+    return searchCursor;
+  }
+
+  void setSearchCursor(final SearchCursor searchCursor) {
+    this.searchCursor = searchCursor;
+  }
+
   public boolean isExternalResult() {
     return externalResult;
   }
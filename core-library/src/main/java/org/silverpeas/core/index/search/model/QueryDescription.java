@@ -30,6 +30,7 @@ import org.silverpeas.kernel.util.StringUtil;
 import java.io.Serializable;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
@@ -50,6 +51,11 @@ public final class QueryDescription implements Serializable {
    * be explicitly added with the addSpaceComponent() method.
    **/
   private final HashSet<String> whereToSearch = new HashSet<>();
+  /**
+   * The scopes the searching user is authorized to search in. Null when the scopes aren't
+   * restricted.
+   */
+  private HashSet<String> authorizedScopes = null;
   /**
    * The query defaults to the empty query. This is an error to set the query to null : a query is
    * needed to perform the search.
@@ -82,6 +88,13 @@ public final class QueryDescription implements Serializable {
 
   private boolean adminScope = false;
 
+  /**
+   * The cursor on the entry after which the results have to be returned and the number maximum
+   * of results to return. Zero means the default maximum of the search engine.
+   */
+  private SearchCursor searchAfter = null;
+  private int maxResults = 0;
+
   /**
    * The no parameters constructor builds an empty query. The setQuery and addComponent()
    * methods should be called to initialize the query. Other criterion (language, creation date
@@ -101,6 +114,33 @@ public final class QueryDescription implements Serializable {
     setQuery(query);
   }
 
+  /**
+   * Copies this query description. The copy can be modified without any impact on this query
+   * description.
+   * @return a copy of this query description.
+   */
+  public QueryDescription copy() {
+    final QueryDescription copy = new QueryDescription();
+    copy.whereToSearch.addAll(whereToSearch);
+    copy.authorizedScopes = authorizedScopes == null ? null : new HashSet<>(authorizedScopes);
+    copy.query = query;
+    copy.searchingUser = searchingUser;
+    copy.requestedLang = requestedLang;
+    copy.requestedAuthor = requestedAuthor;
+    copy.requestedCreatedBefore = requestedCreatedBefore;
+    copy.requestedCreatedAfter = requestedCreatedAfter;
+    copy.requestedUpdatedBefore = requestedUpdatedBefore;
+    copy.requestedUpdatedAfter = requestedUpdatedAfter;
+    copy.multiFieldQuery = multiFieldQuery == null ? null : new ArrayList<>(multiFieldQuery);
+    copy.requestedFolder = requestedFolder;
+    copy.taxonomyPosition = taxonomyPosition;
+    copy.extComponents.addAll(extComponents);
+    copy.adminScope = adminScope;
+    copy.searchAfter = searchAfter;
+    copy.maxResults = maxResults;
+    return copy;
+  }
+
   /**
    * Set the query string.
    */
@@ -153,6 +193,30 @@ public final class QueryDescription implements Serializable {
     return whereToSearch;
   }
 
+  /**
+   * Restricts the scopes in which the documents can be searched to the given ones. This is
+   * about the rights of the searching user: the scopes to search not in the given ones are
+   * then ignored, both in the choice of the indexes to open and in the filter on the matching
+   * documents.
+   * @param scopes the scopes the searching user is authorized to search in.
+   */
+  public void setAuthorizedScopes(Collection<String> scopes) {
+    this.authorizedScopes = scopes == null ? null : new HashSet<>(scopes);
+  }
+
+  /**
+   * @return the set of all the component's instances where the documents must be searched and
+   * in which the searching user is authorized to search.
+   */
+  public Set<String> getScopesToSearch() {
+    if (authorizedScopes == null) {
+      return whereToSearch;
+    }
+    final Set<String> scopes = new HashSet<>(whereToSearch);
+    scopes.retainAll(authorizedScopes);
+    return scopes;
+  }
+
   /**
    * Set the requested language.
    * @param requestedLang a language.
@@ -344,4 +408,31 @@ public final class QueryDescription implements Serializable {
   public void setAdminScope(final boolean adminScope) {
     this.adminScope = adminScope;
   }
+
+  /**
+   * Sets the cursor on the matching entry after which the results of the search have to be
+   * returned. This is for paginating the results.
+   * @param searchAfter a cursor on a matching entry returned by a previous search with this
+   * query or null to get the first results.
+   */
+  public void setSearchAfter(final SearchCursor searchAfter) {
+    this.searchAfter = searchAfter;
+  }
+
+  public Optional<SearchCursor> getSearchAfter() {
+    return ofNullable(searchAfter);
+  }
+
+  /**
+   * Sets the number maximum of results to return.
+   * @param maxResults a positive number or zero to take the default maximum of the search
+   * engine.
+   */
+  public void setMaxResults(final int maxResults) {
+    this.maxResults = Math.max(0, maxResults);
+  }
+
+  public int getMaxResults() {
+    return maxResults;
+  }
 }
\ No newline at end of file
@@ -0,0 +1,118 @@
+/*
+ * Copyright (C) 2000 - 2024 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.index.search.model;
+
+import org.apache.lucene.search.FieldDoc;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.util.BytesRef;
+import org.silverpeas.core.index.indexing.model.IndexManager;
+
+import java.io.IOException;
+import java.io.Serializable;
+
+/**
+ * A cursor on a matching entry among the results of a search. It is used to get, in a
+ * paginated way, the entries coming after it in the results without having to compute again the
+ * entries of the previous pages: the cost of a deep page is then the same as for the first one.
+ * <p>
+ * The results are sorted by relevance and then by the key of the entries, so the cursor carries
+ * the sort values of the entry and not its identifier in the indexes: it stays valid when the
+ * indexes are updated and then reopened between two pages, and the pages have neither gap nor
+ * duplicate among the entries matching the query both before and after the update. The entries
+ * indexed before the sort key was introduced have no such key; they are then ordered by their
+ * position in the indexes until they are indexed again.
+ * </p>
+ * <p>
+ * A cursor is only meaningful for the query from which it was computed.
+ * </p>
+ * @author mmoquillon
+ */
+public final class SearchCursor implements Serializable {
+
+  private static final long serialVersionUID = -4261937468425105239L;
+
+  /**
+   * The order of the results of a search: by relevance and then by key.
+   */
+  static final Sort RESULTS_ORDER = new Sort(SortField.FIELD_SCORE,
+      new SortField(IndexManager.SORT_KEY, SortField.Type.STRING));
+
+  private final int doc;
+  private final float score;
+  private final String key;
+
+  SearchCursor(final int doc, final float score, final String key) {
+    this.doc = doc;
+    this.score = score;
+    this.key = key;
+  }
+
+  /**
+   * Gets the cursor on the specified hit of a search performed with the {@link #RESULTS_ORDER}.
+   * @param hit a hit of a search.
+   * @return the cursor on the hit.
+   */
+  static SearchCursor of(final ScoreDoc hit) {
+    String key = null;
+    if (hit instanceof FieldDoc) {
+      final Object[] fields = ((FieldDoc) hit).fields;
+      if (fields.length > 1 && fields[1] != null) {
+        key = ((BytesRef) fields[1]).utf8ToString();
+      }
+    }
+    return new SearchCursor(hit.doc, hit.score, key);
+  }
+
+  /**
+   * Searches, in the {@link #RESULTS_ORDER}, the first hits of the given query coming after the
+   * specified cursor.
+   * @param searcher the searcher to use.
+   * @param cursor the cursor after which the hits are searched or null for the first hits.
+   * @param query the query.
+   * @param maxHits the maximum number of hits to return.
+   * @return the hits.
+   * @throws IOException if an error occurs while searching the indexes.
+   */
+  static TopDocs searchAfter(final org.apache.lucene.search.IndexSearcher searcher,
+      final SearchCursor cursor, final Query query, final int maxHits) throws IOException {
+    final FieldDoc after = cursor == null ? null : cursor.toFieldDoc();
+    return searcher.searchAfter(after, query, maxHits, RESULTS_ORDER, true);
+  }
+
+  float getScore() {
+    return score;
+  }
+
+  String getKey() {
+    return key;
+  }
+
+  private FieldDoc toFieldDoc() {
+    return new FieldDoc(doc, score, new Object[]{score, key == null ? null : new BytesRef(key)});
+  }
+}
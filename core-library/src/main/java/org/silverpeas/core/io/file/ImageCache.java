@@ -52,7 +52,7 @@ class ImageCache {
   }
 
   private static final String IMAGE_CACHE_TABLE =
-      ImageResizingProcessor.IMAGE_CACHE_PATH + File.separatorChar + ".data";
+      ImageResizingService.IMAGE_CACHE_PATH + File.separatorChar + ".data";
 
   /**
    * Puts an entry into the cache for the specified resized image of the specified original image.
@@ -61,7 +61,8 @@ class ImageCache {
    * @param resizedImagePath the absolute path of the resized image for which an entry will be
    * created into the cache.
    */
-  protected static void putImage(final String originalImagePath, final String resizedImagePath) {
+  protected static synchronized void putImage(final String originalImagePath,
+      final String resizedImagePath) {
     String entryName = hash(originalImagePath);
     File entry = new File(IMAGE_CACHE_TABLE, entryName);
     try {
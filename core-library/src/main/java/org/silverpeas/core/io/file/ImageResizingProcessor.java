@@ -24,11 +24,6 @@
 package org.silverpeas.core.io.file;
 
 import org.silverpeas.core.annotation.Service;
-import org.silverpeas.core.io.media.image.ImageTool;
-import org.silverpeas.core.io.media.image.option.DimensionOption;
-import org.silverpeas.core.io.media.image.option.OrientationOption;
-import org.silverpeas.kernel.util.StringUtil;
-import org.silverpeas.core.util.file.FileRepositoryManager;
 import org.silverpeas.core.util.file.FileUtil;
 import org.silverpeas.kernel.logging.SilverLogger;
 
@@ -37,23 +32,22 @@ import java.io.File;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
-
-import static org.silverpeas.core.io.media.image.ImageToolDirective.GEOMETRY_SHRINK;
-import static org.silverpeas.core.util.CollectionUtil.asSet;
+import java.util.Optional;
 
 /**
  * A processor dedicated to resize an image on the demand. If the image is already resized, then
- * nothing the resized image is just returned.
+ * nothing the resized image is just returned. The resizing itself is delegated to the
+ * {@link ImageResizingService}.
  *
  * @author mmoquillon
  */
 @Service
 public class ImageResizingProcessor extends AbstractSilverpeasFileProcessor {
 
-  protected static final String IMAGE_CACHE_PATH = FileRepositoryManager.getAbsolutePath("cache");
+  protected static final String IMAGE_CACHE_PATH = ImageResizingService.IMAGE_CACHE_PATH;
 
   @Inject
-  private ImageTool imageTool;
+  private ImageResizingService resizingService;
 
   @Override
   public String processBefore(final String path, ProcessingContext context) {
@@ -72,31 +66,13 @@ public class ImageResizingProcessor extends AbstractSilverpeasFileProcessor {
     return file;
   }
 
-  private ResizingParameters computeResizingParameters(File image) {
-    ResizingParameters parameters = ResizingParameters.NO_RESIZING;
-    String parent = image.getParentFile().getName();
-    if (parent.contains("x")) {
-      String[] size = parent.split("x");
-      Integer width = null;
-      Integer height = null;
-      try {
-        if (StringUtil.isDefined(size[0])) {
-          width = Integer.valueOf(size[0]);
-        }
-        if (size.length == 2) {
-          height = Integer.valueOf(size[1]);
-        }
-        final File imageSource = new File(image.getParentFile().getParent(), image.getName());
-        if (imageSource.exists() && (width != null || height != null)) {
-          final String fileName = imageSource.lastModified() + "_" + imageSource.getName();
-          final File imageDestination = new File(IMAGE_CACHE_PATH + parent, fileName);
-          parameters = new ResizingParameters(imageSource, imageDestination, width, height);
-        }
-      } catch (NumberFormatException ignore) {
-        // ignore
-      }
+  private Optional<ResizingParameters> computeResizingParameters(File image) {
+    final String size = image.getParentFile().getName();
+    final File imageSource = new File(image.getParentFile().getParent(), image.getName());
+    if (!imageSource.exists()) {
+      return Optional.empty();
     }
-    return parameters;
+    return ResizingParameters.of(imageSource, size);
   }
 
   private void removeResizedImagesOf(final File originaImage) {
@@ -119,63 +95,14 @@ public class ImageResizingProcessor extends AbstractSilverpeasFileProcessor {
     String imagePath = path;
     File sourceImage = new File(imagePath);
     if (!sourceImage.exists()) {
-      ResizingParameters parameters = computeResizingParameters(sourceImage);
-      if (parameters.isDefined()) {
-        sourceImage = parameters.getSourceImage();
-        File resizedImage = parameters.getDestinationImage();
-        imagePath = resizedImage.getPath();
-        if (sourceImage.exists() &&
-            (!resizedImage.exists() || sourceImage.lastModified() >= resizedImage.lastModified())) {
-          if (!resizedImage.getParentFile().exists()) {
-            resizedImage.getParentFile().mkdirs();
-          }
-          final DimensionOption dimension =
-              DimensionOption.widthAndHeight(parameters.getWidth(), parameters.getHeight());
-          final OrientationOption auto = OrientationOption.auto();
-          imageTool.convert(sourceImage, resizedImage, asSet(dimension, auto), GEOMETRY_SHRINK);
-          ImageCache.putImage(sourceImage.getAbsolutePath(), resizedImage.getAbsolutePath());
-        }
+      final Optional<ResizingParameters> parameters = computeResizingParameters(sourceImage);
+      if (parameters.isPresent()) {
+        // if the resizing takes too long time, the original image is sent in place
+        imagePath = resizingService.resize(parameters.get()) ?
+            parameters.get().getDestinationImage().getPath() :
+            parameters.get().getSourceImage().getPath();
       }
     }
     return imagePath;
   }
-
-  private static class ResizingParameters {
-
-    private static final ResizingParameters NO_RESIZING =
-        new ResizingParameters(null, null, -1, -1);
-
-    private Integer width;
-    private Integer height;
-    private File sourceImage;
-    private File destinationImage;
-
-    public ResizingParameters(File sourceImage, File destinationImage, Integer width,
-        Integer height) {
-      this.height = height;
-      this.width = width;
-      this.sourceImage = sourceImage;
-      this.destinationImage = destinationImage;
-    }
-
-    public Integer getWidth() {
-      return width;
-    }
-
-    public Integer getHeight() {
-      return height;
-    }
-
-    public File getSourceImage() {
-      return sourceImage;
-    }
-
-    public File getDestinationImage() {
-      return destinationImage;
-    }
-
-    public boolean isDefined() {
-      return this != NO_RESIZING;
-    }
-  }
 }
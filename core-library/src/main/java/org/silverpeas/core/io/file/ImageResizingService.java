@@ -0,0 +1,361 @@
+/*
+ * Copyright (C) 2000 - 2024 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.io.file;
+
+import org.silverpeas.core.annotation.Bean;
+import org.silverpeas.core.io.media.image.ImageTool;
+import org.silverpeas.core.io.media.image.ImageToolException;
+import org.silverpeas.core.io.media.image.option.DimensionOption;
+import org.silverpeas.core.io.media.image.option.OrientationOption;
+import org.silverpeas.core.thread.ManagedThreadPool;
+import org.silverpeas.core.util.ServiceProvider;
+import org.silverpeas.core.util.file.FileRepositoryManager;
+import org.silverpeas.core.util.file.FileUtil;
+import org.silverpeas.kernel.annotation.Technical;
+import org.silverpeas.kernel.bundle.ResourceLocator;
+import org.silverpeas.kernel.bundle.SettingBundle;
+import org.silverpeas.kernel.logging.SilverLogger;
+import org.silverpeas.kernel.util.StringUtil;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static java.text.MessageFormat.format;
+import static org.silverpeas.core.io.media.image.ImageToolDirective.GEOMETRY_SHRINK;
+import static org.silverpeas.core.thread.ManagedThreadPool.ExecutionConfig.maxThreadPoolSizeOf;
+import static org.silverpeas.core.util.CollectionUtil.asSet;
+
+/**
+ * The service resizing the images into the cache of resized images.
+ * <p>
+ * The resizing are performed by a bounded pool of workers taking them from a priority queue: the
+ * images asked by the users are resized before the ones pregenerated in the background. An image
+ * is resized at a given size only once, whatever the number of threads asking for it: the
+ * threads asking for an image being resized wait for the end of this resizing (single-flight).
+ * If a user asks for an image whose pregeneration is pending, the pregeneration is promoted at
+ * the priority of the demands of the users.
+ * </p>
+ * <p>
+ * The images are converted with ImageMagick. If it isn't installed, they are resized in pure
+ * Java. The resized image is first written into a temporary file that is then moved into the
+ * cache so that a resized image is never read while it is being written.
+ * </p>
+ * @author mmoquillon
+ */
+@Technical
+@Bean
+@Singleton
+public class ImageResizingService {
+
+  static final String IMAGE_CACHE_PATH = FileRepositoryManager.getAbsolutePath("cache");
+  private static final int DEFAULT_PARALLELISM = 2;
+  private static final long DEFAULT_TIMEOUT = 30000;
+  private static final int DEFAULT_MAX_PENDING_PREGENERATIONS = 100;
+  private static final long DEFAULT_MAX_PIXELS = 100_000_000L;
+
+  private final ConcurrentMap<String, Resizing> resizings = new ConcurrentHashMap<>();
+  private final PriorityBlockingQueue<Resizing> queue = new PriorityBlockingQueue<>();
+  private final AtomicLong sequence = new AtomicLong();
+  private final ImageResizingStatistics statistics = new ImageResizingStatistics();
+  @Inject
+  private ImageTool imageTool;
+  private ExecutorService executor;
+  private int parallelism;
+  private long timeout;
+  private int maxPendingPregenerations;
+  private long maxPixels;
+  private List<String> pregeneratedSizes;
+
+  /**
+   * The priority of a resizing: the lower the ordinal, the higher the priority.
+   */
+  enum Priority {
+    /**
+     * The resized image is asked by a user.
+     */
+    ON_DEMAND,
+    /**
+     * The resized image is generated in advance in the background.
+     */
+    PREGENERATION
+  }
+
+  protected ImageResizingService() {
+    // constructor to be used only by the IoD container
+  }
+
+  ImageResizingService(final ImageTool imageTool, final int parallelism, final long timeout,
+      final List<String> pregeneratedSizes, final int maxPendingPregenerations,
+      final long maxPixels) {
+    this.imageTool = imageTool;
+    this.parallelism = parallelism;
+    this.timeout = timeout;
+    this.pregeneratedSizes = pregeneratedSizes;
+    this.maxPendingPregenerations = maxPendingPregenerations;
+    this.maxPixels = maxPixels;
+  }
+
+  public static ImageResizingService get() {
+    return ServiceProvider.getService(ImageResizingService.class);
+  }
+
+  @PostConstruct
+  private void init() {
+    final SettingBundle settings =
+        ResourceLocator.getSettingBundle("org.silverpeas.lookAndFeel.generalLook");
+    parallelism = Math.max(1,
+        settings.getInteger("image.resizing.parallelism", DEFAULT_PARALLELISM));
+    timeout = settings.getLong("image.resizing.timeout", DEFAULT_TIMEOUT);
+    maxPendingPregenerations = settings.getInteger("image.resizing.pregeneration.maxPending",
+        DEFAULT_MAX_PENDING_PREGENERATIONS);
+    maxPixels = settings.getLong("image.resizing.maxPixels", DEFAULT_MAX_PIXELS);
+    pregeneratedSizes = Stream.of(settings.getString("image.resizing.pregeneration.sizes", "")
+            .split("[,\\s]+"))
+        .filter(StringUtil::isDefined)
+        .collect(Collectors.toList());
+  }
+
+  @PreDestroy
+  synchronized void shutdown() {
+    if (executor != null) {
+      executor.shutdownNow();
+      executor = null;
+    }
+  }
+
+  private synchronized void startWorkersIfNeeded() {
+    if (executor == null) {
+      executor = ManagedThreadPool.getPool().newExecutorService(maxThreadPoolSizeOf(parallelism));
+      for (int i = 0; i < parallelism; i++) {
+        executor.execute(this::work);
+      }
+    }
+  }
+
+  private void work() {
+    try {
+      while (!Thread.currentThread().isInterrupted()) {
+        queue.take().run();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Gets the statistics about the resizing of the images.
+   * @return the resizing statistics.
+   */
+  public ImageResizingStatistics getStatistics() {
+    return statistics;
+  }
+
+  /**
+   * Logs the statistics about the resizing of the images, if any image was asked or pregenerated
+   * since the start.
+   */
+  void logStatistics() {
+    if (statistics.getHits() + statistics.getMisses() + statistics.getConversions().getCount() +
+        statistics.getDroppedPregenerations() > 0) {
+      SilverLogger.getLogger(this).info(statistics.toString());
+    }
+  }
+
+  /**
+   * Resizes the image as specified by the given parameters, unless the resized image is already
+   * in the cache and up-to-date. The caller waits for the end of the resizing at most the
+   * resizing timeout. Beyond, the resizing goes on in the background for the next demands.
+   * @param parameters the parameters of the resizing.
+   * @return true if the resized image is available, false if its resizing isn't yet done.
+   * @throws ImageToolException if the resizing of the image fails.
+   */
+  boolean resize(final ResizingParameters parameters) {
+    if (parameters.isResizedImageUpToDate()) {
+      statistics.hit();
+      return true;
+    }
+    statistics.miss();
+    final Resizing resizing = submit(parameters, Priority.ON_DEMAND);
+    try {
+      resizing.get(timeout, TimeUnit.MILLISECONDS);
+      return true;
+    } catch (TimeoutException e) {
+      SilverLogger.getLogger(this)
+          .warn("The resizing of {0} has exceeded {1}ms", parameters.getDestinationImage(),
+              timeout);
+    } catch (ExecutionException e) {
+      final Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      } else if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new ImageToolException((Exception) cause);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    return false;
+  }
+
+  /**
+   * Pregenerates in the background the resized images of the specified image at the sizes set
+   * in the settings. Nothing is done if the specified file isn't an image, if no sizes are set or
+   * if too many resizing are already pending: a pregeneration must never delay the resizing of
+   * the images asked by the users.
+   * @param image the original image.
+   */
+  public void pregenerate(final File image) {
+    if (pregeneratedSizes.isEmpty() || !image.isFile() || !FileUtil.isImage(image.getPath())) {
+      return;
+    }
+    for (final String size : pregeneratedSizes) {
+      ResizingParameters.of(image, size)
+          .filter(p -> !p.isResizedImageUpToDate())
+          .ifPresent(p -> {
+            if (queue.size() >= maxPendingPregenerations) {
+              statistics.dropPregeneration();
+            } else {
+              submit(p, Priority.PREGENERATION);
+            }
+          });
+    }
+  }
+
+  private Resizing submit(final ResizingParameters parameters, final Priority priority) {
+    final Resizing[] created = new Resizing[1];
+    final Resizing resizing =
+        resizings.computeIfAbsent(parameters.getDestinationImage().getAbsolutePath(), k -> {
+          created[0] = new Resizing(parameters, priority);
+          return created[0];
+        });
+    if (resizing == created[0]) {
+      startWorkersIfNeeded();
+      queue.add(resizing);
+    } else if (priority == Priority.ON_DEMAND) {
+      statistics.join();
+      if (resizing.priority != priority && queue.remove(resizing)) {
+        // a pending pregeneration is now asked by a user
+        resizing.priority = priority;
+        queue.add(resizing);
+      }
+    }
+    return resizing;
+  }
+
+  private File convert(final ResizingParameters parameters) throws IOException {
+    final File source = parameters.getSourceImage();
+    final File destination = parameters.getDestinationImage();
+    if (parameters.isResizedImageUpToDate()) {
+      return destination;
+    }
+    final Path directory = destination.getParentFile().toPath();
+    Files.createDirectories(directory);
+    // the temporary file keeps the name of the image at the end for the format to be guessed
+    final Path tmp = directory.resolve(".tmp" + sequence.incrementAndGet() + "_" +
+        destination.getName());
+    final long start = System.currentTimeMillis();
+    try {
+      if (imageTool.isActivated()) {
+        final DimensionOption dimension =
+            DimensionOption.widthAndHeight(parameters.getWidth(), parameters.getHeight());
+        imageTool.convert(source, tmp.toFile(), asSet(dimension, OrientationOption.auto()),
+            GEOMETRY_SHRINK);
+      } else {
+        statistics.fallback();
+        JavaImageResizer.resize(source, tmp.toFile(), parameters.getWidth(),
+            parameters.getHeight(), maxPixels);
+      }
+      Files.move(tmp, destination.toPath(), StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException | RuntimeException e) {
+      statistics.getConversions().recordFailure();
+      Files.deleteIfExists(tmp);
+      throw e;
+    }
+    final long duration = System.currentTimeMillis() - start;
+    statistics.getConversions().record(duration);
+    ImageCache.putImage(source.getAbsolutePath(), destination.getAbsolutePath());
+    SilverLogger.getLogger(this)
+        .debug(() -> format("{0} resized in {1,number,#}ms", destination.getAbsolutePath(),
+            duration));
+    return destination;
+  }
+
+  /**
+   * The resizing of an image at a given size. Once done, it is no more shared with the threads
+   * asking for the resized image, which is then got directly from the cache.
+   */
+  private class Resizing extends FutureTask<File> implements Comparable<Resizing> {
+    private final String key;
+    private final long order;
+    private volatile Priority priority;
+
+    private Resizing(final ResizingParameters parameters, final Priority priority) {
+      super(() -> convert(parameters));
+      this.key = parameters.getDestinationImage().getAbsolutePath();
+      this.order = sequence.incrementAndGet();
+      this.priority = priority;
+    }
+
+    @Override
+    protected void done() {
+      resizings.remove(key, this);
+    }
+
+    @Override
+    public int compareTo(final Resizing other) {
+      final int comparison = priority.compareTo(other.priority);
+      return comparison != 0 ? comparison : Long.compare(order, other.order);
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+      return this == o;
+    }
+
+    @Override
+    public int hashCode() {
+      return key.hashCode();
+    }
+  }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright (C) 2000 - 2024 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.io.file;
+
+import org.silverpeas.core.util.ExecutionStatistics;
+
+import java.text.MessageFormat;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Statistics about the resizing of the images on the demand: the hits and the misses of the
+ * cache of resized images, the number of demands that joined a resizing already in progress for
+ * the same image at the same size, the number of pregenerations that were dropped because of a
+ * too long queue of resizing, and the latency of the conversions themselves.
+ * @author mmoquillon
+ */
+public class ImageResizingStatistics {
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder joined = new LongAdder();
+  private final LongAdder droppedPregenerations = new LongAdder();
+  private final LongAdder fallbacks = new LongAdder();
+  private final ExecutionStatistics conversions = new ExecutionStatistics("image conversion");
+
+  ImageResizingStatistics() {
+    // statistics are created by the resizing service
+  }
+
+  void hit() {
+    hits.increment();
+  }
+
+  void miss() {
+    misses.increment();
+  }
+
+  void join() {
+    joined.increment();
+  }
+
+  void dropPregeneration() {
+    droppedPregenerations.increment();
+  }
+
+  void fallback() {
+    fallbacks.increment();
+  }
+
+  /**
+   * Gets the number of demands of a resized image that was already in the cache.
+   * @return the number of cache hits.
+   */
+  public long getHits() {
+    return hits.sum();
+  }
+
+  /**
+   * Gets the number of demands of a resized image that wasn't yet in the cache or that was stale.
+   * @return the number of cache misses.
+   */
+  public long getMisses() {
+    return misses.sum();
+  }
+
+  /**
+   * Gets the ratio of the demands of a resized image served directly from the cache.
+   * @return the cache hit rate, between 0 and 1. 0 if no image was yet asked.
+   */
+  public double getHitRate() {
+    final long hitCount = getHits();
+    final long total = hitCount + getMisses();
+    return total == 0 ? 0 : (double) hitCount / total;
+  }
+
+  /**
+   * Gets the number of demands that waited for the resizing of the same image at the same size
+   * already in progress instead of triggering their own conversion.
+   * @return the number of deduplicated resizing.
+   */
+  public long getJoined() {
+    return joined.sum();
+  }
+
+  /**
+   * Gets the number of pregenerations that weren't done because too many resizing were pending.
+   * @return the number of dropped pregenerations.
+   */
+  public long getDroppedPregenerations() {
+    return droppedPregenerations.sum();
+  }
+
+  /**
+   * Gets the number of conversions performed with the pure Java resizer because ImageMagick
+   * isn't available.
+   * @return the number of conversions without ImageMagick.
+   */
+  public long getFallbacks() {
+    return fallbacks.sum();
+  }
+
+  /**
+   * Gets the statistics about the conversions of the images.
+   * @return the statistics of the conversions: their number, failures and latency.
+   */
+  public ExecutionStatistics getConversions() {
+    return conversions;
+  }
+
+  /**
+   * Resets all the statistics.
+   */
+  public void reset() {
+    hits.reset();
+    misses.reset();
+    joined.reset();
+    droppedPregenerations.reset();
+    fallbacks.reset();
+    conversions.reset();
+  }
+
+  @Override
+  public String toString() {
+    return MessageFormat.format(
+        "image resizing: {0} hits, {1} misses (hit rate {2,number,percent}), {3} joined, " +
+            "{4} dropped pregenerations, {5} fallbacks; {6}", getHits(), getMisses(),
+        getHitRate(), getJoined(), getDroppedPregenerations(), getFallbacks(), conversions);
+  }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright (C) 2000 - 2024 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.io.file;
+
+import org.silverpeas.kernel.util.StringUtil;
+
+import java.io.File;
+import java.util.Optional;
+
+/**
+ * The parameters of the resizing of an image at a given size. The size is expressed as in the
+ * path of the resized images asked by the clients: {@code WIDTHxHEIGHT}, {@code WIDTHx} or
+ * {@code xHEIGHT}. The resized image is located into the cache of images with, as name, the
+ * last modification date and the name of the original image so that any update of the original
+ * image makes its previous resized images stale.
+ * @author mmoquillon
+ */
+class ResizingParameters {
+
+  private final Integer width;
+  private final Integer height;
+  private final File sourceImage;
+  private final File destinationImage;
+
+  private ResizingParameters(File sourceImage, File destinationImage, Integer width,
+      Integer height) {
+    this.height = height;
+    this.width = width;
+    this.sourceImage = sourceImage;
+    this.destinationImage = destinationImage;
+  }
+
+  /**
+   * Computes the parameters of the resizing of the specified image at the given size.
+   * @param sourceImage the original image to resize.
+   * @param size the size at which the image has to be resized.
+   * @return optionally the resizing parameters. Nothing if the size is invalid.
+   */
+  static Optional<ResizingParameters> of(final File sourceImage, final String size) {
+    if (!size.contains("x")) {
+      return Optional.empty();
+    }
+    final String[] dimensions = size.split("x");
+    Integer width = null;
+    Integer height = null;
+    try {
+      if (dimensions.length > 0 && StringUtil.isDefined(dimensions[0])) {
+        width = Integer.valueOf(dimensions[0]);
+      }
+      if (dimensions.length == 2) {
+        height = Integer.valueOf(dimensions[1]);
+      }
+    } catch (NumberFormatException e) {
+      return Optional.empty();
+    }
+    if (width == null && height == null) {
+      return Optional.empty();
+    }
+    final String fileName = sourceImage.lastModified() + "_" + sourceImage.getName();
+    final File destinationImage =
+        new File(ImageResizingService.IMAGE_CACHE_PATH + size, fileName);
+    return Optional.of(new ResizingParameters(sourceImage, destinationImage, width, height));
+  }
+
+  public Integer getWidth() {
+    return width;
+  }
+
+  public Integer getHeight() {
+    return height;
+  }
+
+  public File getSourceImage() {
+    return sourceImage;
+  }
+
+  public File getDestinationImage() {
+    return destinationImage;
+  }
+
+  /**
+   * Is the resized image up-to-date with its original image?
+   * @return true if the resized image exists and it was generated after the last modification of
+   * the original image.
+   */
+  boolean isResizedImageUpToDate() {
+    return destinationImage.exists() &&
+        sourceImage.lastModified() < destinationImage.lastModified();
+  }
+}
@@ -27,24 +27,36 @@ import org.silverpeas.core.annotation.Bean;
 import org.silverpeas.core.mail.MailToSend;
 import org.silverpeas.core.thread.task.AbstractRequestTask;
 import org.silverpeas.core.thread.task.RequestTaskManager;
+import org.silverpeas.core.util.MailUtil;
 import org.silverpeas.kernel.logging.SilverLogger;
 
 import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * A task MailSenderTask runs in the background a batch of mail to send.<br>
  * When it get no more mail to send, the task ends and a new one will be instantiated on the next
  * mail sending request.<br>
- * Priority is given to synchronous mail sending request.
+ * Priority is given to synchronous mail sending request.<br>
+ * By default the mails are sent one by one. With a send parallelism greater than 1 in the SMTP
+ * settings, the asynchronous mails are spread among as many partitions processed in parallel, and
+ * at most as many mails, synchronous or not, are sent at the same time.
  */
 @Bean
 public class MailSenderTask extends AbstractRequestTask<MailSenderTask.MailProcessContext> {
 
+  private static final int PARALLELISM = MailUtil.getSendParallelism();
+
+  /**
+   * Bounds the number of mails sent at the same time, synchronously or asynchronously, to the
+   * send parallelism. With a parallelism of 1, all the mails are sent one by one.
+   */
+  private static final Semaphore orderedOneByOneSemaphore = new Semaphore(PARALLELISM, true);
+
   /**
-   * All the requests are processed by a single background thread. This thread is built and started
-   * by the start method.
+   * Sequence used to spread the asynchronous mails among the partitions.
    */
-  private static final Semaphore orderedOneByOneSemaphore = new Semaphore(1, true);
+  private static final AtomicLong sequence = new AtomicLong(0);
 
   /**
    * Add a mail to send.
@@ -65,6 +77,11 @@ public class MailSenderTask extends AbstractRequestTask<MailSenderTask.MailProce
     }
   }
 
+  @Override
+  protected int getParallelism() {
+    return PARALLELISM;
+  }
+
   @Override
   protected MailProcessContext getProcessContext() {
     return new MailProcessContext(orderedOneByOneSemaphore);
@@ -87,6 +104,7 @@ public class MailSenderTask extends AbstractRequestTask<MailSenderTask.MailProce
    */
   static class MailToSendRequest implements AbstractRequestTask.Request<MailProcessContext> {
     private final MailToSend mailToSend;
+    private final String partitionKey;
 
     /**
      * Constructor declaration
@@ -94,11 +112,22 @@ public class MailSenderTask extends AbstractRequestTask<MailSenderTask.MailProce
      */
     MailToSendRequest(MailToSend mailToSend) {
       this.mailToSend = mailToSend;
+      this.partitionKey = String.valueOf(sequence.getAndIncrement() % PARALLELISM);
+    }
+
+    /**
+     * The mails are independent of each other, so they are spread in turn among the partitions.
+     * @return the key of the partition of the mail.
+     */
+    @Override
+    public String getPartitionKey() {
+      return partitionKey;
     }
 
     /**
      * As {@link MailSenderTask} can send a mail synchronously or asynchronously, this method is
-     * synchronized to ensure that one send is performed at a same time laps.
+     * synchronized to ensure that no more sends than the parallelism are performed at a same time
+     * laps.
      * @param context the context of the request processing.
      */
     @Override
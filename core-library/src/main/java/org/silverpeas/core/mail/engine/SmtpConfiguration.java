@@ -25,6 +25,8 @@ package org.silverpeas.core.mail.engine;
 
 import org.silverpeas.core.util.MailUtil;
 
+import java.util.Objects;
+
 /**
  * SMTP configuration
  * @author Emmanuel Hugonnet
@@ -40,6 +42,9 @@ public class SmtpConfiguration {
   private int port;
   private boolean authenticate;
   private boolean debug;
+  private int poolSize;
+  private long poolIdleTimeout;
+  private int poolMaxMessagesPerConnection;
 
   /**
    * Gets an instance of {@link SmtpConfiguration} initializes with the data provided by {@link
@@ -55,6 +60,9 @@ public class SmtpConfiguration {
     smtpConfiguration.setPort(MailUtil.getPort());
     smtpConfiguration.setAuthenticate(MailUtil.isAuthenticated());
     smtpConfiguration.setDebug(MailUtil.isDebug());
+    smtpConfiguration.setPoolSize(MailUtil.getPoolSize());
+    smtpConfiguration.setPoolIdleTimeout(MailUtil.getPoolIdleTimeout());
+    smtpConfiguration.setPoolMaxMessagesPerConnection(MailUtil.getPoolMaxMessagesPerConnection());
     return smtpConfiguration;
   }
 
@@ -113,4 +121,66 @@ public class SmtpConfiguration {
   public void setDebug(final boolean debug) {
     this.debug = debug;
   }
+
+  /**
+   * Gets the maximum number of connections to the SMTP server kept opened to be reused from one
+   * mail sending to another.
+   * @return the size of the pool of SMTP transports. 0 or less means no pooling: a connection is
+   * opened and closed for each mail to send.
+   */
+  public int getPoolSize() {
+    return poolSize;
+  }
+
+  public void setPoolSize(final int poolSize) {
+    this.poolSize = poolSize;
+  }
+
+  /**
+   * Gets the time in milliseconds an unused connection is kept opened in the pool.
+   * @return the idle timeout of a pooled connection.
+   */
+  public long getPoolIdleTimeout() {
+    return poolIdleTimeout;
+  }
+
+  public void setPoolIdleTimeout(final long poolIdleTimeout) {
+    this.poolIdleTimeout = poolIdleTimeout;
+  }
+
+  /**
+   * Gets the maximum number of mails sent through a same pooled connection. Once reached, the
+   * connection is closed and a new one will be opened: some SMTP servers limit the number of
+   * mails per session.
+   * @return the maximum number of mails per connection. 0 or less means no limit.
+   */
+  public int getPoolMaxMessagesPerConnection() {
+    return poolMaxMessagesPerConnection;
+  }
+
+  public void setPoolMaxMessagesPerConnection(final int poolMaxMessagesPerConnection) {
+    this.poolMaxMessagesPerConnection = poolMaxMessagesPerConnection;
+  }
+
+  @Override
+  public boolean equals(final Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    final SmtpConfiguration that = (SmtpConfiguration) o;
+    return secure == that.secure && port == that.port && authenticate == that.authenticate &&
+        debug == that.debug && poolSize == that.poolSize &&
+        poolIdleTimeout == that.poolIdleTimeout &&
+        poolMaxMessagesPerConnection == that.poolMaxMessagesPerConnection &&
+        Objects.equals(username, that.username) && Objects.equals(password, that.password) &&
+        Objects.equals(server, that.server);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(username, server, secure, port, authenticate, poolSize);
+  }
 }
@@ -32,6 +32,7 @@ import org.silverpeas.core.util.MailUtil;
 import org.silverpeas.kernel.util.StringUtil;
 import org.silverpeas.kernel.logging.SilverLogger;
 
+import javax.annotation.PreDestroy;
 import javax.inject.Singleton;
 import javax.mail.MessagingException;
 import javax.mail.Session;
@@ -50,12 +51,49 @@ import java.util.Properties;
 /**
  * This is the SMTP implementation of the {@link MailSender} interface.
  * This implementation uses the parameters provided by {@link MailUtil}.
+ * <p>
+ * When a pool size is set in the SMTP configuration, the connections to the SMTP server are taken
+ * from a {@link SmtpTransportPool} and reused from one mail to another instead of being opened and
+ * closed for each mail. Some statistics about the sending are available through
+ * {@link #getStatistics()}.
+ * </p>
  * @author Yohann Chastagnier
  */
 @Service
 @Singleton
 public class SmtpMailSender implements MailSender {
 
+  private final SmtpMailSendingStatistics statistics = new SmtpMailSendingStatistics();
+  private SmtpTransportPool transportPool = null;
+
+  /**
+   * Gets the statistics about the mails sent by this sender.
+   * @return the statistics about the sending of the mails.
+   */
+  public SmtpMailSendingStatistics getStatistics() {
+    return statistics;
+  }
+
+  /**
+   * Closes the pooled connections to the SMTP server that are idle for too long, if any.
+   */
+  synchronized void evictIdleTransports() {
+    if (transportPool != null) {
+      transportPool.evictIdle();
+    }
+  }
+
+  /**
+   * Closes the pooled connections to the SMTP server, if any.
+   */
+  @PreDestroy
+  protected synchronized void closeTransportPool() {
+    if (transportPool != null) {
+      transportPool.close();
+      transportPool = null;
+    }
+  }
+
   /**
    * Retrieves the system properties and configure a mail session. For further explanations, please
    * read the <code>RFC1891</code>.
@@ -87,6 +125,7 @@ public class SmtpMailSender implements MailSender {
       SilverLogger.getLogger(this).warn("No receivers set: mail won't be sent");
       return;
     }
+    final long start = System.currentTimeMillis();
     try {
       InternetAddress fromAddress = fromMailAddress.getAuthorizedInternetAddress();
       List<InternetAddress[]> toAddresses = new ArrayList<>();
@@ -111,9 +150,14 @@ public class SmtpMailSender implements MailSender {
 
       // Sending.
       performSend(mail, smtpConfiguration, session, email, toAddresses);
+      statistics.mailSent(System.currentTimeMillis() - start);
 
     } catch (Exception e) {
+      statistics.mailNotSent();
       SilverLogger.getLogger(this).error(e);
+      if (e instanceof InterruptedException) {
+        Thread.currentThread().interrupt();
+      }
     }
   }
 
@@ -145,9 +189,9 @@ public class SmtpMailSender implements MailSender {
   /**
    * This method performs the treatment of the technical send:
    * <ul>
-   * <li>connection to the SMTP server</li>
+   * <li>connection to the SMTP server, or taking of a connection from the pool</li>
    * <li>sending</li>
-   * <li>closing the connection</li>
+   * <li>closing the connection, or releasing it into the pool</li>
    * </ul>
    * @param mail the original data from which the given {@link MimeMessage} has been initialized.
    * @param smtpConfiguration the SMTP configuration.
@@ -155,42 +199,98 @@ public class SmtpMailSender implements MailSender {
    * @param messageToSend the technical message to send.
    * @param batchedToAddresses the receivers of the message.
    * @throws MessagingException if an error occurs while delivering the message.
+   * @throws InterruptedException if interrupted while waiting for a pooled connection.
    */
   private void performSend(final MailToSend mail, final SmtpConfiguration smtpConfiguration,
       Session session, MimeMessage messageToSend, List<InternetAddress[]> batchedToAddresses)
-      throws MessagingException {
+      throws MessagingException, InterruptedException {
+    final SmtpMailSendReportListener reportListener = new SmtpMailSendReportListener(mail);
+    final SmtpTransportPool pool = getTransportPool(smtpConfiguration, session);
+    if (pool == null) {
+      // Creating a Transport connection (TCP)
+      final Transport transport = openTransport(session, smtpConfiguration);
+      statistics.connectionOpened();
+      // Adding send reporting listener
+      transport.addTransportListener(reportListener);
+      try {
+        sendBatches(mail, messageToSend, batchedToAddresses, new int[]{0}, transport);
+      } finally {
+        statistics.connectionClosed();
+        try {
+          transport.close();
+        } catch (Exception e) {
+          SilverLogger.getLogger(this).error(e);
+        }
+      }
+    } else {
+      // the batches already delivered aren't sent again if the sending is retried
+      final int[] sentBatches = {0};
+      pool.execute(transport -> {
+        transport.addTransportListener(reportListener);
+        try {
+          sendBatches(mail, messageToSend, batchedToAddresses, sentBatches, transport);
+        } finally {
+          transport.removeTransportListener(reportListener);
+        }
+      });
+    }
+  }
 
-    // Creating a Transport connection (TCP)
+  /**
+   * Sends the message to each batch of receivers not yet delivered. The given counter of the
+   * delivered batches is incremented as the batches are sent.
+   */
+  private void sendBatches(final MailToSend mail, final MimeMessage messageToSend,
+      final List<InternetAddress[]> batchedToAddresses, final int[] sentBatches,
+      final Transport transport) throws MessagingException {
+    while (sentBatches[0] < batchedToAddresses.size()) {
+      final InternetAddress[] toAddressBatch = batchedToAddresses.get(sentBatches[0]);
+      messageToSend
+          .setRecipients(mail.getTo().getRecipientType().getTechnicalType(), toAddressBatch);
+      transport.sendMessage(messageToSend, toAddressBatch);
+      sentBatches[0]++;
+    }
+  }
+
+  /**
+   * Gets the pool of the connections to the SMTP server of the given configuration. The pool is
+   * created at the first call or when the configuration changed.
+   * @return the pool of SMTP transports or null if no pooling is configured.
+   */
+  private synchronized SmtpTransportPool getTransportPool(
+      final SmtpConfiguration smtpConfiguration, final Session session) {
+    if (transportPool != null && !transportPool.isFor(smtpConfiguration)) {
+      transportPool.close();
+      transportPool = null;
+    }
+    if (transportPool == null && smtpConfiguration.getPoolSize() > 0) {
+      transportPool = new SmtpTransportPool(smtpConfiguration, session, statistics);
+    }
+    return transportPool;
+  }
+
+  /**
+   * Opens a connection to the SMTP server of the specified configuration, authenticating it if
+   * required.
+   * @param session the mail session from which the transport is got.
+   * @param smtpConfiguration the SMTP configuration.
+   * @return a connected transport.
+   * @throws MessagingException if the connection fails.
+   */
+  static Transport openTransport(final Session session, final SmtpConfiguration smtpConfiguration)
+      throws MessagingException {
     final Transport transport;
     if (smtpConfiguration.isSecure()) {
       transport = session.getTransport(SmtpConfiguration.SECURE_TRANSPORT);
     } else {
       transport = session.getTransport(SmtpConfiguration.SIMPLE_TRANSPORT);
     }
-
-    // Adding send reporting listener
-    transport.addTransportListener(new SmtpMailSendReportListener(mail));
-
-    try {
-      if (smtpConfiguration.isAuthenticate()) {
-        transport.connect(smtpConfiguration.getServer(), smtpConfiguration.getPort(),
-            smtpConfiguration.getUsername(), smtpConfiguration.getPassword());
-      } else {
-        transport.connect(smtpConfiguration.getServer(), smtpConfiguration.getPort(), null, null);
-      }
-
-      for (InternetAddress[] toAddressBatch : batchedToAddresses) {
-        messageToSend
-            .setRecipients(mail.getTo().getRecipientType().getTechnicalType(), toAddressBatch);
-        transport.sendMessage(messageToSend, toAddressBatch);
-      }
-
-    } finally {
-      try {
-        transport.close();
-      } catch (Exception e) {
-        SilverLogger.getLogger(this).error(e);
-      }
+    if (smtpConfiguration.isAuthenticate()) {
+      transport.connect(smtpConfiguration.getServer(), smtpConfiguration.getPort(),
+          smtpConfiguration.getUsername(), smtpConfiguration.getPassword());
+    } else {
+      transport.connect(smtpConfiguration.getServer(), smtpConfiguration.getPort(), null, null);
     }
+    return transport;
   }
 }
@@ -0,0 +1,137 @@
+/*
+ * Copyright (C) 2000 - 2024 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.mail.engine;
+
+import org.silverpeas.core.util.ExecutionStatistics;
+
+import java.text.MessageFormat;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Statistics about the mails sent by the {@link SmtpMailSender}: the number of mails sent or
+ * failed with the time taken by their sending, the throughput of the sending, and the use of the
+ * connections to the SMTP server (how many were opened, how many are currently opened and how many
+ * were found lost and then reopened).
+ * <p>
+ * The statistics are thread-safe and recording them doesn't block the senders.
+ * </p>
+ * @author mmoquillon
+ */
+public class SmtpMailSendingStatistics {
+
+  private final long since = System.nanoTime();
+  private final ExecutionStatistics sending = new ExecutionStatistics("SMTP sending");
+  private final LongAdder openedConnections = new LongAdder();
+  private final LongAdder reconnections = new LongAdder();
+  private final AtomicInteger activeConnections = new AtomicInteger(0);
+
+  void mailSent(final long durationInMs) {
+    sending.record(durationInMs);
+  }
+
+  void mailNotSent() {
+    sending.recordFailure();
+  }
+
+  void connectionOpened() {
+    openedConnections.increment();
+    activeConnections.incrementAndGet();
+  }
+
+  void connectionClosed() {
+    activeConnections.decrementAndGet();
+  }
+
+  void connectionLost() {
+    reconnections.increment();
+  }
+
+  /**
+   * Gets the statistics about the time in milliseconds taken by the sending of the mails, from
+   * the building of the message to its delivery to the SMTP server. The failures are the mails
+   * that couldn't be sent.
+   * @return the statistics about the sending of the mails.
+   */
+  public ExecutionStatistics getSendingStatistics() {
+    return sending;
+  }
+
+  /**
+   * Gets the number of mails sent successfully.
+   * @return the number of sent mails.
+   */
+  public long getSentCount() {
+    return sending.getCount();
+  }
+
+  /**
+   * Gets the number of mails whose the sending failed.
+   * @return the number of failed mails.
+   */
+  public long getFailureCount() {
+    return sending.getFailureCount();
+  }
+
+  /**
+   * Gets the number of connections opened to the SMTP server since the start.
+   * @return the number of opened connections.
+   */
+  public long getOpenedConnectionCount() {
+    return openedConnections.sum();
+  }
+
+  /**
+   * Gets the number of connections to the SMTP server currently opened.
+   * @return the number of active connections.
+   */
+  public int getActiveConnectionCount() {
+    return activeConnections.get();
+  }
+
+  /**
+   * Gets the number of pooled connections that were found lost and then reopened to send a mail.
+   * @return the number of reconnections.
+   */
+  public long getReconnectionCount() {
+    return reconnections.sum();
+  }
+
+  /**
+   * Gets the mean number of mails sent per second since the start.
+   * @return the throughput of the sending in mails per second.
+   */
+  public double getThroughput() {
+    final double elapsedInSeconds = (System.nanoTime() - since) / 1e9;
+    return elapsedInSeconds <= 0 ? 0 : getSentCount() / elapsedInSeconds;
+  }
+
+  @Override
+  public String toString() {
+    return MessageFormat.format(
+        "{0} mail/s, [{1}], {2} connection(s) opened ({3} active, {4} reconnection(s))",
+        String.format("%.2f", getThroughput()), sending, getOpenedConnectionCount(),
+        getActiveConnectionCount(), getReconnectionCount());
+  }
+}
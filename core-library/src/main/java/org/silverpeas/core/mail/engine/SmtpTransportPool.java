@@ -0,0 +1,262 @@
+/*
+ * Copyright (C) 2000 - 2024 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.mail.engine;
+
+import org.silverpeas.kernel.logging.SilverLogger;
+
+import javax.mail.MessagingException;
+import javax.mail.Session;
+import javax.mail.Transport;
+import java.io.IOException;
+import java.util.Deque;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+
+/**
+ * A bounded pool of SMTP transports connected, and authenticated when required, to the SMTP
+ * server of a given {@link SmtpConfiguration}. It avoids to open a TCP connection, and to perform
+ * the TLS handshake and the authentication, for each mail to send.
+ * <p>
+ * At most {@link SmtpConfiguration#getPoolSize()} transports are used at the same time: a sending
+ * asking for a transport whereas all of them are used waits for one to be released. Once used, a
+ * transport is kept opened for at most {@link SmtpConfiguration#getPoolIdleTimeout()} milliseconds:
+ * the expired transports are closed when a transport is taken or released and, when no mail is
+ * sent anymore, by a periodic call of {@link #evictIdle()}. An idle transport is checked before
+ * being reused after a while; a transport whose the connection was lost
+ * is transparently reopened. Likewise, a sending failing because of the loss of the connection of
+ * a reused transport is retried once with a new connection.
+ * </p>
+ * @author mmoquillon
+ */
+class SmtpTransportPool {
+
+  /**
+   * Time in milliseconds beyond which an idle transport is checked before being reused.
+   */
+  private static final long VALIDATION_INTERVAL = 2000;
+
+  private final SmtpConfiguration configuration;
+  private final Session session;
+  private final SmtpMailSendingStatistics statistics;
+  private final Semaphore permits;
+  private final Deque<PooledTransport> idle = new ConcurrentLinkedDeque<>();
+  private volatile boolean closed = false;
+
+  /**
+   * Constructs a new pool of transports for the specified SMTP configuration.
+   * @param configuration the SMTP configuration. Its pool size must be positive.
+   * @param session the mail session from which the transports are got.
+   * @param statistics the statistics in which the use of the connections is recorded.
+   */
+  SmtpTransportPool(final SmtpConfiguration configuration, final Session session,
+      final SmtpMailSendingStatistics statistics) {
+    this.configuration = configuration;
+    this.session = session;
+    this.statistics = statistics;
+    this.permits = new Semaphore(configuration.getPoolSize(), true);
+  }
+
+  /**
+   * Is this pool is for the specified SMTP configuration?
+   * @param configuration an SMTP configuration.
+   * @return true if the transports of this pool are connected according to the given
+   * configuration.
+   */
+  boolean isFor(final SmtpConfiguration configuration) {
+    return this.configuration.equals(configuration);
+  }
+
+  /**
+   * Performs the specified sending with a transport of the pool. If the sending fails because the
+   * connection of a reused transport was lost, it is performed once again with a new connection:
+   * so a sending made up of several deliveries has to resume from the first one not yet done.
+   * @param sending the sending to perform.
+   * @throws MessagingException if the sending fails.
+   * @throws InterruptedException if the current thread is interrupted while waiting for a
+   * transport.
+   */
+  void execute(final Sending sending) throws MessagingException, InterruptedException {
+    permits.acquire();
+    PooledTransport transport = null;
+    boolean done = false;
+    try {
+      transport = take();
+      try {
+        sending.send(transport.transport);
+      } catch (MessagingException e) {
+        if (!transport.reused || !isConnectionLost(e, transport.transport)) {
+          throw e;
+        }
+        SilverLogger.getLogger(this).debug("SMTP connection lost, retrying with a new one");
+        statistics.connectionLost();
+        final PooledTransport lost = transport;
+        transport = null;
+        close(lost);
+        transport = open();
+        sending.send(transport.transport);
+      }
+      done = true;
+    } finally {
+      if (transport != null) {
+        release(transport, done);
+      }
+      permits.release();
+    }
+  }
+
+  /**
+   * Closes the idle transports that have been unused for more than the idle timeout of the pool.
+   * Without it, the connections of a pool no more used would be kept opened until the SMTP
+   * server closes them.
+   */
+  void evictIdle() {
+    evictExpired(System.currentTimeMillis());
+  }
+
+  /**
+   * Closes all the idle transports of the pool. The transports currently used are closed once
+   * released.
+   */
+  void close() {
+    closed = true;
+    PooledTransport transport = idle.pollFirst();
+    while (transport != null) {
+      close(transport);
+      transport = idle.pollFirst();
+    }
+  }
+
+  /**
+   * Takes the most recently used transport, which has the most chances to be still connected, or
+   * opens a new one if there is no idle transport.
+   */
+  private PooledTransport take() throws MessagingException {
+    final long now = System.currentTimeMillis();
+    PooledTransport transport = idle.pollFirst();
+    while (transport != null) {
+      if (transport.isExpired(now)) {
+        close(transport);
+      } else if (now - transport.lastUsed > VALIDATION_INTERVAL &&
+          !transport.transport.isConnected()) {
+        statistics.connectionLost();
+        close(transport);
+      } else {
+        transport.reused = true;
+        return transport;
+      }
+      transport = idle.pollFirst();
+    }
+    return open();
+  }
+
+  private PooledTransport open() throws MessagingException {
+    final PooledTransport transport =
+        new PooledTransport(SmtpMailSender.openTransport(session, configuration));
+    statistics.connectionOpened();
+    return transport;
+  }
+
+  private void release(final PooledTransport transport, final boolean reusable) {
+    transport.lastUsed = System.currentTimeMillis();
+    transport.sent++;
+    final int maxMessages = configuration.getPoolMaxMessagesPerConnection();
+    if (reusable && !closed && (maxMessages <= 0 || transport.sent < maxMessages)) {
+      idle.offerFirst(transport);
+      if (closed) {
+        close();
+      }
+      evictExpired(transport.lastUsed);
+    } else {
+      close(transport);
+    }
+  }
+
+  /**
+   * Closes the transports unused for too long. They are at the tail of the idle transports.
+   */
+  private void evictExpired(final long now) {
+    PooledTransport oldest = idle.peekLast();
+    while (oldest != null && oldest.isExpired(now)) {
+      if (idle.removeLastOccurrence(oldest)) {
+        close(oldest);
+      }
+      oldest = idle.peekLast();
+    }
+  }
+
+  private void close(final PooledTransport transport) {
+    statistics.connectionClosed();
+    try {
+      transport.transport.close();
+    } catch (Exception e) {
+      SilverLogger.getLogger(this).silent(e);
+    }
+  }
+
+  /**
+   * Is the specified failure caused by the loss of the connection of the given transport? Some
+   * SMTP clients don't report an I/O error when the server closed the connection, but then the
+   * transport is no more connected.
+   */
+  private static boolean isConnectionLost(final Exception e, final Transport transport) {
+    Throwable cause = e;
+    while (cause != null) {
+      if (cause instanceof IOException) {
+        return true;
+      }
+      // the cause of a MessagingException is its next exception
+      cause = cause.getCause();
+    }
+    return !transport.isConnected();
+  }
+
+  /**
+   * A sending of one or more messages through an SMTP transport.
+   */
+  @FunctionalInterface
+  interface Sending {
+
+    /**
+     * Sends the messages through the specified transport.
+     * @param transport a connected transport.
+     * @throws MessagingException if the sending fails.
+     */
+    void send(final Transport transport) throws MessagingException;
+  }
+
+  private class PooledTransport {
+    private final Transport transport;
+    private long lastUsed = System.currentTimeMillis();
+    private int sent = 0;
+    private boolean reused = false;
+
+    private PooledTransport(final Transport transport) {
+      this.transport = transport;
+    }
+
+    private boolean isExpired(final long now) {
+      return now - lastUsed > configuration.getPoolIdleTimeout();
+    }
+  }
+}
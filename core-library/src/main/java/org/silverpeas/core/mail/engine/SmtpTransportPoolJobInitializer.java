@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2000 - 2024 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.mail.engine;
+
+import org.silverpeas.core.annotation.Service;
+import org.silverpeas.core.initialization.Initialization;
+import org.silverpeas.core.scheduler.Job;
+import org.silverpeas.core.scheduler.JobExecutionContext;
+import org.silverpeas.core.scheduler.Scheduler;
+import org.silverpeas.core.scheduler.trigger.JobTrigger;
+import org.silverpeas.core.scheduler.trigger.TimeUnit;
+
+import javax.inject.Inject;
+
+/**
+ * This JOB is in charge of closing the pooled connections to the SMTP server that are idle for
+ * too long, even when no mail is sent anymore.
+ */
+@Service
+class SmtpTransportPoolJobInitializer implements Initialization {
+
+  private static final String JOB_NAME = "SmtpTransportPoolJob";
+
+  @Inject
+  private Scheduler scheduler;
+
+  @Override
+  public void init() throws Exception {
+    scheduler.unscheduleJob(JOB_NAME);
+    scheduler.scheduleJob(new SmtpTransportEvictionJob(), JobTrigger.triggerEvery(1,
+        TimeUnit.MINUTE));
+  }
+
+  private static class SmtpTransportEvictionJob extends Job {
+
+    /**
+     * Creates a new job.
+     */
+    private SmtpTransportEvictionJob() {
+      super(JOB_NAME);
+    }
+
+    @Override
+    public void execute(final JobExecutionContext context) {
+      final MailSender sender = MailSender.get();
+      if (sender instanceof SmtpMailSender) {
+        ((SmtpMailSender) sender).evictIdleTransports();
+      }
+    }
+  }
+}
@@ -27,6 +27,10 @@ import org.silverpeas.core.admin.user.model.User;
 import org.silverpeas.core.notification.sse.CommonServerEvent;
 import org.silverpeas.core.util.JSONCodec;
 
+import java.util.Set;
+
+import static java.util.Collections.singleton;
+
 import static org.silverpeas.core.notification.user.server.channel.silvermail.SILVERMAILPersistence.countNotReadMessagesOfFolder;
 
 /**
@@ -136,4 +140,9 @@ public class UserNotificationServerEvent extends CommonServerEvent {
   public boolean isConcerned(final String receiverSessionId, final User receiver) {
     return receiver.getId().equals(emitterUserId);
   }
+
+  @Override
+  public Set<String> getTargetedUserIds() {
+    return singleton(emitterUserId);
+  }
 }
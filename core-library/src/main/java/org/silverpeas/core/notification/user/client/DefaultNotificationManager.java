@@ -27,6 +27,7 @@ import org.apache.commons.lang3.StringUtils;
 import org.silverpeas.kernel.SilverpeasRuntimeException;
 import org.silverpeas.core.admin.component.ComponentInstanceDeletion;
 import org.silverpeas.core.admin.component.model.ComponentInst;
+import org.silverpeas.core.admin.domain.model.Domain;
 import org.silverpeas.core.admin.service.AdminException;
 import org.silverpeas.core.admin.service.Administration;
 import org.silverpeas.core.admin.service.AdministrationServiceProvider;
@@ -57,7 +58,9 @@ import org.silverpeas.core.notification.user.model.NotificationResourceData;
 import org.silverpeas.core.notification.user.server.NotificationData;
 import org.silverpeas.core.notification.user.server.NotificationServer;
 import org.silverpeas.core.notification.user.server.NotificationServerException;
+import org.silverpeas.core.util.CollectionUtil;
 import org.silverpeas.core.util.EmailAddress;
+import org.silverpeas.core.util.MapUtil;
 import org.silverpeas.kernel.bundle.LocalizationBundle;
 import org.silverpeas.kernel.bundle.ResourceLocator;
 import org.silverpeas.kernel.util.StringUtil;
@@ -71,9 +74,13 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Properties;
+import java.util.Set;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -445,8 +452,8 @@ public class DefaultNotificationManager
 
     try {
       params.trace();
-      for (String userId : recipientIds) {
-        doNewDelayedNotifications(params, userId);
+      for (Collection<String> userIds : CollectionUtil.split(recipientIds)) {
+        doNewDelayedNotifications(params, userIds);
       }
 
     } catch (Exception e) {
@@ -461,12 +468,27 @@ public class DefaultNotificationManager
     }
   }
 
-  private void doNewDelayedNotifications(final NotificationParameters params, final String userId)
-      throws NotificationException {
+  /**
+   * Sends or delays the notifications to the specified lot of users. If the data of the
+   * notifications cannot be created for the whole lot, they are then created user by user so that
+   * a user in error doesn't prevent the others to be notified.
+   */
+  private void doNewDelayedNotifications(final NotificationParameters params,
+      final Collection<String> userIds) throws NotificationException {
+    final List<DelayedNotificationData> dnds;
     try {
-      for (final DelayedNotificationData dnd : createAllDelayedNotificationData(params, userId)) {
-        DelayedNotificationDelegate.executeNewNotification(dnd);
+      dnds = createAllDelayedNotificationData(params, userIds);
+    } catch (Exception e) {
+      SilverLogger.getLogger(this).error(e);
+      if (userIds.size() > 1) {
+        for (final String userId : userIds) {
+          doNewDelayedNotifications(params, Collections.singletonList(userId));
+        }
       }
+      return;
+    }
+    try {
+      DelayedNotificationDelegate.executeNewNotifications(dnds);
     } catch (NotificationServerException e) {
       throw new NotificationException(e);
     } catch (Exception ex) {
@@ -688,6 +710,18 @@ public class DefaultNotificationManager
 
   private NotifAddressRow getNotifAddressRow(final NotificationParameters params,
       final String aUserId, final int addressId) throws SQLException {
+    final NotifAddressRow nar =
+        getBuiltInNotifAddressRow(params, aUserId, addressId, () -> getUserEmail(aUserId));
+    return nar != null ? nar : schema.notifAddress().getNotifAddress(addressId);
+  }
+
+  /**
+   * Gets the row of the specified builtin notification address of the given user. The email of
+   * the user is asked only for the SMTP address.
+   * @return the address row or null if the address isn't a builtin one.
+   */
+  private NotifAddressRow getBuiltInNotifAddressRow(final NotificationParameters params,
+      final String aUserId, final int addressId, final Supplier<String> userEmail) {
     final NotifAddressRow nar;
     if (addressId == BuiltInNotifAddress.BASIC_POPUP.getId()) {
       nar = new NotifAddressRow(addressId, aUserId, multilang.getString("defaultAddressPOPUP"),
@@ -704,50 +738,17 @@ public class DefaultNotificationManager
     } else if (addressId == BuiltInNotifAddress.BASIC_SMTP.getId()) {
       nar = new NotifAddressRow(addressId, aUserId,
             multilang.getString("defaultAddressSPMAIL"), NotifChannel.SMTP.getId(),
-          getUserEmail(aUserId), NotificationParameters.USAGE_PRO, params.getMessagePriority());
+          userEmail.get(), NotificationParameters.USAGE_PRO, params.getMessagePriority());
     } else if (addressId == BuiltInNotifAddress.BASIC_SERVER.getId()) {
       nar = new NotifAddressRow(addressId, aUserId, multilang.getString("defaultAddressSERVER"),
           NotifChannel.SERVER.getId(), aUserId, NotificationParameters.USAGE_PRO,
           params.getMessagePriority());
     } else {
-      nar = schema.notifAddress().getNotifAddress(addressId);
+      nar = null;
     }
     return nar;
   }
 
-  private List<NotifAddressRow> getAllNotifAddressRow(final NotificationParameters params,
-      final String aUserId) throws SQLException {
-    final Stream<Integer> addressIdStream;
-    final int addressId = getAddressId(params, aUserId);
-    if (addressId == BuiltInNotifAddress.DEFAULT.getId()) {
-      NotifDefaultAddressTable ndat = schema.notifDefaultAddress();
-      NotifDefaultAddressRow[] ndars = ndat.getAllByUserId(Integer.parseInt(aUserId));
-      if (ndars.length > 0) {
-        addressIdStream = Stream.of(ndars).map(NotifDefaultAddressRow::getNotifAddressId);
-      } else {
-        addressIdStream = getDefaultNotificationChannels().stream()
-            .map(NotifChannel::getMediaType)
-            .map(BuiltInNotifAddress::getId);
-      }
-
-    } else {
-      // notification avec choix du canal
-      addressIdStream = Stream.of(addressId);
-    }
-
-    try {
-      return addressIdStream.map(m -> {
-        try {
-          return getNotifAddressRow(params, aUserId, m);
-        } catch (SQLException e) {
-          throw new SilverpeasRuntimeException(e);
-        }
-      }).collect(Collectors.toList());
-    } catch (SilverpeasRuntimeException e) {
-      throw (SQLException) e.getCause();
-    }
-  }
-
   private int getAddressId(final NotificationParameters params, final String aUserId)
       throws SQLException {
     int addressId = params.getAddressId();
@@ -899,8 +900,7 @@ public class DefaultNotificationManager
   }
 
   private void setSource(final NotificationParameters params,
-      final Map<String, Object> theExtraParams,
-      final DelayedNotificationData delayedNotificationData) {
+      final Map<String, Object> theExtraParams, final NotificationResourceData resource) {
     if (StringUtil.isDefined(params.getSource())) {
       theExtraParams.put(SOURCE.toString(), params.getSource());
     } else {
@@ -909,11 +909,10 @@ public class DefaultNotificationManager
         try {
           final String source = computeDefaultSource(instanceId);
           theExtraParams.put(SOURCE.toString(), source);
-          if (delayedNotificationData != null && delayedNotificationData.getResource() != null &&
-              StringUtils.isBlank(delayedNotificationData.getResource().getResourceLocation())) {
+          if (resource != null && StringUtils.isBlank(resource.getResourceLocation())) {
             final String resourceLocation =
                 getComponentFullName(instanceId, NotificationResourceData.LOCATION_SEPARATOR, true);
-            delayedNotificationData.getResource().setResourceLocation(resourceLocation);
+            resource.setResourceLocation(resourceLocation);
 
           }
         } catch (Exception e) {
@@ -935,57 +934,222 @@ public class DefaultNotificationManager
     theExtraParams.put(FROM.toString(), fromEmail);
   }
 
-  private List<DelayedNotificationData> createAllDelayedNotificationData(
-      NotificationParameters params, String aUserId) throws SQLException {
-    final List<NotifAddressRow> nars = getAllNotifAddressRow(params, aUserId);
-    final List<DelayedNotificationData> dnds = new ArrayList<>(nars.size());
+  /**
+   * Creates the data of the notifications to send to the specified users.
+   * @param params the parameters of the notification.
+   * @param userIds the identifiers of the recipients.
+   * @return the data of the notifications, one per recipient and per notification address.
+   * @throws SQLException if the notification addresses of the recipients cannot be got.
+   */
+  List<DelayedNotificationData> createAllDelayedNotificationData(
+      final NotificationParameters params, final Collection<String> userIds) throws SQLException {
+    return new NotificationBatch(params, userIds).createAll();
+  }
 
-    NotifChannelRow notifChannelRow;
-    NotificationData notificationData;
-    for (final NotifAddressRow curAddresseRow : nars) {
-      notifChannelRow = schema.notifChannel().getNotifChannel(curAddresseRow.getNotifChannelId());
+  /**
+   * A batch of recipients of a same notification. The notification addresses of all of them are
+   * resolved in a few queries whatever their count, and the parts of the notification that don't
+   * depend on the recipient (sender, subject, source, message, ...) are computed once per channel.
+   * The URLs depend only on the domain of the recipient and hence they are computed once per
+   * domain.
+   */
+  private class NotificationBatch {
+
+    private final NotificationParameters params;
+    private final Collection<String> userIds;
+    private final String senderName;
+    private final Map<String, Object> commonExtraParams = new HashMap<>();
+    private final Map<Integer, NotifAddressRow> customAddresses = new HashMap<>();
+    private final Map<Integer, NotifChannelRow> channels = new HashMap<>();
+    private final Map<Integer, NotificationData> channelTemplates = new HashMap<>();
+    private final Map<String, Map<String, Object>> domainExtraParams = new HashMap<>();
+
+    private NotificationBatch(final NotificationParameters params,
+        final Collection<String> userIds) {
+      this.params = params;
+      this.userIds = userIds;
+      this.senderName = getSenderName(params);
+    }
 
-      notificationData = new NotificationData();
+    /**
+     * Creates the data of the notifications to send to all the recipients of the batch. A
+     * recipient for which the data cannot be created is skipped, the error being logged.
+     * @return a list of the data of the notifications to send.
+     * @throws SQLException if the notification addresses of the recipients cannot be got.
+     */
+    List<DelayedNotificationData> createAll() throws SQLException {
+      final Map<String, List<Integer>> addressIds = getAllAddressIds();
+      loadCustomAddresses(addressIds.values());
+      Stream.of(schema.notifChannel().getAllRows()).forEach(c -> channels.put(c.getId(), c));
+      computeCommonExtraParams();
+
+      final Map<String, UserDetail> users =
+          Stream.of(Administration.get().getUserDetails(addressIds.keySet().toArray(new String[0])))
+              .filter(Objects::nonNull)
+              .collect(Collectors.toMap(UserDetail::getId, u -> u, (u1, u2) -> u1));
+      final List<DelayedNotificationData> dnds = new ArrayList<>(addressIds.size());
+      addressIds.forEach((userId, userAddressIds) -> {
+        final UserDetail user = users.get(userId);
+        if (user == null) {
+          SilverLogger.getLogger(DefaultNotificationManager.this).warn("No user with id " + userId);
+          return;
+        }
+        try {
+          dnds.addAll(createDelayedNotificationData(user, userAddressIds));
+        } catch (Exception e) {
+          SilverLogger.getLogger(DefaultNotificationManager.this).error(e);
+        }
+      });
+      return dnds;
+    }
+
+    private List<DelayedNotificationData> createDelayedNotificationData(final UserDetail user,
+        final List<Integer> userAddressIds) {
+      final String userId = user.getId();
+      final Map<String, Object> urlParams =
+          domainExtraParams.computeIfAbsent(user.getDomainId(), d -> computeURLParams(user));
+      final List<DelayedNotificationData> dnds = new ArrayList<>(userAddressIds.size());
+      for (final int addressId : userAddressIds) {
+        NotifAddressRow nar = getBuiltInNotifAddressRow(params, userId, addressId,
+            () -> user.isSystem() ? "" : user.getEmailAddress());
+        if (nar == null) {
+          nar = customAddresses.get(addressId);
+        }
+        if (nar == null) {
+          SilverLogger.getLogger(DefaultNotificationManager.this)
+              .warn("No notification address " + addressId + FOR_THE_USER + userId);
+        } else {
+          dnds.add(createDelayedNotificationData(userId, nar, urlParams));
+        }
+      }
+      return dnds;
+    }
+
+    private DelayedNotificationData createDelayedNotificationData(final String userId,
+        final NotifAddressRow nar, final Map<String, Object> urlParams) {
+      final NotifChannelRow ncr = channels.get(nar.getNotifChannelId());
+      final NotificationData template =
+          channelTemplates.computeIfAbsent(ncr.getId(), i -> createTemplate(ncr));
+
+      final NotificationData notificationData = new NotificationData();
       // set the channel
-      notificationData.setTargetChannel(notifChannelRow.getName());
+      notificationData.setTargetChannel(ncr.getName());
       // set the destination address
-      notificationData.setTargetReceipt(curAddresseRow.getAddress());
-
-      final DelayedNotificationData delayedNotificationData =
-          initDelayedNotificationData(aUserId, params, notificationData, curAddresseRow);
-      dnds.add(delayedNotificationData);
+      notificationData.setTargetReceipt(nar.getAddress());
+      notificationData.setSenderId(template.getSenderId());
+      notificationData.setSenderName(template.getSenderName());
+      final Map<String, Object> theExtraParams = new HashMap<>(template.getTargetParam());
+      theExtraParams.putAll(urlParams);
+      notificationData.setTargetParam(theExtraParams);
+      // the message is shared by all the recipients
+      notificationData.setMessage(template.getMessage());
+      notificationData.setAnswerAllowed(template.isAnswerAllowed());
+      return initDelayedNotificationData(userId, params, notificationData, nar);
+    }
 
-      StringBuilder theMessage = new StringBuilder(100);
-      Map<String, Object> theExtraParams = new HashMap<>();
+    /**
+     * Creates the part of the notification data that is common to all the recipients notified
+     * through the specified channel.
+     */
+    private NotificationData createTemplate(final NotifChannelRow ncr) {
+      final StringBuilder theMessage = new StringBuilder(100);
+      final Map<String, Object> theExtraParams = new HashMap<>(commonExtraParams);
+      final NotificationData nd = new NotificationData();
       // Set subject parameter
-      setSubject(params, theMessage, theExtraParams, notifChannelRow);
-
-      String senderName = getSenderName(params);
-      setSenderAddress(params, theMessage, theExtraParams, notifChannelRow, notificationData,
-          senderName);
+      setSubject(params, theMessage, theExtraParams, ncr);
+      setSenderAddress(params, theMessage, theExtraParams, ncr, nd, senderName);
+      return setCommonNotifData(params, theExtraParams, theMessage, senderName, nd);
+    }
 
-      // Set Url parameter
-      theExtraParams.put(SERVER_BASEURL.toString(), getUserAutoRedirectServerURL(aUserId));
-      theExtraParams.put(SERVERURL.toString(), getUserAutoRedirectSilverpeasServerURL(aUserId));
+    private void computeCommonExtraParams() {
       if (StringUtil.isDefined(params.getLink().getLinkUrl())) {
-        theExtraParams.put(URL.toString(), computeURL(aUserId, params.getLink().getLinkUrl()));
-        theExtraParams.put(LINKLABEL.toString(), params.getLink().getLinkLabel());
+        commonExtraParams.put(LINKLABEL.toString(), params.getLink().getLinkLabel());
       }
-
       if (params.getNotificationResourceData() != null &&
           StringUtil.isDefined(params.getNotificationResourceData().getAttachmentTargetId())) {
-        theExtraParams.put(ATTACHMENT_TARGETID.toString(),
+        commonExtraParams.put(ATTACHMENT_TARGETID.toString(),
             params.getNotificationResourceData().getAttachmentTargetId());
-        theExtraParams.put(COMPONENTID.toString(),
+        commonExtraParams.put(COMPONENTID.toString(),
             params.getNotificationResourceData().getComponentInstanceId());
       }
-
       // Set Source parameter
-      setSource(params, theExtraParams, delayedNotificationData);
+      setSource(params, commonExtraParams, params.getNotificationResourceData());
+    }
+
+    /**
+     * Computes the URL parameters for the users of the same domain than the specified one.
+     */
+    private Map<String, Object> computeURLParams(final UserDetail user) {
+      final Domain domain = user.getDomain();
+      final Map<String, Object> urlParams = new HashMap<>(3);
+      urlParams.put(SERVER_BASEURL.toString(), domain.getSilverpeasServerURL());
+      urlParams.put(SERVERURL.toString(), domain.getSilverpeasServerURL() + getApplicationURL());
+      final String url = params.getLink().getLinkUrl();
+      if (StringUtil.isDefined(url)) {
+        urlParams.put(URL.toString(),
+            url.startsWith("http") ? url : getUserAutoRedirectURL(domain, url));
+      }
+      return urlParams;
+    }
+
+    /**
+     * Gets the identifiers of the notification addresses of each recipient in the batch.
+     */
+    private Map<String, List<Integer>> getAllAddressIds() throws SQLException {
+      final int defaultAddressId = BuiltInNotifAddress.DEFAULT.getId();
+      final Map<Integer, Integer> addressIdByUser = new LinkedHashMap<>(userIds.size());
+      for (final String userId : userIds) {
+        try {
+          addressIdByUser.put(Integer.parseInt(userId), params.getAddressId());
+        } catch (NumberFormatException e) {
+          SilverLogger.getLogger(DefaultNotificationManager.this).warn("No user with id " + userId);
+        }
+      }
+      if (params.isAddressDefinedByComponent()) {
+        addressIdByUser.replaceAll((u, a) -> defaultAddressId);
+        // In case of problems, try with the default value
+        if (params.isComponentInstanceDefined()) {
+          final NotifPreferenceRow[] nprs = schema.notifPreference()
+              .getAllByUserIdsAndComponentInstanceIdAndMessageType(addressIdByUser.keySet(),
+                  params.getComponentInstance(), params.getMessagePriority());
+          Stream.of(nprs)
+              .forEach(npr -> addressIdByUser.put(npr.getUserId(), npr.getNotifAddressId()));
+        }
+      }
+
+      final List<Integer> usersWithDefaultAddress = addressIdByUser.entrySet()
+          .stream()
+          .filter(e -> e.getValue() == defaultAddressId)
+          .map(Map.Entry::getKey)
+          .collect(Collectors.toList());
+      final Map<Integer, List<Integer>> defaultAddressIds = new HashMap<>();
+      Stream.of(schema.notifDefaultAddress().getAllByUserIds(usersWithDefaultAddress))
+          .forEach(ndar -> MapUtil.putAddList(defaultAddressIds, ndar.getUserId(),
+              ndar.getNotifAddressId()));
+      final List<Integer> defaultChannelAddressIds = getDefaultNotificationChannels().stream()
+          .map(NotifChannel::getMediaType)
+          .map(BuiltInNotifAddress::getId)
+          .collect(Collectors.toList());
+
+      final Map<String, List<Integer>> addressIds = new LinkedHashMap<>(addressIdByUser.size());
+      addressIdByUser.forEach((userId, addressId) -> addressIds.put(String.valueOf(userId),
+          addressId == defaultAddressId ?
+              defaultAddressIds.getOrDefault(userId, defaultChannelAddressIds) :
+              Collections.singletonList(addressId)));
+      return addressIds;
+    }
 
-      setCommonNotifData(params, theExtraParams, theMessage, senderName, notificationData);
+    private void loadCustomAddresses(final Collection<List<Integer>> addressIds)
+        throws SQLException {
+      final Set<Integer> customAddressIds = addressIds.stream()
+          .flatMap(List::stream)
+          .filter(i -> !BuiltInNotifAddress.decode(i).isPresent())
+          .collect(Collectors.toSet());
+      for (final Collection<Integer> ids : CollectionUtil.split(customAddressIds)) {
+        Stream.of(schema.notifAddress().getNotifAddresses(ids))
+            .forEach(a -> customAddresses.put(a.getId(), a));
+      }
     }
-    return dnds;
   }
 
   @Nonnull
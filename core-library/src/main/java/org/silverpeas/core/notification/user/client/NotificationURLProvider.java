@@ -46,14 +46,7 @@ public interface NotificationURLProvider {
     String encodedTarget = URLUtil.encodeURL(target);
     try {
       final UserDetail ud = UserDetail.getById(userId);
-      final Domain dom = ud.getDomain();
-      String url;
-      if (URLUtil.isPermalink(target)) {
-        url = dom.getSilverpeasServerURL() + getApplicationURL() + target;
-      } else {
-        url = getUserAutoRedirectURL(dom) + encodedTarget;
-      }
-      return url;
+      return getUserAutoRedirectURL(ud.getDomain(), target);
     } catch (final Exception e) {
       SilverLogger.getLogger(this)
           .error("Error while getting user auto redirect url {0} for user {1}",
@@ -62,6 +55,21 @@ public interface NotificationURLProvider {
     }
   }
 
+  /**
+   * Gets the URL at which any user of the specified domain is redirected to the given target. As
+   * it doesn't depend on the user himself, it can be computed once for all the users of a same
+   * domain.
+   * @param dom the domain of the users.
+   * @param target the target of the redirection.
+   * @return the absolute redirection URL.
+   */
+  default String getUserAutoRedirectURL(final Domain dom, final String target) {
+    if (URLUtil.isPermalink(target)) {
+      return dom.getSilverpeasServerURL() + getApplicationURL() + target;
+    }
+    return getUserAutoRedirectURL(dom) + URLUtil.encodeURL(target);
+  }
+
   default String getUserAutoRedirectURL(final Domain dom) {
       return dom.getSilverpeasServerURL() + getApplicationURL()
           + "/autoRedirect.jsp?domainId=" + dom.getId() + "&goto=";
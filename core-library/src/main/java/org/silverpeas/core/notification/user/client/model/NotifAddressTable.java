@@ -29,7 +29,9 @@ import org.silverpeas.core.persistence.jdbc.AbstractTable;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Collectors;
 
 @Repository
 public class NotifAddressTable extends AbstractTable<NotifAddressRow> {
@@ -57,6 +59,22 @@ public class NotifAddressTable extends AbstractTable<NotifAddressRow> {
   private static final String SELECT_NOTIFADDRESS_BY_ID = "Select "
       + NOTIFADDRESS_COLUMNS + " from ST_NotifAddress Where id = ?";
 
+  /**
+   * Returns the NotifAddress rows having the given ids. The caller is expected to split large id
+   * lists in lots.
+   */
+  public NotifAddressRow[] getNotifAddresses(Collection<Integer> ids) throws SQLException {
+    if (ids.isEmpty()) {
+      return new NotifAddressRow[0];
+    }
+    List<NotifAddressRow> rows = getRows(SELECT_NOTIFADDRESS_BY_IDS + "(" +
+        ids.stream().map(String::valueOf).collect(Collectors.joining(",")) + ")");
+    return rows.toArray(new NotifAddressRow[0]);
+  }
+
+  private static final String SELECT_NOTIFADDRESS_BY_IDS = "Select "
+      + NOTIFADDRESS_COLUMNS + " from ST_NotifAddress Where id in ";
+
   /**
    * Returns all the NotifAddressRow having a given notifChannelId
    */
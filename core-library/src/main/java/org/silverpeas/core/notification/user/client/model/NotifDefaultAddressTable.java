@@ -29,7 +29,9 @@ import org.silverpeas.core.persistence.jdbc.AbstractTable;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Collectors;
 
 @Repository
 public class NotifDefaultAddressTable extends AbstractTable<NotifDefaultAddressRow> {
@@ -73,6 +75,21 @@ public class NotifDefaultAddressTable extends AbstractTable<NotifDefaultAddressR
       + NOTIFDEFAULTADDRESS_COLUMNS
       + " from ST_NotifDefaultAddress where userId=?";
 
+  /**
+   * Returns all the NotifDefaultAddressRow of the given users. The caller is expected to split
+   * large user lists in lots.
+   */
+  public NotifDefaultAddressRow[] getAllByUserIds(Collection<Integer> userIds)
+      throws SQLException {
+    if (userIds.isEmpty()) {
+      return new NotifDefaultAddressRow[0];
+    }
+    List<NotifDefaultAddressRow> rows = getRows(
+        SELECT_ALL_NOTIFDEFAULTADDRESS + " where userId in (" +
+            userIds.stream().map(String::valueOf).collect(Collectors.joining(",")) + ")");
+    return rows.toArray(new NotifDefaultAddressRow[0]);
+  }
+
   /**
    * Returns all the rows.
    */
@@ -29,7 +29,9 @@ import org.silverpeas.core.persistence.jdbc.AbstractTable;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Collectors;
 
 @Repository
 public class NotifPreferenceTable extends AbstractTable<NotifPreferenceRow> {
@@ -75,6 +77,29 @@ public class NotifPreferenceTable extends AbstractTable<NotifPreferenceRow> {
       + " from ST_NotifPreference where "
       + "userId=? and componentInstanceId=? and messageType=?";
 
+  /**
+   * Returns all the NotifPreferenceRow of the given users having the given
+   * componentInstanceId,messageType. The caller is expected to split large user lists in lots.
+   */
+  public NotifPreferenceRow[] getAllByUserIdsAndComponentInstanceIdAndMessageType(
+      Collection<Integer> userIds, int componentInstanceId, int messageType)
+      throws SQLException {
+    if (userIds.isEmpty()) {
+      return new NotifPreferenceRow[0];
+    }
+    int[] intArgs = { componentInstanceId, messageType };
+    List<NotifPreferenceRow> rows = getRows(
+        SELECT_ALL_NOTIFPREFERENCE_BY_COMPONENTINSTANCEID_AND_MESSAGETYPE + " and userId in (" +
+            userIds.stream().map(String::valueOf).collect(Collectors.joining(",")) + ")", intArgs);
+    return rows.toArray(new NotifPreferenceRow[0]);
+  }
+
+  private static final String SELECT_ALL_NOTIFPREFERENCE_BY_COMPONENTINSTANCEID_AND_MESSAGETYPE =
+      SELECT
+      + NOTIFPREFERENCE_COLUMNS
+      + " from ST_NotifPreference where "
+      + "componentInstanceId=? and messageType=?";
+
   /**
    * Returns all the NotifPreferenceRow having a given componentInstanceId
    */
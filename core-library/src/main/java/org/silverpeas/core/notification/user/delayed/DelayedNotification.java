@@ -56,6 +56,14 @@ public interface DelayedNotification {
 
   void saveDelayedNotification(DelayedNotificationData delayedNotificationData);
 
+  /**
+   * Saves in one go the specified delayed notifications. The notifications are expected to be
+   * about the same event, sent to different users and through different channels. The resource
+   * of the notifications is then resolved once and the notifications are persisted in a batch.
+   * @param delayedNotifications the delayed notifications to save.
+   */
+  void saveDelayedNotifications(List<DelayedNotificationData> delayedNotifications);
+
   int deleteDelayedNotifications(Collection<Long> ids);
 
   /*
@@ -110,4 +118,14 @@ public interface DelayedNotification {
    * @return
    */
   DelayedNotificationFrequency getUserFrequency(final Integer userId, final NotifChannel channel);
+
+  /**
+   * Gets the notification frequency of each of the specified users for the given channel. It is
+   * the set-based counterpart of {@link #getUserFrequency(Integer, NotifChannel)}.
+   * @param userIds the unique identifiers of users.
+   * @param channel a notification channel.
+   * @return the frequency per user identifier.
+   */
+  Map<Integer, DelayedNotificationFrequency> getUserFrequencies(Collection<Integer> userIds,
+      NotifChannel channel);
 }
@@ -40,9 +40,12 @@ import org.silverpeas.core.util.MapUtil;
 
 import javax.inject.Inject;
 import javax.transaction.Transactional;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -148,6 +151,70 @@ public class DelayedNotificationManager implements DelayedNotification {
     }
   }
 
+  @Override
+  public void saveDelayedNotifications(final List<DelayedNotificationData> delayedNotifications) {
+    final Map<NotificationResourceData, List<DelayedNotificationData>> byResource =
+        new IdentityHashMap<>();
+    delayedNotifications.forEach(d -> MapUtil.putAddList(byResource, d.getResource(), d));
+    final List<DelayedNotificationData> toSave = new ArrayList<>(delayedNotifications.size());
+    for (final List<DelayedNotificationData> sameResource : byResource.values()) {
+      final DelayedNotificationData first = sameResource.get(0);
+      NotificationResourceData resource = first.getResource();
+      if (resource.getId() == null) {
+        final NotificationResourceData existingResource =
+            getExistingResource(resource.getResourceId(), resource.getResourceType(),
+                resource.getComponentInstanceId());
+        if (existingResource != null) {
+          existingResource.fillFrom(resource);
+          nrRepository.saveAndFlush(existingResource);
+          sameResource.forEach(d -> d.setResource(existingResource));
+          toSave.addAll(withoutAlreadySaved(sameResource));
+        } else {
+          nrRepository.save(resource);
+          toSave.addAll(sameResource);
+        }
+      } else {
+        toSave.addAll(sameResource);
+      }
+    }
+    if (!toSave.isEmpty()) {
+      dnRepository.saveAndFlushInBatches(toSave);
+    }
+  }
+
+  /**
+   * Filters out the delayed notifications about an event already saved for a given user and
+   * channel. The identifier of the saved notification is then set to the filtered out one as
+   * done by {@link #saveDelayedNotification(DelayedNotificationData)}.
+   */
+  private List<DelayedNotificationData> withoutAlreadySaved(
+      final List<DelayedNotificationData> delayedNotifications) {
+    final Map<String, DelayedNotificationData> existing = new HashMap<>();
+    final List<DelayedNotificationData> notYetSaved = new ArrayList<>(delayedNotifications.size());
+    final Set<Integer> userIds = new HashSet<>();
+    delayedNotifications.stream()
+        .filter(d -> d.getId() == null)
+        .forEach(d -> userIds.add(d.getUserId()));
+    for (final Collection<Integer> userIdLot : CollectionUtil.split(userIds)) {
+      dnRepository.findDelayedNotifications(delayedNotifications.get(0), userIdLot)
+          .forEach(d -> existing.put(d.getUserId() + "@" + d.getChannel().getId(), d));
+    }
+    for (final DelayedNotificationData delayedNotification : delayedNotifications) {
+      if (delayedNotification.getId() == null) {
+        final DelayedNotificationData alreadySaved = existing.get(
+            delayedNotification.getUserId() + "@" + delayedNotification.getChannel().getId());
+        if (alreadySaved != null) {
+          delayedNotification.setId(Long.valueOf(alreadySaved.getId()));
+        } else {
+          notYetSaved.add(delayedNotification);
+        }
+      } else {
+        notYetSaved.add(delayedNotification);
+      }
+    }
+    return notYetSaved;
+  }
+
   @Override
   public int deleteDelayedNotifications(final Collection<Long> ids) {
     int nbDeletes = 0;
@@ -274,4 +341,34 @@ public class DelayedNotificationManager implements DelayedNotification {
 
     return result;
   }
+
+  @Override
+  @Transactional(Transactional.TxType.NOT_SUPPORTED)
+  public Map<Integer, DelayedNotificationFrequency> getUserFrequencies(
+      final Collection<Integer> userIds, final NotifChannel channel) {
+    final Map<Integer, DelayedNotificationFrequency> result = new HashMap<>(userIds.size());
+
+    // For now, only the SMTP channel can be delayed (mail)
+    if (getWiredChannels().contains(channel)) {
+      final DelayedNotificationFrequency defaultFrequency =
+          getDefaultDelayedNotificationFrequency();
+      userIds.forEach(u -> result.put(u, defaultFrequency));
+
+      // Search in the database the users' setting, keeping the first one of each user
+      final Set<Integer> withSettings = new HashSet<>();
+      for (final Collection<Integer> userIdLot : CollectionUtil.split(userIds)) {
+        for (final DelayedNotificationUserSetting dnus : dnUserSettingManager
+            .findByUserIdsAndChannel(userIdLot, channel.getId())) {
+          if (withSettings.add(dnus.getUserId()) &&
+              getPossibleFrequencies().contains(dnus.getFrequency())) {
+            result.put(dnus.getUserId(), dnus.getFrequency());
+          }
+        }
+      }
+    } else {
+      userIds.forEach(u -> result.put(u, DelayedNotificationFrequency.NONE));
+    }
+
+    return result;
+  }
 }
@@ -174,6 +174,17 @@ public class DelayedNotificationDelegate implements NotificationURLProvider {
     new DelayedNotificationDelegate().performNewNotificationSending(delayedNotificationData);
   }
 
+  /**
+   * Easy call of new notifications process for several recipients at once.
+   * @param delayedNotificationData the data about the notifications to send.
+   * @throws NotificationServerException if an error occurs.
+   */
+  public static void executeNewNotifications(
+      final List<DelayedNotificationData> delayedNotificationData)
+      throws NotificationServerException {
+    new DelayedNotificationDelegate().performNewNotificationsSending(delayedNotificationData);
+  }
+
   /**
    * Handling a new notification
    * @param delayedNotificationData the data about the notification to send.
@@ -190,26 +201,97 @@ public class DelayedNotificationDelegate implements NotificationURLProvider {
   }
 
   /**
-   * Checks if the notification has to be delayed or not
-   * @param delayedNotificationData the data about the notification to send.
-   * @return true if the notification can be delayed in the time.
+   * Handling new notifications for several recipients. The frequencies of the recipients are got
+   * in a few queries and the notifications to delay are saved in a batch. A failure about one
+   * recipient is logged and doesn't prevent the notification of the others: if the frequencies
+   * cannot be got or if the batch cannot be saved, the notifications are then handled one by one.
+   * @param delayedNotificationData the data about the notifications to send.
+   * @throws NotificationServerException if an error occurs with the notification server.
    */
-  private boolean isThatToBeDelayed(final DelayedNotificationData delayedNotificationData) {
+  protected void performNewNotificationsSending(
+      final List<DelayedNotificationData> delayedNotificationData)
+      throws NotificationServerException {
+    final Map<NotifChannel, Map<Integer, DelayedNotificationFrequency>> frequencies;
+    try {
+      frequencies = getUserFrequencies(delayedNotificationData);
+    } catch (RuntimeException e) {
+      SilverLogger.getLogger(this).error(e);
+      for (final DelayedNotificationData data : delayedNotificationData) {
+        handleNewNotificationOf(data, () -> performNewNotificationSending(data));
+      }
+      return;
+    }
 
-    // The notification have to be sent immediately
-    if (delayedNotificationData.isSendImmediately()) {
-      return false;
+    final List<DelayedNotificationData> toBeDelayed = new ArrayList<>();
+    for (final DelayedNotificationData data : delayedNotificationData) {
+      final DelayedNotificationFrequency frequency = data.getChannel() == null ?
+          DelayedNotificationFrequency.NONE : frequencies
+          .getOrDefault(data.getChannel(), Collections.emptyMap())
+          .getOrDefault(data.getUserId(), DelayedNotificationFrequency.NONE);
+      if (isThatCanBeDelayed(data) && !DelayedNotificationFrequency.NONE.equals(frequency) &&
+          data.isValid()) {
+        toBeDelayed.add(data);
+      } else {
+        handleNewNotificationOf(data, () -> sendNotification(data.getNotificationData()));
+      }
     }
+    if (!toBeDelayed.isEmpty()) {
+      try {
+        getDelayedNotification().saveDelayedNotifications(toBeDelayed);
+      } catch (RuntimeException e) {
+        SilverLogger.getLogger(this).error(e);
+        for (final DelayedNotificationData data : toBeDelayed) {
+          handleNewNotificationOf(data,
+              () -> getDelayedNotification().saveDelayedNotification(data));
+        }
+      }
+    }
+  }
 
-    // The notification action has to be defined
-    if (delayedNotificationData.getAction() == null) {
-      return false;
+  private Map<NotifChannel, Map<Integer, DelayedNotificationFrequency>> getUserFrequencies(
+      final List<DelayedNotificationData> delayedNotificationData) {
+    final Map<NotifChannel, Map<Integer, DelayedNotificationFrequency>> frequencies =
+        new EnumMap<>(NotifChannel.class);
+    final Map<NotifChannel, Set<Integer>> userIdsByChannel = new EnumMap<>(NotifChannel.class);
+    delayedNotificationData.stream()
+        .filter(d -> d.getUserId() != null && d.getChannel() != null)
+        .filter(this::isThatCanBeDelayed)
+        .forEach(d -> userIdsByChannel.computeIfAbsent(d.getChannel(), c -> new HashSet<>())
+            .add(d.getUserId()));
+    userIdsByChannel.forEach((channel, userIds) -> frequencies.put(channel,
+        getDelayedNotification().getUserFrequencies(userIds, channel)));
+    return frequencies;
+  }
+
+  /**
+   * Handles the new notification of a single recipient. An unexpected error is logged so that
+   * the other recipients are notified all the same.
+   */
+  private void handleNewNotificationOf(final DelayedNotificationData data,
+      final NotificationHandling handling) throws NotificationServerException {
+    try {
+      handling.handle();
+    } catch (RuntimeException e) {
+      SilverLogger.getLogger(this)
+          .error("The notification to the user " + data.getUserId() + " through the channel " +
+              data.getChannel() + " failed", e);
     }
+  }
 
-    // The notification priority has to be different from URGENT or ERROR and the action type has to
-    // be set
-    if (NotificationParameters.PRIORITY_NORMAL !=
-        delayedNotificationData.getNotificationParameters().getMessagePriority()) {
+  @FunctionalInterface
+  private interface NotificationHandling {
+    void handle() throws NotificationServerException;
+  }
+
+  /**
+   * Checks if the notification has to be delayed or not
+   * @param delayedNotificationData the data about the notification to send.
+   * @return true if the notification can be delayed in the time.
+   */
+  private boolean isThatToBeDelayed(final DelayedNotificationData delayedNotificationData) {
+
+    // The notification has to be delayable
+    if (!isThatCanBeDelayed(delayedNotificationData)) {
       return false;
     }
 
@@ -225,6 +307,29 @@ public class DelayedNotificationDelegate implements NotificationURLProvider {
     return delayedNotificationData.isValid();
   }
 
+  /**
+   * Checks if the notification can be delayed whatever the frequency chosen by its recipient.
+   * @param delayedNotificationData the data about the notification to send.
+   * @return true if the notification can be delayed in the time.
+   */
+  private boolean isThatCanBeDelayed(final DelayedNotificationData delayedNotificationData) {
+
+    // The notification have to be sent immediately
+    if (delayedNotificationData.isSendImmediately()) {
+      return false;
+    }
+
+    // The notification action has to be defined
+    if (delayedNotificationData.getAction() == null) {
+      return false;
+    }
+
+    // The notification priority has to be different from URGENT or ERROR and the action type has to
+    // be set
+    return NotificationParameters.PRIORITY_NORMAL ==
+        delayedNotificationData.getNotificationParameters().getMessagePriority();
+  }
+
   /*
    * Delayed notifications
    */
@@ -24,6 +24,7 @@
 package org.silverpeas.core.notification.user.delayed.repository;
 
 import org.apache.commons.lang3.StringUtils;
+import org.hibernate.Session;
 import org.silverpeas.core.annotation.Repository;
 import org.silverpeas.core.notification.user.client.constant.NotifChannel;
 import org.silverpeas.core.notification.user.delayed.constant.DelayedNotificationFrequency;
@@ -48,6 +49,7 @@ public class DelayedNotificationDataJpaRepository
     implements DelayedNotificationDataRepository {
 
   private static final String CHANNELS = "channels";
+  private static final int JDBC_BATCH_SIZE = 50;
 
   @Override
   public List<Integer> findAllUsersToBeNotified(final Collection<Integer> aimedChannels) {
@@ -109,12 +111,57 @@ public class DelayedNotificationDataJpaRepository
     query.append(" d.userId = :")
         .append(namedParameters.add("userId", delayedNotification.getUserId())
             .getLastParameterName());
-    query.append(" and d.fromUserId = :")
-        .append(namedParameters.add("fromUserId", delayedNotification.getFromUserId())
-            .getLastParameterName());
     query.append(" and d.channel = :")
         .append(namedParameters.add("channel", delayedNotification.getChannel().getId())
             .getLastParameterName());
+    appendSameNotificationClauses(query, namedParameters, delayedNotification);
+
+    // Result
+    return listFromJpqlString(query.toString(), namedParameters, DelayedNotificationData.class);
+  }
+
+  @Override
+  public List<DelayedNotificationData> findDelayedNotifications(
+      final DelayedNotificationData delayedNotification, final Collection<Integer> userIds) {
+
+    // Parameters
+    NamedParameters namedParameters = newNamedParameters();
+
+    // Query
+    final StringBuilder query = new StringBuilder("select d from DelayedNotificationData d where");
+    query.append(" d.userId in (:")
+        .append(namedParameters.add("userIds", userIds).getLastParameterName())
+        .append(")");
+    appendSameNotificationClauses(query, namedParameters, delayedNotification);
+
+    // Result
+    return listFromJpqlString(query.toString(), namedParameters, DelayedNotificationData.class);
+  }
+
+  @Override
+  public void saveAndFlushInBatches(final List<DelayedNotificationData> delayedNotifications) {
+    // the batching is scoped to this flush and not set in the persistence unit so that the flush
+    // of the other entities isn't modified
+    final Session session = getEntityManager().unwrap(Session.class);
+    final Integer previousBatchSize = session.getJdbcBatchSize();
+    session.setJdbcBatchSize(JDBC_BATCH_SIZE);
+    try {
+      save(delayedNotifications);
+      flush();
+    } finally {
+      session.setJdbcBatchSize(previousBatchSize);
+    }
+  }
+
+  /**
+   * Appends the clauses matching the delayed notifications about the same event than the given
+   * one, whatever the user and the channel.
+   */
+  private void appendSameNotificationClauses(final StringBuilder query,
+      final NamedParameters namedParameters, final DelayedNotificationData delayedNotification) {
+    query.append(" and d.fromUserId = :")
+        .append(namedParameters.add("fromUserId", delayedNotification.getFromUserId())
+            .getLastParameterName());
     query.append(" and d.action = :")
         .append(namedParameters.add("action", delayedNotification.getAction().getId())
             .getLastParameterName());
@@ -141,8 +188,5 @@ public class DelayedNotificationDataJpaRepository
     } else {
       query.append(" and d.message is null");
     }
-
-    // Result
-    return listFromJpqlString(query.toString(), namedParameters, DelayedNotificationData.class);
   }
 }
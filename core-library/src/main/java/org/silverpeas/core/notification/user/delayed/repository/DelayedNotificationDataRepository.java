@@ -52,4 +52,14 @@ public interface DelayedNotificationDataRepository
   List<DelayedNotificationData> findDelayedNotification(
       DelayedNotificationData delayedNotification);
 
+  List<DelayedNotificationData> findDelayedNotifications(
+      DelayedNotificationData delayedNotification, Collection<Integer> userIds);
+
+  /**
+   * Saves the specified delayed notifications and flushes them in JDBC batches. The batching is
+   * enabled only for this flush.
+   * @param delayedNotifications the delayed notifications to save.
+   */
+  void saveAndFlushInBatches(List<DelayedNotificationData> delayedNotifications);
+
 }
@@ -27,6 +27,7 @@ import org.silverpeas.core.annotation.Repository;
 import org.silverpeas.core.notification.user.delayed.model.DelayedNotificationUserSetting;
 import org.silverpeas.core.persistence.datasource.repository.jpa.BasicJpaEntityRepository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -47,6 +48,13 @@ public class DelayedNotificationUserSettingJpaRepository
         newNamedParameters().add("userId", userId).add("channel", channel));
   }
 
+  @Override
+  public List<DelayedNotificationUserSetting> findByUserIdsAndChannel(
+      final Collection<Integer> userIds, final int channel) {
+    return listFromNamedQuery("DelayedNotificationUserSetting.findByUserIdsAndChannel",
+        newNamedParameters().add("userIds", userIds).add("channel", channel));
+  }
+
   public void deleteById(String id) {
     delete(getById(id));
   }
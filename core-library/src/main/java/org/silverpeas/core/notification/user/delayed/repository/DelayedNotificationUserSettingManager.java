@@ -25,6 +25,7 @@ package org.silverpeas.core.notification.user.delayed.repository;
 
 import org.silverpeas.core.notification.user.delayed.model.DelayedNotificationUserSetting;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -35,4 +36,7 @@ public interface DelayedNotificationUserSettingManager {
   List<DelayedNotificationUserSetting> findByUserId(int userId);
 
   List<DelayedNotificationUserSetting> findByUserIdAndChannel(int userId, int channel);
+
+  List<DelayedNotificationUserSetting> findByUserIdsAndChannel(Collection<Integer> userIds,
+      int channel);
 }
@@ -34,10 +34,13 @@ import org.silverpeas.core.subscription.SubscriptionResource;
 import org.silverpeas.core.subscription.SubscriptionResourceType;
 import org.silverpeas.core.subscription.SubscriptionSubscriber;
 import org.silverpeas.core.subscription.util.SubscriptionSubscriberList;
+import org.silverpeas.kernel.logging.SilverLogger;
 
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashSet;
+import java.util.LinkedHashSet;
 
+import static java.text.MessageFormat.format;
 import static org.silverpeas.core.subscription.SubscriptionServiceProvider.getSubscribeService;
 import static org.silverpeas.core.subscription.constant.CommonSubscriptionResourceConstants.COMPONENT;
 import static org.silverpeas.core.subscription.constant.CommonSubscriptionResourceConstants.NODE;
@@ -71,36 +74,81 @@ public abstract class AbstractResourceSubscriptionService implements ResourceSub
         subscriptionResource.getType(), subscriptionResource.getId(), directives);
   }
 
+  /**
+   * Gets the subscribers of the specified resource. All the subscription resources that are
+   * concerned by the specified one, that is to say the resource itself and those along its path
+   * up to its component instance, are first resolved with
+   * {@link #collectSubscriptionResources(String, SubscriptionResourceType, String, Collection,
+   * SubscriberDirective...)}, then the subscribers of all of them are fetched at once.
+   * @see ResourceSubscriptionService#getSubscribersOfComponentAndTypedResource(String,
+   * SubscriptionResourceType, String, SubscriberDirective...)
+   */
   @Override
   public SubscriptionSubscriberList getSubscribersOfComponentAndTypedResource(
       final String componentInstanceId, final SubscriptionResourceType resourceType,
       final String resourceId, final SubscriberDirective... directives) {
-    final Collection<SubscriptionSubscriber> subscribers = new HashSet<>();
+    final SubscriberResolutionStatistics statistics = SubscriberResolutionStatistics.get();
+    final long start = System.currentTimeMillis();
+    final Collection<SubscriptionResource> resources = new LinkedHashSet<>();
+    collectSubscriptionResources(componentInstanceId, resourceType, resourceId, resources,
+        directives);
+    final long pathResolutionEnd = System.currentTimeMillis();
+    statistics.getPathResolution().record(pathResolutionEnd - start);
+    if (resources.isEmpty()) {
+      return new SubscriptionSubscriberList();
+    }
+    final SubscriptionSubscriberList subscribers = getSubscribeService().getSubscribers(resources);
+    final long end = System.currentTimeMillis();
+    statistics.getSubscriptionsFetching().record(end - pathResolutionEnd);
+    SilverLogger.getLogger(this)
+        .debug(() -> format("{0} subscribers of {1} {2} in {3} found on {4} resources in {5}ms " +
+                "(path resolution {6}ms, subscriptions fetching {7}ms)", subscribers.size(),
+            resourceType, resourceId, componentInstanceId, resources.size(), end - start,
+            pathResolutionEnd - start, end - pathResolutionEnd));
+    return subscribers;
+  }
+
+  /**
+   * Collects all the subscription resources whose the subscribers are concerned by the specified
+   * resource. By default, the subscribers of a node are those of the node itself, of its parent
+   * nodes and of the component instance, and the subscribers of a component instance are those of
+   * the component instance itself. Nothing is collected about other types of resources: an
+   * explicit component implementation MUST exist for them.
+   * @param componentInstanceId the identifier of the component instance of the resource.
+   * @param resourceType the type of the resource.
+   * @param resourceId the identifier of the resource.
+   * @param resources the collection into which the subscription resources are collected.
+   * @param directives some directives about the resolution of the subscription resources.
+   */
+  protected void collectSubscriptionResources(final String componentInstanceId,
+      final SubscriptionResourceType resourceType, final String resourceId,
+      final Collection<SubscriptionResource> resources, final SubscriberDirective... directives) {
     if (NODE == resourceType) {
       final NodePath path = !"kmax".equals(componentInstanceId) ? getNodeService()
           .getPath(new NodePK(resourceId, componentInstanceId)) : null;
-      addAllSubscribersAboutNodePath(path, subscribers);
-      addAllSubscribersAboutComponentInstance(componentInstanceId, subscribers);
+      collectNodePath(path, resources);
+      resources.add(ComponentSubscriptionResource.from(componentInstanceId));
     } else if (COMPONENT == resourceType) {
-      addAllSubscribersAboutComponentInstance(componentInstanceId, subscribers);
+      resources.add(ComponentSubscriptionResource.from(componentInstanceId));
     } else {
       // nothing is done here about other types, explicit component implementation MUST exist.
     }
-    return new SubscriptionSubscriberList(subscribers);
   }
 
-  private void addAllSubscribersAboutComponentInstance(final String componentInstanceId,
+  protected void addAllSubscribersAboutNodePath(final NodePath nodePath,
       final Collection<SubscriptionSubscriber> subscribers) {
-    subscribers.addAll(getSubscribeService()
-        .getSubscribers(ComponentSubscriptionResource.from(componentInstanceId)));
+    final Collection<SubscriptionResource> resources = new ArrayList<>();
+    collectNodePath(nodePath, resources);
+    if (!resources.isEmpty()) {
+      subscribers.addAll(getSubscribeService().getSubscribers(resources));
+    }
   }
 
-  protected void addAllSubscribersAboutNodePath(final NodePath nodePath,
-      final Collection<SubscriptionSubscriber> subscribers) {
+  private void collectNodePath(final NodePath nodePath,
+      final Collection<SubscriptionResource> resources) {
     if (nodePath != null) {
       for (final NodeDetail node : nodePath) {
-        subscribers.addAll(getSubscribeService()
-            .getSubscribers(NodeSubscriptionResource.from(node.getNodePK())));
+        resources.add(NodeSubscriptionResource.from(node.getNodePK()));
       }
     }
   }
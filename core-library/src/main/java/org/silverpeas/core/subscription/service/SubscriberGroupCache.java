@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2000 - 2024 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.subscription.service;
+
+import org.silverpeas.core.admin.service.OrganizationControllerProvider;
+import org.silverpeas.core.annotation.Service;
+import org.silverpeas.core.notification.user.client.NotificationManagerSettings;
+import org.silverpeas.core.util.ServiceProvider;
+
+import javax.inject.Singleton;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache of the identifiers of all the users of the groups that are subscribers of resources. The
+ * users of a group is here the closure of the group membership, that is to say the users of the
+ * group and of all of its subgroups. Without such a cache, each resolution of the subscribers of a
+ * resource walks again the hierarchy of the subscribed groups and loads all of their users.
+ * <p>
+ * The user identifiers of a group are kept at most for the time to live set in the notification
+ * manager settings. A time to live of zero deactivates the cache. The whole cache is cleared at
+ * each change in the groups or in their users.
+ * </p>
+ * @author mmoquillon
+ */
+@Service
+@Singleton
+public class SubscriberGroupCache {
+
+  private final Map<String, CachedUserIds> cache = new ConcurrentHashMap<>();
+  private final AtomicLong generation = new AtomicLong(0);
+
+  public static SubscriberGroupCache get() {
+    return ServiceProvider.getService(SubscriberGroupCache.class);
+  }
+
+  /**
+   * Gets the distinct identifiers of all the users of the specified groups, including these of
+   * their subgroups.
+   * @param groupIds the unique identifiers of groups.
+   * @return a set with the identifiers of the users of the groups.
+   */
+  public Set<String> getAllUserIds(final Collection<String> groupIds) {
+    final long timeToLive = NotificationManagerSettings.getSubscriberGroupCacheTimeToLive();
+    final Set<String> userIds = new HashSet<>();
+    for (String groupId : groupIds) {
+      userIds.addAll(getAllUserIdsOfGroup(groupId, timeToLive));
+    }
+    return userIds;
+  }
+
+  /**
+   * Clears the cache. It is invoked each time a group or the users of a group are changed.
+   */
+  public void clear() {
+    generation.incrementAndGet();
+    cache.clear();
+  }
+
+  private Collection<String> getAllUserIdsOfGroup(final String groupId, final long timeToLive) {
+    if (timeToLive <= 0) {
+      return fetchAllUserIdsOfGroup(groupId);
+    }
+    final long now = System.currentTimeMillis();
+    CachedUserIds cached = cache.get(groupId);
+    if (cached == null || cached.isExpired(now, timeToLive)) {
+      final long currentGeneration = generation.get();
+      cached = new CachedUserIds(fetchAllUserIdsOfGroup(groupId), now);
+      cache.put(groupId, cached);
+      if (generation.get() != currentGeneration) {
+        // the groups have changed while fetching the users: the fetched ones can be outdated
+        cache.remove(groupId, cached);
+      }
+    }
+    return cached.userIds;
+  }
+
+  private Set<String> fetchAllUserIdsOfGroup(final String groupId) {
+    return new HashSet<>(
+        OrganizationControllerProvider.getOrganisationController().getAllUserIdsOfGroup(groupId));
+  }
+
+  private static class CachedUserIds {
+    private final Set<String> userIds;
+    private final long fetchingTime;
+
+    private CachedUserIds(final Set<String> userIds, final long fetchingTime) {
+      this.userIds = userIds;
+      this.fetchingTime = fetchingTime;
+    }
+
+    private boolean isExpired(final long now, final long timeToLive) {
+      return now - fetchingTime >= timeToLive;
+    }
+  }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2000 - 2024 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.subscription.service;
+
+import org.silverpeas.core.util.ExecutionStatistics;
+
+/**
+ * Statistics about the resolution of the subscribers of resources, stage by stage: the
+ * resolution of the resources along the path of the subscription resource (the folders up to the
+ * component instance for example), the fetching of the subscriptions on these resources and the
+ * expansion of the subscribed groups into their users.
+ * @author mmoquillon
+ */
+public class SubscriberResolutionStatistics {
+
+  private static final SubscriberResolutionStatistics instance =
+      new SubscriberResolutionStatistics();
+
+  private final ExecutionStatistics pathResolution =
+      new ExecutionStatistics("subscription resource path resolution");
+  private final ExecutionStatistics subscriptionsFetching =
+      new ExecutionStatistics("subscriptions fetching");
+  private final ExecutionStatistics groupsExpansion =
+      new ExecutionStatistics("subscriber groups expansion");
+
+  private SubscriberResolutionStatistics() {
+  }
+
+  public static SubscriberResolutionStatistics get() {
+    return instance;
+  }
+
+  /**
+   * Gets the statistics about the resolution of the resources along the path of the
+   * subscription resources.
+   * @return the statistics of the path resolution stage.
+   */
+  public ExecutionStatistics getPathResolution() {
+    return pathResolution;
+  }
+
+  /**
+   * Gets the statistics about the fetching of the subscribers from the data source.
+   * @return the statistics of the subscriptions fetching stage.
+   */
+  public ExecutionStatistics getSubscriptionsFetching() {
+    return subscriptionsFetching;
+  }
+
+  /**
+   * Gets the statistics about the expansion of the subscribed groups into their users.
+   * @return the statistics of the groups expansion stage.
+   */
+  public ExecutionStatistics getGroupsExpansion() {
+    return groupsExpansion;
+  }
+
+  /**
+   * Resets the statistics of all the stages.
+   */
+  public void reset() {
+    pathResolution.reset();
+    subscriptionsFetching.reset();
+    groupsExpansion.reset();
+  }
+
+  @Override
+  public String toString() {
+    return pathResolution + "; " + subscriptionsFetching + "; " + groupsExpansion;
+  }
+}
@@ -35,6 +35,7 @@ import org.silverpeas.core.subscription.constant.SubscriberType;
 import org.silverpeas.core.subscription.constant.SubscriptionMethod;
 import org.silverpeas.core.subscription.util.SubscriptionList;
 import org.silverpeas.core.subscription.util.SubscriptionSubscriberList;
+import org.silverpeas.core.util.CollectionUtil;
 import org.silverpeas.core.util.DateUtil;
 import org.silverpeas.kernel.util.StringUtil;
 import org.silverpeas.kernel.logging.SilverLogger;
@@ -48,7 +49,9 @@ import java.sql.Timestamp;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 
 import static org.silverpeas.core.subscription.constant.CommonSubscriptionResourceConstants.UNKNOWN;
@@ -328,39 +331,61 @@ public class SubscriptionDao {
   }
 
   /**
-   * Method declaration
-   * @param con
-   * @param resources
-   * @param method
-   * @return
-   * @throws SQLException
+   * Gets the subscribers of all the given resources. The subscriptions are fetched by lots of
+   * resources, each lot with only one query, so that the subscribers of all the resources along a
+   * path (the nodes of a folder path and the component instance for example) are got at once.
+   * @param con the connection to the data source.
+   * @param resources the resources for which the subscribers are requested.
+   * @param method the subscription method to filter on, or null or
+   * {@link SubscriptionMethod#UNKNOWN} for all of them.
+   * @return the distinct subscribers of the given resources.
+   * @throws SQLException on data source access error.
    */
   public SubscriptionSubscriberList getSubscribers(Connection con,
       Collection<? extends SubscriptionResource> resources, SubscriptionMethod method)
       throws SQLException {
 
     Set<SubscriptionSubscriber> result = new HashSet<>();
-    for (SubscriptionResource resource : resources) {
-      findSubscribers(con, resource, result, method);
+    for (Collection<? extends SubscriptionResource> lot : CollectionUtil.split(resources)) {
+      findSubscribers(con, lot, result, method);
     }
     return new SubscriptionSubscriberList(result);
   }
 
   /**
-   * Centralized method.
-   * @param con
-   * @param resource
-   * @param result
-   * @param method
-   * @throws SQLException
+   * Centralized method. The resources are grouped by component instance and by resource type in
+   * order to select all their subscriptions with only one query.
+   * @param con the connection to the data source.
+   * @param resources the resources for which the subscribers are requested.
+   * @param result the collection into which the subscribers are added.
+   * @param method the subscription method to filter on, if any.
+   * @throws SQLException on data source access error.
    */
-  private void findSubscribers(Connection con, SubscriptionResource resource,
+  private void findSubscribers(Connection con, Collection<? extends SubscriptionResource> resources,
       Collection<SubscriptionSubscriber> result, SubscriptionMethod method) throws SQLException {
+    final Map<String, Map<String, Set<String>>> resourceIdsByInstanceAndType = new HashMap<>();
+    for (SubscriptionResource resource : resources) {
+      resourceIdsByInstanceAndType.computeIfAbsent(resource.getInstanceId(), i -> new HashMap<>())
+          .computeIfAbsent(resource.getType().getName(), t -> new HashSet<>())
+          .add(resource.getId());
+    }
+    if (resourceIdsByInstanceAndType.isEmpty()) {
+      return;
+    }
     JdbcSqlQuery query = JdbcSqlQuery.select("subscriberId, subscriberType")
-        .from(SUBSCRIBE_TABLE)
-        .where(RESOURCE_ID_CLAUSE, resource.getId())
-        .and(RESOURCE_TYPE_CLAUSE, resource.getType().getName())
-        .and(INSTANCE_ID_CLAUSE, resource.getInstanceId());
+        .from(SUBSCRIBE_TABLE);
+    String operator = "WHERE ((";
+    for (Map.Entry<String, Map<String, Set<String>>> byInstance :
+        resourceIdsByInstanceAndType.entrySet()) {
+      for (Map.Entry<String, Set<String>> byType : byInstance.getValue().entrySet()) {
+        query = query.addSqlPart(operator + INSTANCE_ID_CLAUSE, byInstance.getKey())
+            .and(RESOURCE_TYPE_CLAUSE, byType.getKey())
+            .and(RESOURCE_ID).in(byType.getValue())
+            .addSqlPart(")");
+        operator = "OR (";
+      }
+    }
+    query = query.addSqlPart(")");
     if (method != null && !SubscriptionMethod.UNKNOWN.equals(method)) {
       query = query.and(SUBSCRIPTION_METHOD_CLAUSE, method.getName());
     }
@@ -23,12 +23,11 @@
  */
 package org.silverpeas.core.subscription.util;
 
-import org.silverpeas.core.admin.user.model.User;
 import org.silverpeas.core.subscription.SubscriptionSubscriber;
 import org.silverpeas.core.admin.user.model.UserDetail;
-import org.silverpeas.core.admin.service.OrganizationController;
-import org.silverpeas.core.admin.service.OrganizationControllerProvider;
 import org.silverpeas.core.subscription.constant.SubscriberType;
+import org.silverpeas.core.subscription.service.SubscriberGroupCache;
+import org.silverpeas.core.subscription.service.SubscriberResolutionStatistics;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -91,13 +90,11 @@ public class SubscriptionSubscriberList extends ArrayList<SubscriptionSubscriber
 
     // Retrieving users from groups if any
     if (!groupIds.isEmpty()) {
-      final OrganizationController organisationController =
-          OrganizationControllerProvider.getOrganisationController();
-      for (String groupId : groupIds) {
-        for (User user : organisationController.getAllUsersOfGroup(groupId)) {
-          allUserSubscriberIds.add(user.getId());
-        }
-      }
+      final long start = System.currentTimeMillis();
+      allUserSubscriberIds.addAll(SubscriberGroupCache.get().getAllUserIds(groupIds));
+      SubscriberResolutionStatistics.get()
+          .getGroupsExpansion()
+          .record(System.currentTimeMillis() - start);
     }
 
     // Result
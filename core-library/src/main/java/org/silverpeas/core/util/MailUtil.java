@@ -50,11 +50,19 @@ public class MailUtil {
   public static final String SMTP_PASSWORD = "SMTPPwd";
   public static final String SMTP_DEBUG = "SMTPDebug";
   public static final String SMTP_SECURE = "SMTPSecure";
+  public static final String SMTP_POOL_SIZE = "SMTPPoolSize";
+  public static final String SMTP_POOL_IDLE_TIMEOUT = "SMTPPoolIdleTimeout";
+  public static final String SMTP_POOL_MAX_MESSAGES = "SMTPPoolMaxMessagesPerConnection";
+  public static final String SMTP_SEND_PARALLELISM = "SMTPSendParallelism";
   private static final String mailhost;
   private static final boolean authenticated;
   private static final boolean secure;
   private static final boolean debug;
   private static final int port;
+  private static final int poolSize;
+  private static final long poolIdleTimeout;
+  private static final int poolMaxMessages;
+  private static final int sendParallelism;
   private static final String login;
   private static final String password;
   private static final String notificationAddress;
@@ -72,6 +80,10 @@ public class MailUtil {
     password = configuration.getString(SMTP_PASSWORD);
     debug = configuration.getBoolean(SMTP_DEBUG, false);
     secure = configuration.getBoolean(SMTP_SECURE, false);
+    poolSize = configuration.getInteger(SMTP_POOL_SIZE, 0);
+    poolIdleTimeout = configuration.getLong(SMTP_POOL_IDLE_TIMEOUT, 30000);
+    poolMaxMessages = configuration.getInteger(SMTP_POOL_MAX_MESSAGES, 100);
+    sendParallelism = Math.max(1, configuration.getInteger(SMTP_SEND_PARALLELISM, 1));
     notificationAddress = configuration.getString("NotificationAddress");
     notificationPersonalName = configuration.getString("NotificationPersonalName");
     forceReplyToSenderField = configuration.getBoolean("ForceReplyToSenderField", false);
@@ -163,6 +175,39 @@ public class MailUtil {
     return secure;
   }
 
+  /**
+   * Gets the maximum number of SMTP connections kept opened to be reused from one mail sending to
+   * another.
+   * @return the size of the SMTP connection pool. 0 means a connection is opened for each mail.
+   */
+  public static int getPoolSize() {
+    return poolSize;
+  }
+
+  /**
+   * Gets the time in milliseconds an unused SMTP connection is kept opened in the pool.
+   * @return the idle timeout of the pooled SMTP connections.
+   */
+  public static long getPoolIdleTimeout() {
+    return poolIdleTimeout;
+  }
+
+  /**
+   * Gets the maximum number of mails sent through a same pooled SMTP connection before closing it.
+   * @return the maximum number of mails sent per SMTP connection.
+   */
+  public static int getPoolMaxMessagesPerConnection() {
+    return poolMaxMessages;
+  }
+
+  /**
+   * Gets the maximum number of mails sent at the same time.
+   * @return the mail sending parallelism, at least 1.
+   */
+  public static int getSendParallelism() {
+    return sendParallelism;
+  }
+
   private MailUtil() {
   }
 }
@@ -0,0 +1,128 @@
+/*
+ * Copyright (C) 2000 - 2024 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.admin.service.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.silverpeas.kernel.test.UnitTest;
+
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Unit tests on the in-memory matrix of the accesses on the component instances.
+ * @author mmoquillon
+ */
+@UnitTest
+class ComponentAccessMatrixTest {
+
+  private ComponentAccessMatrix matrix;
+
+  @BeforeEach
+  void setUpMatrix() {
+    matrix = new ComponentAccessMatrix();
+    matrix.putComponent(1, "kmelia", false);
+    matrix.putComponent(2, "kmelia", false);
+    matrix.putComponent(3, "almanach", true);
+    matrix.putComponent(4, "blog", false);
+    matrix.grantUser(10, 1);
+    matrix.grantGroup(100, 2);
+    matrix.grantGroup(101, 4);
+  }
+
+  @Test
+  void publicComponentsAreAlwaysAllowed() {
+    List<String> ids = matrix.getAllowedComponentIds(42, emptyList(), null);
+    assertThat(ids, contains("almanach3"));
+  }
+
+  @Test
+  void componentsAreAllowedDirectlyOrThroughTheGroups() {
+    List<String> ids = matrix.getAllowedComponentIds(10, asList("100", "101"), null);
+    assertThat(ids, containsInAnyOrder("kmelia1", "kmelia2", "almanach3", "blog4"));
+  }
+
+  @Test
+  void onlyGroupsAreTakenIntoAccountWithoutUser() {
+    List<String> ids = matrix.getAllowedComponentIds(-1, singletonList("100"), null);
+    assertThat(ids, containsInAnyOrder("kmelia2", "almanach3"));
+  }
+
+  @Test
+  void componentsAreFilteredByTheirApplicationName() {
+    List<String> ids = matrix.getAllowedComponentIds(10, asList("100", "101"), "kmelia");
+    assertThat(ids, containsInAnyOrder("kmelia1", "kmelia2"));
+  }
+
+  @Test
+  void removedComponentIsNoMoreAllowed() {
+    matrix.removeComponent(2);
+    List<String> ids = matrix.getAllowedComponentIds(10, asList("100", "101"), null);
+    assertThat(ids, containsInAnyOrder("kmelia1", "almanach3", "blog4"));
+  }
+
+  @Test
+  void removedGroupOrUserHasNoMoreRights() {
+    matrix.removeGroup(100);
+    matrix.removeUser(10);
+    List<String> ids = matrix.getAllowedComponentIds(10, asList("100", "101"), null);
+    assertThat(ids, containsInAnyOrder("almanach3", "blog4"));
+  }
+
+  @Test
+  void accessesAreComputedForEachUserInALargeOrganization() {
+    final int nbComponents = 5000;
+    final int nbUsers = 50000;
+    final int nbGroups = 500;
+    final ComponentAccessMatrix large = new ComponentAccessMatrix();
+    for (int i = 1; i <= nbComponents; i++) {
+      large.putComponent(i, "kmelia", i % 100 == 0);
+    }
+    for (int u = 1; u <= nbUsers; u++) {
+      large.grantUser(u, 1 + (u % nbComponents));
+    }
+    for (int g = 1; g <= nbGroups; g++) {
+      for (int i = g; i <= nbComponents; i += nbGroups) {
+        large.grantGroup(g, i);
+      }
+    }
+    final List<String> groups = asList("1", "2", "3");
+    for (int u = 1; u <= nbUsers; u++) {
+      final List<String> ids = large.getAllowedComponentIds(u, groups, null);
+      // 50 public + 3 * 10 through the groups, plus the one granted directly when it isn't
+      // already granted through one of the groups
+      final int directlyGranted = 1 + (u % nbComponents);
+      final boolean grantedByGroup = directlyGranted % nbGroups >= 1 &&
+          directlyGranted % nbGroups <= 3;
+      final boolean isPublic = directlyGranted % 100 == 0;
+      final int expected = 80 + (grantedByGroup || isPublic ? 0 : 1);
+      assertThat("user " + u, ids, hasSize(expected));
+    }
+  }
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright (C) 2000 - 2024 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.contribution.attachment.repository;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.silverpeas.core.test.unit.extention.JEETestContext;
+import org.silverpeas.core.util.file.FileRepositoryManager;
+import org.silverpeas.kernel.test.extension.EnableSilverTestEnv;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Unit tests about the content-addressed blob store of the attachments.
+ * @author mmoquillon
+ */
+@EnableSilverTestEnv(context = JEETestContext.class)
+class ContentBlobStoreTest {
+
+  private static final String CONTENT = "The content of an attachment";
+
+  private Path uploads;
+  private ContentBlobStore blobStore;
+
+  @BeforeEach
+  void setup() throws IOException {
+    uploads = new File(FileRepositoryManager.getTemporaryPath(), "uploads").toPath();
+    FileUtils.deleteQuietly(uploads.toFile());
+    Files.createDirectories(uploads);
+    blobStore = new ContentBlobStore(uploads.resolve("blobstore"), uploads, true);
+    assumeTrue(blobStore.isEnabled(), "POSIX file system required");
+  }
+
+  @AfterEach
+  void cleanUp() {
+    FileUtils.deleteQuietly(uploads.toFile());
+  }
+
+  @Test
+  void identicalContentsAreStoredOnce() throws IOException {
+    final File first = document("kmelia1", "simpledoc_1", "file.txt");
+    final File second = document("kmelia2", "simpledoc_2", "copy.txt");
+    assertThat(blobStore.store(stream(CONTENT), first, null), is((long) CONTENT.length()));
+    blobStore.store(stream(CONTENT), second, null);
+
+    assertThat(Files.isSameFile(first.toPath(), second.toPath()), is(true));
+    assertThat(FileUtils.readFileToString(second, StandardCharsets.UTF_8), is(CONTENT));
+    final ContentBlobStoreReport report = blobStore.report();
+    assertThat(report.getBlobCount(), is(1L));
+    assertThat(report.getReferenceCount(), is(2L));
+    assertThat(report.getSavedSize(), is((long) CONTENT.length()));
+  }
+
+  @Test
+  void copyingADirectorySharesItsFiles() throws IOException {
+    final File source = document("kmelia1", "simpledoc_1", "file.txt");
+    FileUtils.writeStringToFile(source, CONTENT, StandardCharsets.UTF_8);
+    final File copyDirectory = uploads.resolve("kmelia2").resolve("simpledoc_2").toFile();
+
+    blobStore.copy(source.getParentFile().getParentFile().getParentFile(), copyDirectory);
+
+    final File copy = new File(copyDirectory, "0_0/fr/file.txt");
+    assertThat(Files.isSameFile(source.toPath(), copy.toPath()), is(true));
+    assertThat(blobStore.report().getReferenceCount(), is(2L));
+  }
+
+  @Test
+  void aDetachedFileCanBeRewrittenWithoutModifyingTheSharedContent() throws IOException {
+    final File first = document("kmelia1", "simpledoc_1", "file.txt");
+    final File second = document("kmelia1", "simpledoc_2", "file.txt");
+    blobStore.store(stream(CONTENT), first, null);
+    blobStore.copy(first, second);
+
+    blobStore.detach(second);
+    FileUtils.writeStringToFile(second, "Another content", StandardCharsets.UTF_8);
+
+    assertThat(FileUtils.readFileToString(first, StandardCharsets.UTF_8), is(CONTENT));
+    assertThat(blobStore.report().getReferenceCount(), is(1L));
+  }
+
+  @Test
+  void aFileStoredBeforeTheStoreIsDisabledIsDetachedBeforeBeingRewritten() throws IOException {
+    final File first = document("kmelia1", "simpledoc_1", "file.txt");
+    final File second = document("kmelia2", "simpledoc_2", "file.txt");
+    blobStore.store(stream(CONTENT), first, null);
+    blobStore.store(stream(CONTENT), second, null);
+
+    final ContentBlobStore disabledStore =
+        new ContentBlobStore(blobStore.getRoot(), uploads, false);
+    assertThat(disabledStore.isEnabled(), is(false));
+    disabledStore.detach(second);
+    FileUtils.copyInputStreamToFile(stream("Another content"), second);
+
+    assertThat(FileUtils.readFileToString(second, StandardCharsets.UTF_8), is("Another content"));
+    assertThat(FileUtils.readFileToString(first, StandardCharsets.UTF_8), is(CONTENT));
+    assertThat(Files.isSameFile(first.toPath(), second.toPath()), is(false));
+    assertThat(blobStore.report().getReferenceCount(), is(1L));
+  }
+
+  @Test
+  void theBlobsNotReferredAnymoreAreSwept() throws IOException {
+    final File first = document("kmelia1", "simpledoc_1", "file.txt");
+    final File second = document("kmelia1", "simpledoc_2", "other.txt");
+    blobStore.store(stream(CONTENT), first, null);
+    blobStore.store(stream("Another content"), second, null);
+    Files.delete(second.toPath());
+
+    final ContentBlobStoreReport report = blobStore.sweep();
+
+    assertThat(report.getSweptBlobCount(), is(1L));
+    assertThat(report.getBlobCount(), is(1L));
+    assertThat(FileUtils.readFileToString(first, StandardCharsets.UTF_8), is(CONTENT));
+  }
+
+  @Test
+  void theExistingFilesAreMigratedIntoTheStore() throws IOException {
+    final File first = document("kmelia1", "simpledoc_1", "file.txt");
+    final File second = document("kmelia2", "simpledoc_2", "file.txt");
+    final File notADocument = uploads.resolve("kmelia1").resolve("images").resolve("a.txt")
+        .toFile();
+    FileUtils.writeStringToFile(first, CONTENT, StandardCharsets.UTF_8);
+    FileUtils.writeStringToFile(second, CONTENT, StandardCharsets.UTF_8);
+    FileUtils.writeStringToFile(notADocument, CONTENT, StandardCharsets.UTF_8);
+
+    final ContentBlobStoreReport report = blobStore.migrate(uploads);
+
+    assertThat(report.getMigratedFileCount(), is(2L));
+    assertThat(report.getBlobCount(), is(1L));
+    assertThat(report.getSavedSize(), is((long) CONTENT.length()));
+    assertThat(Files.isSameFile(first.toPath(), second.toPath()), is(true));
+    assertThat(Files.isSameFile(first.toPath(), notADocument.toPath()), is(false));
+  }
+
+  private File document(final String instanceId, final String nodeName, final String fileName) {
+    return uploads.resolve(instanceId)
+        .resolve(nodeName)
+        .resolve("0_0")
+        .resolve("fr")
+        .resolve(fileName)
+        .toFile();
+  }
+
+  private static ByteArrayInputStream stream(final String content) {
+    return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+  }
+}
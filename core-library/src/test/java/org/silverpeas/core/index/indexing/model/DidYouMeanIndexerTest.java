@@ -0,0 +1,197 @@
+/*
+ * Copyright (C) 2000 - 2024 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.index.indexing.model;
+
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.search.spell.SpellChecker;
+import org.apache.lucene.store.FSDirectory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.silverpeas.core.test.unit.extention.JEETestContext;
+import org.silverpeas.core.util.file.FileUtil;
+import org.silverpeas.kernel.test.extension.EnableSilverTestEnv;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.arrayContaining;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Unit tests on the update of the spelling indexes of the "did you mean" functionality by the
+ * background job.
+ * @author mmoquillon
+ */
+@EnableSilverTestEnv(context = JEETestContext.class)
+class DidYouMeanIndexerTest {
+
+  private static final int NB_RUNS = 20;
+
+  private File directory;
+  private String indexPath;
+  private final DidYouMeanIndexingScheduler.DidYouMeanIndexingJob job =
+      new DidYouMeanIndexingScheduler.DidYouMeanIndexingJob();
+
+  @BeforeEach
+  void createIndex() throws IOException {
+    directory = Files.createTempDirectory("dym-indexes").toFile();
+    indexPath = new File(directory, "kmelia1").getPath();
+    index("silverpeas collaborative platform");
+  }
+
+  @AfterEach
+  void deleteIndexes() throws IOException {
+    // consumes any index marked as changed by a test
+    job.execute(null);
+    FileUtil.forceDeletion(directory);
+  }
+
+  @Test
+  void theSpellingIndexOfAChangedIndexIsUpdatedByTheJob() throws IOException {
+    DidYouMeanIndexer.indexChanged(indexPath);
+    job.execute(null);
+    assertThat(suggest("silverpaes"), arrayContaining("silverpeas"));
+    assertThat(suggest("workflaw").length, is(0));
+
+    index("workflow engine");
+    DidYouMeanIndexer.indexChanged(indexPath);
+    job.execute(null);
+    assertThat(suggest("workflaw"), arrayContaining("workflow"));
+    assertThat(suggest("silverpaes"), arrayContaining("silverpeas"));
+  }
+
+  @Test
+  void theSpellingIndexOfAnUnchangedIndexIsNotUpdatedByTheJob() {
+    job.execute(null);
+    assertThat(new File(indexPath + "Spell").exists(), is(false));
+  }
+
+  @Test
+  void explicitCreationsAndJobRunsOfTheSameSpellingIndexAreSerialized() throws Exception {
+    final CountDownLatch start = new CountDownLatch(1);
+    final ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      final List<Future<?>> tasks = new ArrayList<>();
+      tasks.add(executor.submit(() -> {
+        start.await();
+        for (int i = 0; i < NB_RUNS; i++) {
+          DidYouMeanIndexer.createSpellIndexForAllLanguage(IndexManager.CONTENT, indexPath);
+        }
+        return null;
+      }));
+      tasks.add(executor.submit(() -> {
+        start.await();
+        for (int i = 0; i < NB_RUNS; i++) {
+          DidYouMeanIndexer.indexChanged(indexPath);
+          job.execute(null);
+        }
+        return null;
+      }));
+      start.countDown();
+      for (Future<?> task : tasks) {
+        task.get(2, TimeUnit.MINUTES);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    // no writer of the spelling index has been left locked by a concurrent update
+    index("workflow engine");
+    DidYouMeanIndexer.indexChanged(indexPath);
+    job.execute(null);
+    assertThat(suggest("silverpaes"), arrayContaining("silverpeas"));
+    assertThat(suggest("workflaw"), arrayContaining("workflow"));
+  }
+
+  @Test
+  void aSpellingIndexFedFromTheFieldsAsFormerlyNamedIsCompletedWithAllTheLanguages()
+      throws IOException {
+    index(IndexManager.CONTENT + "_de", "kraftfahrzeug");
+    // formerly, the language suffixes were accumulated: content, content_en, content_en_de
+    DidYouMeanIndexer.createSpellIndex(IndexManager.CONTENT, indexPath);
+    DidYouMeanIndexer.createSpellIndex(IndexManager.CONTENT + "_en", indexPath);
+    DidYouMeanIndexer.createSpellIndex(IndexManager.CONTENT + "_en_de", indexPath);
+    assertThat(suggest("kraftfahrzeuk").length, is(0));
+
+    DidYouMeanIndexer.markOutdatedSpellIndexes(directory.toPath());
+    job.execute(null);
+
+    assertThat(suggest("kraftfahrzeuk"), arrayContaining("kraftfahrzeug"));
+    assertThat(suggest("silverpaes"), arrayContaining("silverpeas"));
+    assertThat(new File(indexPath + "Spell", DidYouMeanIndexer.LOCALIZED_FIELDS_MARKER).exists(),
+        is(true));
+  }
+
+  @Test
+  void aRebuiltSpellingIndexHasTheWordsOfAllTheLanguages() throws IOException {
+    index(IndexManager.CONTENT + "_en", "workflow engine");
+    index(IndexManager.CONTENT + "_de", "kraftfahrzeug");
+    DidYouMeanIndexer.indexChanged(indexPath);
+    DidYouMeanIndexer.updateSpellIndexesOfChangedIndexes(IndexManager.CONTENT, 1);
+    assertThat(suggest("silverpaes"), arrayContaining("silverpeas"));
+    assertThat(suggest("workflaw"), arrayContaining("workflow"));
+    assertThat(suggest("kraftfahrzeuk"), arrayContaining("kraftfahrzeug"));
+
+    // rebuilt again from an already fed spelling index
+    DidYouMeanIndexer.indexChanged(indexPath);
+    DidYouMeanIndexer.updateSpellIndexesOfChangedIndexes(IndexManager.CONTENT, 1);
+    assertThat(suggest("silverpaes"), arrayContaining("silverpeas"));
+    assertThat(suggest("workflaw"), arrayContaining("workflow"));
+    assertThat(suggest("kraftfahrzeuk"), arrayContaining("kraftfahrzeug"));
+  }
+
+  private void index(final String content) throws IOException {
+    index(IndexManager.CONTENT, content);
+  }
+
+  private void index(final String field, final String content) throws IOException {
+    try (FSDirectory index = FSDirectory.open(new File(indexPath).toPath());
+         IndexWriter writer = new IndexWriter(index, new IndexWriterConfig(new StandardAnalyzer()))) {
+      final Document doc = new Document();
+      doc.add(new TextField(field, content, Field.Store.NO));
+      writer.addDocument(doc);
+    }
+  }
+
+  private String[] suggest(final String word) throws IOException {
+    try (FSDirectory spellIndex = FSDirectory.open(new File(indexPath + "Spell").toPath());
+         SpellChecker spellChecker = new SpellChecker(spellIndex)) {
+      return spellChecker.suggestSimilar(word, 1);
+    }
+  }
+}
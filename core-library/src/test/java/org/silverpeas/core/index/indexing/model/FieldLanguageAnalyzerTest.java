@@ -0,0 +1,73 @@
+/*
+ * Copyright (C) 2000 - 2024 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.index.indexing.model;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.junit.jupiter.api.Test;
+import org.silverpeas.kernel.test.UnitTest;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+
+/**
+ * Unit tests on the analysis of each field of the indexed documents in its own language.
+ * @author mmoquillon
+ */
+@UnitTest
+class FieldLanguageAnalyzerTest {
+
+  private final Map<String, Analyzer> analyzers = new HashMap<>();
+  private final FieldLanguageAnalyzer fieldAnalyzer =
+      new FieldLanguageAnalyzer(l -> analyzers.computeIfAbsent(l, k -> new StandardAnalyzer()));
+
+  @Test
+  void theLanguageOfAFieldIsGivenByTheSuffixOfItsName() {
+    assertThat(FieldLanguageAnalyzer.getLanguage(IndexManager.CONTENT + "_en"), is("en"));
+    assertThat(FieldLanguageAnalyzer.getLanguage(IndexManager.TITLE + "_de"), is("de"));
+  }
+
+  @Test
+  void aFieldWithoutAnyLanguageSuffixIsInTheDefaultLanguage() {
+    assertThat(FieldLanguageAnalyzer.getLanguage(IndexManager.CONTENT), is(""));
+    assertThat(FieldLanguageAnalyzer.getLanguage(IndexManager.THUMBNAIL_MIMETYPE), is(""));
+    assertThat(FieldLanguageAnalyzer.getLanguage("form_field"), is(""));
+    assertThat(FieldLanguageAnalyzer.getLanguage("form_xx"), is(""));
+  }
+
+  @Test
+  void eachFieldIsAnalyzedByTheAnalyzerOfItsLanguage() {
+    final Analyzer english = fieldAnalyzer.getWrappedAnalyzer(IndexManager.CONTENT + "_en");
+    final Analyzer german = fieldAnalyzer.getWrappedAnalyzer(IndexManager.CONTENT + "_de");
+    final Analyzer byDefault = fieldAnalyzer.getWrappedAnalyzer(IndexManager.CONTENT);
+    assertThat(english, sameInstance(analyzers.get("en")));
+    assertThat(german, sameInstance(analyzers.get("de")));
+    assertThat(byDefault, sameInstance(analyzers.get("")));
+    assertThat(fieldAnalyzer.getWrappedAnalyzer(IndexManager.TITLE + "_en"), sameInstance(english));
+  }
+}
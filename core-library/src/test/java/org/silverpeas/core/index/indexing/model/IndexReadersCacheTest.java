@@ -0,0 +1,177 @@
+/*
+ * Copyright (C) 2000 - 2024 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.index.indexing.model;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.store.FSDirectory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.silverpeas.core.test.unit.extention.JEETestContext;
+import org.silverpeas.core.util.file.FileUtil;
+import org.silverpeas.kernel.test.annotations.TestManagedMock;
+import org.silverpeas.kernel.test.extension.EnableSilverTestEnv;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Optional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests on the life-cycle of the index readers shared and reference-counted among the
+ * searches.
+ * @author mmoquillon
+ */
+@EnableSilverTestEnv(context = JEETestContext.class)
+class IndexReadersCacheTest {
+
+  @TestManagedMock
+  private IndexManager indexManager;
+
+  private File directory;
+  private String indexPath;
+
+  @BeforeEach
+  void createIndex() throws IOException {
+    directory = Files.createTempDirectory("index-readers").toFile();
+    indexPath = new File(directory, "kmelia1").getPath();
+    try (IndexWriter writer = openWriter()) {
+      writer.addDocument(document("doc1"));
+    }
+    when(indexManager.getOpenedIndexWriter(indexPath)).thenReturn(Optional.empty());
+  }
+
+  @AfterEach
+  void deleteIndex() {
+    IndexReadersCache.closeAllIndexReaders();
+    FileUtils.deleteQuietly(directory);
+  }
+
+  @Test
+  void theReferenceCountIsBalancedAcrossAcquiresAndReleases() {
+    final IndexReader reader = IndexReadersCache.acquireIndexReader(indexPath);
+    // one reference for the cache and one for the search
+    assertThat(reader.getRefCount(), is(2));
+    final IndexReader sameReader = IndexReadersCache.acquireIndexReader(indexPath);
+    assertThat(sameReader, sameInstance(reader));
+    assertThat(reader.getRefCount(), is(3));
+
+    IndexReadersCache.releaseIndexReader(sameReader);
+    IndexReadersCache.releaseIndexReader(reader);
+    assertThat(reader.getRefCount(), is(1));
+
+    IndexReadersCache.closeIndexReader(indexPath);
+    assertThat(reader.getRefCount(), is(0));
+  }
+
+  @Test
+  void aRefreshSwapsTheReaderAndClosesTheOldOneOnlyAfterItsLastRelease() throws IOException {
+    final IndexReader oldReader = IndexReadersCache.acquireIndexReader(indexPath);
+    try (IndexWriter writer = openWriter()) {
+      writer.addDocument(document("doc2"));
+    }
+
+    IndexReadersCache.refreshIndexReader(indexPath);
+
+    final IndexReader newReader = IndexReadersCache.acquireIndexReader(indexPath);
+    assertThat(newReader, not(sameInstance(oldReader)));
+    assertThat(newReader.numDocs(), is(2));
+    // the old reader is still usable by the search that acquired it
+    assertThat(oldReader.getRefCount(), is(1));
+    assertThat(oldReader.numDocs(), is(1));
+
+    IndexReadersCache.releaseIndexReader(oldReader);
+    assertThat(oldReader.getRefCount(), is(0));
+    IndexReadersCache.releaseIndexReader(newReader);
+    assertThat(newReader.getRefCount(), is(1));
+  }
+
+  @Test
+  void closingTheWriterReleasesTheReaderOpenedFromIt() throws IOException {
+    final IndexWriter writer = openWriter();
+    when(indexManager.getOpenedIndexWriter(indexPath)).thenReturn(Optional.of(writer));
+    writer.addDocument(document("doc2"));
+    final IndexReader nrtReader = IndexReadersCache.acquireIndexReader(indexPath);
+    // the reader opened from the live writer sees the uncommitted changes
+    assertThat(nrtReader.numDocs(), is(2));
+    IndexReadersCache.releaseIndexReader(nrtReader);
+
+    writer.addDocument(document("doc3"));
+    writer.close();
+    IndexReadersCache.refreshIndexReader(indexPath);
+
+    assertThat(nrtReader.getRefCount(), is(0));
+    final IndexReader reader = IndexReadersCache.acquireIndexReader(indexPath);
+    assertThat(reader.numDocs(), is(3));
+    IndexReadersCache.releaseIndexReader(reader);
+  }
+
+  @Test
+  void removingTheIndexesReleasesTheirReaders() {
+    final IndexReader reader = IndexReadersCache.acquireIndexReader(indexPath);
+    IndexReadersCache.releaseIndexReader(reader);
+
+    IndexProcessor.doRemoveAll(() -> FileUtil.forceDeletion(directory));
+
+    assertThat(reader.getRefCount(), is(0));
+    assertThat(IndexReadersCache.acquireIndexReader(indexPath), is(nullValue()));
+  }
+
+  @Test
+  void aReaderWhoseIndexHasDisappearedIsReleased() throws IOException {
+    final IndexReader reader = IndexReadersCache.acquireIndexReader(indexPath);
+    IndexReadersCache.releaseIndexReader(reader);
+
+    FileUtil.forceDeletion(new File(indexPath));
+    Files.createDirectories(new File(indexPath).toPath());
+
+    assertThat(IndexReadersCache.acquireIndexReader(indexPath), is(nullValue()));
+    assertThat(reader.getRefCount(), is(0));
+  }
+
+  private IndexWriter openWriter() throws IOException {
+    return new IndexWriter(FSDirectory.open(new File(indexPath).toPath()),
+        new IndexWriterConfig(new StandardAnalyzer()));
+  }
+
+  private static Document document(final String key) {
+    final Document document = new Document();
+    document.add(new StringField(IndexManager.KEY, key, Field.Store.YES));
+    return document;
+  }
+}
@@ -0,0 +1,213 @@
+/*
+ * Copyright (C) 2000 - 2024 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.silverpeas.core.index.indexing.model;
+
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.store.FSDirectory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.silverpeas.core.test.unit.extention.JEETestContext;
+import org.silverpeas.core.util.file.FileUtil;
+import org.silverpeas.kernel.test.extension.EnableSilverTestEnv;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Unit tests on the pool of index writers when several indexing lanes use it at the same time.
+ * @author mmoquillon
+ */
+@EnableSilverTestEnv(context = JEETestContext.class)
+class IndexWriterPoolTest {
+
+  private static final int NB_BATCHES = 50;
+  private static final int BATCH_SIZE = 10;
+
+  private File directory;
+  private IndexWriterPool pool;
+  private final List<String> flushed = new CopyOnWriteArrayList<>();
+
+  @BeforeEach
+  void createPool() throws IOException {
+    directory = Files.createTempDirectory("index-writers").toFile();
+    // only one writer can be kept opened so that the writers are evicted continuously
+    pool = new IndexWriterPool(1, BATCH_SIZE * 3, 60000, flushed::add);
+  }
+
+  @AfterEach
+  void deleteIndexes() throws IOException {
+    pool.closeAll();
+    FileUtil.forceDeletion(directory);
+  }
+
+  @Test
+  void twoLanesIndexingTheSameIndexDuringEvictionsLoseNoDocument() throws Exception {
+    final String sharedIndex = new File(directory, "shared").getPath();
+    final CountDownLatch start = new CountDownLatch(1);
+    final ExecutorService executor = Executors.newFixedThreadPool(3);
+    try {
+      final List<Future<?>> lanes = new ArrayList<>();
+      lanes.add(executor.submit(() -> indexInLane(start, sharedIndex, "lane1")));
+      lanes.add(executor.submit(() -> indexInLane(start, sharedIndex, "lane2")));
+      // a third lane works on other indexes to force the eviction of the shared index writer
+      lanes.add(executor.submit(() -> {
+        for (int i = 0; i < NB_BATCHES; i++) {
+          indexInLane(start, new File(directory, "other" + (i % 3)).getPath(), "other" + i);
+          if (i % 10 == 0) {
+            pool.flush();
+          }
+        }
+      }));
+      start.countDown();
+      for (Future<?> lane : lanes) {
+        lane.get(2, TimeUnit.MINUTES);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    pool.closeAll();
+    assertThat(pool.getOpenedWriterCount(), is(0));
+
+    try (DirectoryReader reader = DirectoryReader.open(FSDirectory.open(new File(sharedIndex).toPath()))) {
+      final IndexSearcher searcher = new IndexSearcher(reader);
+      assertThat(reader.numDocs(), is(2 * NB_BATCHES * BATCH_SIZE));
+      for (String lane : List.of("lane1", "lane2")) {
+        for (int i = 0; i < NB_BATCHES * BATCH_SIZE; i++) {
+          final Term key = new Term(IndexManager.KEY, lane + "-" + i);
+          assertThat("document " + key.text() + " found", searcher.count(new TermQuery(key)), is(1));
+        }
+      }
+    }
+  }
+
+  @Test
+  void anIndexCommittedByTheCommitPolicyIsReportedAsFlushedOnceAtTheNextFlush() throws Exception {
+    final String index = new File(directory, "policy").getPath();
+    // the third batch reaches the maximum number of pending documents: the writer is committed
+    for (int batch = 0; batch < 3; batch++) {
+      indexBatch(index, "doc" + batch);
+    }
+    assertThat(pool.getPendingDocumentCount(), is(0L));
+    assertThat(flushed, is(empty()));
+
+    pool.flush();
+    assertThat(flushed, contains(index));
+
+    pool.flush();
+    assertThat(flushed, contains(index));
+  }
+
+  @Test
+  void anIndexIsReportedAsFlushedWhenItsWriterIsEvicted() throws Exception {
+    final String index1 = new File(directory, "index1").getPath();
+    final String index2 = new File(directory, "index2").getPath();
+    indexBatch(index1, "doc");
+    // only one writer is kept opened: the one of the first index is evicted
+    indexBatch(index2, "doc");
+    assertThat(flushed, contains(index1));
+
+    pool.flush();
+    assertThat(flushed, contains(index1, index2));
+  }
+
+  @Test
+  void anIndexWithoutAnyChangeIsNotReportedAsFlushed() throws Exception {
+    final String index = new File(directory, "unchanged").getPath();
+    try (IndexWriterPool.Lease lease = pool.acquire(index, this::openWriter)) {
+      assertThat(lease.getWriter().isOpen(), is(true));
+    }
+    pool.flush();
+    pool.closeAll();
+    assertThat(flushed, is(empty()));
+  }
+
+  private void indexBatch(final String indexPath, final String prefix) throws IOException {
+    try (IndexWriterPool.Lease lease = pool.acquire(indexPath, this::openWriter)) {
+      final IndexWriter writer = lease.getWriter();
+      for (int i = 0; i < BATCH_SIZE; i++) {
+        final String key = prefix + "-" + i;
+        final Document document = new Document();
+        document.add(new StringField(IndexManager.KEY, key, Field.Store.YES));
+        writer.updateDocument(new Term(IndexManager.KEY, key), document);
+      }
+      lease.documentsChanged(BATCH_SIZE);
+    }
+  }
+
+  private void indexInLane(final CountDownLatch start, final String indexPath, final String lane) {
+    try {
+      start.await();
+      for (int batch = 0; batch < NB_BATCHES; batch++) {
+        try (IndexWriterPool.Lease lease = pool.acquire(indexPath, this::openWriter)) {
+          final IndexWriter writer = lease.getWriter();
+          for (int i = 0; i < BATCH_SIZE; i++) {
+            final String key = lane + "-" + (batch * BATCH_SIZE + i);
+            final Document document = new Document();
+            document.add(new StringField(IndexManager.KEY, key, Field.Store.YES));
+            writer.updateDocument(new Term(IndexManager.KEY, key), document);
+          }
+          lease.documentsChanged(BATCH_SIZE);
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (IOException e) {
+      throw new AssertionError(e);
+    }
+  }
+
+  private IndexWriter openWriter(final String path) {
+    try {
+      return new IndexWriter(FSDirectory.open(new File(path).toPath()),
+          new IndexWriterConfig(new StandardAnalyzer()));
+    } catch (IOException e) {
+      throw new AssertionError(e);
+    }
+  }
+}
@@ -0,0 +1,299 @@
+/*
+ * Copyright (C) 2000 - 2024 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.silverpeas.core.index.indexing.parser;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.silverpeas.core.test.unit.extention.JEETestContext;
+import org.silverpeas.core.util.file.FileUtil;
+import org.silverpeas.kernel.test.extension.EnableSilverTestEnv;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Unit tests on the extraction of the content of the files to index, both ahead of their
+ * indexation and on demand.
+ * @author mmoquillon
+ */
+@EnableSilverTestEnv(context = JEETestContext.class)
+class FileContentExtractorTest {
+
+  private static final String MIME_TYPE = "text/plain";
+  private static final long TIMEOUT = 300;
+
+  private File directory;
+  private Path cachePath;
+  private FakeParser parser;
+  private FileContentExtractor extractor;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    directory = Files.createTempDirectory("content-extraction").toFile();
+    cachePath = directory.toPath().resolve("cache");
+    parser = new FakeParser();
+  }
+
+  @AfterEach
+  void tearDown() throws IOException {
+    if (extractor != null) {
+      extractor.shutdown();
+    }
+    FileUtil.forceDeletion(directory);
+  }
+
+  @Test
+  void thePrefetchedContentIsTakenByTheExtraction() throws Exception {
+    extractor = newExtractor(1, null, 0);
+    final File file = newFile("prefetched.txt", "prefetched content");
+    extractor.prefetch(file.getPath(), null, MIME_TYPE);
+    assertThat(parser.parsed.await(TIMEOUT * 10, TimeUnit.MILLISECONDS), is(true));
+
+    final Optional<FileContentExtractor.Content> content =
+        extractor.extract(file.getPath(), null, MIME_TYPE);
+    assertThat(content.map(FileContentExtractorTest::text).orElse(null), is("prefetched content"));
+    assertThat(parser.parsings.get(), is(1));
+  }
+
+  @Test
+  void aContentNotYetExtractedIsParsedByTheAskingThread() {
+    extractor = newExtractor(1, null, 0);
+    final File file = newFile("direct.txt", "direct content");
+    final Optional<FileContentExtractor.Content> content =
+        extractor.extract(file.getPath(), null, MIME_TYPE);
+    assertThat(content.map(FileContentExtractorTest::text).orElse(null), is("direct content"));
+    assertThat(parser.threads.get(file.getAbsolutePath()), is(Thread.currentThread().getName()));
+  }
+
+  @Test
+  void theTimeWaitedInTheQueueIsNotCountedInTheTimeout() {
+    extractor = newExtractor(1, null, 0);
+    final File slowFile = newFile("slow.txt", "slow content");
+    final File queuedFile = newFile("queued.txt", "queued content");
+    parser.latency.put(slowFile.getAbsolutePath(), TIMEOUT * 3);
+    extractor.prefetch(slowFile.getPath(), null, MIME_TYPE);
+    extractor.prefetch(queuedFile.getPath(), null, MIME_TYPE);
+    // the only thread of the pool is busy with the slow file, beyond the timeout
+    final Optional<FileContentExtractor.Content> content =
+        extractor.extract(queuedFile.getPath(), null, MIME_TYPE);
+    assertThat(content.map(FileContentExtractorTest::text).orElse(null), is("queued content"));
+  }
+
+  @Test
+  void theTextReadBeyondTheTimeoutIsIgnoredButTheContentIsKept() {
+    extractor = newExtractor(1, null, 0);
+    final File slowFile = newFile("slow.txt", "slow content");
+    parser.latencyPerChar.put(slowFile.getAbsolutePath(), TIMEOUT / 4);
+    final Optional<FileContentExtractor.Content> content =
+        extractor.extract(slowFile.getPath(), null, MIME_TYPE);
+    assertThat(content.isPresent(), is(true));
+    final String text = text(content.get());
+    assertThat(text, not(emptyString()));
+    assertThat("slow content".startsWith(text), is(true));
+    assertThat(text.length(), lessThan("slow content".length()));
+  }
+
+  @Test
+  void aCachedContentIsNotParsedAgainAndIsReadFromTheCache() {
+    extractor = newExtractor(1, cachePath, 1024 * 1024);
+    final File file = newFile("cached.txt", "cached content");
+    assertThat(extractor.extract(file.getPath(), null, MIME_TYPE)
+        .map(FileContentExtractorTest::text).orElse(null), is("cached content"));
+    assertThat(extractor.extract(file.getPath(), null, MIME_TYPE)
+        .map(FileContentExtractorTest::text).orElse(null), is("cached content"));
+    assertThat(parser.parsings.get(), is(1));
+  }
+
+  @Test
+  void theLeastRecentlyUsedEntriesAreEvictedFromTheCache() throws IOException {
+    final String text = "0123456789".repeat(10);
+    extractor = newExtractor(1, cachePath, 500);
+    final long now = System.currentTimeMillis();
+    for (int i = 0; i < 8; i++) {
+      final File file = newFile("file" + i + ".txt", text);
+      extractor.extract(file.getPath(), null, MIME_TYPE);
+    }
+    // the entries are used in the order of their file, the first one being the least recently
+    try (Stream<Path> entries = Files.list(cachePath)) {
+      entries.forEach(e -> setLastModified(e, now - 100_000 + e.toFile().length()));
+    }
+    final File recentFile = newFile("recent.txt", text);
+    extractor.extract(recentFile.getPath(), null, MIME_TYPE);
+
+    extractor.evictCacheEntries();
+
+    try (Stream<Path> entries = Files.list(cachePath)) {
+      assertThat(entries.mapToLong(e -> e.toFile().length()).sum(), lessThanOrEqualTo(450L));
+    }
+    final int parsings = parser.parsings.get();
+    assertThat(extractor.extract(recentFile.getPath(), null, MIME_TYPE)
+        .map(FileContentExtractorTest::text).orElse(null), is(text));
+    assertThat(parser.parsings.get(), is(parsings));
+  }
+
+  @Test
+  void aContentCutByTheTimeoutIsNotServedFromTheCache() {
+    extractor = newExtractor(1, cachePath, 1024 * 1024);
+    final File slowFile = newFile("slow.txt", "slow content");
+    parser.latencyPerChar.put(slowFile.getAbsolutePath(), TIMEOUT / 4);
+    final String truncated = extractor.extract(slowFile.getPath(), null, MIME_TYPE)
+        .map(FileContentExtractorTest::text).orElse(null);
+    assertThat(truncated.length(), lessThan("slow content".length()));
+
+    // the file is parsed again, this time fully, and then its content is got from the cache
+    parser.latencyPerChar.remove(slowFile.getAbsolutePath());
+    assertThat(extractor.extract(slowFile.getPath(), null, MIME_TYPE)
+        .map(FileContentExtractorTest::text).orElse(null), is("slow content"));
+    assertThat(extractor.extract(slowFile.getPath(), null, MIME_TYPE)
+        .map(FileContentExtractorTest::text).orElse(null), is("slow content"));
+    assertThat(parser.parsings.get(), is(2));
+  }
+
+  @Test
+  void theEntriesOfTheDeletedFilesAreRemovedFromTheCache() throws IOException {
+    extractor = newExtractor(1, cachePath, 1024 * 1024);
+    final File deletedFile = newFile("deleted.txt", "deleted content");
+    final File keptFile = newFile("kept.txt", "kept content");
+    extractor.extract(deletedFile.getPath(), null, MIME_TYPE);
+    extractor.extract(keptFile.getPath(), null, MIME_TYPE);
+    Files.delete(deletedFile.toPath());
+
+    extractor.evictCacheEntries();
+
+    try (Stream<Path> entries = Files.list(cachePath)) {
+      assertThat(entries.count(), is(1L));
+    }
+    assertThat(extractor.extract(keptFile.getPath(), null, MIME_TYPE)
+        .map(FileContentExtractorTest::text).orElse(null), is("kept content"));
+    assertThat(parser.parsings.get(), is(2));
+  }
+
+  private FileContentExtractor newExtractor(final int parallelism, final Path cachePath,
+      final long cacheMaxSize) {
+    return new FileContentExtractor(m -> MIME_TYPE.equals(m) ? Optional.of(parser) :
+        Optional.empty(), parallelism, TIMEOUT, 1000, cachePath, cacheMaxSize);
+  }
+
+  private File newFile(final String name, final String content) {
+    try {
+      final File file = new File(directory, name);
+      Files.writeString(file.toPath(), content, StandardCharsets.UTF_8);
+      return file;
+    } catch (IOException e) {
+      throw new AssertionError(e);
+    }
+  }
+
+  private static void setLastModified(final Path path, final long time) {
+    try {
+      Files.setLastModifiedTime(path, FileTime.fromMillis(time));
+    } catch (NoSuchFileException e) {
+      // the entry was already evicted in the background
+    } catch (IOException e) {
+      throw new AssertionError(e);
+    }
+  }
+
+  private static String text(final FileContentExtractor.Content content) {
+    try (Reader reader = content.openReader()) {
+      final StringBuilder text = new StringBuilder();
+      final char[] buffer = new char[64];
+      int nb = reader.read(buffer);
+      while (nb >= 0) {
+        text.append(buffer, 0, nb);
+        nb = reader.read(buffer);
+      }
+      return text.toString();
+    } catch (IOException e) {
+      throw new AssertionError(e);
+    }
+  }
+
+  /**
+   * A parser reading the text of the files, with an optional latency either before the reading
+   * or for each character read.
+   */
+  private static class FakeParser implements Parser {
+    private final AtomicInteger parsings = new AtomicInteger(0);
+    private final CountDownLatch parsed = new CountDownLatch(1);
+    private final Map<String, String> threads = new ConcurrentHashMap<>();
+    private final Map<String, Long> latency = new ConcurrentHashMap<>();
+    private final Map<String, Long> latencyPerChar = new ConcurrentHashMap<>();
+
+    @Override
+    public Context getContext(final String path, final String encoding) {
+      parsings.incrementAndGet();
+      threads.put(path, Thread.currentThread().getName());
+      try {
+        sleep(latency.getOrDefault(path, 0L));
+        final String text = Files.readString(Path.of(path), StandardCharsets.UTF_8);
+        final long perChar = latencyPerChar.getOrDefault(path, 0L);
+        final Reader reader = new StringReader(text) {
+          @Override
+          public int read(final char[] buffer, final int offset, final int length)
+              throws IOException {
+            sleep(perChar);
+            return super.read(buffer, offset, perChar > 0 ? Math.min(1, length) : length);
+          }
+
+          @Override
+          public void close() {
+            super.close();
+            parsed.countDown();
+          }
+        };
+        return new Context(reader, key -> Optional.empty());
+      } catch (IOException e) {
+        throw new AssertionError(e);
+      }
+    }
+
+    private static void sleep(final long time) {
+      try {
+        Thread.sleep(time);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+}
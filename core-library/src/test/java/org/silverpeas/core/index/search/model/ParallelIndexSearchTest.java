@@ -0,0 +1,158 @@
+/*
+ * Copyright (C) 2000 - 2024 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.index.search.model;
+
+import com.carrotsearch.junitbenchmarks.BenchmarkOptions;
+import com.carrotsearch.junitbenchmarks.BenchmarkRule;
+import com.carrotsearch.junitbenchmarks.annotation.BenchmarkMethodChart;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.MultiReader;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestRule;
+import org.silverpeas.kernel.test.UnitTest;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Benchmark of a search over a synthetic corpus of several hundred component indexes, performed
+ * as {@link IndexSearcher} does it: on a {@link MultiReader} over all the indexes, either in the
+ * caller's thread or sliced among the threads of a bounded executor. Both must find the same
+ * documents.
+ * @author mmoquillon
+ */
+@UnitTest
+@BenchmarkMethodChart
+@BenchmarkOptions(benchmarkRounds = 200, warmupRounds = 50)
+public class ParallelIndexSearchTest {
+
+  private static final int NB_INDEXES = 400;
+  private static final int NB_DOCS_PER_INDEX = 250;
+  private static final int NB_WORDS_PER_DOC = 40;
+  private static final int VOCABULARY_SIZE = 5000;
+  private static final int SEARCH_PARALLELISM = 4;
+  private static final int MAX_RESULTS = 100;
+  private static final String CONTENT = "content";
+
+  private static final List<Directory> indexes = new ArrayList<>(NB_INDEXES);
+  private static final List<IndexReader> readers = new ArrayList<>(NB_INDEXES);
+  private static ExecutorService searchExecutor;
+  private static Query query;
+  private static int[] expectedDocs;
+
+  @Rule
+  public TestRule benchmarkRun = new BenchmarkRule();
+
+  @BeforeClass
+  public static void createCorpus() throws IOException {
+    final Random random = new Random(42);
+    for (int i = 0; i < NB_INDEXES; i++) {
+      final Directory index = new ByteBuffersDirectory();
+      try (IndexWriter writer = new IndexWriter(index,
+          new IndexWriterConfig(new StandardAnalyzer()))) {
+        for (int d = 0; d < NB_DOCS_PER_INDEX; d++) {
+          final StringBuilder text = new StringBuilder();
+          for (int w = 0; w < NB_WORDS_PER_DOC; w++) {
+            text.append(" word").append(random.nextInt(VOCABULARY_SIZE));
+          }
+          final Document document = new Document();
+          document.add(new TextField(CONTENT, text.toString(), Field.Store.NO));
+          writer.addDocument(document);
+        }
+      }
+      indexes.add(index);
+      readers.add(DirectoryReader.open(index));
+    }
+    query = new BooleanQuery.Builder()
+        .add(new TermQuery(new Term(CONTENT, "word12")), BooleanClause.Occur.SHOULD)
+        .add(new TermQuery(new Term(CONTENT, "word345")), BooleanClause.Occur.SHOULD)
+        .add(new TermQuery(new Term(CONTENT, "word4000")), BooleanClause.Occur.SHOULD)
+        .build();
+    searchExecutor = Executors.newFixedThreadPool(SEARCH_PARALLELISM);
+    expectedDocs = search(false);
+  }
+
+  @AfterClass
+  public static void deleteCorpus() throws IOException {
+    searchExecutor.shutdownNow();
+    for (IndexReader reader : readers) {
+      reader.close();
+    }
+    readers.clear();
+    for (Directory index : indexes) {
+      index.close();
+    }
+    indexes.clear();
+  }
+
+  @Test
+  public void searchInTheCallerThread() throws IOException {
+    assertThat(Arrays.equals(search(false), expectedDocs), is(true));
+  }
+
+  @Test
+  public void searchSlicedAmongSeveralThreads() throws IOException {
+    assertThat(Arrays.equals(search(true), expectedDocs), is(true));
+  }
+
+  /**
+   * As with the cached index readers, the readers of the indexes are opened once and shared by
+   * all the searches.
+   */
+  private static int[] search(final boolean parallel) throws IOException {
+    try (MultiReader multiReader = new MultiReader(readers.toArray(new IndexReader[0]), false)) {
+      final org.apache.lucene.search.IndexSearcher searcher = parallel ?
+          new org.apache.lucene.search.IndexSearcher(multiReader, searchExecutor) :
+          new org.apache.lucene.search.IndexSearcher(multiReader);
+      final TopDocs topDocs = searcher.search(query, MAX_RESULTS);
+      return Arrays.stream(topDocs.scoreDocs).mapToInt(d -> d.doc).toArray();
+    }
+  }
+}
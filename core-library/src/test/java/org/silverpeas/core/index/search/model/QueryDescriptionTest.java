@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2000 - 2024 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.index.search.model;
+
+import org.junit.jupiter.api.Test;
+import org.silverpeas.kernel.test.UnitTest;
+
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Unit tests on the restriction of the scopes and on the pagination of a query.
+ * @author mmoquillon
+ */
+@UnitTest
+class QueryDescriptionTest {
+
+  @Test
+  void allTheScopesAreSearchedWhenNoRestriction() {
+    QueryDescription query = new QueryDescription("silverpeas");
+    query.addComponent("kmelia1");
+    query.addComponent("Spaces");
+    assertThat(query.getScopesToSearch(), containsInAnyOrder("kmelia1", "Spaces"));
+  }
+
+  @Test
+  void onlyTheAuthorizedScopesAreSearched() {
+    QueryDescription query = new QueryDescription("silverpeas");
+    query.addComponent("kmelia1");
+    query.addComponent("kmelia2");
+    query.addComponent("Spaces");
+    query.setAuthorizedScopes(List.of("kmelia2", "Spaces", "almanach3"));
+    assertThat(query.getScopesToSearch(), containsInAnyOrder("kmelia2", "Spaces"));
+    assertThat(query.getWhereToSearch(), hasSize(3));
+  }
+
+  @Test
+  void theResultsAreByDefaultTheFirstOnes() {
+    QueryDescription query = new QueryDescription("silverpeas");
+    assertThat(query.getSearchAfter().isPresent(), is(false));
+    assertThat(query.getMaxResults(), is(0));
+  }
+
+  @Test
+  void theResultsCanBeAfterAGivenEntry() {
+    QueryDescription query = new QueryDescription("silverpeas");
+    SearchCursor cursor = new SearchCursor(42, 1.5f, "kmelia1|Publication|42|");
+    query.setSearchAfter(cursor);
+    query.setMaxResults(-5);
+    assertThat(query.getSearchAfter().orElse(null), is(cursor));
+    assertThat(query.getMaxResults(), is(0));
+  }
+
+  @Test
+  void aCopyCanBeModifiedWithoutImpactOnTheQuery() {
+    QueryDescription query = new QueryDescription("silverpeas");
+    query.addComponent("kmelia1");
+    query.addComponent("kmelia2");
+    query.setSearchingUser("3");
+    query.setMaxResults(20);
+    QueryDescription copy = query.copy();
+    copy.setAuthorizedScopes(List.of("kmelia2"));
+    copy.setSearchAfter(new SearchCursor(42, 1.5f, "kmelia2|Publication|42|"));
+    copy.addComponent("kmelia3");
+    assertThat(copy.getQuery(), is("silverpeas"));
+    assertThat(copy.getSearchingUser(), is("3"));
+    assertThat(copy.getMaxResults(), is(20));
+    assertThat(copy.getScopesToSearch(), contains("kmelia2"));
+    assertThat(query.getScopesToSearch(), containsInAnyOrder("kmelia1", "kmelia2"));
+    assertThat(query.getSearchAfter().isPresent(), is(false));
+  }
+}
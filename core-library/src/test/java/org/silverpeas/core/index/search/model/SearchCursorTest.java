@@ -0,0 +1,156 @@
+/*
+ * Copyright (C) 2000 - 2024 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.silverpeas.core.index.search.model;
+
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.SortedDocValuesField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.BytesRef;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.silverpeas.core.index.indexing.model.IndexManager;
+import org.silverpeas.core.util.file.FileUtil;
+import org.silverpeas.kernel.test.UnitTest;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Unit tests on the pagination of the results of a search with a cursor while the index is
+ * updated between the pages.
+ * @author mmoquillon
+ */
+@UnitTest
+class SearchCursorTest {
+
+  private static final int NB_DOCUMENTS = 100;
+  private static final int PAGE_SIZE = 7;
+
+  private File directory;
+  private IndexWriter writer;
+
+  @BeforeEach
+  void createIndex() throws IOException {
+    directory = Files.createTempDirectory("search-cursor").toFile();
+    writer = new IndexWriter(FSDirectory.open(directory.toPath()),
+        new IndexWriterConfig(new StandardAnalyzer()));
+    for (int i = 0; i < NB_DOCUMENTS; i++) {
+      writer.addDocument(newDocument("kmelia1|Publication|" + i + "|"));
+    }
+    writer.commit();
+  }
+
+  @AfterEach
+  void deleteIndex() throws IOException {
+    writer.close();
+    FileUtil.forceDeletion(directory);
+  }
+
+  @Test
+  void pagingWithConcurrentAdditionsHasNeitherGapNorDuplicate() throws IOException {
+    final TermQuery query = new TermQuery(new Term(IndexManager.CONTENT, "silverpeas"));
+    final List<String> pagedKeys = new ArrayList<>();
+    DirectoryReader reader = DirectoryReader.open(writer);
+    SearchCursor cursor = null;
+    int nbNewDocuments = 0;
+    try {
+      TopDocs page;
+      do {
+        page = SearchCursor.searchAfter(new org.apache.lucene.search.IndexSearcher(reader), cursor,
+            query, PAGE_SIZE);
+        for (ScoreDoc hit : page.scoreDocs) {
+          cursor = SearchCursor.of(hit);
+          pagedKeys.add(cursor.getKey());
+        }
+        // some documents are added before and after the current page, and the segments are
+        // merged so that the documents don't keep their identifier in the index
+        writer.addDocument(newDocument("kmelia1|Publication|0" + nbNewDocuments + "|"));
+        writer.addDocument(newDocument("kmelia1|Publication|9" + nbNewDocuments + "|"));
+        nbNewDocuments++;
+        writer.forceMerge(1);
+        final DirectoryReader newReader = DirectoryReader.openIfChanged(reader, writer);
+        if (newReader != null) {
+          reader.close();
+          reader = newReader;
+        }
+      } while (page.scoreDocs.length == PAGE_SIZE);
+    } finally {
+      reader.close();
+    }
+
+    final Set<String> distinctKeys = new HashSet<>(pagedKeys);
+    assertThat(distinctKeys.size(), is(pagedKeys.size()));
+    for (int i = 0; i < NB_DOCUMENTS; i++) {
+      assertThat(distinctKeys, hasItem("kmelia1|Publication|" + i + "|"));
+    }
+  }
+
+  @Test
+  void theHitsWithASameRelevanceAreOrderedByKey() throws IOException {
+    final TermQuery query = new TermQuery(new Term(IndexManager.CONTENT, "silverpeas"));
+    try (DirectoryReader reader = DirectoryReader.open(writer)) {
+      final TopDocs hits = SearchCursor.searchAfter(
+          new org.apache.lucene.search.IndexSearcher(reader), null, query, NB_DOCUMENTS);
+      final List<String> keys = new ArrayList<>();
+      for (ScoreDoc hit : hits.scoreDocs) {
+        final SearchCursor cursor = SearchCursor.of(hit);
+        assertThat(cursor.getScore(), is(hit.score));
+        keys.add(cursor.getKey());
+      }
+      final List<String> sortedKeys = new ArrayList<>(keys);
+      sortedKeys.sort(null);
+      assertThat(keys, hasSize(NB_DOCUMENTS));
+      assertThat(keys, is(sortedKeys));
+    }
+  }
+
+  private static Document newDocument(final String key) {
+    final Document document = new Document();
+    document.add(new StringField(IndexManager.KEY, key, Field.Store.YES));
+    document.add(new SortedDocValuesField(IndexManager.SORT_KEY, new BytesRef(key)));
+    document.add(new TextField(IndexManager.CONTENT, "silverpeas", Field.Store.NO));
+    return document;
+  }
+}
@@ -0,0 +1,323 @@
+/*
+ * Copyright (C) 2000 - 2024 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.io.file;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.silverpeas.core.io.media.image.ImageInfoType;
+import org.silverpeas.core.io.media.image.ImageTool;
+import org.silverpeas.core.io.media.image.ImageToolDirective;
+import org.silverpeas.core.io.media.image.ImageToolException;
+import org.silverpeas.core.io.media.image.option.AbstractImageToolOption;
+import org.silverpeas.core.test.unit.extention.JEETestContext;
+import org.silverpeas.core.util.file.FileUtil;
+import org.silverpeas.kernel.test.extension.EnableSilverTestEnv;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit tests on the resizing of the images into the cache of resized images.
+ * @author mmoquillon
+ */
+@EnableSilverTestEnv(context = JEETestContext.class)
+class ImageResizingServiceTest {
+
+  private static final String IMAGE_NAME = "image-test.jpg";
+  private static final int IMAGE_WIDTH = 550;
+  private static final int IMAGE_HEIGHT = 413;
+  private static final long TIMEOUT = 10000;
+  private static final long MAX_PIXELS = 10_000_000L;
+
+  private File directory;
+  private File originalImage;
+  private FakeImageTool imageTool;
+  private ImageResizingService service;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    directory = Files.createTempDirectory("image-resizing").toFile();
+    originalImage = new File(directory, IMAGE_NAME);
+    Files.copy(new File(getClass().getResource("/" + IMAGE_NAME).getPath()).toPath(),
+        originalImage.toPath());
+    // the resized images have to be more recent than the original one to be up-to-date
+    assertThat(originalImage.setLastModified(System.currentTimeMillis() - 60000), is(true));
+    imageTool = new FakeImageTool();
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    if (service != null) {
+      service.shutdown();
+    }
+    FileUtil.forceDeletion(directory);
+    File cache = new File(ImageResizingService.IMAGE_CACHE_PATH);
+    if (cache.exists()) {
+      FileUtil.forceDeletion(cache);
+    }
+  }
+
+  @Test
+  void concurrentDemandsOfTheSameImageAreResizedOnce() throws Exception {
+    imageTool.latency = 300;
+    service = newService(4, TIMEOUT);
+    final ResizingParameters parameters = parameters("128x");
+    final int nbDemands = 8;
+    final ExecutorService demands = Executors.newFixedThreadPool(nbDemands);
+    try {
+      final List<Future<Boolean>> results = new ArrayList<>();
+      for (int i = 0; i < nbDemands; i++) {
+        results.add(demands.submit(() -> service.resize(parameters)));
+      }
+      for (Future<Boolean> result : results) {
+        assertThat(result.get(), is(true));
+      }
+    } finally {
+      demands.shutdownNow();
+    }
+    assertThat(imageTool.conversions.get(), is(1));
+    assertThat(parameters.getDestinationImage().exists(), is(true));
+    final ImageResizingStatistics statistics = service.getStatistics();
+    assertThat(statistics.getHits() + statistics.getMisses(), is((long) nbDemands));
+    assertThat(statistics.getJoined(), lessThanOrEqualTo(statistics.getMisses() - 1));
+    assertThat(statistics.getConversions().getCount(), is(1L));
+  }
+
+  @Test
+  void anUpToDateResizedImageIsGotFromTheCache() {
+    service = newService(1, TIMEOUT);
+    assertThat(service.resize(parameters("x128")), is(true));
+    assertThat(service.resize(parameters("x128")), is(true));
+    assertThat(imageTool.conversions.get(), is(1));
+    assertThat(service.getStatistics().getHits(), is(1L));
+    assertThat(service.getStatistics().getMisses(), is(1L));
+    assertThat(service.getStatistics().getHitRate(), is(0.5));
+  }
+
+  @Test
+  void theDemandDoesNotWaitBeyondTheTimeout() throws Exception {
+    imageTool.latency = 1000;
+    service = newService(1, 100);
+    final ResizingParameters parameters = parameters("128x");
+    assertThat(service.resize(parameters), is(false));
+    waitFor(() -> parameters.getDestinationImage().exists());
+    assertThat(service.resize(parameters), is(true));
+    assertThat(imageTool.conversions.get(), is(1));
+  }
+
+  @Test
+  void imagesAreResizedInJavaWithoutImageMagick() throws IOException {
+    imageTool.activated = false;
+    service = newService(1, TIMEOUT);
+    final ResizingParameters parameters = parameters("128x128");
+    assertThat(service.resize(parameters), is(true));
+    assertThat(imageTool.conversions.get(), is(0));
+    assertThat(service.getStatistics().getFallbacks(), is(1L));
+
+    final BufferedImage image = ImageIO.read(parameters.getDestinationImage());
+    assertThat(image.getWidth(), is(128));
+    assertThat(image.getHeight(), is(Math.round(128f * IMAGE_HEIGHT / IMAGE_WIDTH)));
+  }
+
+  @Test
+  void imagesAreNeverEnlargedInJava() throws IOException {
+    imageTool.activated = false;
+    service = newService(1, TIMEOUT);
+    final ResizingParameters parameters = parameters("1000x");
+    assertThat(service.resize(parameters), is(true));
+
+    final BufferedImage image = ImageIO.read(parameters.getDestinationImage());
+    assertThat(image.getWidth(), is(IMAGE_WIDTH));
+    assertThat(image.getHeight(), is(IMAGE_HEIGHT));
+  }
+
+  @Test
+  void largeImagesAreSubsampledInJava() throws IOException {
+    imageTool.activated = false;
+    final BufferedImage large = new BufferedImage(3000, 2000, BufferedImage.TYPE_INT_RGB);
+    assertThat(ImageIO.write(large, "png", originalImage), is(true));
+    assertThat(originalImage.setLastModified(System.currentTimeMillis() - 60000), is(true));
+    service = newService(1, TIMEOUT);
+    final ResizingParameters parameters = parameters("100x");
+    assertThat(service.resize(parameters), is(true));
+
+    final BufferedImage image = ImageIO.read(parameters.getDestinationImage());
+    assertThat(image.getWidth(), is(100));
+    assertThat(image.getHeight(), is(67));
+  }
+
+  @Test
+  void tooLargeImagesAreRejectedInJava() {
+    imageTool.activated = false;
+    service = new ImageResizingService(imageTool, 1, TIMEOUT, List.of(), 100,
+        (long) IMAGE_WIDTH * IMAGE_HEIGHT - 1);
+    final ResizingParameters parameters = parameters("128x");
+    assertThrows(ImageToolException.class, () -> service.resize(parameters));
+    assertThat(parameters.getDestinationImage().exists(), is(false));
+    assertThat(service.getStatistics().getConversions().getFailureCount(), is(1L));
+  }
+
+  @Test
+  void imagesArePregeneratedAtTheConfiguredSizes() throws Exception {
+    imageTool.activated = false;
+    service = newService(2, TIMEOUT, "64x", "x32");
+    service.pregenerate(originalImage);
+    final File width64 = parameters("64x").getDestinationImage();
+    final File height32 = parameters("x32").getDestinationImage();
+    waitFor(() -> width64.exists() && height32.exists());
+    assertThat(ImageIO.read(width64).getWidth(), is(64));
+    assertThat(ImageIO.read(height32).getHeight(), is(32));
+  }
+
+  @Test
+  void demandsOfUsersArePrioritizedOverPregenerations() throws Exception {
+    final CountDownLatch firstConversion = new CountDownLatch(1);
+    imageTool.blocker = firstConversion;
+    service = newService(1, TIMEOUT, "10x", "20x", "30x");
+    service.pregenerate(originalImage);
+    waitFor(() -> imageTool.conversions.get() == 1);
+    final ExecutorService demand = Executors.newSingleThreadExecutor();
+    try {
+      final Future<Boolean> result = demand.submit(() -> service.resize(parameters("40x")));
+      waitFor(() -> service.getStatistics().getMisses() == 1);
+      Thread.sleep(100);
+      firstConversion.countDown();
+      assertThat(result.get(), is(true));
+    } finally {
+      demand.shutdownNow();
+    }
+    waitFor(() -> imageTool.conversions.get() == 4);
+    assertThat(imageTool.sizes, contains("10x", "40x", "20x", "30x"));
+  }
+
+  @Test
+  void pregenerationsAreDroppedWhenTooManyResizingArePending() throws Exception {
+    final CountDownLatch firstConversion = new CountDownLatch(1);
+    imageTool.blocker = firstConversion;
+    service = new ImageResizingService(imageTool, 1, TIMEOUT, List.of("10x", "20x", "30x"), 1,
+        MAX_PIXELS);
+    service.pregenerate(originalImage);
+    firstConversion.countDown();
+    waitFor(() -> service.getStatistics().getDroppedPregenerations() > 0);
+    assertThat(imageTool.conversions.get(), lessThan(3));
+  }
+
+  private ImageResizingService newService(final int parallelism, final long timeout,
+      final String... sizes) {
+    return new ImageResizingService(imageTool, parallelism, timeout, List.of(sizes), 100,
+        MAX_PIXELS);
+  }
+
+  private ResizingParameters parameters(final String size) {
+    return ResizingParameters.of(originalImage, size).orElseThrow();
+  }
+
+  private static void waitFor(final Condition condition) throws Exception {
+    final long end = System.currentTimeMillis() + TIMEOUT;
+    while (!condition.isMet()) {
+      assertThat("Timeout while waiting for the condition", System.currentTimeMillis() < end,
+          is(true));
+      Thread.sleep(10);
+    }
+  }
+
+  @FunctionalInterface
+  private interface Condition {
+    boolean isMet() throws Exception;
+  }
+
+  /**
+   * An image tool just copying the original image to the destination, as ImageMagick would do
+   * for an image smaller than the asked size.
+   */
+  private static class FakeImageTool implements ImageTool {
+
+    private final AtomicInteger conversions = new AtomicInteger(0);
+    private final List<String> sizes = Collections.synchronizedList(new ArrayList<>());
+    private volatile boolean activated = true;
+    private volatile long latency = 0;
+    private volatile CountDownLatch blocker;
+
+    @Override
+    public boolean isActivated() {
+      return activated;
+    }
+
+    @Override
+    public String[] getImageInfo(final File source, final ImageInfoType... infoTypes) {
+      return new String[0];
+    }
+
+    @Override
+    public void convert(final File source, final File destination,
+        final ImageToolDirective... directives) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void convert(final File source, final File destination,
+        final AbstractImageToolOption option, final ImageToolDirective... directives) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void convert(final File source, final File destination,
+        final Set<AbstractImageToolOption> options, final ImageToolDirective... directives) {
+      conversions.incrementAndGet();
+      sizes.add(destination.getParentFile().getName());
+      try {
+        final CountDownLatch latch = blocker;
+        if (latch != null) {
+          blocker = null;
+          latch.await(TIMEOUT, TimeUnit.MILLISECONDS);
+        }
+        Thread.sleep(latency);
+        Files.copy(source.toPath(), destination.toPath(), StandardCopyOption.REPLACE_EXISTING);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } catch (IOException e) {
+        throw new IllegalStateException(e);
+      }
+    }
+  }
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright (C) 2000 - 2024 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.mail.engine;
+
+import com.icegreen.greenmail.base.GreenMailOperations;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+import org.silverpeas.core.test.unit.extention.GreenMailExtension;
+import org.silverpeas.core.test.unit.extention.JEETestContext;
+import org.silverpeas.core.test.unit.extention.SmtpConfig;
+import org.silverpeas.kernel.test.extension.EnableSilverTestEnv;
+
+import javax.mail.Message;
+import javax.mail.Session;
+import javax.mail.internet.InternetAddress;
+import javax.mail.internet.MimeMessage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.silverpeas.core.test.util.TestRuntime.awaitUntil;
+
+/**
+ * Unit tests on the pool of SMTP transports. The SMTP server is an embedded GreenMail one, so the
+ * pool can be load-tested offline.
+ * @author mmoquillon
+ */
+@EnableSilverTestEnv(context = JEETestContext.class)
+@ExtendWith(GreenMailExtension.class)
+@SmtpConfig("/org/silverpeas/notificationserver/channel/smtp/smtpSettings.properties")
+@Execution(ExecutionMode.SAME_THREAD)
+class SmtpTransportPoolTest {
+
+  private static final int POOL_SIZE = 3;
+  private static final int SMTP_PORT = 2500;
+
+  private final Session session = Session.getInstance(new Properties(), null);
+  private SmtpMailSendingStatistics statistics;
+  private SmtpTransportPool pool;
+
+  @BeforeEach
+  void initStatistics() {
+    statistics = new SmtpMailSendingStatistics();
+  }
+
+  @AfterEach
+  void closePool() {
+    if (pool != null) {
+      pool.close();
+    }
+  }
+
+  @Test
+  void mailsSentInParallelShareAtMostPoolSizeConnections(GreenMailOperations mail)
+      throws Exception {
+    final int nbMails = 400;
+    newPool(30000, 0);
+    final ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      final List<Future<?>> sendings = new ArrayList<>(nbMails);
+      for (int i = 0; i < nbMails; i++) {
+        final String subject = "mail " + i;
+        sendings.add(executor.submit(() -> {
+          send(subject);
+          return null;
+        }));
+      }
+      for (Future<?> sending : sendings) {
+        sending.get(60, TimeUnit.SECONDS);
+      }
+    } finally {
+      executor.shutdown();
+    }
+    assertThat(mail.waitForIncomingEmail(60000, nbMails), is(true));
+
+    assertThat(mail.getReceivedMessages(), arrayWithSize(nbMails));
+    assertThat(statistics.getOpenedConnectionCount(), lessThanOrEqualTo((long) POOL_SIZE));
+    assertThat(statistics.getReconnectionCount(), is(0L));
+
+    pool.close();
+    assertThat(statistics.getActiveConnectionCount(), is(0));
+  }
+
+  @Test
+  void aConnectionIsRenewedOnceTheMaxMessagesPerConnectionIsReached(GreenMailOperations mail)
+      throws Exception {
+    newPool(30000, 10);
+    for (int i = 0; i < 25; i++) {
+      send("mail " + i);
+    }
+    assertThat(mail.waitForIncomingEmail(10000, 25), is(true));
+    assertThat(statistics.getOpenedConnectionCount(), is(3L));
+    assertThat(statistics.getActiveConnectionCount(), is(1));
+  }
+
+  @Test
+  void anIdleConnectionIsClosedOnceTheIdleTimeoutIsExceeded(GreenMailOperations mail)
+      throws Exception {
+    newPool(100, 0);
+    send("first mail");
+    awaitUntil(300, TimeUnit.MILLISECONDS);
+    send("second mail");
+    assertThat(mail.waitForIncomingEmail(10000, 2), is(true));
+    assertThat(statistics.getOpenedConnectionCount(), is(2L));
+    assertThat(statistics.getReconnectionCount(), is(0L));
+    assertThat(statistics.getActiveConnectionCount(), is(1));
+  }
+
+  @Test
+  void anIdleConnectionIsClosedWithoutAnyOtherSending(GreenMailOperations mail)
+      throws Exception {
+    newPool(100, 0);
+    send("first mail");
+    assertThat(mail.waitForIncomingEmail(10000, 1), is(true));
+    pool.evictIdle();
+    assertThat(statistics.getActiveConnectionCount(), is(1));
+
+    awaitUntil(300, TimeUnit.MILLISECONDS);
+    pool.evictIdle();
+    assertThat(statistics.getActiveConnectionCount(), is(0));
+    assertThat(statistics.getOpenedConnectionCount(), is(1L));
+  }
+
+  @Test
+  void aLostConnectionIsTransparentlyReopened(GreenMailOperations mail) throws Exception {
+    newPool(30000, 0);
+    send("first mail");
+    assertThat(mail.waitForIncomingEmail(10000, 1), is(true));
+
+    // the SMTP server is restarted: the pooled connection is lost
+    mail.reset();
+    send("second mail");
+    assertThat(mail.waitForIncomingEmail(10000, 1), is(true));
+    assertThat(mail.getReceivedMessages()[0].getSubject(), is("second mail"));
+    assertThat(statistics.getOpenedConnectionCount(), is(2L));
+    assertThat(statistics.getReconnectionCount(), is(1L));
+  }
+
+  private void newPool(final long idleTimeout, final int maxMessagesPerConnection) {
+    final SmtpConfiguration configuration = new SmtpConfiguration();
+    configuration.setServer("localhost");
+    configuration.setPort(SMTP_PORT);
+    configuration.setPoolSize(POOL_SIZE);
+    configuration.setPoolIdleTimeout(idleTimeout);
+    configuration.setPoolMaxMessagesPerConnection(maxMessagesPerConnection);
+    pool = new SmtpTransportPool(configuration, session, statistics);
+  }
+
+  private void send(final String subject) throws Exception {
+    pool.execute(transport -> {
+      final InternetAddress[] to = {new InternetAddress("to@toto.org")};
+      final MimeMessage message = new MimeMessage(session);
+      message.setFrom(new InternetAddress("from@titi.org"));
+      message.setRecipients(Message.RecipientType.TO, to);
+      message.setSubject(subject);
+      message.setText(subject + " content");
+      transport.sendMessage(message, to);
+    });
+  }
+}
@@ -98,7 +98,7 @@ abstract class AbstractServerEventDispatcherTaskTest {
     contextsByEventType.clear();
     serverEventStore = (ServerEventStore) FieldUtils
         .readDeclaredStaticField(ServerEventDispatcherTask.class, "serverEventStore", true);
-    serverEventContextMap.clear();
+    ((DefaultServerEventContextManager) manager).cleanContexts();
     serverEventStore.clear();
     FieldUtils.writeDeclaredStaticField(AbstractServerEvent.class, "idCounter", 0L, true);
 
@@ -117,19 +117,27 @@ abstract class AbstractServerEventDispatcherTaskTest {
   }
 
   SilverpeasAsyncContext4Test newMockedAsyncContext(final String sessionId) {
+    return newMockedAsyncContext(sessionId, new UserDetail());
+  }
+
+  SilverpeasAsyncContext4Test newMockedAsyncContext(final String sessionId, final User user) {
     final AsyncContext mockedAsyncContext = mock(AsyncContext.class);
     final SilverpeasAsyncContext4Test context4test = new SilverpeasAsyncContext4Test(
-        mockedAsyncContext, sessionId, new UserDetail());
+        mockedAsyncContext, sessionId, user);
     context4test.request4Test.setRequestURI(EVENT_SOURCE_REQUEST_URI);
     return context4test;
   }
 
   SilverpeasWebSocketContext4Test newMockedWebSocketContext(final String sessionId) {
+    return newMockedWebSocketContext(sessionId, new UserDetail());
+  }
+
+  SilverpeasWebSocketContext4Test newMockedWebSocketContext(final String sessionId,
+      final User user) {
     final Session mockedSession = mock(Session.class);
     when(mockedSession.getRequestURI())
         .thenReturn(URI.create(EVENT_SOURCE_REQUEST_URI));
-    return new SilverpeasWebSocketContext4Test(
-        mockedSession, sessionId, new UserDetail());
+    return new SilverpeasWebSocketContext4Test(mockedSession, sessionId, user);
   }
 
   String getSentServerEventStream(final SilverpeasAsyncContext mockedAsyncContext) {
@@ -0,0 +1,166 @@
+/*
+ * Copyright (C) 2000 - 2024 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.notification.sse;
+
+import com.carrotsearch.junitbenchmarks.BenchmarkOptions;
+import com.carrotsearch.junitbenchmarks.BenchmarkRule;
+import com.carrotsearch.junitbenchmarks.annotation.BenchmarkMethodChart;
+import org.apache.commons.lang3.reflect.FieldUtils;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestRule;
+import org.silverpeas.core.admin.user.model.User;
+import org.silverpeas.core.admin.user.model.UserDetail;
+import org.silverpeas.kernel.logging.SilverLogger;
+import org.silverpeas.kernel.test.UnitTest;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static java.util.Collections.singleton;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Benchmark of the routing of a server event targeting a single user among 10k opened SSE and
+ * WebSocket contexts: the lookup of the contexts of the user in the index of the context manager
+ * against the filtering of a snapshot of all the registered contexts, as done before the
+ * contexts were indexed by user.
+ * @author mmoquillon
+ */
+@UnitTest
+@BenchmarkMethodChart
+@BenchmarkOptions(benchmarkRounds = 5000, warmupRounds = 500)
+public class ServerEventContextRoutingBenchmarkTest {
+
+  private static final int NB_USERS = 2500;
+  private static final int NB_SESSIONS_BY_USER = 4;
+
+  private static DefaultServerEventContextManager manager;
+
+  @Rule
+  public TestRule benchmarkRun = new BenchmarkRule();
+
+  private int round = 0;
+
+  @BeforeClass
+  public static void registerContexts() throws IllegalAccessException {
+    FieldUtils.writeDeclaredStaticField(SseLogger.class, "silverLogger", mock(SilverLogger.class),
+        true);
+    manager = new DefaultServerEventContextManager();
+    for (int u = 0; u < NB_USERS; u++) {
+      final UserDetail user = new UserDetail();
+      user.setId(String.valueOf(u));
+      for (int s = 0; s < NB_SESSIONS_BY_USER; s++) {
+        manager.register(new ServerEventContext4Benchmark("SESSION_" + u + "_" + s, user));
+      }
+    }
+  }
+
+  @AfterClass
+  public static void unregisterContexts() throws IllegalAccessException {
+    manager.cleanContexts();
+    FieldUtils.writeDeclaredStaticField(SseLogger.class, "silverLogger", null, true);
+  }
+
+  @Test
+  public void contextsOfAUserFoundInTheIndex() {
+    final String userId = nextUser();
+    final List<SilverpeasServerEventContext> contexts =
+        manager.getContextSnapshotOfUsers(singleton(userId));
+    assertThat(contexts, hasSize(NB_SESSIONS_BY_USER));
+  }
+
+  @Test
+  public void contextsOfAUserFoundBySnapshottingAllTheContexts() {
+    final String userId = nextUser();
+    final List<SilverpeasServerEventContext> contexts = manager.getContextSnapshot()
+        .stream()
+        .filter(c -> c.getUser() != null && userId.equals(c.getUser().getId()))
+        .collect(Collectors.toList());
+    assertThat(contexts, hasSize(NB_SESSIONS_BY_USER));
+  }
+
+  private String nextUser() {
+    return String.valueOf((round++ * 7919) % NB_USERS);
+  }
+
+  /**
+   * A context of server events about a given session of a user and that sends nothing.
+   */
+  private static class ServerEventContext4Benchmark implements SilverpeasServerEventContext {
+
+    private final String sessionId;
+    private final User user;
+    private Long lastServerEventId;
+
+    ServerEventContext4Benchmark(final String sessionId, final User user) {
+      this.sessionId = sessionId;
+      this.user = user;
+    }
+
+    @Override
+    public String getRequestURI() {
+      return "/handled";
+    }
+
+    @Override
+    public String getSessionId() {
+      return sessionId;
+    }
+
+    @Override
+    public User getUser() {
+      return user;
+    }
+
+    @Override
+    public void setLastServerEventId(final Long lastServerEventId) {
+      this.lastServerEventId = lastServerEventId;
+    }
+
+    @Override
+    public Long getLastServerEventId() {
+      return lastServerEventId;
+    }
+
+    @Override
+    public void close() {
+      // nothing to close
+    }
+
+    @Override
+    public boolean isSendPossible() {
+      return true;
+    }
+
+    @Override
+    public boolean sendEvent(final String name, final long id, final String data) {
+      return true;
+    }
+  }
+}
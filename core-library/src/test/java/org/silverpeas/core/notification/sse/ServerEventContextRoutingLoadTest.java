@@ -0,0 +1,150 @@
+/*
+ * Copyright (C) 2000 - 2024 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.notification.sse;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.silverpeas.core.admin.user.model.UserDetail;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static java.util.Collections.singleton;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.when;
+
+/**
+ * Load tests on the routing of the server events among a large number of opened SSE and
+ * WebSocket contexts. The time taken by the routing is measured apart by
+ * {@link ServerEventContextRoutingBenchmarkTest}.
+ * @author mmoquillon
+ */
+class ServerEventContextRoutingLoadTest extends AbstractServerEventDispatcherTaskTest {
+
+  private static final int NB_USERS = 2500;
+  private static final int NB_SESSIONS_BY_USER = 4;
+  private static final int NB_CONTEXTS = NB_USERS * NB_SESSIONS_BY_USER;
+  private static final int NB_REG_THREAD = 10;
+
+  private final List<SilverpeasServerEventContext> contexts =
+      Collections.synchronizedList(new ArrayList<>(NB_CONTEXTS));
+
+  @BeforeEach
+  void registerContexts() throws InterruptedException {
+    contexts.clear();
+    final int nbUsersByThread = NB_USERS / NB_REG_THREAD;
+    final List<Thread> threads = IntStream.range(0, NB_REG_THREAD)
+        .mapToObj(t -> new Thread(() -> IntStream.range(0, nbUsersByThread).forEach(u -> {
+          final UserDetail user = new UserDetail();
+          user.setId(String.valueOf(t * nbUsersByThread + u));
+          IntStream.range(0, NB_SESSIONS_BY_USER).forEach(s -> {
+            final String sessionId = "SESSION_" + user.getId() + "_" + s;
+            final SilverpeasServerEventContext context = s % 2 == 0 ?
+                newMockedAsyncContext(sessionId, user) :
+                newMockedWebSocketContext(sessionId, user);
+            ServerEventDispatcherTask.registerContext(context);
+            contexts.add(context);
+          });
+        })))
+        .collect(Collectors.toList());
+    threads.forEach(Thread::start);
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertThat(serverEventContextMap.size(), is(NB_CONTEXTS));
+  }
+
+  @Test
+  void contextsAreFoundDirectlyByUserAndBySession() {
+    final SilverpeasServerEventContextManager manager = SilverpeasServerEventContextManager.get();
+    for (int u = 0; u < NB_USERS; u++) {
+      final String userId = String.valueOf(u);
+      assertThat(manager.getContextSnapshotOfUsers(singleton(userId)),
+          hasSize(NB_SESSIONS_BY_USER));
+      assertThat(manager.getContextSnapshotOfSessions(singleton("SESSION_" + userId + "_0")),
+          hasSize(1));
+    }
+  }
+
+  @Test
+  void unregisteredContextsAreNoMoreFound() {
+    final SilverpeasServerEventContextManager manager = SilverpeasServerEventContextManager.get();
+    ServerEventDispatcherTask.unregisterBySessionId("SESSION_42_1");
+    assertThat(serverEventContextMap.size(), is(NB_CONTEXTS - 1));
+    assertThat(manager.getContextSnapshotOfSessions(singleton("SESSION_42_1")), empty());
+    assertThat(manager.getContextSnapshotOfUsers(singleton("42")),
+        hasSize(NB_SESSIONS_BY_USER - 1));
+  }
+
+  @Test
+  void eventTargetingAUserIsRoutedOnlyToTheContextsOfThisUser() {
+    final ServerEvent event = newMockedServerEvent("EVENT_TO_USER", "data");
+    when(event.getTargetedUserIds()).thenReturn(singleton("42"));
+    ServerEventDispatcherTask.dispatch(event);
+    afterSomeTimesCheck(() -> {
+      for (SilverpeasServerEventContext context : contexts) {
+        final int nbSentEvents = getNbSentEvents(context);
+        if ("42".equals(context.getUser().getId())) {
+          assertThat(nbSentEvents, is(1));
+        } else {
+          assertThat(nbSentEvents, is(0));
+          assertThat(getNbIsPossibleCalls(context), is(0));
+        }
+      }
+    });
+  }
+
+  @Test
+  void eventTargetingASessionIsRoutedOnlyToTheContextOfThisSession() {
+    final ServerEvent event = newMockedServerEvent("EVENT_TO_SESSION", "data");
+    when(event.getTargetedSessionIds()).thenReturn(singleton("SESSION_42_3"));
+    ServerEventDispatcherTask.dispatch(event);
+    afterSomeTimesCheck(() -> {
+      final long nbReceivers = contexts.stream().filter(c -> getNbSentEvents(c) > 0).count();
+      assertThat(nbReceivers, is(1L));
+      assertThat(contexts.stream()
+          .filter(c -> "SESSION_42_3".equals(c.getSessionId()))
+          .mapToInt(this::getNbSentEvents)
+          .sum(), is(1));
+    });
+  }
+
+  private int getNbSentEvents(final SilverpeasServerEventContext context) {
+    if (context instanceof SilverpeasAsyncContext4Test) {
+      return ((SilverpeasAsyncContext4Test) context).getSentEvents().size();
+    }
+    return ((SilverpeasWebSocketContext4Test) context).getSentEvents().size();
+  }
+
+  private int getNbIsPossibleCalls(final SilverpeasServerEventContext context) {
+    if (context instanceof SilverpeasAsyncContext4Test) {
+      return ((SilverpeasAsyncContext4Test) context).getNbIsPossibleCalls();
+    }
+    return ((SilverpeasWebSocketContext4Test) context).getNbIsPossibleCalls();
+  }
+}
@@ -26,17 +26,51 @@ package org.silverpeas.core.notification.user.client;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.RegisterExtension;
+import org.silverpeas.core.admin.domain.model.Domain;
+import org.silverpeas.core.admin.service.Administration;
+import org.silverpeas.core.admin.user.model.UserDetail;
+import org.silverpeas.core.html.PermalinkRegistry;
+import org.silverpeas.core.notification.user.client.constant.BuiltInNotifAddress;
 import org.silverpeas.core.notification.user.client.constant.NotifChannel;
+import org.silverpeas.core.notification.user.client.model.NotifAddressRow;
+import org.silverpeas.core.notification.user.client.model.NotifAddressTable;
+import org.silverpeas.core.notification.user.client.model.NotifChannelRow;
+import org.silverpeas.core.notification.user.client.model.NotifChannelTable;
+import org.silverpeas.core.notification.user.client.model.NotifDefaultAddressRow;
+import org.silverpeas.core.notification.user.client.model.NotifDefaultAddressTable;
+import org.silverpeas.core.notification.user.client.model.NotifPreferenceRow;
+import org.silverpeas.core.notification.user.client.model.NotifPreferenceTable;
+import org.silverpeas.core.notification.user.client.model.NotificationSchema;
+import org.silverpeas.core.notification.user.delayed.model.DelayedNotificationData;
+import org.silverpeas.core.notification.user.server.NotificationData;
 import org.silverpeas.core.test.unit.extention.JEETestContext;
+import org.silverpeas.kernel.test.annotations.TestManagedBean;
+import org.silverpeas.kernel.test.annotations.TestManagedMock;
+import org.silverpeas.core.util.Link;
 import org.silverpeas.kernel.test.extension.EnableSilverTestEnv;
 import org.silverpeas.core.test.unit.extention.FieldMocker;
 import org.silverpeas.kernel.bundle.SettingBundle;
 
+import java.sql.SQLException;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.startsWith;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -48,6 +82,8 @@ class DefaultNotificationManagerTest {
   @RegisterExtension
   FieldMocker mocker = new FieldMocker();
   private SettingBundle mockedSettings;
+  @TestManagedBean
+  private PermalinkRegistry permalinkRegistry;
 
   @BeforeEach
   public void setUp() {
@@ -113,4 +149,103 @@ class DefaultNotificationManagerTest {
     assertEquals(1, actualDefaultChannels.size());
     assertEquals(NotifChannel.SMTP, actualDefaultChannels.get(0));
   }
+
+  /**
+   * The notification addresses of a lot of recipients are resolved from their preferences for
+   * the component, from their default addresses or else from the default channels, and the URLs
+   * are computed once per domain of the recipients.
+   */
+  @Test
+  void theAddressesAndTheURLsOfABatchOfRecipientsAreResolved(
+      @TestManagedMock Administration admin) throws SQLException {
+    when(mockedSettings.getBoolean("multiChannelNotification", false)).thenReturn(true);
+    when(mockedSettings.getString("notif.defaultChannels", "")).thenReturn("BASIC_SMTP_MAIL");
+    final int customAddressId = 100;
+    final NotificationSchema schema = mock(NotificationSchema.class);
+    final NotifPreferenceTable preferences = mock(NotifPreferenceTable.class);
+    final NotifDefaultAddressTable defaultAddresses = mock(NotifDefaultAddressTable.class);
+    final NotifAddressTable addresses = mock(NotifAddressTable.class);
+    final NotifChannelTable channels = mock(NotifChannelTable.class);
+    when(schema.notifPreference()).thenReturn(preferences);
+    when(schema.notifDefaultAddress()).thenReturn(defaultAddresses);
+    when(schema.notifAddress()).thenReturn(addresses);
+    when(schema.notifChannel()).thenReturn(channels);
+    // user 1 has a preference for the component, user 2 a default address, user 3 nothing
+    when(preferences.getAllByUserIdsAndComponentInstanceIdAndMessageType(anyCollection(), eq(5),
+        anyInt())).thenReturn(
+        new NotifPreferenceRow[]{new NotifPreferenceRow(1, customAddressId, 5, 1, 0)});
+    when(defaultAddresses.getAllByUserIds(anyCollection())).thenReturn(
+        new NotifDefaultAddressRow[]{
+            new NotifDefaultAddressRow(1, 2, BuiltInNotifAddress.BASIC_SILVERMAIL.getId())});
+    when(addresses.getNotifAddresses(anyCollection())).thenReturn(new NotifAddressRow[]{
+        new NotifAddressRow(customAddressId, "1", "Office", NotifChannel.SMTP.getId(),
+            "bart@office.org", NotificationParameters.USAGE_PRO, 0)});
+    when(channels.getAllRows()).thenReturn(new NotifChannelRow[]{
+        new NotifChannelRow(NotifChannel.SMTP.getId(), NotifChannel.SMTP.getName(), "", "Y",
+            "N", "Y"),
+        new NotifChannelRow(NotifChannel.SILVERMAIL.getId(), NotifChannel.SILVERMAIL.getName(),
+            "", "Y", "N", "Y")});
+    final UserDetail user1 = aUser("1", aDomain("0", "http://intranet"), "bart@home.org");
+    final UserDetail user2 = aUser("2", user1.getDomain(), "lisa@home.org");
+    final UserDetail user3 = aUser("3", aDomain("1", "http://extranet"), "homer@home.org");
+    when(admin.getUserDetails(any(String[].class)))
+        .thenReturn(new UserDetail[]{user1, user2, user3});
+
+    final DefaultNotificationManager manager = new DefaultNotificationManager();
+    mocker.setField(manager, schema, "schema");
+    final NotificationParameters params = new NotificationParameters().setComponentInstance(5)
+        .setSenderName("Marge")
+        .setTitle("A title")
+        .setMessage("A message")
+        .setSource("A source")
+        .setLink(new Link("/Publication/42", "The publication"));
+    final Map<Integer, DelayedNotificationData> dnds =
+        manager.createAllDelayedNotificationData(params, Arrays.asList("1", "2", "3"))
+            .stream()
+            .collect(Collectors.toMap(DelayedNotificationData::getUserId, Function.identity()));
+
+    assertThat(dnds.size(), is(3));
+    assertRecipient(dnds.get(1), NotifChannel.SMTP, "bart@office.org", "http://intranet",
+        "domainId=0");
+    assertRecipient(dnds.get(2), NotifChannel.SILVERMAIL, "2", "http://intranet",
+        "domainId=0");
+    assertRecipient(dnds.get(3), NotifChannel.SMTP, "homer@home.org", "http://extranet",
+        "domainId=1");
+    assertThat(dnds.get(1).getNotificationData().getMessage(), is("A message"));
+    verify(user2, never()).getDomain();
+  }
+
+  private static void assertRecipient(final DelayedNotificationData dnd,
+      final NotifChannel channel, final String address, final String serverURL,
+      final String domainParameter) {
+    final NotificationData data = dnd.getNotificationData();
+    assertThat(dnd.getChannel(), is(channel));
+    assertThat(data.getTargetChannel(), is(channel.getName()));
+    assertThat(data.getTargetReceipt(), is(address));
+    assertThat(data.getTargetParam().get(NotificationParameterNames.SUBJECT.toString()),
+        is("A title"));
+    assertThat(
+        data.getTargetParam().get(NotificationParameterNames.SERVER_BASEURL.toString()),
+        is(serverURL));
+    final String url =
+        (String) data.getTargetParam().get(NotificationParameterNames.URL.toString());
+    assertThat(url, startsWith(serverURL));
+    assertThat(url, containsString(domainParameter));
+  }
+
+  private static Domain aDomain(final String id, final String serverURL) {
+    final Domain domain = new Domain();
+    domain.setId(id);
+    domain.setSilverpeasServerURL(serverURL);
+    return domain;
+  }
+
+  private static UserDetail aUser(final String id, final Domain domain, final String email) {
+    final UserDetail user = mock(UserDetail.class);
+    when(user.getId()).thenReturn(id);
+    when(user.getDomainId()).thenReturn(domain.getId());
+    when(user.getDomain()).thenReturn(domain);
+    when(user.getEmailAddress()).thenReturn(email);
+    return user;
+  }
 }
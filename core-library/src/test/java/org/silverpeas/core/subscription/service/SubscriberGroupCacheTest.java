@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2000 - 2024 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.subscription.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.silverpeas.core.admin.service.OrganizationController;
+import org.silverpeas.core.notification.user.client.NotificationManagerSettings;
+import org.silverpeas.core.test.unit.extention.FieldMocker;
+import org.silverpeas.core.test.unit.extention.JEETestContext;
+import org.silverpeas.kernel.bundle.SettingBundle;
+import org.silverpeas.kernel.test.annotations.TestManagedMock;
+import org.silverpeas.kernel.test.extension.EnableSilverTestEnv;
+
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests about the cache of the users of the subscribed groups.
+ * @author mmoquillon
+ */
+@EnableSilverTestEnv(context = JEETestContext.class)
+class SubscriberGroupCacheTest {
+
+  private static final String TIME_TO_LIVE = "notification.subscription.groupCache.timeToLive";
+
+  @RegisterExtension
+  FieldMocker mocker = new FieldMocker();
+
+  private SettingBundle settings;
+  private OrganizationController controller;
+  private SubscriberGroupCache cache;
+
+  @BeforeEach
+  void setup(@TestManagedMock OrganizationController controller) {
+    this.controller = controller;
+    settings = mocker.mockField(NotificationManagerSettings.class, SettingBundle.class, "settings");
+    when(controller.getAllUserIdsOfGroup("1")).thenReturn(List.of("1", "2", "3"));
+    when(controller.getAllUserIdsOfGroup("2")).thenReturn(List.of("3", "4"));
+    when(controller.getAllUserIdsOfGroup("3")).thenReturn(List.of());
+    cache = new SubscriberGroupCache();
+  }
+
+  @Test
+  void usersOfSeveralGroupsAreDistinct() {
+    enableCache();
+    assertThat(cache.getAllUserIds(List.of("1", "2", "3")),
+        containsInAnyOrder("1", "2", "3", "4"));
+    assertThat(cache.getAllUserIds(List.of("3")), empty());
+  }
+
+  @Test
+  void usersOfGroupsAreFetchedEachTimeWhenCacheIsDisabled() {
+    when(settings.getInteger(eq(TIME_TO_LIVE), anyInt())).thenReturn(0);
+    cache.getAllUserIds(List.of("1", "2"));
+    cache.getAllUserIds(List.of("1"));
+    verify(controller, times(2)).getAllUserIdsOfGroup("1");
+    verify(controller, times(1)).getAllUserIdsOfGroup("2");
+  }
+
+  @Test
+  void usersOfGroupsAreFetchedOnceWhenCacheIsEnabled() {
+    enableCache();
+    cache.getAllUserIds(List.of("1", "2"));
+    cache.getAllUserIds(List.of("1"));
+    assertThat(cache.getAllUserIds(List.of("2")), containsInAnyOrder("3", "4"));
+    verify(controller, times(1)).getAllUserIdsOfGroup("1");
+    verify(controller, times(1)).getAllUserIdsOfGroup("2");
+  }
+
+  @Test
+  void usersOfGroupsAreFetchedAgainAfterAClear() {
+    enableCache();
+    cache.getAllUserIds(List.of("1"));
+    cache.clear();
+    when(controller.getAllUserIdsOfGroup("1")).thenReturn(List.of("1", "5"));
+    assertThat(cache.getAllUserIds(List.of("1")), containsInAnyOrder("1", "5"));
+    verify(controller, times(2)).getAllUserIdsOfGroup("1");
+  }
+
+  private void enableCache() {
+    when(settings.getInteger(eq(TIME_TO_LIVE), anyInt())).thenReturn(300);
+  }
+}
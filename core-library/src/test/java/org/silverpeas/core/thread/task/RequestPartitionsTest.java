@@ -0,0 +1,94 @@
+/*
+ * Copyright (C) 2000 - 2024 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.thread.task;
+
+import org.junit.jupiter.api.Test;
+import org.silverpeas.core.test.unit.extention.JEETestContext;
+import org.silverpeas.core.thread.ManagedThreadPool;
+import org.silverpeas.core.thread.task.AbstractRequestTask.ProcessContext;
+import org.silverpeas.core.thread.task.AbstractRequestTask.Request;
+import org.silverpeas.core.thread.task.RequestTaskStatistics.PartitionStatistics;
+import org.silverpeas.kernel.test.annotations.TestManagedMock;
+import org.silverpeas.kernel.test.extension.EnableSilverTestEnv;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests on the draining of the partitions of requests when no thread can be supplied by
+ * the {@link ManagedThreadPool}.
+ * @author mmoquillon
+ */
+@EnableSilverTestEnv(context = JEETestContext.class)
+class RequestPartitionsTest {
+
+  @TestManagedMock
+  private ManagedThreadPool threadPool;
+
+  private final List<Request<ProcessContext>> processed = new ArrayList<>();
+
+  @Test
+  void aPartitionIsDrainedByTheCallerWhenThePoolRefusesTheDraining() throws Exception {
+    when(threadPool.invoke(any(Callable.class)))
+        .thenThrow(new RejectedExecutionException("shutting down"));
+    final RequestPartitions<ProcessContext> partitions = newPartitions();
+    final Request<ProcessContext> first = c -> {};
+    final Request<ProcessContext> second = c -> {};
+
+    partitions.dispatch("1", first);
+    partitions.dispatch("1", second);
+    partitions.awaitCompletion();
+
+    assertThat(processed, contains(first, second));
+  }
+
+  @Test
+  void theRequestsOfAPartitionAreDiscardedWhenTheDrainingIsInterrupted() throws Exception {
+    when(threadPool.invoke(any(Callable.class))).thenThrow(new InterruptedException());
+    final RequestPartitions<ProcessContext> partitions = newPartitions();
+
+    partitions.dispatch("1", c -> {});
+    partitions.dispatch("2", c -> {});
+    assertThat(Thread.interrupted(), is(true));
+    // nothing left to wait for
+    partitions.awaitCompletion();
+
+    assertThat(processed, is(empty()));
+  }
+
+  private RequestPartitions<ProcessContext> newPartitions() {
+    final List<PartitionStatistics> statistics =
+        List.of(new PartitionStatistics(0), new PartitionStatistics(1));
+    return new RequestPartitions<>(2, 1, statistics, processed::addAll);
+  }
+}
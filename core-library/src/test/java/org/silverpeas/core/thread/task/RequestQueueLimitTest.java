@@ -0,0 +1,107 @@
+/*
+ * Copyright (C) 2000 - 2024 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception. You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "http://www.silverpeas.org/docs/core/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.thread.task;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * @author mmoquillon
+ */
+class RequestQueueLimitTest {
+
+  @Test
+  void aFixedLimitDoesNotFollowTheDrainRate() {
+    RequestQueueLimit limit = new RequestQueueLimit(100);
+    limit.requestsProcessed(1, 1000);
+    assertThat(limit.getLimit(), is(100));
+    assertThat(limit.availablePermits(), is(100));
+  }
+
+  @Test
+  void anAdaptiveLimitFollowsTheDrainRateOfTheRequests() {
+    // 2 partitions, the requests have to be processed within 10s
+    RequestQueueLimit limit = new RequestQueueLimit(10, 1000, 10000, 2);
+    assertThat(limit.getLimit(), is(1000));
+
+    // 10 requests in 1s per partition: 20 requests/s, so 200 requests can be processed in 10s
+    limit.requestsProcessed(10, 1000);
+    assertThat(limit.getLimit(), is(200));
+    assertThat(limit.availablePermits(), is(200));
+
+    // the processing slows down: the limit decreases with the moving average of the drain rate
+    limit.requestsProcessed(1, 1000);
+    assertThat(limit.getLimit(), is(164));
+
+    // the processing speeds up: the limit grows up to its maximum
+    for (int i = 0; i < 20; i++) {
+      limit.requestsProcessed(100, 100);
+    }
+    assertThat(limit.getLimit(), is(1000));
+  }
+
+  @Test
+  void anAdaptiveLimitIsNeverLowerThanItsMinimum() {
+    RequestQueueLimit limit = new RequestQueueLimit(10, 1000, 10000, 1);
+    for (int i = 0; i < 20; i++) {
+      limit.requestsProcessed(1, 60000);
+    }
+    assertThat(limit.getLimit(), is(10));
+  }
+
+  @Test
+  void aShrunkLimitBlocksThePushesUntilTheRequestsAboveItAreProcessed() throws Exception {
+    RequestQueueLimit limit = new RequestQueueLimit(1, 4, 1000, 1);
+    for (int i = 0; i < 4; i++) {
+      limit.acquire();
+    }
+    // 1 request/s: only one request can be processed within 1s
+    limit.requestsProcessed(1, 1000);
+    assertThat(limit.getLimit(), is(1));
+    assertThat(limit.availablePermits(), is(-3));
+
+    CountDownLatch pushed = new CountDownLatch(1);
+    Thread pusher = new Thread(() -> {
+      try {
+        limit.acquire();
+        pushed.countDown();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    });
+    pusher.start();
+    for (int i = 0; i < 3; i++) {
+      limit.release();
+    }
+    assertThat(pushed.await(200, TimeUnit.MILLISECONDS), is(false));
+    limit.release();
+    assertThat(pushed.await(5, TimeUnit.SECONDS), is(true));
+    pusher.join();
+  }
+}
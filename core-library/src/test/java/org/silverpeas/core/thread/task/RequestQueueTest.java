@@ -0,0 +1,94 @@
+/*
+ * Copyright (C) 2000 - 2024 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception. You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "http://www.silverpeas.org/docs/core/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.thread.task;
+
+import org.junit.jupiter.api.Test;
+import org.silverpeas.core.thread.task.TestRequestTask.SleepTestRequest;
+import org.silverpeas.core.thread.task.TestRequestTask.TestProcessContext;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * @author mmoquillon
+ */
+class RequestQueueTest {
+
+  @Test
+  void requestsAreTakenInTheOrderTheyWereAdded() {
+    RequestQueue<TestProcessContext> queue = new RequestQueue<>();
+    SleepTestRequest first = new SleepTestRequest(0);
+    SleepTestRequest second = new SleepTestRequest(0);
+    assertThat(queue.add(first), is(true));
+    assertThat(queue.add(second), is(true));
+    assertThat(queue.size(), is(2));
+
+    assertThat(queue.poll().getRequest(), is(first));
+    assertThat(queue.poll().getRequest(), is(second));
+    assertThat(queue.poll(), nullValue());
+    assertThat(queue.isEmpty(), is(true));
+  }
+
+  @Test
+  void awaitingRequestIsReplacedAtItsPlaceByTheOneWithTheSameReplacementId() {
+    RequestQueue<TestProcessContext> queue = new RequestQueue<>();
+    ReplacingTestRequest first = new ReplacingTestRequest("A");
+    SleepTestRequest second = new SleepTestRequest(0);
+    ReplacingTestRequest third = new ReplacingTestRequest("A");
+    assertThat(queue.add(first), is(true));
+    assertThat(queue.add(second), is(true));
+    assertThat(queue.add(third), is(false));
+    assertThat(queue.size(), is(2));
+
+    assertThat(queue.poll().getRequest(), is(third));
+    assertThat(queue.poll().getRequest(), is(second));
+    assertThat(queue.isEmpty(), is(true));
+  }
+
+  @Test
+  void takenRequestIsNotReplaced() {
+    RequestQueue<TestProcessContext> queue = new RequestQueue<>();
+    ReplacingTestRequest first = new ReplacingTestRequest("A");
+    ReplacingTestRequest second = new ReplacingTestRequest("A");
+    assertThat(queue.add(first), is(true));
+    assertThat(queue.poll().getRequest(), is(first));
+    assertThat(queue.add(second), is(true));
+    assertThat(queue.size(), is(1));
+    assertThat(queue.poll().getRequest(), is(second));
+  }
+
+  private static class ReplacingTestRequest extends SleepTestRequest {
+    private final String replacementId;
+
+    ReplacingTestRequest(final String replacementId) {
+      super(0);
+      this.replacementId = replacementId;
+    }
+
+    @Override
+    public String getReplacementId() {
+      return replacementId;
+    }
+  }
+}
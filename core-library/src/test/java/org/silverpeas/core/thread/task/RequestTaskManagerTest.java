@@ -51,7 +51,8 @@ import static org.hamcrest.Matchers.*;
 @EnableSilverTestEnv(context = JEETestContext.class)
 @LoggerLevel(Level.DEBUG)
 @TestManagedBeans({TestRequestTask.class, TestRequestTaskWithLimit.class,
-    TestRequestTaskWithAfterNoMoreRequestLongTreatment.class})
+    TestRequestTaskWithAfterNoMoreRequestLongTreatment.class,
+    TestRequestTaskWithPartitions.class, TestRequestTaskWithBatches.class})
 class RequestTaskManagerTest {
 
   @TestedBean
@@ -337,6 +338,63 @@ class RequestTaskManagerTest {
     assertThat(counter, is(nbSleepRequests));
   }
 
+  @Test
+  void partitionedRequestsAreProcessedInParallelButInOrderWithinAPartition() {
+    TestRequestTaskWithPartitions.processed.clear();
+    final int nbPartitions = 6;
+    final int nbRequestsPerPartition = 20;
+    for (int i = 0; i < nbRequestsPerPartition; i++) {
+      for (int p = 0; p < nbPartitions; p++) {
+        TestRequestTaskWithPartitions.newPartitionedRequest("partition-" + p, i);
+      }
+    }
+    RequestTaskMonitor<? extends AbstractRequestTask.Request<TestRequestTask.TestProcessContext>,
+        TestRequestTask.TestProcessContext>
+        monitor = waitForTaskEndingAtEndOfTest(TestRequestTaskWithPartitions.class);
+    assertThatThreadsAreStoppedAndMonitorsAreCleanedAndQueuesAreConsummed(monitor);
+    assertThat(counter, is(nbPartitions * nbRequestsPerPartition));
+    assertThat(TestRequestTaskWithPartitions.processed.size(), is(nbPartitions));
+    TestRequestTaskWithPartitions.processed.values().forEach(orders -> {
+      assertThat(orders.size(), is(nbRequestsPerPartition));
+      for (int i = 0; i < nbRequestsPerPartition; i++) {
+        assertThat(orders.get(i), is(i));
+      }
+    });
+
+    RequestTaskStatistics statistics =
+        taskManager.getStatistics(TestRequestTaskWithPartitions.class).orElseThrow();
+    assertThat(statistics.getQueueDepth(), is(0));
+    assertThat(statistics.getPushedCount(), is((long) nbPartitions * nbRequestsPerPartition));
+    assertThat(statistics.getProcessingStatistics().getCount(),
+        is((long) nbPartitions * nbRequestsPerPartition));
+    assertThat(statistics.getWaitingStatistics().getCount(),
+        is((long) nbPartitions * nbRequestsPerPartition));
+    assertThat(statistics.getPartitionStatistics().size(), is(4));
+    statistics.getPartitionStatistics()
+        .forEach(partition -> assertThat(partition.getQueueDepth(), is(0)));
+    assertThat(statistics.getPartitionStatistics()
+            .stream()
+            .mapToLong(partition -> partition.getLatencyStatistics().getCount())
+            .sum(),
+        is((long) nbPartitions * nbRequestsPerPartition));
+  }
+
+  @Test
+  void requestsAreTakenByBatches() {
+    TestRequestTaskWithBatches.maxBatchSize.set(0);
+    final int nbRequests = 100;
+    for (int i = 0; i < nbRequests; i++) {
+      TestRequestTaskWithBatches.newRandomSleepRequest();
+    }
+    RequestTaskMonitor<? extends AbstractRequestTask.Request<TestRequestTask.TestProcessContext>,
+        TestRequestTask.TestProcessContext>
+        monitor = waitForTaskEndingAtEndOfTest(TestRequestTaskWithBatches.class);
+    assertThatThreadsAreStoppedAndMonitorsAreCleanedAndQueuesAreConsummed(monitor);
+    assertThat(counter, is(nbRequests));
+    assertThat(TestRequestTaskWithBatches.maxBatchSize.get(),
+        allOf(greaterThan(1), lessThanOrEqualTo(TestRequestTaskWithBatches.BATCH_SIZE)));
+  }
+
   @SuppressWarnings("unchecked")
   private RequestTaskMonitor<?
       extends AbstractRequestTask.Request<TestRequestTask.TestProcessContext>,
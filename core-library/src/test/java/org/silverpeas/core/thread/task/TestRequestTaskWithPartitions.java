@@ -0,0 +1,69 @@
+/*
+ * Copyright (C) 2000 - 2024 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception. You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "http://www.silverpeas.org/docs/core/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.thread.task;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * @author mmoquillon
+ */
+public class TestRequestTaskWithPartitions extends TestRequestTask {
+
+  static final Map<String, List<Integer>> processed = new ConcurrentHashMap<>();
+
+  static void newPartitionedRequest(final String partitionKey, final int order) {
+    RequestTaskManager.get()
+        .push(TestRequestTaskWithPartitions.class, new PartitionedTestRequest(partitionKey, order));
+  }
+
+  @Override
+  protected int getParallelism() {
+    return 4;
+  }
+
+  static class PartitionedTestRequest extends SleepTestRequest {
+    private final String partitionKey;
+    private final int order;
+
+    PartitionedTestRequest(final String partitionKey, final int order) {
+      super((int) (Math.random() * 5));
+      this.partitionKey = partitionKey;
+      this.order = order;
+    }
+
+    @Override
+    public String getPartitionKey() {
+      return partitionKey;
+    }
+
+    @Override
+    public void process(final TestProcessContext context) throws InterruptedException {
+      super.process(context);
+      processed.computeIfAbsent(partitionKey, k -> new CopyOnWriteArrayList<>()).add(order);
+    }
+  }
+}
@@ -0,0 +1,425 @@
+/*
+ * Copyright (C) 2000 - 2024 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.pdc.classification;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * An in-memory faceted index of the classification of the contents on the axis of the PdC. It is
+ * made up of bitmaps of position identifiers: one per value of each axis, one per axis, one per
+ * component instance and one with the positions of the contents visible at a given day. The
+ * number of contents matching some criteria on the PdC is then computed by intersecting those
+ * bitmaps instead of by joining the classification table with the content tables in the database.
+ * <p>
+ * The index follows the semantic of the SQL statements it substitutes to: a criterion on an axis
+ * matches any value starting with the value of the criterion, all the criteria have to be
+ * satisfied by a same position of a content, only the visible contents at the given day are taken
+ * into account and each content is counted once whatever the number of its matching positions.
+ * </p>
+ * <p>
+ * The index is safe for concurrent access: the counting is performed under a read lock whereas
+ * the indexing of the positions is performed under a write lock.
+ * </p>
+ * @author mmoquillon
+ */
+final class ClassificationFacetIndex {
+
+  private static final int NONE = -1;
+
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  // for each physical axis, the positions per value sorted by value for the prefix matching
+  private final List<NavigableMap<String, BitSet>> valuePositions;
+  // for each physical axis, the positions having a value on it
+  private final BitSet[] axisPositions;
+  private final Map<String, BitSet> instancePositions = new HashMap<>();
+  private final BitSet allPositions = new BitSet();
+  // the content of each position, indexed by the position identifier
+  private int[] positionObjects = new int[0];
+  // the positions of a content are chained from the first one by the next position of each
+  private int[] firstPositions = new int[0];
+  private int[] nextPositions = new int[0];
+  // the visibility period of each content, indexed by the content identifier
+  private int[] visibleFrom = new int[0];
+  private int[] visibleTo = new int[0];
+  private volatile VisiblePositions visiblePositions = null;
+
+  /**
+   * Constructs an empty index for the specified number of physical axis.
+   * @param nbMaxAxis the maximum number of axis the classification engine supports.
+   */
+  ClassificationFacetIndex(final int nbMaxAxis) {
+    valuePositions = new ArrayList<>(nbMaxAxis);
+    axisPositions = new BitSet[nbMaxAxis];
+    for (int i = 0; i < nbMaxAxis; i++) {
+      valuePositions.add(new TreeMap<>());
+      axisPositions[i] = new BitSet();
+    }
+  }
+
+  /**
+   * Indexes the specified position of a content.
+   * @param entry a position of a content.
+   */
+  void add(final Entry entry) {
+    lock.writeLock().lock();
+    try {
+      index(entry);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Replaces atomically all the positions of the specified contents by the given ones. A content
+   * without any new positions is then removed from the index.
+   * @param objectIds the unique identifiers of the contents to reindex.
+   * @param entries the new positions of the contents.
+   */
+  void replace(final Collection<Integer> objectIds, final List<Entry> entries) {
+    lock.writeLock().lock();
+    try {
+      removeAll(objectIds);
+      entries.forEach(this::index);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Gets the content classified at the specified position.
+   * @param positionId the unique identifier of a position.
+   * @return the unique identifier of the content or -1 if the position isn't indexed.
+   */
+  int getObjectAt(final int positionId) {
+    lock.readLock().lock();
+    try {
+      return positionId >= 0 && positionId < positionObjects.length ?
+          positionObjects[positionId] : NONE;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Counts the contents classified on the given axis and matching the specified criteria.
+   * @param criteria the criteria on the physical axis.
+   * @param axisId the physical axis identifier.
+   * @param instanceIds the component instances the contents have to belong to. If empty, all the
+   * component instances are taken into account.
+   * @param today the current day in the format yyyy/MM/dd.
+   * @return the number of distinct contents.
+   */
+  int countObjects(final List<? extends Criteria> criteria, final int axisId,
+      final List<String> instanceIds, final String today) {
+    lock.readLock().lock();
+    try {
+      BitSet positions = getMatchingPositions(criteria, instanceIds, today);
+      positions.and(axisPositions[axisId]);
+      return countObjects(positions);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Counts per value of the given axis the contents classified on it and matching the specified
+   * criteria. The values without any matching contents are skipped.
+   * @param criteria the criteria on the physical axis.
+   * @param axisId the physical axis identifier.
+   * @param instanceIds the component instances the contents have to belong to. If empty, all the
+   * component instances are taken into account.
+   * @param today the current day in the format yyyy/MM/dd.
+   * @return the number of distinct contents per value, ordered by value.
+   */
+  Map<String, Integer> countObjectsPerValue(final List<? extends Criteria> criteria,
+      final int axisId, final List<String> instanceIds, final String today) {
+    lock.readLock().lock();
+    try {
+      final BitSet positions = getMatchingPositions(criteria, instanceIds, today);
+      final Map<String, Integer> counts = new LinkedHashMap<>();
+      for (Map.Entry<String, BitSet> value : valuePositions.get(axisId).entrySet()) {
+        if (value.getValue().intersects(positions)) {
+          BitSet valuePositionsMatching = (BitSet) value.getValue().clone();
+          valuePositionsMatching.and(positions);
+          counts.put(value.getKey(), countObjects(valuePositionsMatching));
+        }
+      }
+      return counts;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private BitSet getMatchingPositions(final List<? extends Criteria> criteria,
+      final List<String> instanceIds, final String today) {
+    final BitSet positions = (BitSet) getVisiblePositions(parseDate(today)).clone();
+    if (!instanceIds.isEmpty()) {
+      final BitSet inInstances = new BitSet();
+      for (String instanceId : instanceIds) {
+        BitSet instance = instancePositions.get(instanceId);
+        if (instance != null) {
+          inInstances.or(instance);
+        }
+      }
+      positions.and(inInstances);
+    }
+    for (Criteria criterion : criteria) {
+      if (criterion.getValue() != null && !positions.isEmpty()) {
+        positions.and(getPositionsStartingWith(criterion.getAxisId(), criterion.getValue()));
+      }
+    }
+    return positions;
+  }
+
+  private BitSet getPositionsStartingWith(final int axisId, final String value) {
+    final BitSet positions = new BitSet();
+    valuePositions.get(axisId)
+        .subMap(value, true, value + Character.MAX_VALUE, false)
+        .values()
+        .forEach(positions::or);
+    return positions;
+  }
+
+  private int countObjects(final BitSet positions) {
+    final BitSet objects = new BitSet();
+    for (int p = positions.nextSetBit(0); p >= 0; p = positions.nextSetBit(p + 1)) {
+      objects.set(positionObjects[p]);
+    }
+    return objects.cardinality();
+  }
+
+  /**
+   * Gets the positions of the contents visible at the given day. They are computed once per day
+   * and then updated along with the indexing of the positions.
+   */
+  private BitSet getVisiblePositions(final int day) {
+    VisiblePositions visible = visiblePositions;
+    if (visible == null || visible.day != day) {
+      final BitSet positions = new BitSet();
+      for (int p = allPositions.nextSetBit(0); p >= 0; p = allPositions.nextSetBit(p + 1)) {
+        if (isVisible(positionObjects[p], day)) {
+          positions.set(p);
+        }
+      }
+      visible = new VisiblePositions(day, positions);
+      visiblePositions = visible;
+    }
+    return visible.positions;
+  }
+
+  private boolean isVisible(final int objectId, final int day) {
+    return day != NONE && visibleFrom[objectId] <= day && day <= visibleTo[objectId];
+  }
+
+  private void index(final Entry entry) {
+    final int positionId = entry.positionId;
+    final int objectId = entry.objectId;
+    if (positionId < positionObjects.length && positionObjects[positionId] != NONE) {
+      removePosition(positionId);
+    }
+    positionObjects = ensureCapacity(positionObjects, positionId);
+    nextPositions = ensureCapacity(nextPositions, positionId);
+    firstPositions = ensureCapacity(firstPositions, objectId);
+    visibleFrom = ensureCapacity(visibleFrom, objectId);
+    visibleTo = ensureCapacity(visibleTo, objectId);
+
+    positionObjects[positionId] = objectId;
+    nextPositions[positionId] = firstPositions[objectId];
+    firstPositions[objectId] = positionId;
+    final int from = parseDate(entry.beginDate);
+    final int to = parseDate(entry.endDate);
+    final boolean defined = entry.visible && from != NONE && to != NONE;
+    visibleFrom[objectId] = defined ? from : Integer.MAX_VALUE;
+    visibleTo[objectId] = defined ? to : Integer.MIN_VALUE;
+
+    allPositions.set(positionId);
+    instancePositions.computeIfAbsent(entry.instanceId, i -> new BitSet()).set(positionId);
+    for (int axisId = 0; axisId < entry.values.length && axisId < axisPositions.length; axisId++) {
+      String value = entry.values[axisId];
+      if (value != null) {
+        valuePositions.get(axisId).computeIfAbsent(value, v -> new BitSet()).set(positionId);
+        axisPositions[axisId].set(positionId);
+      }
+    }
+    final VisiblePositions visible = visiblePositions;
+    if (visible != null) {
+      visible.positions.set(positionId, isVisible(objectId, visible.day));
+    }
+  }
+
+  private void removeAll(final Collection<Integer> objectIds) {
+    final BitSet removed = new BitSet();
+    for (int objectId : objectIds) {
+      if (objectId >= 0 && objectId < firstPositions.length) {
+        for (int p = firstPositions[objectId]; p != NONE; p = nextPositions[p]) {
+          removed.set(p);
+          positionObjects[p] = NONE;
+        }
+        firstPositions[objectId] = NONE;
+      }
+    }
+    if (!removed.isEmpty()) {
+      unset(removed);
+    }
+  }
+
+  private void removePosition(final int positionId) {
+    final int objectId = positionObjects[positionId];
+    int previous = NONE;
+    for (int p = firstPositions[objectId]; p != NONE; previous = p, p = nextPositions[p]) {
+      if (p == positionId) {
+        if (previous == NONE) {
+          firstPositions[objectId] = nextPositions[p];
+        } else {
+          nextPositions[previous] = nextPositions[p];
+        }
+        break;
+      }
+    }
+    positionObjects[positionId] = NONE;
+    final BitSet removed = new BitSet();
+    removed.set(positionId);
+    unset(removed);
+  }
+
+  private void unset(final BitSet removed) {
+    allPositions.andNot(removed);
+    instancePositions.values().removeIf(positions -> andNotIsEmpty(positions, removed));
+    for (int axisId = 0; axisId < axisPositions.length; axisId++) {
+      if (axisPositions[axisId].intersects(removed)) {
+        axisPositions[axisId].andNot(removed);
+        valuePositions.get(axisId).values().removeIf(positions -> andNotIsEmpty(positions, removed));
+      }
+    }
+    final VisiblePositions visible = visiblePositions;
+    if (visible != null) {
+      visible.positions.andNot(removed);
+    }
+  }
+
+  private static boolean andNotIsEmpty(final BitSet positions, final BitSet removed) {
+    positions.andNot(removed);
+    return positions.isEmpty();
+  }
+
+  private static int[] ensureCapacity(final int[] array, final int index) {
+    if (index < array.length) {
+      return array;
+    }
+    final int[] newArray = Arrays.copyOf(array, Math.max(index + 1, array.length * 2));
+    Arrays.fill(newArray, array.length, newArray.length, NONE);
+    return newArray;
+  }
+
+  /**
+   * Converts a date in the format yyyy/MM/dd into an integer yyyyMMdd preserving the lexical order
+   * by which the dates are compared in the database.
+   * @return the date as an integer or -1 if the date isn't defined or isn't in the expected format.
+   */
+  private static int parseDate(final String date) {
+    if (date == null || date.length() != 10) {
+      return NONE;
+    }
+    int day = 0;
+    for (int i = 0; i < date.length(); i++) {
+      char c = date.charAt(i);
+      if (Character.isDigit(c)) {
+        day = day * 10 + (c - '0');
+      } else if (i != 4 && i != 7) {
+        return NONE;
+      }
+    }
+    return day;
+  }
+
+  private static final class VisiblePositions {
+    private final int day;
+    private final BitSet positions;
+
+    private VisiblePositions(final int day, final BitSet positions) {
+      this.day = day;
+      this.positions = positions;
+    }
+  }
+
+  /**
+   * A position of a content on the axis of the PdC with the properties of the content the facets
+   * depend on.
+   */
+  static final class Entry {
+    private final int positionId;
+    private final int objectId;
+    private final String instanceId;
+    private final String beginDate;
+    private final String endDate;
+    private final boolean visible;
+    private final String[] values;
+
+    /**
+     * Constructs a new entry of the index.
+     * @param positionId the unique identifier of the position.
+     * @param objectId the unique identifier of the classified content.
+     * @param instanceId the unique identifier of the component instance of the content.
+     * @param visibility the begin date, the end date of the content visibility in the format
+     * yyyy/MM/dd and whether the content is visible.
+     * @param values the value on each physical axis, null if the position isn't on the axis.
+     */
+    Entry(final int positionId, final int objectId, final String instanceId,
+        final Visibility visibility, final String[] values) {
+      this.positionId = positionId;
+      this.objectId = objectId;
+      this.instanceId = instanceId;
+      this.beginDate = visibility.beginDate;
+      this.endDate = visibility.endDate;
+      this.visible = visibility.visible;
+      this.values = values;
+    }
+  }
+
+  /**
+   * The visibility of a classified content.
+   */
+  static final class Visibility {
+    private final String beginDate;
+    private final String endDate;
+    private final boolean visible;
+
+    Visibility(final String beginDate, final String endDate, final boolean visible) {
+      this.beginDate = beginDate;
+      this.endDate = endDate;
+      this.visible = visible;
+    }
+  }
+}
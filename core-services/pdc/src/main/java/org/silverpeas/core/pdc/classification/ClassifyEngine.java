@@ -35,17 +35,27 @@ import org.silverpeas.kernel.util.StringUtil;
 import org.silverpeas.kernel.logging.SilverLogger;
 
 import javax.annotation.PostConstruct;
+import javax.enterprise.event.Event;
+import javax.enterprise.event.Observes;
+import javax.inject.Inject;
 import javax.inject.Singleton;
 import javax.transaction.Transactional;
 import java.sql.Connection;
 import java.sql.Date;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import static javax.enterprise.event.TransactionPhase.AFTER_SUCCESS;
 
 /**
  * This class represents the ClassifyEngine API It gives access to functions for classifying,
@@ -56,6 +66,10 @@ import java.util.concurrent.ConcurrentHashMap;
 @Singleton
 @Transactional
 public class ClassifyEngine implements SilverContentPostUpdate {
+  // Maximum number of contents whose the positions are reindexed by a single statement
+  private static final int FACET_RELOAD_CHUNK_SIZE = 1000;
+  // Beyond this number of outdated contents, the faceted index is rebuilt rather than patched
+  private static final int MAX_OUTDATED_FACETS = 10 * FACET_RELOAD_CHUNK_SIZE;
   // Maximum number of axis processed by the classifyEngine (from properties)
   private int nbMaxAxis = 0;
   // Helper object to build all the SQL statements
@@ -64,6 +78,20 @@ public class ClassifyEngine implements SilverContentPostUpdate {
   private int[] registeredAxis = null;
   // GetSinglePertinentAxis Cache
   private Map<String, PertinentAxis> singlePertinentAxis = new ConcurrentHashMap<>(0);
+  // Faceted index of the classified contents (null if the pertinent axis and values are
+  // computed by the database)
+  private volatile ClassificationFacetIndex facetIndex = null;
+  private boolean facetIndexEnabled = false;
+  // The faceted index has to be rebuilt
+  private final AtomicBoolean facetIndexOutdated = new AtomicBoolean(true);
+  // The contents whose the positions have to be reindexed before the next count
+  private final Set<Integer> outdatedFacets = ConcurrentHashMap.newKeySet();
+  // The changed positions whose content wasn't found in the faceted index, as it can be being
+  // built: their content is resolved in the built index before the next count
+  private final Set<Integer> outdatedPositions = ConcurrentHashMap.newKeySet();
+  // The changes in the classification, applied on the faceted index once committed
+  @Inject
+  private Event<FacetsChange> facetsChanges;
 
   private static ClassifyEngine getInstance() {
     return ServiceProvider.getService(ClassifyEngine.class);
@@ -76,6 +104,7 @@ public class ClassifyEngine implements SilverContentPostUpdate {
         ResourceLocator.getSettingBundle("org.silverpeas.classifyEngine.ClassifyEngine");
     String sMaxAxis = res.getString("MaxAxis");
     nbMaxAxis = Integer.parseInt(sMaxAxis);
+    facetIndexEnabled = res.getBoolean("FacetIndexEnabled", false);
     try {
       registeredAxis = loadRegisteredAxis();
     } catch (ClassifyEngineException e) {
@@ -98,6 +127,7 @@ public class ClassifyEngine implements SilverContentPostUpdate {
   @Override
   public void postSilverpeasContentUpdate(final int silverContentId) {
     clearCache();
+    invalidateFacetsOf(silverContentId);
   }
 
   private static void clearCache() {
@@ -141,6 +171,7 @@ public class ClassifyEngine implements SilverContentPostUpdate {
 
       // Clear cache
       singlePertinentAxis.clear();
+      invalidateFacets();
     } catch (Exception e) {
       throw new ClassifyEngineException(e);
     } finally {
@@ -182,6 +213,7 @@ public class ClassifyEngine implements SilverContentPostUpdate {
 
       // Clear cache
       singlePertinentAxis.clear();
+      invalidateFacets();
 
       return alDeletedPositionIds;
     } catch (Exception e) {
@@ -326,6 +358,7 @@ public class ClassifyEngine implements SilverContentPostUpdate {
 
       // Clear cache
       singlePertinentAxis.clear();
+      invalidateFacetsOf(silverObjectId);
 
       return newPositionId;
     } catch (Exception e) {
@@ -350,6 +383,7 @@ public class ClassifyEngine implements SilverContentPostUpdate {
 
       // Clear cache
       singlePertinentAxis.clear();
+      invalidateFacetsOf(nSilverObjectId);
     } catch (Exception e) {
       throw new ClassifyEngineException(e);
     }
@@ -372,6 +406,7 @@ public class ClassifyEngine implements SilverContentPostUpdate {
 
       // Clear cache
       singlePertinentAxis.clear();
+      invalidateFacetsAt(nPositionId);
     } catch (Exception e) {
       throw new ClassifyEngineException(e);
     }
@@ -403,6 +438,7 @@ public class ClassifyEngine implements SilverContentPostUpdate {
 
       // Clear cache
       singlePertinentAxis.clear();
+      invalidateFacetsAt(newPosition.getPositionId());
     } catch (Exception e) {
       throw new ClassifyEngineException(e);
     }
@@ -428,6 +464,7 @@ public class ClassifyEngine implements SilverContentPostUpdate {
         // Clear cache
         singlePertinentAxis.clear();
       }
+      invalidateFacetsOf(nSilverObjectId);
     } catch (Exception e) {
       throw new ClassifyEngineException(e);
     }
@@ -545,6 +582,7 @@ public class ClassifyEngine implements SilverContentPostUpdate {
 
       // Clear cache
       singlePertinentAxis.clear();
+      invalidateFacets();
     } catch (Exception e) {
       throw new ClassifyEngineException(e);
     }
@@ -577,6 +615,7 @@ public class ClassifyEngine implements SilverContentPostUpdate {
 
       // Clear cache
       singlePertinentAxis.clear();
+      invalidateFacets();
 
     } catch (Exception e) {
       throw new ClassifyEngineException(e);
@@ -636,11 +675,184 @@ public class ClassifyEngine implements SilverContentPostUpdate {
 
       // Clear cache
       singlePertinentAxis.clear();
+      invalidateFacets();
     } catch (Exception e) {
       throw new ClassifyEngineException(e);
     }
   }
 
+  /**
+   * Gets the faceted index of the classified contents. The index is built at first use and after
+   * any change on the axis themselves; the positions of the contents whose the classification or
+   * the visibility has changed since the last call are reindexed from the database.
+   * @param connection a connection to the database.
+   * @return the faceted index or null if the facets are computed by the database.
+   * @throws SQLException if the classified contents cannot be read from the database.
+   */
+  private ClassificationFacetIndex getFacetIndex(final Connection connection)
+      throws SQLException {
+    if (!facetIndexEnabled) {
+      return null;
+    }
+    if (facetIndexOutdated.get() || !outdatedFacets.isEmpty() || !outdatedPositions.isEmpty()) {
+      // the rebuild and the reindexing of the outdated contents are serialized
+      synchronized (facetIndexOutdated) {
+        rebuildFacetIndexIfOutdated(connection);
+        resolveOutdatedPositions();
+        reindexOutdatedFacets(connection);
+      }
+    }
+    return facetIndex;
+  }
+
+  private void rebuildFacetIndexIfOutdated(final Connection connection) throws SQLException {
+    if (facetIndexOutdated.getAndSet(false)) {
+      // the changes committed up to now are all taken into account by the rebuild
+      outdatedFacets.clear();
+      outdatedPositions.clear();
+      try {
+        final ClassificationFacetIndex index = new ClassificationFacetIndex(nbMaxAxis);
+        loadFacets(connection, null, index::add);
+        facetIndex = index;
+      } catch (SQLException e) {
+        facetIndexOutdated.set(true);
+        throw e;
+      }
+    }
+  }
+
+  /**
+   * Resolves in the faceted index the contents classified at the outdated positions so that they
+   * are reindexed. A position that isn't in the built index has no content to reindex: either it
+   * was removed before the index was built or its content is itself tracked as outdated.
+   */
+  private void resolveOutdatedPositions() {
+    final ClassificationFacetIndex index = facetIndex;
+    if (outdatedPositions.isEmpty() || index == null) {
+      return;
+    }
+    final List<Integer> positionIds = new ArrayList<>(outdatedPositions);
+    outdatedPositions.removeAll(positionIds);
+    for (Integer positionId : positionIds) {
+      final int objectId = index.getObjectAt(positionId);
+      if (objectId >= 0) {
+        outdatedFacets.add(objectId);
+      }
+    }
+  }
+
+  private void reindexOutdatedFacets(final Connection connection) throws SQLException {
+    if (outdatedFacets.isEmpty()) {
+      return;
+    }
+    final ClassificationFacetIndex index = facetIndex;
+    final List<Integer> objectIds = new ArrayList<>(outdatedFacets);
+    outdatedFacets.removeAll(objectIds);
+    try {
+      for (int i = 0; i < objectIds.size(); i += FACET_RELOAD_CHUNK_SIZE) {
+        final List<Integer> chunk =
+            objectIds.subList(i, Math.min(objectIds.size(), i + FACET_RELOAD_CHUNK_SIZE));
+        final List<ClassificationFacetIndex.Entry> entries = new ArrayList<>();
+        loadFacets(connection, chunk, entries::add);
+        index.replace(chunk, entries);
+      }
+    } catch (SQLException e) {
+      outdatedFacets.addAll(objectIds);
+      throw e;
+    }
+  }
+
+  // Load the positions of the given classified contents (all of them if null) for the facets
+  private void loadFacets(final Connection connection, final Collection<Integer> silverObjectIds,
+      final Consumer<ClassificationFacetIndex.Entry> consumer) throws SQLException {
+    final String sSQLStatement =
+        sqlStatement.buildGetClassifiedContentsStatement(nbMaxAxis, silverObjectIds);
+    try (final PreparedStatement prepStmt = connection.prepareStatement(sSQLStatement)) {
+      prepStmt.setFetchSize(FACET_RELOAD_CHUNK_SIZE);
+      try (final ResultSet resSet = prepStmt.executeQuery()) {
+        while (resSet.next()) {
+          int positionId = resSet.getInt(1);
+          int objectId = resSet.getInt(2);
+          if (positionId >= 0 && objectId >= 0) {
+            String[] values = new String[nbMaxAxis];
+            for (int nI = 0; nI < nbMaxAxis; nI++) {
+              values[nI] = resSet.getString(7 + nI);
+            }
+            ClassificationFacetIndex.Visibility visibility =
+                new ClassificationFacetIndex.Visibility(resSet.getString(4), resSet.getString(5),
+                    resSet.getInt(6) == 1);
+            consumer.accept(new ClassificationFacetIndex.Entry(positionId, objectId,
+                resSet.getString(3), visibility, values));
+          }
+        }
+      }
+    }
+  }
+
+  // The faceted index has to be fully rebuilt
+  private void invalidateFacets() {
+    if (facetIndexEnabled) {
+      facetsChanges.fire(new FacetsChange(FacetsChange.ALL, FacetsChange.ALL));
+    }
+  }
+
+  // The positions of the given content have to be reindexed
+  private void invalidateFacetsOf(final int silverObjectId) {
+    if (facetIndexEnabled) {
+      facetsChanges.fire(new FacetsChange(silverObjectId, FacetsChange.ALL));
+    }
+  }
+
+  // The positions of the content classified at the given position have to be reindexed
+  private void invalidateFacetsAt(final int positionId) {
+    if (facetIndexEnabled) {
+      facetsChanges.fire(new FacetsChange(FacetsChange.ALL, positionId));
+    }
+  }
+
+  /**
+   * Invalidates in the faceted index the facets concerned by the specified change once the
+   * transaction within which the change was done is successfully committed, so that the facets
+   * cannot be reloaded from the database before the change is visible. Without any transaction,
+   * the facets are invalidated directly.
+   * @param change a change in the classification of the contents.
+   */
+  @Transactional(Transactional.TxType.NOT_SUPPORTED)
+  void onFacetsChange(@Observes(during = AFTER_SUCCESS) final FacetsChange change) {
+    if (change.silverObjectId < 0 && change.positionId < 0) {
+      invalidateFacetIndex();
+    } else if (!facetIndexOutdated.get()) {
+      // while a rebuild is pending (or the index was never built), the contents don't need to be
+      // tracked: the rebuild will take them into account
+      final int objectId = change.silverObjectId >= 0 ? change.silverObjectId :
+          getObjectAt(change.positionId);
+      if (objectId >= 0) {
+        outdatedFacets.add(objectId);
+      } else if (change.positionId >= 0) {
+        // the index can be being built, for the first time or not: the content of the position
+        // is resolved once it is built
+        outdatedPositions.add(change.positionId);
+      }
+      if (outdatedFacets.size() + outdatedPositions.size() > MAX_OUTDATED_FACETS) {
+        invalidateFacetIndex();
+      }
+    }
+  }
+
+  private int getObjectAt(final int positionId) {
+    final ClassificationFacetIndex index = facetIndex;
+    return index == null ? -1 : index.getObjectAt(positionId);
+  }
+
+  // The faceted index is fully rebuilt at the next count, so the outdated contents are forgotten
+  private void invalidateFacetIndex() {
+    // cleared before flagging the rebuild so that no content tracked after a concurrent rebuild
+    // has started is lost
+    outdatedFacets.clear();
+    outdatedPositions.clear();
+    facetIndexOutdated.set(true);
+  }
+
   private void checkSilverObjectId(int nSilverObjectId)
       throws ClassifyEngineException {
     if (nSilverObjectId < 0) {
@@ -692,13 +904,19 @@ public class ClassifyEngine implements SilverContentPostUpdate {
     try (final Connection connection = DBUtil.openConnection()) {
 
       String today = DateUtil.today2SQLDate();
+      final ClassificationFacetIndex index = getFacetIndex(connection);
 
       // Call the search On axis one by one
       ArrayList<PertinentAxis> alPertinentAxis = new ArrayList<>();
       for (Integer alAxisId : alAxisIds) {
         int nAxisId = this.getPhysicalAxisId(alAxisId);
-        alPertinentAxis.add(getSinglePertinentAxisByJoin(connection,
-            alCriterias, nAxisId, "", instanceIds, today));
+        if (index != null) {
+          alPertinentAxis.add(getSinglePertinentAxisByIndex(index, alCriterias, nAxisId,
+              instanceIds, today));
+        } else {
+          alPertinentAxis.add(getSinglePertinentAxisByJoin(connection,
+              alCriterias, nAxisId, "", instanceIds, today));
+        }
       }
 
       return alPertinentAxis;
@@ -746,6 +964,22 @@ public class ClassifyEngine implements SilverContentPostUpdate {
     return pertinentAxis;
   }
 
+  /*
+   * Return a PertinentAxis object corresponding to the given AxisId and search Criterias by
+   * intersecting the bitmaps of the faceted index
+   */
+  private PertinentAxis getSinglePertinentAxisByIndex(final ClassificationFacetIndex index,
+      final List<? extends Criteria> alCriterias, final int nAxisId,
+      final List<String> instanceIds, final String todayFormatted)
+      throws ClassifyEngineException {
+    PertinentAxis pertinentAxis = new PertinentAxis();
+    pertinentAxis.setAxisId(this.getLogicalAxisId(nAxisId));
+    pertinentAxis.setNbObjects(
+        index.countObjects(alCriterias, nAxisId, instanceIds, todayFormatted));
+    pertinentAxis.setRootValue("");
+    return pertinentAxis;
+  }
+
   /*
    * Return a List of PertinentValues corresponding to the givenAxisId The return list is ordered
    * like the given one considering the AxisId
@@ -759,6 +993,21 @@ public class ClassifyEngine implements SilverContentPostUpdate {
 
       String today = DateUtil.today2SQLDate();
 
+      // Count the objects per value with the faceted index if any
+      final ClassificationFacetIndex index = getFacetIndex(connection);
+      if (index != null) {
+        ArrayList<PertinentValue> alPertinentValues = new ArrayList<>();
+        index.countObjectsPerValue(alCriterias, getPhysicalAxisId(nLogicalAxisId), instanceIds,
+            today).forEach((value, nbObjects) -> {
+          PertinentValue pValue = new PertinentValue();
+          pValue.setAxisId(nLogicalAxisId);
+          pValue.setNbObjects(nbObjects);
+          pValue.setValue(value);
+          alPertinentValues.add(pValue);
+        });
+        return alPertinentValues;
+      }
+
       // Build the statement
       String sSQLStatement = sqlStatement.buildGetPertinentValueByJoinStatement(alCriterias, this.
           getPhysicalAxisId(nLogicalAxisId), instanceIds, today);
@@ -874,4 +1123,20 @@ public class ClassifyEngine implements SilverContentPostUpdate {
       throw new ClassifyEngineException(e);
     }
   }
-}
\ No newline at end of file
+
+  /**
+   * A change in the classification of the contents: either the positions of a given content, or
+   * the content classified at a given position, or all the classification when both are
+   * {@link #ALL}.
+   */
+  static class FacetsChange {
+    static final int ALL = -1;
+    private final int silverObjectId;
+    private final int positionId;
+
+    FacetsChange(final int silverObjectId, final int positionId) {
+      this.silverObjectId = silverObjectId;
+      this.positionId = positionId;
+    }
+  }
+}
@@ -26,7 +26,9 @@ package org.silverpeas.core.pdc.classification;
 import org.silverpeas.core.util.JoinStatement;
 import org.silverpeas.kernel.util.StringUtil;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Collectors;
 
 class SQLStatement {
 
@@ -444,6 +446,29 @@ class SQLStatement {
     return sSQLStatement.toString();
   }
 
+  // Get the positions of the classified contents with their component instance and visibility
+  public String buildGetClassifiedContentsStatement(int nbMaxAxis,
+      Collection<Integer> silverObjectIds) {
+    StringBuilder sSQLStatement = new StringBuilder(1000);
+    sSQLStatement.append("SELECT CEC.").append(POSITION_ID_COLUMN).append(", CEC.").append(
+        SILVEROBJECT_ID_COLUMN).append(", CMI.componentId, CMC.beginDate, CMC.endDate, " +
+        "CMC.isVisible");
+    for (int nI = 0; nI < nbMaxAxis; nI++) {
+      sSQLStatement.append(", CEC.").append(AXIS_COLUMN).append(nI);
+    }
+    sSQLStatement.append(FROM).append(CLASSIFICATION_TABLE).append(CEC).append(
+        " SB_ContentManager_Content CMC, SB_ContentManager_Instance CMI ");
+    sSQLStatement.append(" WHERE CEC.").append(SILVEROBJECT_ID_COLUMN).append(
+        EQUAL_CMC_SILVER_CONTENT_ID);
+    sSQLStatement.append(" AND CMC.contentInstanceId").append(" = CMI.instanceId");
+    if (silverObjectIds != null) {
+      sSQLStatement.append(AND_CEC).append(SILVEROBJECT_ID_COLUMN).append(" IN (").append(
+          silverObjectIds.stream().map(String::valueOf).collect(Collectors.joining(","))).append(
+          ")");
+    }
+    return sSQLStatement.toString();
+  }
+
   private static void completeStatement(StringBuilder sSQLStatement, List<String> instanceIds, List<Criteria> alCriterias, int nAxisId, String todayFormatted, boolean visibilitySensitive) {
     if (!instanceIds.isEmpty()) {
       sSQLStatement.append(AND).append(CMI_COMPONENT_ID_IN);
@@ -0,0 +1,118 @@
+/*
+ * Copyright (C) 2000 - 2024 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.pdc.classification;
+
+import com.carrotsearch.junitbenchmarks.BenchmarkOptions;
+import com.carrotsearch.junitbenchmarks.BenchmarkRule;
+import com.carrotsearch.junitbenchmarks.annotation.BenchmarkMethodChart;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestRule;
+import org.silverpeas.core.pdc.classification.ClassificationFacetIndex.Entry;
+import org.silverpeas.core.pdc.classification.ClassificationFacetIndex.Visibility;
+import org.silverpeas.kernel.test.UnitTest;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Benchmark of the counting of the PdC facets with the faceted index over one million classified
+ * contents, spread among 1000 component instances. The counts are checked against the ones
+ * computed directly from the classification while building the index.
+ * @author mmoquillon
+ */
+@UnitTest
+@BenchmarkMethodChart
+@BenchmarkOptions(benchmarkRounds = 100, warmupRounds = 20)
+public class ClassificationFacetIndexBenchmarkTest {
+
+  private static final int NB_OBJECTS = 1_000_000;
+  private static final int NB_INSTANCES = 1000;
+  private static final int NB_AXIS = 3;
+  private static final String TODAY = "2024/06/15";
+  private static final Visibility VISIBLE = new Visibility("0000/00/00", "9999/99/99", true);
+  private static final Visibility INVISIBLE = new Visibility("0000/00/00", "9999/99/99", false);
+  private static final List<Criteria> CRITERIA = List.of(new Criteria(0, "/0/7/"));
+  private static final List<String> INSTANCE_IDS = List.of("kmelia1", "kmelia2", "kmelia3");
+
+  private static ClassificationFacetIndex index;
+  private static int expectedCount;
+  private static Map<String, Integer> expectedCounts;
+
+  @Rule
+  public TestRule benchmarkRun = new BenchmarkRule();
+
+  @BeforeClass
+  public static void classifyContents() {
+    final Random random = new Random(42);
+    final String[] firstAxisValues = new String[400];
+    for (int i = 0; i < firstAxisValues.length; i++) {
+      firstAxisValues[i] = "/0/" + (i / 20) + "/" + (i % 20) + "/";
+    }
+    final String[] secondAxisValues = new String[50];
+    for (int i = 0; i < secondAxisValues.length; i++) {
+      secondAxisValues[i] = "/0/" + i + "/";
+    }
+    index = new ClassificationFacetIndex(NB_AXIS);
+    expectedCount = 0;
+    expectedCounts = new HashMap<>();
+    for (int objectId = 0; objectId < NB_OBJECTS; objectId++) {
+      final String[] values = new String[NB_AXIS];
+      values[0] = firstAxisValues[random.nextInt(firstAxisValues.length)];
+      values[1] = random.nextInt(4) == 0 ? null : secondAxisValues[random.nextInt(50)];
+      final int instance = objectId % NB_INSTANCES;
+      final boolean visible = objectId % 10 != 0;
+      index.add(new Entry(objectId, objectId, "kmelia" + instance,
+          visible ? VISIBLE : INVISIBLE, values));
+      if (visible && instance >= 1 && instance <= 3 && values[0].startsWith("/0/7/") &&
+          values[1] != null) {
+        expectedCount++;
+        expectedCounts.merge(values[1], 1, Integer::sum);
+      }
+    }
+  }
+
+  @AfterClass
+  public static void dropIndex() {
+    index = null;
+    expectedCounts = null;
+  }
+
+  @Test
+  public void countTheContentsClassifiedOnAnAxis() {
+    assertThat(index.countObjects(CRITERIA, 1, INSTANCE_IDS, TODAY), is(expectedCount));
+  }
+
+  @Test
+  public void countTheContentsPerValueOfAnAxis() {
+    assertThat(index.countObjectsPerValue(CRITERIA, 1, INSTANCE_IDS, TODAY), is(expectedCounts));
+  }
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright (C) 2000 - 2024 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.pdc.classification;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.silverpeas.core.pdc.classification.ClassificationFacetIndex.Entry;
+import org.silverpeas.core.pdc.classification.ClassificationFacetIndex.Visibility;
+import org.silverpeas.core.test.unit.extention.JEETestContext;
+import org.silverpeas.kernel.test.extension.EnableSilverTestEnv;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Unit tests on the counting of the classified contents with the faceted index of the PdC.
+ * @author mmoquillon
+ */
+@EnableSilverTestEnv(context = JEETestContext.class)
+class ClassificationFacetIndexTest {
+
+  private static final int NB_AXIS = 3;
+  private static final String TODAY = "2024/06/15";
+  private static final Visibility VISIBLE = new Visibility("0000/00/00", "9999/99/99", true);
+  private static final Visibility INVISIBLE = new Visibility("0000/00/00", "9999/99/99", false);
+  private static final Visibility EXPIRED = new Visibility("2020/01/01", "2024/06/14", true);
+
+  private ClassificationFacetIndex index;
+
+  @BeforeEach
+  void createIndex() {
+    index = new ClassificationFacetIndex(NB_AXIS);
+    index.add(new Entry(1, 10, "kmelia1", VISIBLE, values("/0/1/", "/0/", null)));
+    index.add(new Entry(2, 10, "kmelia1", VISIBLE, values("/0/1/2/", null, null)));
+    index.add(new Entry(3, 11, "kmelia1", VISIBLE, values("/0/1/2/", "/0/3/", null)));
+    index.add(new Entry(4, 12, "kmelia2", VISIBLE, values("/0/4/", "/0/3/", null)));
+    index.add(new Entry(5, 13, "kmelia2", INVISIBLE, values("/0/1/", "/0/3/", null)));
+    index.add(new Entry(6, 14, "kmelia2", EXPIRED, values("/0/1/", "/0/3/", null)));
+  }
+
+  @Test
+  @DisplayName("Each visible content classified on an axis is counted once")
+  void countVisibleContentsOnAxis() {
+    assertThat(index.countObjects(List.of(), 0, List.of(), TODAY), is(3));
+    assertThat(index.countObjects(List.of(), 1, List.of(), TODAY), is(3));
+    assertThat(index.countObjects(List.of(), 2, List.of(), TODAY), is(0));
+  }
+
+  @Test
+  @DisplayName("The contents are counted only in the given component instances")
+  void countContentsInComponentInstances() {
+    assertThat(index.countObjects(List.of(), 0, List.of("kmelia1"), TODAY), is(2));
+    assertThat(index.countObjects(List.of(), 0, List.of("kmelia2"), TODAY), is(1));
+    assertThat(index.countObjects(List.of(), 0, List.of("kmelia3"), TODAY), is(0));
+  }
+
+  @Test
+  @DisplayName("A criterion matches the values starting with it on a same position")
+  void countContentsMatchingCriteria() {
+    assertThat(index.countObjects(List.of(new Criteria(0, "/0/1/")), 1, List.of(), TODAY), is(2));
+    assertThat(index.countObjects(List.of(new Criteria(0, "/0/1/2/")), 1, List.of(), TODAY),
+        is(1));
+    assertThat(index.countObjects(List.of(new Criteria(0, "/0/1/"), new Criteria(1, "/0/3/")), 0,
+        List.of(), TODAY), is(1));
+    assertThat(index.countObjects(List.of(new Criteria(0, null)), 0, List.of(), TODAY), is(3));
+  }
+
+  @Test
+  @DisplayName("The contents are counted per value of an axis")
+  void countContentsPerValue() {
+    Map<String, Integer> counts = index.countObjectsPerValue(List.of(), 0, List.of(), TODAY);
+    assertThat(counts, is(Map.of("/0/1/", 1, "/0/1/2/", 2, "/0/4/", 1)));
+
+    counts = index.countObjectsPerValue(List.of(new Criteria(1, "/0/3/")), 0, List.of(), TODAY);
+    assertThat(counts, is(Map.of("/0/1/2/", 1, "/0/4/", 1)));
+  }
+
+  @Test
+  @DisplayName("The visibility of the contents is evaluated against the given day")
+  void countContentsVisibleAtAGivenDay() {
+    assertThat(index.countObjects(List.of(), 1, List.of(), "2024/06/14"), is(4));
+    assertThat(index.countObjects(List.of(), 1, List.of(), TODAY), is(3));
+  }
+
+  @Test
+  @DisplayName("Reindexing a content replaces all its positions")
+  void replaceThePositionsOfAContent() {
+    index.replace(List.of(10, 14),
+        List.of(new Entry(7, 10, "kmelia2", VISIBLE, values("/0/4/", null, null))));
+
+    assertThat(index.getObjectAt(1), is(-1));
+    assertThat(index.getObjectAt(2), is(-1));
+    assertThat(index.getObjectAt(6), is(-1));
+    assertThat(index.getObjectAt(7), is(10));
+    assertThat(index.countObjectsPerValue(List.of(), 0, List.of(), TODAY),
+        is(Map.of("/0/1/2/", 1, "/0/4/", 2)));
+    assertThat(index.countObjects(List.of(), 1, List.of(), "2024/06/14"), is(2));
+    assertThat(index.countObjects(List.of(), 0, List.of("kmelia1"), TODAY), is(1));
+  }
+
+  @Test
+  @DisplayName("The counting over a large number of classified contents matches a direct count")
+  void countOverManyContents() {
+    final int nbObjects = 10_000;
+    final Random random = new Random(42);
+    final ClassificationFacetIndex bigIndex = new ClassificationFacetIndex(NB_AXIS);
+    final List<String[]> allValues = new ArrayList<>(nbObjects);
+    final String[] firstAxisValues = new String[400];
+    for (int i = 0; i < firstAxisValues.length; i++) {
+      firstAxisValues[i] = "/0/" + (i / 20) + "/" + (i % 20) + "/";
+    }
+    final String[] secondAxisValues = new String[50];
+    for (int i = 0; i < secondAxisValues.length; i++) {
+      secondAxisValues[i] = "/0/" + i + "/";
+    }
+    for (int objectId = 0; objectId < nbObjects; objectId++) {
+      String[] values = values(firstAxisValues[random.nextInt(firstAxisValues.length)],
+          random.nextInt(4) == 0 ? null : secondAxisValues[random.nextInt(50)], null);
+      allValues.add(values);
+      bigIndex.add(new Entry(objectId, objectId, "kmelia" + (objectId % 100),
+          objectId % 10 == 0 ? INVISIBLE : VISIBLE, values));
+    }
+
+    final List<Criteria> criteria = List.of(new Criteria(0, "/0/7/"));
+    final List<String> instanceIds = List.of("kmelia1", "kmelia2", "kmelia3");
+    final int count = bigIndex.countObjects(criteria, 1, instanceIds, TODAY);
+    final Map<String, Integer> counts =
+        bigIndex.countObjectsPerValue(criteria, 1, instanceIds, TODAY);
+
+    int expectedCount = 0;
+    for (int objectId = 0; objectId < nbObjects; objectId++) {
+      String[] values = allValues.get(objectId);
+      int instance = objectId % 100;
+      if (objectId % 10 != 0 && instance >= 1 && instance <= 3 &&
+          values[0].startsWith("/0/7/") && values[1] != null) {
+        expectedCount++;
+      }
+    }
+    assertThat(count, is(expectedCount));
+    assertThat(count, greaterThan(0));
+    assertThat(counts.values().stream().mapToInt(Integer::intValue).sum(), is(expectedCount));
+  }
+
+  private static String[] values(final String... values) {
+    final String[] axisValues = new String[NB_AXIS];
+    System.arraycopy(values, 0, axisValues, 0, values.length);
+    return axisValues;
+  }
+}
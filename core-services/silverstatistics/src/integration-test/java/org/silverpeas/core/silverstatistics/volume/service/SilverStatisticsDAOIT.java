@@ -0,0 +1,174 @@
+/*
+ * Copyright (C) 2000 - 2024 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.silverstatistics.volume.service;
+
+import com.ninja_squad.dbsetup.Operations;
+import com.ninja_squad.dbsetup.operation.Operation;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.junit.Arquillian;
+import org.jboss.shrinkwrap.api.Archive;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.silverpeas.core.persistence.jdbc.sql.JdbcSqlQuery;
+import org.silverpeas.core.silverstatistics.test.WarBuilder4Statistics;
+import org.silverpeas.core.silverstatistics.volume.dao.SilverStatisticsDAO;
+import org.silverpeas.core.silverstatistics.volume.model.DataStatsCumul;
+import org.silverpeas.core.silverstatistics.volume.model.StatType;
+import org.silverpeas.core.silverstatistics.volume.model.StatisticsConfig;
+import org.silverpeas.core.test.integration.DataSetTest;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Integration tests on the update or the insertion in one go of several rows of statistics.
+ * @author mmoquillon
+ */
+@RunWith(Arquillian.class)
+public class SilverStatisticsDAOIT extends DataSetTest {
+
+  public static final Operation TABLES_CREATION =
+      Operations.sql("CREATE TABLE IF NOT EXISTS SB_Stat_Connection" +
+          "(" +
+          "    dateStat        varchar(10)  not null," +
+          "    userId          integer  not null," +
+          "    countConnection decimal(19)         not null," +
+          "    duration        decimal(19)         not null    " +
+          ")");
+
+  public static final Operation DROP_ALL = Operations.sql("DROP TABLE IF EXISTS SB_Stat_Connection");
+
+  public static final Operation STATS_SET_UP = Operations.insertInto("SB_Stat_Connection")
+      .columns("dateStat", "userId", "countConnection", "duration")
+      .values("2011-04-01", 1308, 2, 100)
+      .values("2011-04-01", 1309, 1, 50)
+      .build();
+
+  @Deployment
+  public static Archive<?> createTestArchive() {
+    return WarBuilder4Statistics.onWarForTestClass(SilverStatisticsDAOIT.class)
+        .testFocusedOn(war -> {
+          war.addPackages(true, "org.silverpeas.core.silverstatistics");
+          war.addAsResource("org/silverpeas/silverstatistics/SilverStatisticsTest.properties");
+          war.addAsResource("org/silverpeas/silverstatistics/SilverStatistics.properties");
+        }).build();
+  }
+
+  @Override
+  protected Operation getDbSetupInitializations() {
+    return Operations.sequenceOf(DROP_ALL, TABLES_CREATION, STATS_SET_UP);
+  }
+
+  private StatisticsConfig config;
+  private static final StatType typeofStat = StatType.Connexion;
+
+  @Before
+  public void initialiseConfig() throws Exception {
+    config = new StatisticsConfig();
+    config.init();
+  }
+
+  @Test
+  public void theExistingRowsAreUpdated() throws Exception {
+    putDataStats(Arrays.asList(
+        Arrays.asList("2011-04-17", "1308", "3", "20"),
+        Arrays.asList("2011-04-18", "1308", "1", "5"),
+        Arrays.asList("2011-04-17", "1309", "4", "10")));
+
+    Map<Integer, DataStatsCumul> stats = getStats();
+    assertThat(stats.size(), is(2));
+    assertStats(stats.get(1308), 6, 125);
+    assertStats(stats.get(1309), 5, 60);
+  }
+
+  @Test
+  public void theNewRowsAreInserted() throws Exception {
+    putDataStats(Arrays.asList(
+        Arrays.asList("2011-04-17", "42", "3", "20"),
+        Arrays.asList("2011-04-17", "43", "1", "5")));
+
+    Map<Integer, DataStatsCumul> stats = getStats();
+    assertThat(stats.size(), is(4));
+    assertStats(stats.get(1308), 2, 100);
+    assertStats(stats.get(1309), 1, 50);
+    assertStats(stats.get(42), 3, 20);
+    assertStats(stats.get(43), 1, 5);
+  }
+
+  @Test
+  public void theExistingRowsAreUpdatedAndTheNewOnesInsertedInAMixedBatch() throws Exception {
+    putDataStats(Arrays.asList(
+        Arrays.asList("2011-04-17", "42", "3", "20"),
+        Arrays.asList("2011-04-17", "1308", "3", "20"),
+        Arrays.asList("2011-04-17", "43", "1", "5")));
+
+    Map<Integer, DataStatsCumul> stats = getStats();
+    assertThat(stats.size(), is(4));
+    assertStats(stats.get(1308), 5, 120);
+    assertStats(stats.get(1309), 1, 50);
+    assertStats(stats.get(42), 3, 20);
+    assertStats(stats.get(43), 1, 5);
+  }
+
+  @Test
+  public void nothingIsDoneWithoutAnyRows() throws Exception {
+    putDataStats(List.of());
+
+    Map<Integer, DataStatsCumul> stats = getStats();
+    assertThat(stats.size(), is(2));
+    assertStats(stats.get(1308), 2, 100);
+    assertStats(stats.get(1309), 1, 50);
+  }
+
+  private void putDataStats(Collection<List<String>> rows) throws SQLException {
+    try (Connection connection = getConnection()) {
+      SilverStatisticsDAO.putDataStats(connection, typeofStat, rows, config);
+    }
+  }
+
+  private Map<Integer, DataStatsCumul> getStats() throws SQLException {
+    JdbcSqlQuery selectQuery = JdbcSqlQuery.select("* FROM SB_Stat_Connection");
+    List<DataStatsCumul> results = selectQuery.execute(
+        row -> new DataStatsCumul(row.getString(1), row.getInt(2), row.getLong(3), row.getLong(4)));
+    return results.stream()
+        .collect(Collectors.toMap(DataStatsCumul::getUserId, Function.identity()));
+  }
+
+  private static void assertStats(DataStatsCumul stats, long countConnection, long duration) {
+    assertThat(stats, notNullValue());
+    assertThat(stats.getDateStat(), is("2011-04-01"));
+    assertThat(stats.getCountConnection(), is(countConnection));
+    assertThat(stats.getDuration(), is(duration));
+  }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright (C) 2000 - 2024 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.silverstatistics.volume.service;
+
+import com.carrotsearch.junitbenchmarks.BenchmarkOptions;
+import com.carrotsearch.junitbenchmarks.BenchmarkRule;
+import com.carrotsearch.junitbenchmarks.annotation.BenchmarkMethodChart;
+import com.ninja_squad.dbsetup.Operations;
+import com.ninja_squad.dbsetup.operation.Operation;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.junit.Arquillian;
+import org.jboss.shrinkwrap.api.Archive;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.RuleChain;
+import org.junit.runner.RunWith;
+import org.silverpeas.core.persistence.jdbc.DBUtil;
+import org.silverpeas.core.persistence.jdbc.sql.JdbcSqlQuery;
+import org.silverpeas.core.silverstatistics.test.WarBuilder4Statistics;
+import org.silverpeas.core.silverstatistics.volume.dao.SilverStatisticsDAO;
+import org.silverpeas.core.silverstatistics.volume.model.StatType;
+import org.silverpeas.core.silverstatistics.volume.model.StatisticsConfig;
+import org.silverpeas.core.test.integration.rule.DbSetupRule;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Benchmark of the ingestion of the statistics events: each event written directly into its
+ * statistics table, as done without aggregation, against the events aggregated in memory and
+ * then flushed in batch. Each round ingests some thousands of connection events of a hundred
+ * users, as {@link SilverStatisticsService} does it.
+ * @author mmoquillon
+ */
+@RunWith(Arquillian.class)
+@BenchmarkMethodChart
+@BenchmarkOptions(benchmarkRounds = 20, warmupRounds = 5)
+public class SilverStatisticsIngestionBenchmarkIT {
+
+  private static final int NB_EVENTS = 2000;
+  private static final int NB_USERS = 100;
+  private static final StatType typeofStat = StatType.Connexion;
+
+  public static final Operation TABLES_CREATION =
+      Operations.sql("CREATE TABLE IF NOT EXISTS SB_Stat_Connection" +
+          "(" +
+          "    dateStat        varchar(10)  not null," +
+          "    userId          integer  not null," +
+          "    countConnection decimal(19)         not null," +
+          "    duration        decimal(19)         not null    " +
+          ")");
+
+  public static final Operation DROP_ALL = Operations.sql("DROP TABLE IF EXISTS SB_Stat_Connection");
+
+  private final DbSetupRule dbSetupRule = DbSetupRule.createDefaultTables()
+      .loadInitialDataSetFrom(DROP_ALL, TABLES_CREATION);
+
+  // the database is set up once per benchmark and not at each of its rounds
+  @Rule
+  public RuleChain rules = RuleChain.outerRule(dbSetupRule).around(new BenchmarkRule());
+
+  private StatisticsConfig config;
+
+  @Deployment
+  public static Archive<?> createTestArchive() {
+    return WarBuilder4Statistics.onWarForTestClass(SilverStatisticsIngestionBenchmarkIT.class)
+        .addMavenDependencies("com.carrotsearch:junit-benchmarks")
+        .testFocusedOn(war -> {
+          war.addPackages(true, "org.silverpeas.core.silverstatistics");
+          war.addAsResource("org/silverpeas/silverstatistics/SilverStatisticsTest.properties");
+          war.addAsResource("org/silverpeas/silverstatistics/SilverStatistics.properties");
+        }).build();
+  }
+
+  @Before
+  public void initialiseConfig() throws Exception {
+    config = new StatisticsConfig();
+    config.init();
+  }
+
+  @Test
+  public void ingestEachEventDirectly() throws SQLException {
+    final long countBefore = countConnections();
+    for (int i = 0; i < NB_EVENTS; i++) {
+      try (Connection connection = DBUtil.openConnection()) {
+        SilverStatisticsDAO.putDataStats(connection, typeofStat, event(i), config);
+      }
+    }
+    assertThat(countConnections() - countBefore, is((long) NB_EVENTS));
+  }
+
+  @Test
+  public void ingestTheEventsAggregatedInMemory() throws SQLException {
+    final long countBefore = countConnections();
+    final SilverStatisticsAggregator aggregator =
+        new SilverStatisticsAggregator(config, NB_EVENTS, this::writeStats);
+    for (int i = 0; i < NB_EVENTS; i++) {
+      aggregator.aggregate(typeofStat, event(i));
+    }
+    aggregator.flush();
+    assertThat(aggregator.getPendingRowsCount(), is(0));
+    assertThat(countConnections() - countBefore, is((long) NB_EVENTS));
+  }
+
+  private static List<String> event(final int i) {
+    return Arrays.asList("2011-04-17", String.valueOf(i % NB_USERS), "1", "10");
+  }
+
+  private void writeStats(StatType type, Collection<List<String>> rows) throws SQLException {
+    try (Connection connection = DBUtil.openConnection()) {
+      boolean autoCommit = connection.getAutoCommit();
+      connection.setAutoCommit(false);
+      try {
+        SilverStatisticsDAO.putDataStats(connection, type, rows, config);
+        connection.commit();
+      } catch (SQLException | RuntimeException e) {
+        connection.rollback();
+        throw e;
+      } finally {
+        connection.setAutoCommit(autoCommit);
+      }
+    }
+  }
+
+  private static long countConnections() throws SQLException {
+    return JdbcSqlQuery.select("COALESCE(SUM(countConnection), 0) FROM SB_Stat_Connection")
+        .executeUnique(row -> row.getLong(1));
+  }
+}
@@ -27,6 +27,7 @@ import org.silverpeas.core.ResourceReference;
 import org.silverpeas.core.contribution.model.ContributionIdentifier;
 import org.silverpeas.core.persistence.jdbc.DBUtil;
 import org.silverpeas.core.persistence.jdbc.sql.JdbcSqlQuery;
+import org.silverpeas.core.silverstatistics.access.model.AccessCounter;
 import org.silverpeas.core.silverstatistics.access.model.HistoryByUser;
 import org.silverpeas.core.silverstatistics.access.model.HistoryCriteria;
 import org.silverpeas.core.silverstatistics.access.model.HistoryObjectDetail;
@@ -82,24 +83,38 @@ public class HistoryObjectDAO {
       "SELECT COUNT(resourceId) FROM SB_Statistic_History WHERE resourceId=? AND ComponentId =? " +
           "AND resourceType = ? AND datestat >= ? AND datestat <= ?";
   private static final String RESOURCE_ID = "resourceId";
+  private static final String ACCESS_COUNTER_COLUMNS = "resourceId, resourceType, count(*), " +
+      "count(distinct userId), max(concat(dateStat, concat('T', heureStat)))";
 
   private HistoryObjectDAO() {
   }
 
   private static HistoryByUser getHistoryByUser(final ResultSet rs) throws SQLException {
     String userId = rs.getString(1);
-    Date date;
+    Date date = parseDateTime(rs.getString(2));
+    int nbAccess = rs.getInt(3);
+    return new HistoryByUser(userId, date, nbAccess);
+  }
+
+  private static AccessCounter getAccessCounter(final ResultSet rs) throws SQLException {
+    String resourceId = rs.getString(1);
+    String resourceType = rs.getString(2);
+    int nbAccess = rs.getInt(3);
+    int nbReaders = rs.getInt(4);
+    Date lastAccess = parseDateTime(rs.getString(5));
+    return new AccessCounter(resourceId, resourceType, nbAccess, nbReaders, lastAccess);
+  }
+
+  private static Date parseDateTime(final String dateTime) {
     try {
       // First the date of the day is parsed
-      final String[] dateTime = rs.getString(2).split("T");
-      date = DateUtil.parse(dateTime[0]);
+      final String[] dayAndHour = dateTime.split("T");
+      Date date = DateUtil.parse(dayAndHour[0]);
       // Then the hour is set
-      date = DateUtil.getDate(date, dateTime[1]);
+      return DateUtil.getDate(date, dayAndHour[1]);
     } catch (java.text.ParseException e) {
       throw new StatisticRuntimeException(e);
     }
-    int nbAccess = rs.getInt(3);
-    return new HistoryByUser(userId, date, nbAccess);
   }
 
   private static HistoryObjectDetail getHistoryDetail(final ResultSet rs) throws SQLException {
@@ -148,6 +163,66 @@ public class HistoryObjectDAO {
     }
   }
 
+  /**
+   * Is the specified object already accessed by the given user?
+   * @param con the database connection.
+   * @param userId the unique identifier of a user.
+   * @param resourceReference the reference of the object.
+   * @param objectType the type of the object.
+   * @return true if at least one access of the user to the object is recorded, false otherwise.
+   * @throws SQLException on technical error with database.
+   */
+  public static boolean hasAccessed(Connection con, String userId,
+      ResourceReference resourceReference, String objectType) throws SQLException {
+    return !JdbcSqlQuery.select(USER_ID)
+        .from(HISTORY_TABLE_NAME)
+        .where("resourceId = ?", resourceReference.getId())
+        .and("componentId = ?", resourceReference.getInstanceId())
+        .and("resourceType = ?", objectType)
+        .and("userId = ?", userId)
+        .limit(1)
+        .executeWith(con, r -> r.getString(1))
+        .isEmpty();
+  }
+
+  /**
+   * Gets the access counters of the specified object, whatever the action on it.
+   * @param con the database connection.
+   * @param resourceReference the reference of the object.
+   * @param objectType the type of the object.
+   * @return the access counters of the object.
+   * @throws SQLException on technical error with database.
+   */
+  public static AccessCounter getAccessCounter(Connection con,
+      ResourceReference resourceReference, String objectType) throws SQLException {
+    final List<AccessCounter> counters = JdbcSqlQuery.select(ACCESS_COUNTER_COLUMNS)
+        .from(HISTORY_TABLE_NAME)
+        .where("resourceId = ?", resourceReference.getId())
+        .and("componentId = ?", resourceReference.getInstanceId())
+        .and("resourceType = ?", objectType)
+        .groupBy("resourceId, resourceType")
+        .executeWith(con, HistoryObjectDAO::getAccessCounter);
+    return counters.isEmpty() ? AccessCounter.none(resourceReference.getId(), objectType) :
+        counters.get(0);
+  }
+
+  /**
+   * Gets the access counters of all the objects accessed in the specified component instance,
+   * whatever the action on them. The objects never accessed have no counters.
+   * @param con the database connection.
+   * @param componentInstanceId the unique identifier of a component instance.
+   * @return a list with the access counters of each accessed object in the component instance.
+   * @throws SQLException on technical error with database.
+   */
+  public static List<AccessCounter> getAccessCounters(Connection con, String componentInstanceId)
+      throws SQLException {
+    return JdbcSqlQuery.select(ACCESS_COUNTER_COLUMNS)
+        .from(HISTORY_TABLE_NAME)
+        .where("componentId = ?", componentInstanceId)
+        .groupBy("resourceId, resourceType")
+        .executeWith(con, HistoryObjectDAO::getAccessCounter);
+  }
+
   /**
    * Finds by user last access date and number of access.
    * @param con the database connection.
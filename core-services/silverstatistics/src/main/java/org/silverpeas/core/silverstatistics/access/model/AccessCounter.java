@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2000 - 2024 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.silverstatistics.access.model;
+
+import java.util.Date;
+
+/**
+ * The access counters of an object in a component instance: the number of accesses to it, the
+ * number of distinct users that accessed it and the date of its last access. The counters are
+ * immutable; an access to the object produces new counters.
+ * @author mmoquillon
+ */
+public class AccessCounter {
+
+  private final String resourceId;
+  private final String resourceType;
+  private final int accessCount;
+  private final int readerCount;
+  private final Date lastAccess;
+
+  /**
+   * Constructs the access counters of the specified object.
+   * @param resourceId the local identifier of the object.
+   * @param resourceType the type of the object.
+   * @param accessCount the number of accesses to the object.
+   * @param readerCount the number of distinct users that accessed the object.
+   * @param lastAccess the date of the last access or null if the object was never accessed.
+   */
+  public AccessCounter(final String resourceId, final String resourceType, final int accessCount,
+      final int readerCount, final Date lastAccess) {
+    this.resourceId = resourceId;
+    this.resourceType = resourceType;
+    this.accessCount = accessCount;
+    this.readerCount = readerCount;
+    this.lastAccess = lastAccess;
+  }
+
+  /**
+   * Gets the counters of an object that was never accessed.
+   * @param resourceId the local identifier of the object.
+   * @param resourceType the type of the object.
+   * @return the access counters all set to zero.
+   */
+  public static AccessCounter none(final String resourceId, final String resourceType) {
+    return new AccessCounter(resourceId, resourceType, 0, 0, null);
+  }
+
+  /**
+   * Gets the counters resulting of a new access to the object.
+   * @param byNewReader is the object accessed for the first time by the user?
+   * @param date the date of the access.
+   * @return the new access counters of the object.
+   */
+  public AccessCounter withAccess(final boolean byNewReader, final Date date) {
+    Date last = lastAccess == null || date.after(lastAccess) ? date : lastAccess;
+    return new AccessCounter(resourceId, resourceType, accessCount + 1,
+        byNewReader ? readerCount + 1 : readerCount, last);
+  }
+
+  public String getResourceId() {
+    return resourceId;
+  }
+
+  public String getResourceType() {
+    return resourceType;
+  }
+
+  public int getAccessCount() {
+    return accessCount;
+  }
+
+  public int getReaderCount() {
+    return readerCount;
+  }
+
+  public Date getLastAccess() {
+    return lastAccess;
+  }
+}
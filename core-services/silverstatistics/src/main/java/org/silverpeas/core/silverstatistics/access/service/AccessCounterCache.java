@@ -0,0 +1,391 @@
+/*
+ * Copyright (C) 2000 - 2024 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.silverstatistics.access.service;
+
+import org.silverpeas.core.ResourceReference;
+import org.silverpeas.core.annotation.Service;
+import org.silverpeas.core.initialization.Initialization;
+import org.silverpeas.core.persistence.jdbc.DBUtil;
+import org.silverpeas.core.scheduler.Job;
+import org.silverpeas.core.scheduler.JobExecutionContext;
+import org.silverpeas.core.scheduler.Scheduler;
+import org.silverpeas.core.scheduler.SchedulerProvider;
+import org.silverpeas.core.scheduler.trigger.JobTrigger;
+import org.silverpeas.core.silverstatistics.access.dao.HistoryObjectDAO;
+import org.silverpeas.core.silverstatistics.access.model.AccessCounter;
+import org.silverpeas.core.silverstatistics.access.model.StatisticRuntimeException;
+import org.silverpeas.kernel.bundle.ResourceLocator;
+import org.silverpeas.kernel.bundle.SettingBundle;
+import org.silverpeas.kernel.logging.SilverLogger;
+
+import javax.inject.Singleton;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * A cache in memory of the access counters of the objects accessed in the component instances.
+ * It spares the aggregate queries over the history of the accesses, which grows without bound,
+ * to get the number of accesses to an object, the number of its distinct readers or the objects
+ * the most accessed in a component instance.
+ * <p>
+ * The counters of a component instance are loaded all at once with a single aggregate query the
+ * first time they are asked, and then they are updated incrementally with each new access. Only
+ * the most recently used component instances are kept in memory, up to a maximum number of them
+ * defined in the statistics settings; a maximum of 0 disables the cache. The counters of a
+ * component instance are loaded only once when several threads ask for them at the same time,
+ * and outside the cache so that a slow load never blocks the access to the counters of the other
+ * component instances. The accesses are counted once their recording is committed; as the
+ * increments of the accesses that occur while the counters are loaded can be missed or in excess,
+ * the counters of the cached component instances are rebuilt periodically in background.
+ * </p>
+ * @author mmoquillon
+ */
+@Service
+@Singleton
+public class AccessCounterCache implements Initialization {
+
+  private static final String REBUILD_JOB_NAME = "AccessCounterCacheRebuild";
+
+  private final int maxComponents;
+  private final String rebuildCron;
+  private final Function<String, List<AccessCounter>> loader;
+  private final ConcurrentMap<String, ComponentCounters> components = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, FutureTask<ComponentCounters>> loadings =
+      new ConcurrentHashMap<>();
+  private final AtomicLong useClock = new AtomicLong(0);
+
+  /**
+   * Constructs the cache as configured in the statistics settings.
+   */
+  protected AccessCounterCache() {
+    SettingBundle settings =
+        ResourceLocator.getSettingBundle("org.silverpeas.silverstatistics.SilverStatistics");
+    this.maxComponents = settings.getInteger("accessCountersMaxComponents", 0);
+    this.rebuildCron = settings.getString("accessCountersRebuildTimeStamp", "30 3 * * *");
+    this.loader = AccessCounterCache::loadCounters;
+  }
+
+  /**
+   * Constructs a cache of the access counters of at most the given number of component
+   * instances. For testing purpose.
+   * @param maxComponents the maximum number of component instances whose counters are cached.
+   * @param loader the loader of the access counters of a given component instance.
+   */
+  AccessCounterCache(final int maxComponents,
+      final Function<String, List<AccessCounter>> loader) {
+    this.maxComponents = maxComponents;
+    this.rebuildCron = null;
+    this.loader = loader;
+  }
+
+  /**
+   * Schedules the periodic rebuild of the cached counters when the cache is enabled.
+   * @throws Exception if the scheduling of the rebuild fails.
+   */
+  @Override
+  public void init() throws Exception {
+    if (isEnabled()) {
+      Scheduler scheduler = SchedulerProvider.getVolatileScheduler();
+      scheduler.unscheduleJob(REBUILD_JOB_NAME);
+      scheduler.scheduleJob(new Job(REBUILD_JOB_NAME) {
+        @Override
+        public void execute(final JobExecutionContext context) {
+          rebuild();
+        }
+      }, JobTrigger.triggerAt(rebuildCron));
+    }
+  }
+
+  @Override
+  public void release() throws Exception {
+    if (isEnabled()) {
+      SchedulerProvider.getVolatileScheduler().unscheduleJob(REBUILD_JOB_NAME);
+    }
+  }
+
+  /**
+   * Is this cache enabled?
+   * @return true if the access counters are cached, false otherwise.
+   */
+  public boolean isEnabled() {
+    return maxComponents > 0;
+  }
+
+  /**
+   * Are the access counters of the specified component instance in the cache?
+   * @param componentInstanceId the unique identifier of a component instance.
+   * @return true if the counters of the component instance are currently cached.
+   */
+  public boolean isCached(final String componentInstanceId) {
+    return components.containsKey(componentInstanceId);
+  }
+
+  /**
+   * Gets the access counters of the specified object. The counters of its component instance
+   * are loaded if they aren't yet in the cache.
+   * @param resourceReference the reference of the object.
+   * @param objectType the type of the object.
+   * @return the access counters of the object.
+   */
+  public AccessCounter getCounter(final ResourceReference resourceReference,
+      final String objectType) {
+    AccessCounter counter = getComponentCounters(resourceReference.getInstanceId()).counters
+        .get(new ObjectKey(resourceReference.getId(), objectType));
+    return counter == null ? AccessCounter.none(resourceReference.getId(), objectType) : counter;
+  }
+
+  /**
+   * Gets the access counters of all the objects of the given type accessed in the specified
+   * component instance. The counters of the component instance are loaded if they aren't yet in
+   * the cache.
+   * @param componentInstanceId the unique identifier of a component instance.
+   * @param objectType the type of the objects.
+   * @return a list with the access counters of each accessed object of the given type.
+   */
+  public List<AccessCounter> getCounters(final String componentInstanceId,
+      final String objectType) {
+    return getComponentCounters(componentInstanceId).counters.values()
+        .stream()
+        .filter(c -> Objects.equals(c.getResourceType(), objectType))
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Counts a new access to the specified object if the counters of its component instance are
+   * cached.
+   * @param resourceReference the reference of the accessed object.
+   * @param objectType the type of the object.
+   * @param byNewReader is the object accessed for the first time by the user?
+   * @param date the date of the access.
+   */
+  public void countAccess(final ResourceReference resourceReference, final String objectType,
+      final boolean byNewReader, final Date date) {
+    ComponentCounters componentCounters = components.get(resourceReference.getInstanceId());
+    if (componentCounters != null) {
+      componentCounters.counters.compute(new ObjectKey(resourceReference.getId(), objectType),
+          (k, c) -> (c == null ? AccessCounter.none(k.resourceId, k.resourceType) : c)
+              .withAccess(byNewReader, date));
+    }
+  }
+
+  /**
+   * Clears the access counters of the specified object, for example once its history of
+   * accesses is deleted.
+   * @param resourceReference the reference of the object.
+   * @param objectType the type of the object.
+   */
+  public void clear(final ResourceReference resourceReference, final String objectType) {
+    ComponentCounters componentCounters = components.get(resourceReference.getInstanceId());
+    if (componentCounters != null) {
+      componentCounters.counters.remove(new ObjectKey(resourceReference.getId(), objectType));
+    }
+  }
+
+  /**
+   * Evicts from the cache the access counters of the objects accessed in the specified
+   * component instance.
+   * @param componentInstanceId the unique identifier of a component instance.
+   */
+  public void evict(final String componentInstanceId) {
+    // the counters being loaded won't be cached as they can be computed from an outdated history
+    loadings.remove(componentInstanceId);
+    components.remove(componentInstanceId);
+  }
+
+  /**
+   * Evicts from the cache the access counters of the component instances concerned by the move
+   * of the history of the accesses to the specified object into another component instance.
+   * @param toResourceReference the reference of the object in the component instance into which
+   * its history is moved.
+   * @param objectType the type of the object.
+   */
+  public void evictOnMove(final ResourceReference toResourceReference, final String objectType) {
+    ObjectKey key = new ObjectKey(toResourceReference.getId(), objectType);
+    components.entrySet().removeIf(e -> e.getValue().counters.containsKey(key));
+    evict(toResourceReference.getInstanceId());
+  }
+
+  /**
+   * Rebuilds the access counters of all the cached component instances from the history of the
+   * accesses.
+   */
+  public void rebuild() {
+    for (String componentInstanceId : new ArrayList<>(components.keySet())) {
+      try {
+        ComponentCounters rebuilt = new ComponentCounters(loader.apply(componentInstanceId));
+        components.computeIfPresent(componentInstanceId, (k, c) -> {
+          rebuilt.lastUse = c.lastUse;
+          return rebuilt;
+        });
+      } catch (RuntimeException e) {
+        SilverLogger.getLogger(this)
+            .error("Rebuild of the access counters of " + componentInstanceId + " failed", e);
+        evict(componentInstanceId);
+      }
+    }
+  }
+
+  private ComponentCounters getComponentCounters(final String componentInstanceId) {
+    if (!isEnabled()) {
+      return new ComponentCounters(loader.apply(componentInstanceId));
+    }
+    ComponentCounters componentCounters = components.get(componentInstanceId);
+    if (componentCounters == null) {
+      componentCounters = load(componentInstanceId);
+    } else {
+      componentCounters.lastUse = useClock.incrementAndGet();
+    }
+    return componentCounters;
+  }
+
+  /**
+   * Loads the counters of the specified component instance. If they are already being loaded by
+   * another thread, waits for this load to complete instead of loading them once again. The load
+   * is performed outside the cache: only its result is put in the cache, unless the counters of
+   * the component instance were evicted in the meantime.
+   * @param componentInstanceId the unique identifier of a component instance.
+   * @return the loaded counters.
+   */
+  private ComponentCounters load(final String componentInstanceId) {
+    final FutureTask<ComponentCounters> task = new FutureTask<>(() -> {
+      // the counters can have been cached by a load that just completed
+      final ComponentCounters cached = components.get(componentInstanceId);
+      return cached != null ? cached : new ComponentCounters(loader.apply(componentInstanceId));
+    });
+    FutureTask<ComponentCounters> loading = loadings.putIfAbsent(componentInstanceId, task);
+    if (loading == null) {
+      loading = task;
+      try {
+        task.run();
+        cacheLoaded(componentInstanceId, task);
+      } finally {
+        loadings.remove(componentInstanceId, task);
+      }
+    }
+    try {
+      return loading.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new StatisticRuntimeException(e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new StatisticRuntimeException(e.getCause());
+    }
+  }
+
+  private void cacheLoaded(final String componentInstanceId,
+      final FutureTask<ComponentCounters> task) {
+    final ComponentCounters loaded;
+    try {
+      loaded = task.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return;
+    } catch (ExecutionException e) {
+      // the failure is rethrown to each caller and the load will be retried at next request
+      return;
+    }
+    loaded.lastUse = useClock.incrementAndGet();
+    // atomic with the removal of the loading by an eviction
+    loadings.computeIfPresent(componentInstanceId, (k, t) -> {
+      if (t == task) {
+        components.put(componentInstanceId, loaded);
+      }
+      return t;
+    });
+    evictLeastRecentlyUsed();
+  }
+
+  private void evictLeastRecentlyUsed() {
+    while (components.size() > maxComponents) {
+      components.entrySet()
+          .stream()
+          .min(Comparator.comparingLong(e -> e.getValue().lastUse))
+          .ifPresent(e -> components.remove(e.getKey(), e.getValue()));
+    }
+  }
+
+  private static List<AccessCounter> loadCounters(final String componentInstanceId) {
+    try (Connection con = DBUtil.openConnection()) {
+      return HistoryObjectDAO.getAccessCounters(con, componentInstanceId);
+    } catch (SQLException e) {
+      throw new StatisticRuntimeException(e);
+    }
+  }
+
+  private static class ComponentCounters {
+    private final ConcurrentMap<ObjectKey, AccessCounter> counters;
+    private volatile long lastUse;
+
+    ComponentCounters(final List<AccessCounter> loaded) {
+      Map<ObjectKey, AccessCounter> all = loaded.stream()
+          .collect(Collectors.toMap(c -> new ObjectKey(c.getResourceId(), c.getResourceType()),
+              c -> c));
+      this.counters = new ConcurrentHashMap<>(all);
+    }
+  }
+
+  private static class ObjectKey {
+    private final String resourceId;
+    private final String resourceType;
+
+    ObjectKey(final String resourceId, final String resourceType) {
+      this.resourceId = resourceId;
+      this.resourceType = resourceType;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      final ObjectKey objectKey = (ObjectKey) o;
+      return resourceId.equals(objectKey.resourceId) &&
+          Objects.equals(resourceType, objectKey.resourceType);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(resourceId, resourceType);
+    }
+  }
+}
@@ -35,6 +35,7 @@ import org.silverpeas.core.contribution.model.ContributionIdentifier;
 import org.silverpeas.core.contribution.model.SilverpeasContent;
 import org.silverpeas.core.persistence.jdbc.DBUtil;
 import org.silverpeas.core.silverstatistics.access.dao.HistoryObjectDAO;
+import org.silverpeas.core.silverstatistics.access.model.AccessCounter;
 import org.silverpeas.core.silverstatistics.access.model.HistoryByUser;
 import org.silverpeas.core.silverstatistics.access.model.HistoryCriteria;
 import org.silverpeas.core.silverstatistics.access.model.HistoryCriteria.QUERY_ORDER_BY;
@@ -43,6 +44,9 @@ import org.silverpeas.core.silverstatistics.access.model.StatisticRuntimeExcepti
 import org.silverpeas.kernel.util.Pair;
 import org.silverpeas.core.util.SilverpeasList;
 
+import javax.enterprise.event.Event;
+import javax.enterprise.event.Observes;
+import javax.inject.Inject;
 import javax.inject.Singleton;
 import javax.transaction.Transactional;
 import java.sql.Connection;
@@ -50,6 +54,7 @@ import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.List;
@@ -58,6 +63,7 @@ import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import static javax.enterprise.event.TransactionPhase.AFTER_SUCCESS;
 import static org.silverpeas.core.silverstatistics.access.dao.HistoryObjectDAO.countByPeriodAndUser;
 
 /**
@@ -70,6 +76,15 @@ public class DefaultStatisticService implements StatisticService, ComponentInsta
 
   public static final int ACTION_ACCESS = 1;
 
+  @Inject
+  private AccessCounterCache counterCache;
+  // The new accesses, counted in the cache once committed
+  @Inject
+  private Event<NewAccess> newAccesses;
+  // The changes in the history of the accesses, applied to the cache once committed
+  @Inject
+  private Event<HistoryChange> historyChanges;
+
   protected DefaultStatisticService() {
   }
 
@@ -84,12 +99,47 @@ public class DefaultStatisticService implements StatisticService, ComponentInsta
   @Override
   public void addStat(String userId, ResourceReference resourceReference, int actionType, String objectType) {
     try (Connection con = getConnection()) {
+      final boolean counted = counterCache.isCached(resourceReference.getInstanceId());
+      final boolean byNewReader =
+          counted && !HistoryObjectDAO.hasAccessed(con, userId, resourceReference, objectType);
       HistoryObjectDAO.add(con, userId, resourceReference, actionType, objectType);
+      if (counted) {
+        newAccesses.fire(new NewAccess(resourceReference, objectType, byNewReader, new Date()));
+      }
     } catch (Exception e) {
       throw new StatisticRuntimeException(e);
     }
   }
 
+  /**
+   * Counts in the cache of the access counters the specified access once the transaction within
+   * which it was recorded is successfully committed, so that a rolled back access isn't counted.
+   * Without any transaction, the access is counted directly.
+   * @param access a new access to an object.
+   */
+  @Transactional(Transactional.TxType.NOT_SUPPORTED)
+  void onNewAccess(@Observes(during = AFTER_SUCCESS) final NewAccess access) {
+    counterCache.countAccess(access.resourceReference, access.objectType, access.byNewReader,
+        access.date);
+  }
+
+  /**
+   * Evicts from the cache of the access counters the counters impacted by the specified change
+   * in the history of the accesses once the transaction within which the history was changed is
+   * successfully committed: a rolled back change keeps the cached counters valid whereas the
+   * counters evicted after the commit are reloaded from the changed history at the next read.
+   * Without any transaction, the counters are evicted directly.
+   * @param change a change in the history of the accesses.
+   */
+  @Transactional(Transactional.TxType.NOT_SUPPORTED)
+  void onHistoryChange(@Observes(during = AFTER_SUCCESS) final HistoryChange change) {
+    if (change.movedObjectType != null) {
+      counterCache.evictOnMove(change.movedObject, change.movedObjectType);
+    } else {
+      counterCache.evict(change.componentInstanceId);
+    }
+  }
+
   @Override
   public void addStat(String userId, SilverpeasContent content) {
     addStat(userId, getForeignPK(content), ACTION_ACCESS, content.getContributionType());
@@ -97,6 +147,11 @@ public class DefaultStatisticService implements StatisticService, ComponentInsta
 
   @Override
   public int getCount(List<ResourceReference> resourceReferences, int action, String objectType) {
+    if (counterCache.isEnabled()) {
+      return resourceReferences.stream()
+          .mapToInt(r -> counterCache.getCounter(r, objectType).getAccessCount())
+          .sum();
+    }
     try (Connection con = getConnection()) {
       return HistoryObjectDAO.getCount(con, resourceReferences, objectType);
     } catch (Exception e) {
@@ -106,6 +161,9 @@ public class DefaultStatisticService implements StatisticService, ComponentInsta
 
   @Override
   public int getCount(ResourceReference resourceReference, int action, String objectType) {
+    if (counterCache.isEnabled()) {
+      return counterCache.getCounter(resourceReference, objectType).getAccessCount();
+    }
     try (Connection con = getConnection()) {
       return HistoryObjectDAO.getCount(con, resourceReference, objectType);
     } catch (Exception e) {
@@ -128,6 +186,29 @@ public class DefaultStatisticService implements StatisticService, ComponentInsta
     return getCount(getForeignPK(content), content.getContributionType());
   }
 
+  @Override
+  public int getReaderCount(ResourceReference resourceReference, String objectType) {
+    if (counterCache.isEnabled()) {
+      return counterCache.getCounter(resourceReference, objectType).getReaderCount();
+    }
+    try (Connection con = getConnection()) {
+      return HistoryObjectDAO.getAccessCounter(con, resourceReference, objectType)
+          .getReaderCount();
+    } catch (Exception e) {
+      throw new StatisticRuntimeException(e);
+    }
+  }
+
+  @Override
+  public List<AccessCounter> getMostAccessed(String componentInstanceId, String objectType,
+      int nbObjects) {
+    return counterCache.getCounters(componentInstanceId, objectType)
+        .stream()
+        .sorted(Comparator.comparingInt(AccessCounter::getAccessCount).reversed())
+        .limit(nbObjects)
+        .collect(Collectors.toList());
+  }
+
   @Override
   public List<HistoryByUser> getHistoryByUser(ResourceReference resourceReference, int action,
       String objectType) {
@@ -215,6 +296,7 @@ public class DefaultStatisticService implements StatisticService, ComponentInsta
   public void deleteStats(ResourceReference resourceReference, String objectType) {
     try (Connection con = getConnection()) {
       HistoryObjectDAO.deleteHistoryByObject(con, resourceReference, objectType);
+      historyChanges.fire(HistoryChange.inComponent(resourceReference.getInstanceId()));
     } catch (Exception e) {
       throw new StatisticRuntimeException(e);
     }
@@ -229,6 +311,7 @@ public class DefaultStatisticService implements StatisticService, ComponentInsta
   public void moveStat(ResourceReference toResourceReference, int actionType, String objectType) {
     try (Connection con = getConnection()) {
       HistoryObjectDAO.move(con, toResourceReference, actionType, objectType);
+      historyChanges.fire(HistoryChange.onMove(toResourceReference, objectType));
     } catch (Exception e) {
       throw new StatisticRuntimeException(e);
     }
@@ -344,10 +427,56 @@ public class DefaultStatisticService implements StatisticService, ComponentInsta
   public void delete(final String componentInstanceId) {
     try (Connection con = getConnection()) {
       HistoryObjectDAO.deleteStatsOfComponent(con, componentInstanceId);
+      historyChanges.fire(HistoryChange.inComponent(componentInstanceId));
     } catch (Exception e) {
       throw new SilverpeasRuntimeException(
           "A failure occurred when deleting the statistics relative to the component instance " +
               componentInstanceId, e);
     }
   }
+
+  /**
+   * A new access to an object by a user.
+   */
+  static class NewAccess {
+    private final ResourceReference resourceReference;
+    private final String objectType;
+    private final boolean byNewReader;
+    private final Date date;
+
+    NewAccess(final ResourceReference resourceReference, final String objectType,
+        final boolean byNewReader, final Date date) {
+      this.resourceReference = resourceReference;
+      this.objectType = objectType;
+      this.byNewReader = byNewReader;
+      this.date = date;
+    }
+  }
+
+  /**
+   * A change in the history of the accesses: either the history of some objects of a component
+   * instance is deleted, or the history of an object is moved into another component instance.
+   */
+  static class HistoryChange {
+    private final String componentInstanceId;
+    private final ResourceReference movedObject;
+    private final String movedObjectType;
+
+    private HistoryChange(final String componentInstanceId, final ResourceReference movedObject,
+        final String movedObjectType) {
+      this.componentInstanceId = componentInstanceId;
+      this.movedObject = movedObject;
+      this.movedObjectType = movedObjectType;
+    }
+
+    static HistoryChange inComponent(final String componentInstanceId) {
+      return new HistoryChange(componentInstanceId, null, null);
+    }
+
+    static HistoryChange onMove(final ResourceReference toResourceReference,
+        final String objectType) {
+      return new HistoryChange(toResourceReference.getInstanceId(), toResourceReference,
+          objectType);
+    }
+  }
 }
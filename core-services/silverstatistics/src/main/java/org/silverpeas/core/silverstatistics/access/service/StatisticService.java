@@ -27,6 +27,7 @@ import org.silverpeas.core.ResourceReference;
 import org.silverpeas.core.admin.PaginationPage;
 import org.silverpeas.core.contribution.model.Contribution;
 import org.silverpeas.core.contribution.model.SilverpeasContent;
+import org.silverpeas.core.silverstatistics.access.model.AccessCounter;
 import org.silverpeas.core.silverstatistics.access.model.HistoryByUser;
 import org.silverpeas.core.silverstatistics.access.model.HistoryCriteria.QUERY_ORDER_BY;
 import org.silverpeas.core.silverstatistics.access.model.HistoryObjectDetail;
@@ -82,6 +83,26 @@ public interface StatisticService {
 
   int getCount(SilverpeasContent content);
 
+  /**
+   * Gets the number of distinct users that accessed the specified object.
+   * @param resourceReference the reference of the object.
+   * @param objectType String representation of an object type
+   * @return the number of distinct readers of the object.
+   */
+  int getReaderCount(ResourceReference resourceReference, String objectType);
+
+  /**
+   * Gets the access counters of the objects of the given type the most accessed in the specified
+   * component instance. The result is sorted by the number of accesses, from the most accessed
+   * object to the least one, and limited according to the nbObjects parameter.
+   * @param componentInstanceId the unique identifier of a component instance.
+   * @param objectType String representation of an object type
+   * @param nbObjects the maximum number of objects to return.
+   * @return ordered list of the access counters of the most accessed objects.
+   */
+  List<AccessCounter> getMostAccessed(String componentInstanceId, String objectType,
+      int nbObjects);
+
   void moveStat(ResourceReference toResourceReference, int actionType, String objectType);
 
   /**
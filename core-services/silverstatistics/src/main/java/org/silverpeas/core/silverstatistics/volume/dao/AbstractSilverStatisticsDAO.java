@@ -60,37 +60,70 @@ public class AbstractSilverStatisticsDAO {
    */
   protected static void insertData(Connection con, String tableName, StatType type,
       List<String> valueKeys, StatisticsConfig conf) throws SQLException {
-    StringBuilder statementBuilder = new StringBuilder("INSERT INTO ");
-    statementBuilder.append(tableName).append("(");
+    try (PreparedStatement prepStmt = con.prepareStatement(
+        buildInsertStatement(tableName, type, conf))) {
+      setInsertStatementParams(prepStmt, type, valueKeys, conf);
+      prepStmt.executeUpdate();
+    }
+  }
 
+  /**
+   * Inserts in a single batch the specified rows of statistics data of the given type into the
+   * referred datasource.
+   *
+   * @param con       a connection with the datasource
+   * @param tableName the table into which the data will be inserted
+   * @param type      the type of statistics
+   * @param rows      the rows of data to insert, each of them being the values of all the keys
+   * of the statistics type
+   * @param conf      the statistics configuration.
+   * @throws SQLException if error occurs while inserting the data into the datasource
+   */
+  protected static void insertData(Connection con, String tableName, StatType type,
+      Collection<List<String>> rows, StatisticsConfig conf) throws SQLException {
+    if (rows.isEmpty()) {
+      return;
+    }
+    try (PreparedStatement prepStmt = con.prepareStatement(
+        buildInsertStatement(tableName, type, conf))) {
+      for (List<String> valueKeys : rows) {
+        setInsertStatementParams(prepStmt, type, valueKeys, conf);
+        prepStmt.addBatch();
+      }
+      prepStmt.executeBatch();
+    }
+  }
 
-    Collection<String> theKeys = conf.getAllKeys(type);
-    statementBuilder.append(String.join(",", theKeys));
+  private static String buildInsertStatement(String tableName, StatType type,
+      StatisticsConfig conf) {
+    StringBuilder statementBuilder = new StringBuilder("INSERT INTO ");
+    statementBuilder.append(tableName).append("(");
+    statementBuilder.append(String.join(",", conf.getAllKeys(type)));
     statementBuilder.append(") ");
 
     statementBuilder.append("VALUES(?");
     statementBuilder.append(",?".repeat(Math.max(0, conf.getNumberOfKeys(type) - 1)));
     statementBuilder.append(")");
-    String statement = statementBuilder.toString();
+    return statementBuilder.toString();
+  }
 
+  private static void setInsertStatementParams(PreparedStatement prepStmt, StatType type,
+      List<String> valueKeys, StatisticsConfig conf) throws SQLException {
     int i = 0;
-    try (PreparedStatement prepStmt = con.prepareStatement(statement)) {
-      for (String currentKey : theKeys) {
-        i++;
-        StatDataType currentType = StatDataType.valueOf(conf.getKeyType(type, currentKey));
+    for (String currentKey : conf.getAllKeys(type)) {
+      i++;
+      StatDataType currentType = StatDataType.valueOf(conf.getKeyType(type, currentKey));
 
-        String tmpString = valueKeys.get(i - 1);
-        if (currentType == StatDataType.DECIMAL) {
-          setDecimalStatementParam(prepStmt, i, tmpString, currentKey, type, conf);
-        }
-        if (currentType == StatDataType.INTEGER) {
-          setIntegerStatementParam(prepStmt, i, tmpString, currentKey, type, conf);
-        }
-        if (currentType == StatDataType.VARCHAR) {
-          setVarcharStatementParam(prepStmt, i, tmpString, currentKey);
-        }
+      String tmpString = valueKeys.get(i - 1);
+      if (currentType == StatDataType.DECIMAL) {
+        setDecimalStatementParam(prepStmt, i, tmpString, currentKey, type, conf);
+      }
+      if (currentType == StatDataType.INTEGER) {
+        setIntegerStatementParam(prepStmt, i, tmpString, currentKey, type, conf);
+      }
+      if (currentType == StatDataType.VARCHAR) {
+        setVarcharStatementParam(prepStmt, i, tmpString, currentKey);
       }
-      prepStmt.executeUpdate();
     }
   }
 
@@ -28,6 +28,8 @@ import org.silverpeas.core.silverstatistics.volume.model.StatisticsConfig;
 import org.silverpeas.kernel.util.StringUtil;
 
 import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -96,6 +98,95 @@ public class SilverStatisticsDAO extends AbstractSilverStatisticsDAO {
     }
   }
 
+  /**
+   * Updates or inserts in one go the specified rows of statistics inside the statistic table
+   * defined inside the conf parameter. Unlike {@link #putDataStats(Connection, StatType, List,
+   * StatisticsConfig)}, the update statement is prepared once with parameters and reused for each
+   * row, and the rows that don't exist yet in the table are then inserted in a single batch. So
+   * a flush of pre-aggregated statistics costs one round trip per row plus one for all the new
+   * rows instead of at least two round trips per statistic event. The rows are expected to be
+   * valid: each of them is made up of the values of all the keys of the statistics type and the
+   * non cumulative numeric keys are well formed.
+   *
+   * @param con  the database connection
+   * @param type the statistic type
+   * @param rows the rows of value keys to put into the statistic table
+   * @param conf the statistics configuration
+   * @throws SQLException if error occurs with the datasource
+   */
+  public static void putDataStats(Connection con, StatType type, Collection<List<String>> rows,
+                                  StatisticsConfig conf) throws SQLException {
+    if (rows.isEmpty()) {
+      return;
+    }
+    String tableName = conf.getTableName(type);
+    List<String> theKeys = conf.getAllKeys(type);
+    List<List<String>> newRows = new ArrayList<>();
+    try (PreparedStatement pstmt = con.prepareStatement(
+        buildParameterizedUpdateStatement(tableName, type, theKeys, conf))) {
+      for (List<String> valueKeys : rows) {
+        initUpdateStatement(pstmt, theKeys, valueKeys, type, conf);
+        initUpdateCriteria(pstmt, theKeys, valueKeys, type, conf);
+        if (pstmt.executeUpdate() == 0) {
+          newRows.add(valueKeys);
+        }
+      }
+    }
+    insertData(con, tableName, type, newRows, conf);
+  }
+
+  private static String buildParameterizedUpdateStatement(String tableName, StatType type,
+      List<String> theKeys, StatisticsConfig conf) {
+    List<String> assignments = new ArrayList<>();
+    List<String> criteria = new ArrayList<>();
+    for (String keyNameCurrent : theKeys) {
+      if (!conf.isCumulKey(type, keyNameCurrent)) {
+        criteria.add(keyNameCurrent + "=?");
+      } else if (tableName.endsWith("Cumul")) {
+        assignments.add(keyNameCurrent + "=?");
+      } else {
+        assignments.add(keyNameCurrent + "=" + keyNameCurrent + "+?");
+      }
+    }
+    return "UPDATE " + tableName + " SET " + String.join(", ", assignments) + " WHERE " +
+        String.join(" AND ", criteria);
+  }
+
+  private static void initUpdateCriteria(PreparedStatement pstmt, List<String> theKeys,
+      List<String> valueKeys, StatType type, StatisticsConfig conf) throws SQLException {
+    int paramIndex = (int) theKeys.stream().filter(k -> conf.isCumulKey(type, k)).count();
+    for (String keyNameCurrent : theKeys) {
+      if (conf.isCumulKey(type, keyNameCurrent)) {
+        continue;
+      }
+      paramIndex++;
+      String currentValue = valueKeys.get(conf.indexOfKey(type, keyNameCurrent));
+      String currentType = conf.getKeyType(type, keyNameCurrent);
+      if (!StringUtil.isDefined(currentValue)) {
+        // as with the literal statements, a null criterion never matches an existing row
+        pstmt.setNull(paramIndex, sqlTypeOf(currentType));
+      } else if (INTEGER.equals(currentType)) {
+        pstmt.setInt(paramIndex, Integer.parseInt(currentValue));
+      } else if (DECIMAL.equals(currentType)) {
+        pstmt.setLong(paramIndex, Long.parseLong(currentValue));
+      } else if ("dateStat".equals(keyNameCurrent)) {
+        pstmt.setString(paramIndex, currentValue.substring(0, 8) + "01");
+      } else {
+        pstmt.setString(paramIndex, currentValue);
+      }
+    }
+  }
+
+  private static int sqlTypeOf(String keyType) {
+    if (INTEGER.equals(keyType)) {
+      return Types.INTEGER;
+    }
+    if (DECIMAL.equals(keyType)) {
+      return Types.DECIMAL;
+    }
+    return Types.VARCHAR;
+  }
+
   private static void initUpdateStatement(PreparedStatement pstmt, List<String> theKeys, List<String> valueKeys,
                                           StatType type, StatisticsConfig conf) throws SQLException {
     int countCumulKey = 0;
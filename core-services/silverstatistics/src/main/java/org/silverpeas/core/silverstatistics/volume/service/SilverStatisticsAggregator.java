@@ -0,0 +1,273 @@
+/*
+ * Copyright (C) 2000 - 2024 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.silverstatistics.volume.service;
+
+import org.silverpeas.core.silverstatistics.volume.model.StatDataType;
+import org.silverpeas.core.silverstatistics.volume.model.StatType;
+import org.silverpeas.core.silverstatistics.volume.model.StatisticsConfig;
+import org.silverpeas.kernel.logging.SilverLogger;
+import org.silverpeas.kernel.util.StringUtil;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * An aggregator in memory of the statistics events before their writing into the statistics
+ * tables. Instead of updating the statistics tables for each event, the cumulative values of the
+ * events sharing the same non cumulative keys (and then targeting the same row in the
+ * statistics table) are summed in memory and the resulting rows are written periodically, in one
+ * go, by a {@link StatisticsWriter}.
+ * <p>
+ * The pending rows of each type of statistics are kept in a {@link ConcurrentHashMap}: the sums
+ * are updated and drained atomically per row, so the concurrent feeders contend only when they
+ * hit the same row. Once the maximum number of pending rows is reached, the feeder that reaches
+ * it flushes the pending rows itself, synchronously; the other feeders keep aggregating their
+ * events meanwhile without waiting for the flush to complete. The pending events are lost if the
+ * JVM stops abruptly before they are flushed; the loss window is then bounded by the flush period
+ * and by the maximum number of pending rows.
+ * </p>
+ * <p>
+ * Only the statistics types whose cumulative values are added to the existing ones in the
+ * table can be aggregated; the events of the other types have to be written directly.
+ * </p>
+ * @author mmoquillon
+ */
+public class SilverStatisticsAggregator {
+
+  private static final String DATE_STAT_KEY = "dateStat";
+
+  private final StatisticsConfig config;
+  private final int maxPendingRows;
+  private final StatisticsWriter writer;
+  private final Map<StatType, ConcurrentMap<List<String>, long[]>> pendingRows =
+      new EnumMap<>(StatType.class);
+  private final AtomicInteger pendingRowsCount = new AtomicInteger(0);
+  private final ReentrantLock flushLock = new ReentrantLock();
+  private volatile boolean lastFlushFailed = false;
+
+  /**
+   * Constructs a new aggregator of the statistics defined in the given configuration.
+   * @param config the configuration of the statistics.
+   * @param maxPendingRows the maximum number of rows to keep in memory before flushing them.
+   * @param writer the writer of the aggregated rows into the statistics tables.
+   */
+  public SilverStatisticsAggregator(final StatisticsConfig config, final int maxPendingRows,
+      final StatisticsWriter writer) {
+    this.config = config;
+    this.maxPendingRows = Math.max(1, maxPendingRows);
+    this.writer = writer;
+    for (StatType type : config.getAllTypes()) {
+      if (isAggregable(type)) {
+        pendingRows.put(type, new ConcurrentHashMap<>());
+      }
+    }
+  }
+
+  /**
+   * Is the specified type of statistics can be aggregated in memory? Only the statistics whose
+   * cumulative values are added to those already in the table can be aggregated.
+   * @param type a type of statistics.
+   * @return true if the statistics of the given type can be aggregated, false otherwise.
+   */
+  public final boolean isAggregable(final StatType type) {
+    String tableName = config.getTableName(type);
+    return tableName != null && !tableName.endsWith("Cumul");
+  }
+
+  /**
+   * Aggregates the specified statistics event with the pending ones targeting the same row. The
+   * statistics event must be well-formed (see
+   * {@link StatisticsConfig#areGoodData(StatType, List)}) and of an aggregable type. As with the
+   * direct writing, an event with a malformed non cumulative numeric key is ignored and a
+   * malformed cumulative value counts for 0. If the maximum number of pending rows is then
+   * reached, the pending rows are flushed by the current thread before returning, unless a flush
+   * is already running.
+   * @param type the type of the statistics.
+   * @param valueKeys the values of all the keys of the statistics.
+   */
+  public void aggregate(final StatType type, final List<String> valueKeys) {
+    ConcurrentMap<List<String>, long[]> rows = pendingRows.get(type);
+    if (rows == null) {
+      throw new IllegalArgumentException("The statistics " + type + " cannot be aggregated");
+    }
+    List<String> rowKey = new ArrayList<>();
+    List<Long> values = new ArrayList<>();
+    for (String key : config.getAllKeys(type)) {
+      String value = valueKeys.get(config.indexOfKey(type, key));
+      StatDataType keyType = StatDataType.valueOf(config.getKeyType(type, key));
+      if (config.isCumulKey(type, key)) {
+        values.add(parseCumulValue(keyType, value));
+      } else if (isMalformed(keyType, value)) {
+        return;
+      } else {
+        rowKey.add(DATE_STAT_KEY.equals(key) ? value.substring(0, 8) + "01" : value);
+      }
+    }
+    rows.compute(rowKey, (k, sums) -> {
+      long[] newSums = sums;
+      if (newSums == null) {
+        newSums = new long[values.size()];
+        pendingRowsCount.incrementAndGet();
+      }
+      for (int i = 0; i < newSums.length; i++) {
+        newSums[i] += values.get(i);
+      }
+      return newSums;
+    });
+    if (pendingRowsCount.get() >= maxPendingRows && !lastFlushFailed) {
+      flush();
+    }
+  }
+
+  /**
+   * Gets the number of rows of statistics pending in memory.
+   * @return the number of pending rows.
+   */
+  public int getPendingRowsCount() {
+    return pendingRowsCount.get();
+  }
+
+  /**
+   * Writes all the pending rows of statistics with the writer. If a flush is already running,
+   * nothing is done. The rows of a type of statistics that failed to be written are kept for the
+   * next flush as long as the maximum number of pending rows isn't exceeded; otherwise they are
+   * lost.
+   */
+  public void flush() {
+    if (!flushLock.tryLock()) {
+      return;
+    }
+    try {
+      boolean failure = false;
+      for (Map.Entry<StatType, ConcurrentMap<List<String>, long[]>> pending :
+          pendingRows.entrySet()) {
+        Map<List<String>, long[]> drainedRows = drain(pending.getValue());
+        if (drainedRows.isEmpty()) {
+          continue;
+        }
+        StatType type = pending.getKey();
+        try {
+          writer.write(type, toValueKeys(type, drainedRows));
+        } catch (SQLException | RuntimeException e) {
+          failure = true;
+          SilverLogger.getLogger(this)
+              .error("Flush of " + drainedRows.size() + " rows of statistics " + type + " failed",
+                  e);
+          restore(type, drainedRows);
+        }
+      }
+      lastFlushFailed = failure;
+    } finally {
+      flushLock.unlock();
+    }
+  }
+
+  private Map<List<String>, long[]> drain(final ConcurrentMap<List<String>, long[]> rows) {
+    Map<List<String>, long[]> drainedRows = new HashMap<>(rows.size());
+    for (List<String> rowKey : rows.keySet()) {
+      long[] sums = rows.remove(rowKey);
+      if (sums != null) {
+        pendingRowsCount.decrementAndGet();
+        drainedRows.put(rowKey, sums);
+      }
+    }
+    return drainedRows;
+  }
+
+  private void restore(final StatType type, final Map<List<String>, long[]> drainedRows) {
+    if (pendingRowsCount.get() + drainedRows.size() > maxPendingRows) {
+      SilverLogger.getLogger(this)
+          .warn("{0} rows of statistics {1} are lost", drainedRows.size(), type);
+      return;
+    }
+    ConcurrentMap<List<String>, long[]> rows = pendingRows.get(type);
+    drainedRows.forEach((rowKey, drainedSums) -> rows.compute(rowKey, (k, sums) -> {
+      if (sums == null) {
+        pendingRowsCount.incrementAndGet();
+        return drainedSums;
+      }
+      for (int i = 0; i < sums.length; i++) {
+        sums[i] += drainedSums[i];
+      }
+      return sums;
+    }));
+  }
+
+  private Collection<List<String>> toValueKeys(final StatType type,
+      final Map<List<String>, long[]> rows) {
+    List<String> keys = config.getAllKeys(type);
+    List<List<String>> allValueKeys = new ArrayList<>(rows.size());
+    rows.forEach((rowKey, sums) -> {
+      List<String> valueKeys = new ArrayList<>(keys.size());
+      int keyIdx = 0;
+      int sumIdx = 0;
+      for (String key : keys) {
+        if (config.isCumulKey(type, key)) {
+          valueKeys.add(String.valueOf(sums[sumIdx++]));
+        } else {
+          valueKeys.add(rowKey.get(keyIdx++));
+        }
+      }
+      allValueKeys.add(valueKeys);
+    });
+    return allValueKeys;
+  }
+
+  private static long parseCumulValue(final StatDataType keyType, final String value) {
+    if (keyType == StatDataType.INTEGER) {
+      return StringUtil.isInteger(value) ? Integer.parseInt(value) : 0;
+    }
+    return StringUtil.isLong(value) ? Long.parseLong(value) : 0;
+  }
+
+  private static boolean isMalformed(final StatDataType keyType, final String value) {
+    return (keyType == StatDataType.INTEGER && !StringUtil.isInteger(value)) ||
+        (keyType == StatDataType.DECIMAL && !StringUtil.isLong(value));
+  }
+
+  /**
+   * A writer of rows of statistics into the statistics tables.
+   */
+  @FunctionalInterface
+  public interface StatisticsWriter {
+
+    /**
+     * Writes the specified rows of statistics of the given type.
+     * @param type the type of the statistics.
+     * @param rows the rows to write, each of them being the values of all the keys of the
+     * statistics type.
+     * @throws SQLException if the writing fails.
+     */
+    void write(StatType type, Collection<List<String>> rows) throws SQLException;
+  }
+}
@@ -25,27 +25,40 @@ package org.silverpeas.core.silverstatistics.volume.service;
 
 import org.apache.commons.text.StringTokenizer;
 import org.silverpeas.core.annotation.Service;
+import org.silverpeas.core.initialization.Initialization;
 import org.silverpeas.core.persistence.jdbc.DBUtil;
+import org.silverpeas.core.scheduler.Job;
+import org.silverpeas.core.scheduler.JobExecutionContext;
+import org.silverpeas.core.scheduler.Scheduler;
+import org.silverpeas.core.scheduler.SchedulerProvider;
+import org.silverpeas.core.scheduler.trigger.JobTrigger;
+import org.silverpeas.core.scheduler.trigger.TimeUnit;
 import org.silverpeas.core.silverstatistics.volume.dao.SilverStatisticsDAO;
 import org.silverpeas.core.silverstatistics.volume.dao.SilverStatisticsManagerDAO;
 import org.silverpeas.core.silverstatistics.volume.model.SilverStatisticsConfigException;
 import org.silverpeas.core.silverstatistics.volume.model.StatType;
 import org.silverpeas.core.silverstatistics.volume.model.StatisticsConfig;
 import org.silverpeas.core.silverstatistics.volume.model.StatisticsRuntimeException;
+import org.silverpeas.kernel.bundle.ResourceLocator;
+import org.silverpeas.kernel.bundle.SettingBundle;
 import org.silverpeas.kernel.logging.SilverLogger;
 
 import javax.inject.Singleton;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.Collection;
 import java.util.List;
 
 import static org.silverpeas.core.silverstatistics.volume.model.SilverStatisticsConstants.SEPARATOR;
 
 @Service
 @Singleton
-public class SilverStatisticsService implements SilverStatistics {
+public class SilverStatisticsService implements SilverStatistics, Initialization {
 
+  private static final String STAT_FLUSH_JOB_NAME = "SilverStatisticsFlush";
   private final StatisticsConfig myStatsConfig;
+  private final int aggregationFlushInterval;
+  private final SilverStatisticsAggregator aggregator;
 
   /**
    * @param type the statistic type (Access, Size, Volume, Connexion)
@@ -56,6 +69,10 @@ public class SilverStatisticsService implements SilverStatistics {
     StringTokenizer stData = new StringTokenizer(data, SEPARATOR);
     List<String> dataArray = stData.getTokenList();
     if (myStatsConfig.areGoodData(type, dataArray)) {
+      if (aggregator != null && aggregator.isAggregable(type)) {
+        aggregator.aggregate(type, dataArray);
+        return;
+      }
       try(Connection myCon = DBUtil.openConnection()) {
 
         SilverStatisticsDAO.putDataStats(myCon, type, dataArray, myStatsConfig);
@@ -81,6 +98,37 @@ public class SilverStatisticsService implements SilverStatistics {
     SilverStatisticsManagerDAO.makeStatAllCumul(myStatsConfig);
   }
 
+  /**
+   * Schedules the periodic flush of the statistics aggregated in memory when the aggregation is
+   * enabled.
+   * @throws Exception if the scheduling of the flush fails.
+   */
+  @Override
+  public void init() throws Exception {
+    if (aggregator != null) {
+      Scheduler scheduler = SchedulerProvider.getVolatileScheduler();
+      scheduler.unscheduleJob(STAT_FLUSH_JOB_NAME);
+      scheduler.scheduleJob(new Job(STAT_FLUSH_JOB_NAME) {
+        @Override
+        public void execute(final JobExecutionContext context) {
+          aggregator.flush();
+        }
+      }, JobTrigger.triggerEvery(aggregationFlushInterval, TimeUnit.SECOND));
+    }
+  }
+
+  /**
+   * Stops the periodic flush of the statistics aggregated in memory and flushes the pending ones.
+   * @throws Exception if the unscheduling of the flush fails.
+   */
+  @Override
+  public void release() throws Exception {
+    if (aggregator != null) {
+      SchedulerProvider.getVolatileScheduler().unscheduleJob(STAT_FLUSH_JOB_NAME);
+      aggregator.flush();
+    }
+  }
+
   public SilverStatisticsService() {
     myStatsConfig = new StatisticsConfig();
     try {
@@ -88,6 +136,31 @@ public class SilverStatisticsService implements SilverStatistics {
     } catch (SilverStatisticsConfigException e) {
       SilverLogger.getLogger(this).error(e);
     }
+    SettingBundle settings =
+        ResourceLocator.getSettingBundle("org.silverpeas.silverstatistics.SilverStatistics");
+    aggregationFlushInterval = settings.getInteger("aggregationFlushInterval", 0);
+    if (aggregationFlushInterval > 0) {
+      aggregator = new SilverStatisticsAggregator(myStatsConfig,
+          settings.getInteger("aggregationMaxPendingRows", 10000), this::writeStats);
+    } else {
+      aggregator = null;
+    }
+  }
+
+  private void writeStats(StatType type, Collection<List<String>> rows) throws SQLException {
+    try (Connection myCon = DBUtil.openConnection()) {
+      boolean autoCommit = myCon.getAutoCommit();
+      myCon.setAutoCommit(false);
+      try {
+        SilverStatisticsDAO.putDataStats(myCon, type, rows, myStatsConfig);
+        myCon.commit();
+      } catch (SQLException | RuntimeException e) {
+        myCon.rollback();
+        throw e;
+      } finally {
+        myCon.setAutoCommit(autoCommit);
+      }
+    }
   }
 
 }
@@ -0,0 +1,295 @@
+/*
+ * Copyright (C) 2000 - 2024 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.silverstatistics.access.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.silverpeas.core.ResourceReference;
+import org.silverpeas.core.silverstatistics.access.model.AccessCounter;
+import org.silverpeas.core.silverstatistics.access.model.StatisticRuntimeException;
+import org.silverpeas.core.test.unit.extention.JEETestContext;
+import org.silverpeas.kernel.test.extension.EnableSilverTestEnv;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit tests on the cache of the access counters of the objects in the component instances.
+ * @author mmoquillon
+ */
+@EnableSilverTestEnv(context = JEETestContext.class)
+class AccessCounterCacheTest {
+
+  private static final String PUBLICATION = "Publication";
+  private static final Date LAST_ACCESS = new Date(1_700_000_000_000L);
+
+  private final Map<String, List<AccessCounter>> history = new HashMap<>();
+  private final List<String> loads = new ArrayList<>();
+
+  @BeforeEach
+  void fillHistory() {
+    history.put("kmelia1", List.of(
+        new AccessCounter("1", PUBLICATION, 10, 4, LAST_ACCESS),
+        new AccessCounter("2", PUBLICATION, 3, 3, LAST_ACCESS),
+        new AccessCounter("3", PUBLICATION, 7, 1, LAST_ACCESS),
+        new AccessCounter("1", "Node", 5, 2, LAST_ACCESS)));
+    history.put("kmelia2", List.of(new AccessCounter("4", PUBLICATION, 1, 1, LAST_ACCESS)));
+    history.put("kmelia3", List.of());
+  }
+
+  @Test
+  @DisplayName("The counters of a component instance are loaded once, at their first use")
+  void countersAreLoadedOnce() {
+    AccessCounterCache cache = new AccessCounterCache(10, this::load);
+    assertThat(cache.isCached("kmelia1"), is(false));
+
+    AccessCounter counter = cache.getCounter(ref("1", "kmelia1"), PUBLICATION);
+    assertThat(counter.getAccessCount(), is(10));
+    assertThat(counter.getReaderCount(), is(4));
+    assertThat(cache.getCounter(ref("1", "kmelia1"), "Node").getAccessCount(), is(5));
+    assertThat(cache.getCounter(ref("9", "kmelia1"), PUBLICATION).getAccessCount(), is(0));
+    assertThat(cache.isCached("kmelia1"), is(true));
+    assertThat(loads, contains("kmelia1"));
+  }
+
+  @Test
+  @DisplayName("A new access increments the cached counters")
+  void accessesAreCountedIncrementally() {
+    AccessCounterCache cache = new AccessCounterCache(10, this::load);
+    cache.getCounter(ref("1", "kmelia1"), PUBLICATION);
+    Date now = new Date();
+    cache.countAccess(ref("1", "kmelia1"), PUBLICATION, false, now);
+    cache.countAccess(ref("2", "kmelia1"), PUBLICATION, true, now);
+    cache.countAccess(ref("9", "kmelia1"), PUBLICATION, true, now);
+    // not cached: nothing is counted
+    cache.countAccess(ref("4", "kmelia2"), PUBLICATION, true, now);
+
+    AccessCounter counter = cache.getCounter(ref("1", "kmelia1"), PUBLICATION);
+    assertThat(counter.getAccessCount(), is(11));
+    assertThat(counter.getReaderCount(), is(4));
+    assertThat(counter.getLastAccess(), is(now));
+    assertThat(cache.getCounter(ref("2", "kmelia1"), PUBLICATION).getReaderCount(), is(4));
+    assertThat(cache.getCounter(ref("9", "kmelia1"), PUBLICATION).getAccessCount(), is(1));
+    assertThat(cache.getCounter(ref("4", "kmelia2"), PUBLICATION).getAccessCount(), is(1));
+  }
+
+  @Test
+  @DisplayName("The counters of the objects of a given type are got for popularity sorting")
+  void countersOfAGivenType() {
+    AccessCounterCache cache = new AccessCounterCache(10, this::load);
+    List<AccessCounter> counters = cache.getCounters("kmelia1", PUBLICATION);
+    assertThat(counters.size(), is(3));
+    assertThat(counters.stream().allMatch(c -> PUBLICATION.equals(c.getResourceType())),
+        is(true));
+    assertThat(cache.getCounters("kmelia3", PUBLICATION), empty());
+  }
+
+  @Test
+  @DisplayName("Only the most recently used component instances are kept in the cache")
+  void leastRecentlyUsedComponentsAreEvicted() {
+    AccessCounterCache cache = new AccessCounterCache(2, this::load);
+    cache.getCounter(ref("1", "kmelia1"), PUBLICATION);
+    cache.getCounter(ref("4", "kmelia2"), PUBLICATION);
+    cache.getCounter(ref("1", "kmelia1"), PUBLICATION);
+    cache.getCounter(ref("5", "kmelia3"), PUBLICATION);
+    assertThat(cache.isCached("kmelia1"), is(true));
+    assertThat(cache.isCached("kmelia2"), is(false));
+    assertThat(cache.isCached("kmelia3"), is(true));
+  }
+
+  @Test
+  @DisplayName("Without cache, the counters are loaded at each use")
+  void disabledCacheLoadsAlways() {
+    AccessCounterCache cache = new AccessCounterCache(0, this::load);
+    assertThat(cache.isEnabled(), is(false));
+    cache.getCounter(ref("1", "kmelia1"), PUBLICATION);
+    cache.getCounter(ref("1", "kmelia1"), PUBLICATION);
+    assertThat(cache.isCached("kmelia1"), is(false));
+    assertThat(loads, contains("kmelia1", "kmelia1"));
+  }
+
+  @Test
+  @DisplayName("The counters are cleared or evicted along with the history of the accesses")
+  void countersFollowTheHistoryChanges() {
+    AccessCounterCache cache = new AccessCounterCache(10, this::load);
+    cache.getCounter(ref("1", "kmelia1"), PUBLICATION);
+    cache.getCounter(ref("4", "kmelia2"), PUBLICATION);
+
+    cache.clear(ref("2", "kmelia1"), PUBLICATION);
+    assertThat(cache.getCounter(ref("2", "kmelia1"), PUBLICATION).getAccessCount(), is(0));
+
+    cache.evictOnMove(ref("3", "kmelia2"), PUBLICATION);
+    assertThat(cache.isCached("kmelia1"), is(false));
+    assertThat(cache.isCached("kmelia2"), is(false));
+
+    cache.getCounter(ref("1", "kmelia1"), PUBLICATION);
+    cache.evict("kmelia1");
+    assertThat(cache.isCached("kmelia1"), is(false));
+  }
+
+  @Test
+  @DisplayName("The rebuild replaces the cached counters by those computed from the history")
+  void countersAreRebuilt() {
+    AccessCounterCache cache = new AccessCounterCache(10, this::load);
+    cache.getCounter(ref("1", "kmelia1"), PUBLICATION);
+    cache.countAccess(ref("1", "kmelia1"), PUBLICATION, true, new Date());
+    assertThat(cache.getCounter(ref("1", "kmelia1"), PUBLICATION).getAccessCount(), is(11));
+
+    cache.rebuild();
+    assertThat(cache.getCounter(ref("1", "kmelia1"), PUBLICATION).getAccessCount(), is(10));
+    assertThat(loads, contains("kmelia1", "kmelia1"));
+  }
+
+  @Test
+  @DisplayName("The counters asked at the same time by several threads are loaded only once")
+  void concurrentFirstUsesLoadOnce() throws Exception {
+    final int nbThreads = 8;
+    final AtomicInteger nbLoads = new AtomicInteger(0);
+    final CountDownLatch loading = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    AccessCounterCache cache = new AccessCounterCache(10, id -> {
+      nbLoads.incrementAndGet();
+      loading.countDown();
+      await(release);
+      return history.get(id);
+    });
+    ExecutorService executor = Executors.newFixedThreadPool(nbThreads);
+    try {
+      List<Future<Integer>> counts = new ArrayList<>();
+      for (int i = 0; i < nbThreads; i++) {
+        counts.add(executor.submit(
+            () -> cache.getCounter(ref("1", "kmelia1"), PUBLICATION).getAccessCount()));
+      }
+      assertThat(loading.await(1, TimeUnit.MINUTES), is(true));
+      release.countDown();
+      for (Future<Integer> count : counts) {
+        assertThat(count.get(1, TimeUnit.MINUTES), is(10));
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    assertThat(nbLoads.get(), is(1));
+    assertThat(cache.isCached("kmelia1"), is(true));
+  }
+
+  @Test
+  @DisplayName("A slow load of counters doesn't block the counters of other component instances")
+  void slowLoadDoesNotBlockOtherComponents() throws Exception {
+    final CountDownLatch loading = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    AccessCounterCache cache = new AccessCounterCache(10, id -> {
+      if ("kmelia1".equals(id)) {
+        loading.countDown();
+        await(release);
+      }
+      return history.get(id);
+    });
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Future<Integer> slow = executor.submit(
+          () -> cache.getCounter(ref("1", "kmelia1"), PUBLICATION).getAccessCount());
+      assertThat(loading.await(1, TimeUnit.MINUTES), is(true));
+      assertThat(cache.getCounter(ref("4", "kmelia2"), PUBLICATION).getAccessCount(), is(1));
+      assertThat(cache.isCached("kmelia2"), is(true));
+      release.countDown();
+      assertThat(slow.get(1, TimeUnit.MINUTES), is(10));
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  @DisplayName("A failed load of counters isn't cached and it is retried at the next use")
+  void failedLoadIsRetried() {
+    final AtomicInteger nbLoads = new AtomicInteger(0);
+    AccessCounterCache cache = new AccessCounterCache(10, id -> {
+      if (nbLoads.incrementAndGet() == 1) {
+        throw new StatisticRuntimeException("Database unavailable");
+      }
+      return history.get(id);
+    });
+    assertThrows(StatisticRuntimeException.class,
+        () -> cache.getCounter(ref("1", "kmelia1"), PUBLICATION));
+    assertThat(cache.isCached("kmelia1"), is(false));
+
+    assertThat(cache.getCounter(ref("1", "kmelia1"), PUBLICATION).getAccessCount(), is(10));
+    assertThat(cache.isCached("kmelia1"), is(true));
+    assertThat(nbLoads.get(), is(2));
+  }
+
+  @Test
+  @DisplayName("The counters evicted while they are loaded aren't cached")
+  void countersEvictedWhileLoadedAreNotCached() throws Exception {
+    final CountDownLatch loading = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    AccessCounterCache cache = new AccessCounterCache(10, id -> {
+      loading.countDown();
+      await(release);
+      return history.get(id);
+    });
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Future<Integer> load = executor.submit(
+          () -> cache.getCounter(ref("1", "kmelia1"), PUBLICATION).getAccessCount());
+      assertThat(loading.await(1, TimeUnit.MINUTES), is(true));
+      cache.evict("kmelia1");
+      release.countDown();
+      assertThat(load.get(1, TimeUnit.MINUTES), is(10));
+    } finally {
+      executor.shutdownNow();
+    }
+    assertThat(cache.isCached("kmelia1"), is(false));
+  }
+
+  private static void await(final CountDownLatch latch) {
+    try {
+      latch.await(1, TimeUnit.MINUTES);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private List<AccessCounter> load(String componentInstanceId) {
+    loads.add(componentInstanceId);
+    return history.getOrDefault(componentInstanceId, List.of());
+  }
+
+  private static ResourceReference ref(String id, String componentInstanceId) {
+    return new ResourceReference(id, componentInstanceId);
+  }
+}
@@ -0,0 +1,252 @@
+/*
+ * Copyright (C) 2000 - 2024 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.silverstatistics.volume.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.silverpeas.core.silverstatistics.volume.model.StatType;
+import org.silverpeas.core.silverstatistics.volume.model.StatisticsConfig;
+import org.silverpeas.core.test.unit.extention.JEETestContext;
+import org.silverpeas.kernel.bundle.SettingBundle;
+import org.silverpeas.kernel.test.extension.EnableSilverTestEnv;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests on the aggregation in memory of the statistics events.
+ * @author mmoquillon
+ */
+@EnableSilverTestEnv(context = JEETestContext.class)
+class SilverStatisticsAggregatorTest {
+
+  private static final Map<String, String> SETTINGS = Map.ofEntries(
+      Map.entry("StatsSeparator", "-"),
+      Map.entry("StatsFamily", "Access-Size"),
+      Map.entry("StatsTableNameAccess", "SB_Stat_Access"),
+      Map.entry("StatsKeysNameAccess", "dateStat-userId-peasType-spaceId-componentId-countAccess"),
+      Map.entry("StatsKeysTypeAccess", "VARCHAR-INTEGER-VARCHAR-VARCHAR-VARCHAR-DECIMAL"),
+      Map.entry("StatsKeysCumulAccess", "countAccess"),
+      Map.entry("StatsModeCumulAccess", "Add"),
+      Map.entry("StatsTableNameSize", "SB_Stat_SizeDirCumul"),
+      Map.entry("StatsKeysNameSize", "dateStat-fileDir-sizeDir"),
+      Map.entry("StatsKeysTypeSize", "VARCHAR-VARCHAR-DECIMAL"),
+      Map.entry("StatsKeysCumulSize", "sizeDir"),
+      Map.entry("StatsModeCumulSize", "Replace"));
+
+  private final Map<List<String>, Long> table = new ConcurrentHashMap<>();
+  private final AtomicLong roundTrips = new AtomicLong(0);
+  private StatisticsConfig config;
+
+  @BeforeEach
+  void loadConfiguration() throws Exception {
+    SettingBundle settings = mock(SettingBundle.class);
+    when(settings.getString(anyString())).thenAnswer(i -> SETTINGS.get(i.<String>getArgument(0)));
+    when(settings.getBoolean(anyString())).thenReturn(true);
+    config = new StatisticsConfig();
+    config.initialize(settings);
+  }
+
+  @Test
+  @DisplayName("The events targeting the same row are summed before being written")
+  void eventsOnTheSameRowAreSummed() {
+    SilverStatisticsAggregator aggregator = new SilverStatisticsAggregator(config, 100, this::write);
+    aggregator.aggregate(StatType.Access, access("2024-06-03", "1", "kmelia1", "2"));
+    aggregator.aggregate(StatType.Access, access("2024-06-15", "1", "kmelia1", "3"));
+    aggregator.aggregate(StatType.Access, access("2024-06-15", "2", "kmelia1", "1"));
+    aggregator.aggregate(StatType.Access, access("2024-07-01", "1", "kmelia1", "1"));
+    assertThat(aggregator.getPendingRowsCount(), is(3));
+    assertThat(table.isEmpty(), is(true));
+
+    aggregator.flush();
+    assertThat(aggregator.getPendingRowsCount(), is(0));
+    assertThat(table.size(), is(3));
+    assertThat(table.get(row("2024-06-01", "1", "kmelia1")), is(5L));
+    assertThat(table.get(row("2024-06-01", "2", "kmelia1")), is(1L));
+    assertThat(table.get(row("2024-07-01", "1", "kmelia1")), is(1L));
+  }
+
+  @Test
+  @DisplayName("The events with a malformed key are ignored and malformed counts are zero")
+  void malformedEventsAreIgnored() {
+    SilverStatisticsAggregator aggregator = new SilverStatisticsAggregator(config, 100, this::write);
+    aggregator.aggregate(StatType.Access, access("2024-06-03", "toto", "kmelia1", "2"));
+    aggregator.aggregate(StatType.Access, access("2024-06-03", "1", "kmelia1", "toto"));
+    aggregator.flush();
+    assertThat(table.size(), is(1));
+    assertThat(table.get(row("2024-06-01", "1", "kmelia1")), is(0L));
+  }
+
+  @Test
+  @DisplayName("Only the statistics added to the existing ones in the table are aggregable")
+  void onlyAdditiveStatisticsAreAggregable() {
+    SilverStatisticsAggregator aggregator = new SilverStatisticsAggregator(config, 100, this::write);
+    assertThat(aggregator.isAggregable(StatType.Access), is(true));
+    assertThat(aggregator.isAggregable(StatType.Size), is(false));
+    assertThat(aggregator.isAggregable(StatType.Volume), is(false));
+  }
+
+  @Test
+  @DisplayName("The rows are flushed once the maximum number of pending rows is reached")
+  void rowsAreFlushedWhenTooManyArePending() {
+    SilverStatisticsAggregator aggregator = new SilverStatisticsAggregator(config, 3, this::write);
+    aggregator.aggregate(StatType.Access, access("2024-06-03", "1", "kmelia1", "1"));
+    aggregator.aggregate(StatType.Access, access("2024-06-03", "2", "kmelia1", "1"));
+    assertThat(table.isEmpty(), is(true));
+    aggregator.aggregate(StatType.Access, access("2024-06-03", "3", "kmelia1", "1"));
+    assertThat(aggregator.getPendingRowsCount(), is(0));
+    assertThat(table.size(), is(3));
+  }
+
+  @Test
+  @DisplayName("The rows that failed to be written are kept for the next flush")
+  void rowsFailedToBeWrittenAreKept() {
+    boolean[] failure = {true};
+    SilverStatisticsAggregator aggregator =
+        new SilverStatisticsAggregator(config, 100, (type, rows) -> {
+          if (failure[0]) {
+            throw new SQLException("Database unavailable");
+          }
+          write(type, rows);
+        });
+    aggregator.aggregate(StatType.Access, access("2024-06-03", "1", "kmelia1", "2"));
+    aggregator.flush();
+    assertThat(aggregator.getPendingRowsCount(), is(1));
+
+    aggregator.aggregate(StatType.Access, access("2024-06-04", "1", "kmelia1", "1"));
+    failure[0] = false;
+    aggregator.flush();
+    assertThat(aggregator.getPendingRowsCount(), is(0));
+    assertThat(table.get(row("2024-06-01", "1", "kmelia1")), is(3L));
+  }
+
+  @Test
+  @DisplayName("No event is lost when the aggregation is fed and flushed concurrently")
+  void concurrentFeedingAndFlushing() throws Exception {
+    final int nbThreads = 8;
+    final int nbEvents = 20_000;
+    SilverStatisticsAggregator aggregator = new SilverStatisticsAggregator(config, 50, this::write);
+    runConcurrently(nbThreads, t -> {
+      for (int i = 0; i < nbEvents; i++) {
+        aggregator.aggregate(StatType.Access, access("2024-06-03", String.valueOf(i % 100),
+            "kmelia" + t, "1"));
+      }
+    });
+    aggregator.flush();
+    long total = table.values().stream().mapToLong(Long::longValue).sum();
+    assertThat(total, is((long) nbThreads * nbEvents));
+    assertThat(table.size(), is(nbThreads * 100));
+  }
+
+  /**
+   * The direct writing of the statistics events, as done by
+   * {@code SilverStatisticsDAO#putDataStats}, costs at least two statements per event whereas the
+   * aggregation in memory writes only one row per distinct key, in batch.
+   */
+  @Test
+  @DisplayName("The aggregation writes one row per distinct key instead of one per event")
+  void aggregationWritesOneRowPerDistinctKey() throws Exception {
+    final int nbThreads = 4;
+    final int nbEvents = 2_000;
+    final AtomicLong batches = new AtomicLong(0);
+    SilverStatisticsAggregator aggregator =
+        new SilverStatisticsAggregator(config, 10_000, (type, rows) -> {
+          batches.incrementAndGet();
+          write(type, rows);
+        });
+    runConcurrently(nbThreads, t -> {
+      for (int i = 0; i < nbEvents; i++) {
+        aggregator.aggregate(StatType.Access, access("2024-06-03", String.valueOf(i % 100),
+            "kmelia" + t, "1"));
+      }
+    });
+    assertThat(roundTrips.get(), is(0L));
+    aggregator.flush();
+
+    final long nbAllEvents = (long) nbThreads * nbEvents;
+    assertThat(table.values().stream().mapToLong(Long::longValue).sum(), is(nbAllEvents));
+    assertThat(table.size(), is(nbThreads * 100));
+    assertThat(roundTrips.get(), is((long) table.size()));
+    assertThat(batches.get(), is(1L));
+  }
+
+  @FunctionalInterface
+  private interface Feeder {
+    void feed(int threadIdx);
+  }
+
+  private static void runConcurrently(int nbThreads, Feeder feeder) throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(nbThreads);
+    CountDownLatch ready = new CountDownLatch(1);
+    List<Future<?>> results = new ArrayList<>();
+    for (int t = 0; t < nbThreads; t++) {
+      final int threadIdx = t;
+      results.add(executor.submit(() -> {
+        ready.await();
+        feeder.feed(threadIdx);
+        return null;
+      }));
+    }
+    ready.countDown();
+    for (Future<?> result : results) {
+      result.get(1, TimeUnit.MINUTES);
+    }
+    executor.shutdown();
+  }
+
+  private void write(StatType type, Collection<List<String>> rows) {
+    for (List<String> valueKeys : rows) {
+      roundTrips.incrementAndGet();
+      long count = Long.parseLong(valueKeys.get(5));
+      table.merge(row(valueKeys.get(0).substring(0, 8) + "01", valueKeys.get(1),
+          valueKeys.get(4)), count, Long::sum);
+    }
+  }
+
+  private static List<String> access(String date, String userId, String componentId,
+      String count) {
+    return List.of(date, userId, "kmelia", "WA1", componentId, count);
+  }
+
+  private static List<String> row(String date, String userId, String componentId) {
+    return List.of(date, userId, componentId);
+  }
+}
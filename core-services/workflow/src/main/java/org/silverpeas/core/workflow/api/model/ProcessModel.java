@@ -234,6 +234,37 @@ public interface ProcessModel {
    */
   Action getAction(String name) throws WorkflowException;
 
+  /**
+   * Get the actions allowed in the state with the given name
+   *
+   * @param stateName state name
+   * @return the actions allowed in the state or an empty array if the state is unknown
+   */
+  default Action[] getAllowedActions(String stateName) {
+    final State state = getState(stateName);
+    return state == null ? new Action[0] : state.getAllowedActions();
+  }
+
+  /**
+   * Get the timeout action of the given order in the state with the given name
+   *
+   * @param stateName state name
+   * @param order the order of the timeout action
+   * @return the wanted timeout action or null if the state has no such timeout action
+   */
+  default TimeOutAction getTimeOutAction(String stateName, int order) {
+    final State state = getState(stateName);
+    if (state == null) {
+      return null;
+    }
+    for (TimeOutAction timeOutAction : state.getTimeOutActions()) {
+      if (timeOutAction.getOrder() == order) {
+        return timeOutAction;
+      }
+    }
+    return null;
+  }
+
   /**
    * Set the actions defined for this process model
    *
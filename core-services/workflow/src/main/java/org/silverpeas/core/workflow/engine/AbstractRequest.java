@@ -136,6 +136,18 @@ public abstract class AbstractRequest
   protected abstract boolean processEvent(UpdatableProcessInstance instance, String stepId)
       throws WorkflowException;
 
+  /**
+   * The requests are partitioned by process instance: the requests about a same process instance
+   * are processed in the order they were pushed whereas the requests about different process
+   * instances can be processed in parallel.
+   * @return the unique identifier of the process instance concerned by the event of the request.
+   */
+  @Override
+  public String getPartitionKey() {
+    final ProcessInstance instance = event == null ? null : event.getProcessInstance();
+    return instance == null ? null : instance.getInstanceId();
+  }
+
   void setEvent(final GenericEvent event) {
     this.event = event;
   }
@@ -27,6 +27,7 @@ import org.silverpeas.core.annotation.Bean;
 import org.silverpeas.kernel.annotation.Technical;
 import org.silverpeas.core.thread.task.AbstractRequestTask;
 import org.silverpeas.core.thread.task.RequestTaskManager;
+import org.silverpeas.kernel.bundle.ResourceLocator;
 import org.silverpeas.kernel.logging.SilverLogger;
 import org.silverpeas.core.workflow.api.event.QuestionEvent;
 import org.silverpeas.core.workflow.api.event.ResponseEvent;
@@ -35,16 +36,33 @@ import org.silverpeas.core.workflow.api.event.TaskSavedEvent;
 import org.silverpeas.core.workflow.api.event.TimeoutEvent;
 
 /**
+ * The task processing the workflow events. The events about a same process instance are
+ * processed one after one in the order they were raised whereas the events about different
+ * process instances are processed in parallel (see {@link #getParallelism()}), so that a burst of
+ * actions on a busy workflow doesn't delay the other ones.
  * @author ebonnet
  */
 @Technical
 @Bean
 public class WorkflowEngineTask extends AbstractRequestTask<AbstractRequestTask.ProcessContext> {
 
+  private static final int DEFAULT_PARALLELISM = 4;
+
   protected WorkflowEngineTask() {
     super();
   }
 
+  /**
+   * The number of process instances whose events can be processed at the same time. It is given
+   * by the {@code engine.parallelism} property of the workflow engine settings.
+   * @return the maximum number of events processed in parallel.
+   */
+  @Override
+  protected int getParallelism() {
+    return ResourceLocator.getSettingBundle("org.silverpeas.workflow.engine.settings")
+        .getInteger("engine.parallelism", DEFAULT_PARALLELISM);
+  }
+
   /**
    * Add a request 'TaskDoneEvent'
    */
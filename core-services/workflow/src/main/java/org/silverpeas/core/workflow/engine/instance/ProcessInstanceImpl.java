@@ -45,7 +45,6 @@ import org.silverpeas.core.persistence.datasource.model.jpa.BasicJpaEntity;
 import org.silverpeas.core.persistence.jdbc.sql.JdbcSqlQuery;
 import org.silverpeas.core.util.ArrayUtil;
 import org.silverpeas.core.util.CollectionUtil;
-import org.silverpeas.kernel.util.Mutable;
 import org.silverpeas.kernel.util.StringUtil;
 import org.silverpeas.kernel.logging.SilverLogger;
 import org.silverpeas.core.workflow.api.ProcessModelManager;
@@ -248,26 +247,37 @@ public class ProcessInstanceImpl
 
   private Date computeTimeOutDate(State state, int order) {
     // checks if timeout actions have been defined on the state to add
-    TimeOutAction[] timeOutActions = state.getTimeOutActions();
+    TimeOutAction timeOutAction = getTimeOutAction(state, order);
     Date timeOutDate = null;
-    if (timeOutActions != null) {
-      for (TimeOutAction timeOutAction : timeOutActions) {
-        if (timeOutAction.getOrder() == order) {
-          // Check if an item has been mapped to timeoutdate
-          Item dateItem = timeOutAction.getDateItem();
-          if (dateItem != null) {
-            timeOutDate = parseTimeOutFromDateField(dateItem);
-          } else {
-            timeOutDate = computeNextTimeOutByDelay(timeOutAction);
-          }
-          break;
-        }
+    if (timeOutAction != null) {
+      // Check if an item has been mapped to timeoutdate
+      Item dateItem = timeOutAction.getDateItem();
+      if (dateItem != null) {
+        timeOutDate = parseTimeOutFromDateField(dateItem);
+      } else {
+        timeOutDate = computeNextTimeOutByDelay(timeOutAction);
       }
     }
 
     return timeOutDate;
   }
 
+  /**
+   * Gets the timeout action of the given order in the specified state from the lookup tables of
+   * the process model, or by scanning the timeout actions of the state if the model cannot be got.
+   */
+  private TimeOutAction getTimeOutAction(State state, int order) {
+    try {
+      return getProcessModel().getTimeOutAction(state.getName(), order);
+    } catch (WorkflowException e) {
+      SilverLogger.getLogger(this).warn(e);
+      return Stream.of(state.getTimeOutActions())
+          .filter(a -> a.getOrder() == order)
+          .findFirst()
+          .orElse(null);
+    }
+  }
+
   private Date parseTimeOutFromDateField(final Item dateItem) {
     Date timeOutDate = null;
     try {
@@ -1774,13 +1784,9 @@ public class ProcessInstanceImpl
             "getTimeOutAction - State = " + activeState.getState() +
                 " - instanceId " + activeState.getProcessInstance().getInstanceId() :
             "No process instance in active state");
-        TimeOutAction[] actions = state.getTimeOutActions();
-        Mutable<ActionAndState> foundActionAndState = Mutable.empty();
-        Stream.of(actions)
-            .filter(a -> a.getOrder() == theTimeoutStatus + 1)
-            .findFirst()
-            .ifPresent(a -> foundActionAndState.set(new ActionAndState(a.getAction(), state)));
-        return Optional.ofNullable(foundActionAndState.get());
+        return Optional.ofNullable(
+                getProcessModel().getTimeOutAction(activeState.getState(), theTimeoutStatus + 1))
+            .map(a -> new ActionAndState(a.getAction(), state));
       }
     } catch (Exception e) {
       SilverLogger.getLogger(this).error("Unable to getTimeoutAction for this state {0} id={1}",
@@ -0,0 +1,113 @@
+/*
+ * Copyright (C) 2000 - 2024 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.workflow.engine.model;
+
+import org.silverpeas.core.workflow.api.model.ProcessModel;
+
+import java.io.File;
+
+/**
+ * A process model in the cache of the {@link ProcessModelManagerImpl} with the version of the
+ * XML descriptor from which it was loaded. The version is made up of the last modification date
+ * and of the size of the descriptor file, so a cached model is considered out of date as soon as
+ * its descriptor is changed or removed. As the model is got at each access to a process instance,
+ * the descriptor is checked at most once per a given interval of time.
+ * @author mmoquillon
+ */
+class CachedProcessModel {
+
+  private final ProcessModel model;
+  private final String fileName;
+  private final File descriptor;
+  private final Version version;
+  private volatile long checkedAt = System.currentTimeMillis();
+
+  CachedProcessModel(final ProcessModel model, final String fileName, final File descriptor,
+      final Version version) {
+    this.model = model;
+    this.fileName = fileName;
+    this.descriptor = descriptor;
+    this.version = version;
+  }
+
+  ProcessModel getModel() {
+    return model;
+  }
+
+  String getFileName() {
+    return fileName;
+  }
+
+  /**
+   * Is the cached model still matching its XML descriptor? The descriptor isn't checked again if
+   * it was already checked less than the given interval ago.
+   * @param checkInterval the minimum time in milliseconds between two checks of the descriptor.
+   * @return true if the descriptor hasn't changed since the model was loaded, false otherwise.
+   */
+  boolean isUpToDate(final long checkInterval) {
+    final long now = System.currentTimeMillis();
+    if (now - checkedAt < checkInterval) {
+      return true;
+    }
+    final boolean upToDate = version.equals(Version.of(descriptor));
+    if (upToDate) {
+      checkedAt = now;
+    }
+    return upToDate;
+  }
+
+  /**
+   * The version of a process model XML descriptor.
+   */
+  static class Version {
+    private final long lastModified;
+    private final long size;
+
+    private Version(final long lastModified, final long size) {
+      this.lastModified = lastModified;
+      this.size = size;
+    }
+
+    static Version of(final File descriptor) {
+      return new Version(descriptor.lastModified(), descriptor.length());
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      final Version version = (Version) o;
+      return lastModified == version.lastModified && size == version.size;
+    }
+
+    @Override
+    public int hashCode() {
+      return Long.hashCode(lastModified) * 31 + Long.hashCode(size);
+    }
+  }
+}
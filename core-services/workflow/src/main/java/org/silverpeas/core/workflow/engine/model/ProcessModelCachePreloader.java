@@ -0,0 +1,61 @@
+/*
+ * Copyright (C) 2000 - 2024 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.workflow.engine.model;
+
+import org.silverpeas.core.annotation.Service;
+import org.silverpeas.core.initialization.Initialization;
+import org.silverpeas.core.thread.ManagedThreadPool;
+import org.silverpeas.core.workflow.api.ProcessModelManager;
+import org.silverpeas.kernel.bundle.ResourceLocator;
+import org.silverpeas.kernel.logging.SilverLogger;
+
+import javax.inject.Inject;
+
+/**
+ * Preloads at startup, in the background, the process models used by the process manager
+ * instances when the {@code engine.models.preload} property of the workflow engine settings is
+ * enabled. So the first users of the workflows don't wait for their XML descriptor to be parsed.
+ * @author mmoquillon
+ */
+@Service
+public class ProcessModelCachePreloader implements Initialization {
+
+  @Inject
+  private ProcessModelManager processModelManager;
+
+  @Override
+  public void init() throws Exception {
+    final boolean preload = ResourceLocator.getSettingBundle(
+        "org.silverpeas.workflow.engine.settings").getBoolean("engine.models.preload", false);
+    if (preload && processModelManager instanceof ProcessModelManagerImpl) {
+      final ProcessModelManagerImpl manager = (ProcessModelManagerImpl) processModelManager;
+      ManagedThreadPool.getPool().invoke(() -> {
+        final long start = System.currentTimeMillis();
+        manager.preloadProcessModels();
+        SilverLogger.getLogger(this)
+            .info("Process models preloaded in {0} ms", System.currentTimeMillis() - start);
+      });
+    }
+  }
+}
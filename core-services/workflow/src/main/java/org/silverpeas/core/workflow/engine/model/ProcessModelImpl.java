@@ -26,7 +26,10 @@ package org.silverpeas.core.workflow.engine.model;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.silverpeas.core.contribution.content.form.DataRecord;
 import org.silverpeas.core.contribution.content.form.FieldTemplate;
@@ -48,6 +51,7 @@ import org.silverpeas.core.workflow.api.model.Form;
 import org.silverpeas.core.workflow.api.model.QualifiedUsers;
 import org.silverpeas.core.workflow.api.model.State;
 import org.silverpeas.core.workflow.api.model.States;
+import org.silverpeas.core.workflow.api.model.TimeOutAction;
 import org.silverpeas.core.workflow.engine.datarecord.ProcessInstanceRecordTemplate;
 import org.silverpeas.core.workflow.engine.datarecord.ProcessInstanceRowTemplate;
 import org.silverpeas.kernel.util.StringUtil;
@@ -105,8 +109,9 @@ public class ProcessModelImpl implements ProcessModel, Serializable {
   @XmlElement(type = FormsImpl.class)
   private Forms forms;
 
-  private final HashMap<String, RecordTemplate> instanceDataTemplates = new HashMap<>();
-  private final HashMap<String, RecordTemplate> rowTemplates = new HashMap<>();
+  private final Map<String, RecordTemplate> instanceDataTemplates = new ConcurrentHashMap<>();
+  private final Map<String, RecordTemplate> rowTemplates = new ConcurrentHashMap<>();
+  private transient volatile Lookup lookup = null;
 
   /**
    * Constructor
@@ -225,6 +230,10 @@ public class ProcessModelImpl implements ProcessModel, Serializable {
    * @return wanted role definition
    */
   public Role getRole(String name) {
+    final Lookup current = lookup;
+    if (current != null) {
+      return name == null ? null : current.roles.get(name);
+    }
     if (roles == null) {
       return null;
     }
@@ -280,6 +289,10 @@ public class ProcessModelImpl implements ProcessModel, Serializable {
    * @return wanted state
    */
   public State getState(String name) {
+    final Lookup current = lookup;
+    if (current != null) {
+      return name == null ? null : current.states.get(name);
+    }
     if (states == null) {
       return null;
     }
@@ -330,9 +343,50 @@ public class ProcessModelImpl implements ProcessModel, Serializable {
     if (actions == null) {
       return null;
     }
+    final Lookup current = lookup;
+    if (current != null) {
+      final Action action = name == null ? null : current.actions.get(name);
+      if (action == null) {
+        throw new WorkflowException("ActionsImpl.getAction(String)",
+            "WorkflowEngine.EX_ERR_ACTION_NOT_FOUND_IN_MODEL", name);
+      }
+      return action;
+    }
     return actions.getAction(name);
   }
 
+  /**
+   * Get the actions allowed in the state with the given name
+   * @param stateName state name
+   * @return the actions allowed in the state or an empty array if the state is unknown
+   */
+  @Override
+  public Action[] getAllowedActions(String stateName) {
+    final Lookup current = lookup;
+    if (current != null) {
+      final Action[] allowed = stateName == null ? null : current.actionsByState.get(stateName);
+      return allowed == null ? new Action[0] : allowed.clone();
+    }
+    return ProcessModel.super.getAllowedActions(stateName);
+  }
+
+  /**
+   * Get the timeout action of the given order in the state with the given name
+   * @param stateName state name
+   * @param order the order of the timeout action
+   * @return the wanted timeout action or null if the state has no such timeout action
+   */
+  @Override
+  public TimeOutAction getTimeOutAction(String stateName, int order) {
+    final Lookup current = lookup;
+    if (current != null) {
+      final Map<Integer, TimeOutAction> timeOutActions =
+          stateName == null ? null : current.timeOutActionsByState.get(stateName);
+      return timeOutActions == null ? null : timeOutActions.get(order);
+    }
+    return ProcessModel.super.getTimeOutAction(stateName, order);
+  }
+
   /**
    * Set the actions defined for this process model
    * @param actions actions defined for this process model
@@ -600,6 +654,14 @@ public class ProcessModelImpl implements ProcessModel, Serializable {
    * create
    */
   public Action getCreateAction(String role) throws WorkflowException {
+    final Lookup current = lookup;
+    if (current != null) {
+      final Action creation = role == null ? null : current.createActionsByRole.get(role);
+      if (creation == null) {
+        throw new WorkflowException(PROCESS_MODEL, "workflowEngine.ERR_NO_CREATE_ACTION_DEFINED");
+      }
+      return creation;
+    }
     Action[] someActions = getActions();
 
     for (Action action : someActions) {
@@ -722,6 +784,10 @@ public class ProcessModelImpl implements ProcessModel, Serializable {
    * Returns the roles under which an user can create a new instance
    */
   public String[] getCreationRoles() throws WorkflowException {
+    final Lookup current = lookup;
+    if (current != null) {
+      return current.createActionsByRole.keySet().toArray(new String[0]);
+    }
     try {
       List<String> someRoles = new ArrayList<>();
 
@@ -831,4 +897,69 @@ public class ProcessModelImpl implements ProcessModel, Serializable {
   private GenericRecordSetManager getGenericRecordSetManager() {
     return GenericRecordSetManager.getInstance();
   }
+
+  /**
+   * Precomputes the lookup tables of the states, the actions and the roles of this model by their
+   * name, the actions allowed in each state, the timeout actions of each state by their order and
+   * the creation actions by role, so that getting them doesn't scan anymore the model definition
+   * on the hot paths of the process instances. Once compiled, the model mustn't be modified as the
+   * lookup tables wouldn't reflect the changes: only the process models shared through the cache
+   * of the {@link ProcessModelManagerImpl} are compiled.
+   */
+  void compile() {
+    lookup = new Lookup(getStates(), getActions(), getRoles());
+  }
+
+  /**
+   * The lookup tables of a process model. Like with the scan of the model definition, the first
+   * element with a given name wins.
+   */
+  private static class Lookup {
+    private final Map<String, State> states = new HashMap<>();
+    private final Map<String, Action> actions = new HashMap<>();
+    private final Map<String, Role> roles = new HashMap<>();
+    private final Map<String, Action[]> actionsByState = new HashMap<>();
+    private final Map<String, Map<Integer, TimeOutAction>> timeOutActionsByState = new HashMap<>();
+    // sorted like the roles were found in the create actions
+    private final Map<String, Action> createActionsByRole = new LinkedHashMap<>();
+
+    private Lookup(final State[] states, final Action[] actions, final Role[] roles) {
+      for (State state : states) {
+        if (state != null && state.getName() != null &&
+            this.states.putIfAbsent(state.getName(), state) == null) {
+          actionsByState.put(state.getName(), state.getAllowedActions());
+          final Map<Integer, TimeOutAction> timeOutActions = new HashMap<>();
+          for (TimeOutAction timeOutAction : state.getTimeOutActions()) {
+            timeOutActions.putIfAbsent(timeOutAction.getOrder(), timeOutAction);
+          }
+          timeOutActionsByState.put(state.getName(), timeOutActions);
+        }
+      }
+      for (Action action : actions) {
+        if (action != null && action.getName() != null) {
+          this.actions.putIfAbsent(action.getName(), action);
+        }
+        if (action != null && "create".equals(action.getKind())) {
+          indexCreateAction(action);
+        }
+      }
+      for (Role role : roles) {
+        if (role != null && role.getName() != null) {
+          this.roles.putIfAbsent(role.getName(), role);
+        }
+      }
+    }
+
+    private void indexCreateAction(final Action action) {
+      final QualifiedUsers creators = action.getAllowedUsers();
+      if (creators == null || creators.getUserInRoles() == null) {
+        return;
+      }
+      for (UserInRole usersInRole : creators.getUserInRoles()) {
+        if (usersInRole.getRoleName() != null) {
+          createActionsByRole.putIfAbsent(usersInRole.getRoleName(), action);
+        }
+      }
+    }
+  }
 }
@@ -55,11 +55,11 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * A ProcessModelManager implementation
@@ -69,6 +69,7 @@ public class ProcessModelManagerImpl implements ProcessModelManager {
 
   private static final String SELECT_QUERY =
       "select distinct modelId from SB_Workflow_ProcessInstance";
+  private static final long DEFAULT_CHECK_INTERVAL = 5000;
 
   /**
    * ResourceLocator object to retrieve settings in a properties file
@@ -79,11 +80,20 @@ public class ProcessModelManagerImpl implements ProcessModelManager {
   /**
    * The map (modelId -> cached process model).
    */
-  private final Map<String, ProcessModel> models = new HashMap<>();
+  private final Map<String, CachedProcessModel> models = new ConcurrentHashMap<>();
+  /**
+   * The locks used to load only once a given process model when it is asked concurrently.
+   */
+  private final Map<String, Object> loadingLocks = new ConcurrentHashMap<>();
+  /**
+   * The minimum time in milliseconds between two checks of the XML descriptor of a cached model.
+   */
+  private long checkInterval = DEFAULT_CHECK_INTERVAL;
   private JAXBContext jaxbContext = null;
 
   @PostConstruct
   private void setup() {
+    checkInterval = settings.getLong("engine.models.checkInterval", DEFAULT_CHECK_INTERVAL);
     try {
       jaxbContext = JAXBContext.newInstance(ProcessModelImpl.class);
     } catch (JAXBException e) {
@@ -158,7 +168,23 @@ public class ProcessModelManagerImpl implements ProcessModelManager {
       return cachedModel;
     }
 
-    // The model is not cached, we must build it.
+    // The model is not cached or its descriptor has changed: only one thread builds it. The lock
+    // is removed once the model loaded, whatever the outcome.
+    final Object lock = loadingLocks.computeIfAbsent(modelId, k -> new Object());
+    synchronized (lock) {
+      try {
+        cachedModel = getCachedProcessModel(modelId);
+        if (cachedModel != null) {
+          return cachedModel;
+        }
+        return loadAndCacheProcessModel(modelId);
+      } finally {
+        loadingLocks.remove(modelId, lock);
+      }
+    }
+  }
+
+  private ProcessModel loadAndCacheProcessModel(final String modelId) throws WorkflowException {
     String fileName = AdministrationServiceProvider.getAdminService()
         .getComponentParameterValue(modelId, WorkflowUtil.PROCESS_XML_FILE_NAME);
 
@@ -168,14 +194,18 @@ public class ProcessModelManagerImpl implements ProcessModelManager {
           "workflowEngine.EX_NO_XML_FILENAME_FOUND", "model/peas id : " + modelId);
     }
 
-    // load the process model from its xml descriptor
+    // load the process model from its xml descriptor, taking the version of the descriptor
+    // before so that a change during the loading will be detected at the next access
+    final File descriptor = new File(getProcessPath(fileName));
+    final CachedProcessModel.Version version = CachedProcessModel.Version.of(descriptor);
     ProcessModelImpl model = (ProcessModelImpl) this.loadProcessModel(fileName);
 
     // set the peas id
     model.setModelId(modelId);
+    model.compile();
 
     // cache the model.
-    cacheProcessModel(modelId, model);
+    cacheProcessModel(modelId, new CachedProcessModel(model, fileName, descriptor, version));
 
     // return the process model
     return model;
@@ -288,8 +318,9 @@ public class ProcessModelManagerImpl implements ProcessModelManager {
         FileUtil.forceDeletion(directory);
       }
 
-      // Clear process model cache
-      clearProcessModelCache();
+      // Evict the models of the descriptor; the ones of the other descriptors of a removed
+      // directory are evicted at their next access as their descriptor doesn't exist anymore
+      invalidateProcessModels(strProcessModelFileName);
     } catch (Exception e) {
       throw new WorkflowException("WorkflowManager.getProcessModels",
           "WorkflowEngine.EX_GETTING_RPOCES_MODELS_FAILED", "Process Model File name : " +
@@ -348,7 +379,7 @@ public class ProcessModelManagerImpl implements ProcessModelManager {
       marshaller.setProperty(Marshaller.JAXB_NO_NAMESPACE_SCHEMA_LOCATION, schemaFileName);
       marshaller.marshal(process, new File(processPath));
 
-      clearProcessModelCache();
+      invalidateProcessModels(processFileName);
     } catch (JAXBException e) {
       throw new WorkflowException("ProcessModelManagerImpl.saveProcessModel",
           "workflowEngine.EX_ERR_LOAD_XML_MAPPING",
@@ -402,18 +433,54 @@ public class ProcessModelManagerImpl implements ProcessModelManager {
   }
 
   /**
-   * Search the cache for the required process model.
+   * Search the cache for the required process model. The cached model is returned only if its
+   * XML descriptor hasn't changed since it was loaded, the descriptor being checked at most once
+   * per check interval.
    */
   private ProcessModel getCachedProcessModel(String modelId) {
-    return models.get(modelId);
+    final CachedProcessModel cached = models.get(modelId);
+    if (cached == null) {
+      return null;
+    }
+    if (!cached.isUpToDate(checkInterval)) {
+      models.remove(modelId, cached);
+      return null;
+    }
+    return cached.getModel();
   }
 
   /**
    * Put the given process model in the the cache.
    */
-  private void cacheProcessModel(String modelId, ProcessModel model) {
-    synchronized (models) {
-      models.put(modelId, model);
+  private void cacheProcessModel(String modelId, CachedProcessModel model) {
+    models.put(modelId, model);
+  }
+
+  /**
+   * Removes from the cache the process models loaded from the given XML descriptor.
+   * @param processFileName the XML descriptor file name of process models.
+   */
+  private void invalidateProcessModels(String processFileName) {
+    models.values().removeIf(cached -> processFileName.equals(cached.getFileName()));
+  }
+
+  /**
+   * Loads into the cache the process models of all the process manager instances, so that the
+   * first access to them doesn't pay the parsing of their XML descriptor. A model that cannot be
+   * loaded is skipped.
+   */
+  void preloadProcessModels() {
+    try {
+      for (String peasId : getAllPeasIds()) {
+        try {
+          getProcessModel(peasId);
+        } catch (WorkflowException | RuntimeException e) {
+          SilverLogger.getLogger(this)
+              .warn("Cannot preload the process model of {0}: {1}", peasId, e.getMessage());
+        }
+      }
+    } catch (WorkflowException e) {
+      SilverLogger.getLogger(this).error(e);
     }
   }
 
@@ -422,9 +489,7 @@ public class ProcessModelManagerImpl implements ProcessModelManager {
    */
   @Override
   public void clearProcessModelCache() {
-    synchronized (models) {
-      models.clear();
-    }
+    models.clear();
   }
 
   /**
@@ -140,7 +140,7 @@ public class TaskImpl extends AbstractTaskImpl {
    */
   @Override
   public String[] getActionNames() {
-    Action[] actions = state.getAllowedActions();
+    Action[] actions = getProcessModel().getAllowedActions(state.getName());
     String[] actionNames = new String[actions.length];
 
     for (int i = 0; i < actions.length; i++) {
@@ -0,0 +1,176 @@
+/*
+ * Copyright (C) 2000 - 2024 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception. You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "http://www.silverpeas.org/docs/core/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.workflow.engine;
+
+import org.awaitility.Awaitility;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.silverpeas.core.test.unit.extention.JEETestContext;
+import org.silverpeas.core.thread.task.AbstractRequestTask;
+import org.silverpeas.core.thread.task.RequestTaskManager;
+import org.silverpeas.core.workflow.api.event.GenericEvent;
+import org.silverpeas.core.workflow.api.instance.ProcessInstance;
+import org.silverpeas.core.workflow.api.instance.UpdatableProcessInstance;
+import org.silverpeas.kernel.test.annotations.TestManagedBeans;
+import org.silverpeas.kernel.test.annotations.TestedBean;
+import org.silverpeas.kernel.test.extension.EnableSilverTestEnv;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests on the processing of the workflow events by the {@link WorkflowEngineTask}: the
+ * events about a same process instance are processed one after one in the order they were raised
+ * whereas the events about different process instances are processed in parallel.
+ * @author mmoquillon
+ */
+@EnableSilverTestEnv(context = JEETestContext.class)
+@TestManagedBeans({WorkflowEngineTask.class})
+class WorkflowEngineTaskTest {
+
+  // their hash codes dispatch them into the 4 different partitions of the task
+  private static final List<String> INSTANCE_IDS = List.of("1", "2", "3", "4");
+  private static final int NB_EVENTS_PER_INSTANCE = 20;
+
+  @TestedBean
+  private RequestTaskManager taskManager;
+
+  private final Map<String, List<Integer>> processed = new ConcurrentHashMap<>();
+  private final AtomicBoolean overlapInAnInstance = new AtomicBoolean(false);
+  private final Map<String, AtomicInteger> runningByInstance = new ConcurrentHashMap<>();
+
+  @AfterEach
+  void shutdown() {
+    taskManager.shutdownAllTasks();
+  }
+
+  @Test
+  void eventsOfAnInstanceAreProcessedInOrderAndEventsOfDifferentInstancesInParallel() {
+    // the first event of each instance waits for the first event of all the other instances:
+    // they have to be processed at the same time
+    final CountDownLatch allInstancesStarted = new CountDownLatch(INSTANCE_IDS.size());
+    final AtomicBoolean processedInParallel = new AtomicBoolean(true);
+    for (int order = 0; order < NB_EVENTS_PER_INSTANCE; order++) {
+      for (String instanceId : INSTANCE_IDS) {
+        final CountDownLatch barrier = order == 0 ? allInstancesStarted : null;
+        push(new RecordingRequest(instanceId, order, barrier, processedInParallel));
+      }
+    }
+
+    Awaitility.await()
+        .atMost(30, TimeUnit.SECONDS)
+        .until(() -> processed.values().stream().mapToInt(List::size).sum() ==
+            INSTANCE_IDS.size() * NB_EVENTS_PER_INSTANCE);
+
+    assertThat(processedInParallel.get(), is(true));
+    assertThat(overlapInAnInstance.get(), is(false));
+    final Integer[] expectedOrders = new Integer[NB_EVENTS_PER_INSTANCE];
+    for (int i = 0; i < NB_EVENTS_PER_INSTANCE; i++) {
+      expectedOrders[i] = i;
+    }
+    for (String instanceId : INSTANCE_IDS) {
+      assertThat(processed.get(instanceId), contains(expectedOrders));
+    }
+  }
+
+  @Test
+  void anEventWithoutProcessInstanceIsNotPartitioned() {
+    final RecordingRequest request = new RecordingRequest(null, 0, null, new AtomicBoolean());
+    assertThat(request.getPartitionKey(), is(nullValue()));
+  }
+
+  private static void push(final AbstractRequest request) {
+    RequestTaskManager.get().push(WorkflowEngineTask.class, request);
+  }
+
+  private static GenericEvent eventOn(final String instanceId) {
+    final GenericEvent event = mock(GenericEvent.class);
+    if (instanceId != null) {
+      final ProcessInstance instance = mock(ProcessInstance.class);
+      when(instance.getInstanceId()).thenReturn(instanceId);
+      when(event.getProcessInstance()).thenReturn(instance);
+    }
+    return event;
+  }
+
+  /**
+   * A request recording the order in which the events of each process instance are processed.
+   */
+  private class RecordingRequest extends AbstractRequest {
+    private final String instanceId;
+    private final int order;
+    private final CountDownLatch barrier;
+    private final AtomicBoolean processedInParallel;
+
+    RecordingRequest(final String instanceId, final int order, final CountDownLatch barrier,
+        final AtomicBoolean processedInParallel) {
+      this.instanceId = instanceId;
+      this.order = order;
+      this.barrier = barrier;
+      this.processedInParallel = processedInParallel;
+      setEvent(eventOn(instanceId));
+    }
+
+    @Override
+    public void process(final AbstractRequestTask.ProcessContext context)
+        throws InterruptedException {
+      final AtomicInteger runningInInstance =
+          runningByInstance.computeIfAbsent(instanceId, i -> new AtomicInteger(0));
+      if (runningInInstance.incrementAndGet() > 1) {
+        overlapInAnInstance.set(true);
+      }
+      try {
+        if (barrier != null) {
+          barrier.countDown();
+          if (!barrier.await(10, TimeUnit.SECONDS)) {
+            processedInParallel.set(false);
+          }
+        } else {
+          Thread.sleep((long) (Math.random() * 5));
+        }
+        processed.computeIfAbsent(instanceId, i -> new CopyOnWriteArrayList<>()).add(order);
+      } finally {
+        runningInInstance.decrementAndGet();
+      }
+    }
+
+    @Override
+    protected boolean processEvent(final UpdatableProcessInstance instance, final String stepId) {
+      return false;
+    }
+  }
+}
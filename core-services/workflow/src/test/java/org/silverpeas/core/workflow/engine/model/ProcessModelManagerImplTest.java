@@ -29,21 +29,43 @@
 package org.silverpeas.core.workflow.engine.model;
 
 import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.silverpeas.core.admin.service.Administration;
+import org.silverpeas.core.test.unit.extention.FieldMocker;
 import org.silverpeas.core.test.unit.extention.JEETestContext;
+import org.silverpeas.core.workflow.api.WorkflowException;
 import org.silverpeas.core.workflow.api.model.*;
+import org.silverpeas.core.workflow.util.WorkflowUtil;
 import org.silverpeas.kernel.test.TestContext;
+import org.silverpeas.kernel.test.annotations.TestManagedMock;
 import org.silverpeas.kernel.test.annotations.TestedBean;
 import org.silverpeas.kernel.test.extension.EnableSilverTestEnv;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.when;
 
 /**
  *
@@ -52,9 +74,20 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 @EnableSilverTestEnv(context = JEETestContext.class)
 class ProcessModelManagerImplTest {
 
+  private static final String MODEL_ID = "processManager12";
+  private static final String DESCRIPTOR = "CachedDemandeConges.xml";
+
+  @RegisterExtension
+  FieldMocker mocker = new FieldMocker();
+
   @TestedBean
   private ProcessModelManagerImpl instance;
 
+  @AfterEach
+  void deleteDescriptor() throws IOException {
+    Files.deleteIfExists(descriptor());
+  }
+
   /**
    * Test of loadProcessModel method, of class ProcessModelManagerImpl.
    */
@@ -132,4 +165,113 @@ class ProcessModelManagerImplTest {
     String result = instance.getProcessModelDir();
     assertEquals(expResult, result);
   }
-}
\ No newline at end of file
+
+  @Test
+  void concurrentFirstAccessesToAModelLoadItOnce(@TestManagedMock Administration admin)
+      throws Exception {
+    copyDescriptor(admin);
+    final int nbAccesses = 8;
+    final ExecutorService executor = Executors.newFixedThreadPool(nbAccesses);
+    final CountDownLatch start = new CountDownLatch(1);
+    try {
+      final List<Future<ProcessModel>> accesses = new ArrayList<>(nbAccesses);
+      for (int i = 0; i < nbAccesses; i++) {
+        accesses.add(executor.submit(() -> {
+          start.await();
+          return instance.getProcessModel(MODEL_ID);
+        }));
+      }
+      start.countDown();
+      final ProcessModel model = accesses.get(0).get(30, TimeUnit.SECONDS);
+      assertThat(model.getModelId(), is(MODEL_ID));
+      for (Future<ProcessModel> access : accesses) {
+        assertThat(access.get(30, TimeUnit.SECONDS), sameInstance(model));
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    assertThat(instance.getProcessModel(MODEL_ID), sameInstance(
+        instance.getProcessModel(MODEL_ID)));
+  }
+
+  @Test
+  void aModelIsReloadedOnceItsDescriptorIsChanged(@TestManagedMock Administration admin)
+      throws Exception {
+    copyDescriptor(admin);
+    mocker.setField(instance, 60000L, "checkInterval");
+    final ProcessModel model = instance.getProcessModel(MODEL_ID);
+    changeDescriptor();
+    // the descriptor isn't checked again before the end of the check interval
+    assertThat(instance.getProcessModel(MODEL_ID), sameInstance(model));
+
+    mocker.setField(instance, 0L, "checkInterval");
+    final ProcessModel reloaded = instance.getProcessModel(MODEL_ID);
+    assertThat(reloaded, not(sameInstance(model)));
+    assertThat(reloaded.getName(), is(model.getName()));
+    assertThat(instance.getProcessModel(MODEL_ID), sameInstance(reloaded));
+  }
+
+  @Test
+  void aFailedLoadOfAModelIsRetriedAtTheNextAccess(@TestManagedMock Administration admin)
+      throws Exception {
+    assertThrows(WorkflowException.class, () -> instance.getProcessModel(MODEL_ID));
+
+    when(admin.getComponentParameterValue(MODEL_ID, WorkflowUtil.PROCESS_XML_FILE_NAME))
+        .thenReturn(DESCRIPTOR);
+    Files.write(descriptor(), "<processModel".getBytes(StandardCharsets.UTF_8));
+    assertThrows(WorkflowException.class, () -> instance.getProcessModel(MODEL_ID));
+
+    copyDescriptor(admin);
+    final ProcessModel model = instance.getProcessModel(MODEL_ID);
+    assertThat(model.getModelId(), is(MODEL_ID));
+    assertThat(instance.getProcessModel(MODEL_ID), sameInstance(model));
+  }
+
+  @Test
+  void aCompiledModelAnswersLikeItsDefinition() throws Exception {
+    final ProcessModel definition = instance.loadProcessModel("DemandeCongesSimple.xml");
+    final ProcessModelImpl compiled =
+        (ProcessModelImpl) instance.loadProcessModel("DemandeCongesSimple.xml");
+    compiled.compile();
+
+    for (State state : definition.getStates()) {
+      assertThat(names(compiled.getAllowedActions(state.getName())),
+          is(names(definition.getAllowedActions(state.getName()))));
+      assertThat(compiled.getTimeOutAction(state.getName(), 1),
+          is(definition.getTimeOutAction(state.getName(), 1)));
+    }
+    assertThat(names(compiled.getAllowedActions("AttenteValidation")),
+        is(List.of("Accepter", "Refuser")));
+    assertThat(compiled.getAllowedActions("UnknownState").length, is(0));
+    assertThat(compiled.getCreationRoles(), is(definition.getCreationRoles()));
+    assertThat(compiled.getCreateAction("Employe").getName(),
+        is(definition.getCreateAction("Employe").getName()));
+    assertThrows(WorkflowException.class, () -> compiled.getCreateAction("Responsable"));
+  }
+
+  private static List<String> names(final Action[] actions) {
+    final List<String> names = new ArrayList<>(actions.length);
+    for (Action action : actions) {
+      names.add(action.getName());
+    }
+    return names;
+  }
+
+  private Path descriptor() {
+    return Paths.get(instance.getProcessModelDir(), DESCRIPTOR);
+  }
+
+  private void copyDescriptor(final Administration admin) throws IOException {
+    when(admin.getComponentParameterValue(MODEL_ID, WorkflowUtil.PROCESS_XML_FILE_NAME))
+        .thenReturn(DESCRIPTOR);
+    FileUtils.copyFile(Paths.get(instance.getProcessModelDir(), "DemandeCongesSimple.xml")
+        .toFile(), descriptor().toFile());
+  }
+
+  private void changeDescriptor() throws IOException {
+    final File file = descriptor().toFile();
+    final long lastModified = file.lastModified();
+    FileUtils.writeStringToFile(file, "\n", StandardCharsets.UTF_8, true);
+    assertThat(file.setLastModified(lastModified + 2000), is(true));
+  }
+}
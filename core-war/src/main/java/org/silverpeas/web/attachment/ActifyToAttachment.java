@@ -27,6 +27,7 @@ import org.silverpeas.core.contribution.attachment.ActifyDocumentProcessor;
 import org.silverpeas.core.contribution.attachment.AttachmentService;
 import org.silverpeas.core.contribution.attachment.model.SimpleDocument;
 import org.silverpeas.core.contribution.attachment.model.SimpleDocumentPK;
+import org.silverpeas.core.contribution.attachment.repository.ContentBlobStore;
 import org.silverpeas.core.util.file.FileRepositoryManager;
 import org.silverpeas.kernel.logging.SilverLogger;
 
@@ -78,6 +79,7 @@ public class ActifyToAttachment extends HttpServlet {
           String srcFile = actifyWorkingPath + File.separator + logicalName;
           String destFile = ad.getAttachmentPath();
 
+          ContentBlobStore.get().detach(new File(destFile));
           FileRepositoryManager.copyFile(srcFile, destFile);
         }
       } catch (Exception e) {
@@ -23,8 +23,6 @@
  */
 package org.silverpeas.core.web.http;
 
-import org.apache.commons.io.FileUtils;
-import org.apache.commons.io.IOUtils;
 import org.silverpeas.kernel.util.StringUtil;
 import org.silverpeas.core.util.URLUtil;
 import org.silverpeas.core.util.file.FileUtil;
@@ -34,20 +32,25 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.Response;
-import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
-import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Base64;
+import java.util.Comparator;
 import java.util.Date;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.stream.Stream;
 
 import static java.nio.file.StandardOpenOption.READ;
 import static org.silverpeas.kernel.util.StringUtil.*;
@@ -62,7 +65,10 @@ public abstract class FileResponse {
   public static final String DOWNLOAD_CONTEXT_PARAM = "downloadContext";
   private static final int MAX_PATH_LENGTH_IN_LOGS = 100;
   private static final int BUFFER_LENGTH = 1024 * 16;
-  private static final Pattern RANGE_PATTERN = Pattern.compile("bytes=(?<start>\\d*)-(?<end>\\d*)");
+  private static final int TRANSFER_BUFFER_LENGTH = 1024 * 64;
+  private static final int MAX_RANGES = 16;
+  private static final String BYTES_RANGE_PREFIX = "bytes=";
+  private static final Pattern RANGE_PATTERN = Pattern.compile("(?<start>\\d*)-(?<end>\\d*)");
   private static final long EXPIRE_TIME = 1000 * 60 * 60 * 24L;
 
   final HttpServletResponse response;
@@ -244,24 +250,34 @@ public abstract class FileResponse {
     SilverLogger.getLogger(this).debug("{0} - start at {1} - end at {2} - partLength {3}",
         StringUtil.abbreviate(path.toString(), path.toString().length(), MAX_PATH_LENGTH_IN_LOGS),
         partialData.start, partialData.end, partialData.partContentLength);
-    try (SeekableByteChannel input = Files.newByteChannel(path, READ)) {
-      input.position(partialData.start);
-      int bytesRead;
-      int bytesLeft = partialData.partContentLength;
-      ByteBuffer buffer = ByteBuffer.allocate(BUFFER_LENGTH);
-      while ((bytesRead = input.read(buffer)) != -1 && bytesLeft > 0) {
-        buffer.clear();
-        output.write(buffer.array(), 0, bytesLeft < bytesRead ? bytesLeft : bytesRead);
-        bytesLeft -= bytesRead;
-      }
+    try (FileChannel input = FileChannel.open(path, READ)) {
+      transfer(input, partialData.start, partialData.partContentLength, output);
       SilverLogger.getLogger(this).debug("{0} - all part content bytes sent", StringUtil
           .abbreviate(path.toString(), path.toString().length(), MAX_PATH_LENGTH_IN_LOGS));
     } catch (IOException ioe) {
-      SilverLogger.getLogger(this).debug(
-          "client stopping the streaming HTTP Request of file content represented by " +
-              "''{0}'' identifier (original message ''{1}'')",
-          StringUtil.abbreviate(path.toString(), path.toString().length(), MAX_PATH_LENGTH_IN_LOGS),
-          ioe.getMessage(), ioe);
+      logClientStopping(path, ioe);
+    }
+  }
+
+  /**
+   * Fills the output response with the several parts of a multipart/byteranges content.
+   * @param path the path of the file.
+   * @param multipart the parts of the file to send.
+   * @param output the output stream to write into.
+   */
+  void multipartOutputStream(final Path path, final MultipartByteRanges multipart,
+      final OutputStream output) {
+    try (FileChannel input = FileChannel.open(path, READ)) {
+      for (final ContentRangeData part : multipart.parts) {
+        output.write(multipart.getPartHeader(part));
+        transfer(input, part.start, part.partContentLength, output);
+      }
+      output.write(multipart.getClosingDelimiter());
+      SilverLogger.getLogger(this).debug("{0} - all the {1} parts sent", StringUtil
+              .abbreviate(path.toString(), path.toString().length(), MAX_PATH_LENGTH_IN_LOGS),
+          multipart.parts.size());
+    } catch (IOException ioe) {
+      logClientStopping(path, ioe);
     }
   }
 
@@ -279,15 +295,69 @@ public abstract class FileResponse {
     if (isDefined(forcedCharacterEncoding)) {
       response.setCharacterEncoding(forcedCharacterEncoding);
     }
-    try (final InputStream stream = FileUtils.openInputStream(path.toFile())) {
-      IOUtils.copy(stream, output);
+    try (FileChannel input = FileChannel.open(path, READ)) {
+      transfer(input, 0, input.size(), output);
     } catch (IOException e) {
       throw new WebApplicationException(e, Response.Status.NOT_FOUND);
     }
   }
 
   /**
-   * Gets the file identifier
+   * Transfers the specified region of the given file channel into the given output stream.
+   * <p>
+   * If the output stream is also a channel (some servlet containers provide such streams), the
+   * bytes are transferred directly from the file system cache to the output by using
+   * {@link FileChannel#transferTo(long, long, WritableByteChannel)}. Otherwise, the region is
+   * read by blocks of {@link #TRANSFER_BUFFER_LENGTH} bytes at absolute positions in the file,
+   * without any intermediate stream.
+   * </p>
+   * @param input the channel of the file to send.
+   * @param position the position in the file from which the bytes are transferred.
+   * @param count the number of bytes to transfer.
+   * @param output the output stream to write into.
+   * @throws IOException if an error occurs while reading the file or writing the output.
+   */
+  static void transfer(final FileChannel input, final long position, final long count,
+      final OutputStream output) throws IOException {
+    long transferred = 0;
+    if (output instanceof WritableByteChannel) {
+      final WritableByteChannel target = (WritableByteChannel) output;
+      while (transferred < count) {
+        final long written = input.transferTo(position + transferred, count - transferred, target);
+        if (written <= 0) {
+          break;
+        }
+        transferred += written;
+      }
+    } else {
+      final ByteBuffer buffer =
+          ByteBuffer.allocate((int) Math.min(TRANSFER_BUFFER_LENGTH, Math.max(count, 1)));
+      while (transferred < count) {
+        buffer.clear().limit((int) Math.min(buffer.capacity(), count - transferred));
+        final int read = input.read(buffer, position + transferred);
+        if (read < 0) {
+          break;
+        }
+        output.write(buffer.array(), 0, read);
+        transferred += read;
+      }
+    }
+  }
+
+  private void logClientStopping(final Path path, final IOException ioe) {
+    SilverLogger.getLogger(this).debug(
+        "client stopping the streaming HTTP Request of file content represented by " +
+            "''{0}'' identifier (original message ''{1}'')",
+        StringUtil.abbreviate(path.toString(), path.toString().length(), MAX_PATH_LENGTH_IN_LOGS),
+        ioe.getMessage(), ioe);
+  }
+
+  /**
+   * Gets the file identifier.
+   * <p>
+   * The identifier is computed from the name, the size and the last modification date of the
+   * file so that it changes with any update of the file without having to read its content.
+   * </p>
    * @param path the path to the physical content.
    * @return the file identifier.
    * @throws IOException if the file is not readable.
@@ -296,13 +366,10 @@ public abstract class FileResponse {
     if (isDefined(forcedFileId)) {
       return forcedFileId;
     }
-    final File file = path.toFile();
-    final String sb =
-            String.valueOf(FileUtils.checksumCRC32(file)) +
-            "|" + file.getName() +
-            "|" + file.length() +
-            "|" + file.lastModified();
-    return Base64.getEncoder().encodeToString(sb.getBytes());
+    final String sb = path.getFileName() +
+        "|" + Files.size(path) +
+        "|" + Files.getLastModifiedTime(path).toMillis();
+    return Base64.getEncoder().encodeToString(sb.getBytes(StandardCharsets.UTF_8));
   }
 
   /**
@@ -324,49 +391,208 @@ public abstract class FileResponse {
   }
 
   /**
-   * Gets partial matcher.
-   * @return the partial matcher.
+   * Indicates whether the client already owns the current version of the file content, in which
+   * case the content has not to be sent again (HTTP 304).
+   * <p>
+   * The {@code If-None-Match} header is verified against the given file identifier. Only when it
+   * is missing, the {@code If-Modified-Since} header is verified against the last modification
+   * date of the file. Nothing is verified when no cache has to be handled.
+   * </p>
+   * @param fileId the identifier of the file sent as entity tag.
+   * @param lastModified the last modification date of the file.
+   * @return true if the content has not been modified for the client, false otherwise.
    */
-  Matcher getPartialMatcher() {
-    String range = defaultStringIfNotDefined(request.getHeader("Range"), "");
-    return RANGE_PATTERN.matcher(range);
+  boolean isNotModified(final String fileId, final Date lastModified) {
+    if (noCache) {
+      return false;
+    }
+    final String ifNoneMatch = request.getHeader("If-None-Match");
+    if (isDefined(ifNoneMatch)) {
+      return Stream.of(ifNoneMatch.split(","))
+          .map(String::trim)
+          .anyMatch(t -> "*".equals(t) || fileId.equals(unquoteEntityTag(t)));
+    }
+    final long ifModifiedSince = getDateHeader("If-Modified-Since");
+    return ifModifiedSince != -1 && lastModified.getTime() / 1000 <= ifModifiedSince / 1000;
+  }
+
+  /**
+   * Gets the ranges of the file content asked by the request.
+   * <p>
+   * The {@code Range} header is ignored, and then the full content has to be sent, if it is
+   * missing, malformed, not expressed in bytes, not valid anymore according to the
+   * {@code If-Range} header, or if it asks more than {@link #MAX_RANGES} distinct ranges once the
+   * overlapping and adjacent ones are merged. Suffix ranges ({@code bytes=-500} for the last 500
+   * bytes) and open ranges ({@code bytes=500-}) are supported.
+   * </p>
+   * @param fullContentLength the full content length of the file to send.
+   * @param fileId the identifier of the file sent as entity tag.
+   * @param lastModified the last modification date of the file.
+   * @return nothing if the full content has to be sent, the ordered ranges to send otherwise. The
+   * list of ranges is empty if none of the asked ranges can be satisfied.
+   */
+  Optional<List<ContentRangeData>> getContentRanges(final long fullContentLength,
+      final String fileId, final Date lastModified) {
+    final String range = request.getHeader("Range");
+    if (isNotDefined(range) || !range.startsWith(BYTES_RANGE_PREFIX) ||
+        !isRangeStillValid(fileId, lastModified)) {
+      return Optional.empty();
+    }
+    final List<ContentRangeData> ranges = new ArrayList<>();
+    for (final String spec : range.substring(BYTES_RANGE_PREFIX.length()).split(",")) {
+      final Matcher matcher = RANGE_PATTERN.matcher(spec.trim());
+      if (!matcher.matches()) {
+        return Optional.empty();
+      }
+      final Optional<ContentRangeData> data;
+      try {
+        data = getContentRangeData(matcher, fullContentLength);
+      } catch (IllegalArgumentException e) {
+        return Optional.empty();
+      }
+      data.ifPresent(ranges::add);
+    }
+    final List<ContentRangeData> merged = merge(ranges, fullContentLength);
+    if (merged.size() > MAX_RANGES) {
+      return Optional.empty();
+    }
+    if (!merged.isEmpty()) {
+      response.setBufferSize(BUFFER_LENGTH);
+    }
+    return Optional.of(merged);
   }
 
   /**
    * Gets the content range data.
-   * @param partialHeaders the partial hints.
+   * @param rangeSpec the matched range specification.
    * @param fullContentLength the full content of the file to send.
-   * @return the content range data.
+   * @return the content range data or nothing if the range cannot be satisfied.
+   * @throws IllegalArgumentException if the range specification is not valid.
    */
-  ContentRangeData getContentRangeData(final Matcher partialHeaders, final int fullContentLength) {
-    final int endOfFullContent = fullContentLength - 1;
-    response.setBufferSize(BUFFER_LENGTH);
+  private Optional<ContentRangeData> getContentRangeData(final Matcher rangeSpec,
+      final long fullContentLength) {
+    final long endOfFullContent = fullContentLength - 1;
+    final String startGroup = rangeSpec.group("start");
+    final String endGroup = rangeSpec.group("end");
+    final long start;
+    final long end;
+    if (startGroup.isEmpty()) {
+      if (endGroup.isEmpty()) {
+        throw new IllegalArgumentException("Empty range");
+      }
+      final long suffixLength = Math.min(Long.parseLong(endGroup), fullContentLength);
+      start = fullContentLength - suffixLength;
+      end = endOfFullContent;
+    } else {
+      start = Long.parseLong(startGroup);
+      final long lastPos = endGroup.isEmpty() ? endOfFullContent : Long.parseLong(endGroup);
+      if (lastPos < start) {
+        throw new IllegalArgumentException("Range end before its start");
+      }
+      end = Math.min(lastPos, endOfFullContent);
+    }
+    if (start > end) {
+      return Optional.empty();
+    }
+    return Optional.of(new ContentRangeData(start, end, fullContentLength));
+  }
+
+  private static List<ContentRangeData> merge(final List<ContentRangeData> ranges,
+      final long fullContentLength) {
+    final List<ContentRangeData> sorted = new ArrayList<>(ranges);
+    sorted.sort(Comparator.comparingLong(r -> r.start));
+    final List<ContentRangeData> merged = new ArrayList<>(sorted.size());
+    for (final ContentRangeData current : sorted) {
+      final int lastIndex = merged.size() - 1;
+      if (lastIndex >= 0 && current.start <= merged.get(lastIndex).end + 1) {
+        final ContentRangeData previous = merged.get(lastIndex);
+        merged.set(lastIndex, new ContentRangeData(previous.start,
+            Math.max(previous.end, current.end), fullContentLength));
+      } else {
+        merged.add(current);
+      }
+    }
+    return merged;
+  }
 
-    String startGroup = partialHeaders.group("start");
-    int start = startGroup.isEmpty() ? 0 : Integer.valueOf(startGroup);
-    start = start < 0 ? 0 : start;
+  private boolean isRangeStillValid(final String fileId, final Date lastModified) {
+    final String ifRange = request.getHeader("If-Range");
+    if (isNotDefined(ifRange)) {
+      return true;
+    }
+    final long date = getDateHeader("If-Range");
+    if (date != -1) {
+      return lastModified.getTime() / 1000 == date / 1000;
+    }
+    return !ifRange.trim().startsWith("W/") && fileId.equals(unquoteEntityTag(ifRange.trim()));
+  }
 
-    String endGroup = partialHeaders.group("end");
-    int end = endGroup.isEmpty() ? endOfFullContent : Integer.valueOf(endGroup);
-    end = end > endOfFullContent ? endOfFullContent : end;
+  private long getDateHeader(final String name) {
+    try {
+      return request.getDateHeader(name);
+    } catch (IllegalArgumentException e) {
+      return -1;
+    }
+  }
 
-    int partContentLength = end - start + 1;
-    return new ContentRangeData(start, end, partContentLength,
-        String.format("bytes %s-%s/%s", start, end, fullContentLength));
+  private static String unquoteEntityTag(final String entityTag) {
+    String tag = entityTag.startsWith("W/") ? entityTag.substring(2) : entityTag;
+    if (tag.length() > 1 && tag.startsWith("\"") && tag.endsWith("\"")) {
+      tag = tag.substring(1, tag.length() - 1);
+    }
+    return tag;
   }
 
   static class ContentRangeData {
-    final int start;
-    final int end;
-    final int partContentLength;
+    final long start;
+    final long end;
+    final long partContentLength;
     final String headerValue;
 
-    ContentRangeData(final int start, final int end, final int partContentLength,
-        final String headerValue) {
+    ContentRangeData(final long start, final long end, final long fullContentLength) {
       this.start = start;
       this.end = end;
-      this.partContentLength = partContentLength;
-      this.headerValue = headerValue;
+      this.partContentLength = end - start + 1;
+      this.headerValue = String.format("bytes %s-%s/%s", start, end, fullContentLength);
+    }
+  }
+
+  /**
+   * The several parts of a file content to send as a {@code multipart/byteranges} payload.
+   */
+  static class MultipartByteRanges {
+    private static final String CRLF = "\r\n";
+    final List<ContentRangeData> parts;
+    final String boundary;
+    private final String mimeType;
+
+    MultipartByteRanges(final List<ContentRangeData> parts, final String mimeType) {
+      this.parts = parts;
+      this.mimeType = mimeType;
+      this.boundary = "SILVERPEAS_BYTERANGES_" + Long.toHexString(
+          ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE);
+    }
+
+    String getContentType() {
+      return "multipart/byteranges; boundary=" + boundary;
+    }
+
+    long getContentLength() {
+      long length = getClosingDelimiter().length;
+      for (final ContentRangeData part : parts) {
+        length += getPartHeader(part).length + part.partContentLength;
+      }
+      return length;
+    }
+
+    byte[] getPartHeader(final ContentRangeData part) {
+      return (CRLF + "--" + boundary + CRLF +
+          "Content-Type: " + mimeType + CRLF +
+          "Content-Range: " + part.headerValue + CRLF + CRLF).getBytes(StandardCharsets.US_ASCII);
+    }
+
+    byte[] getClosingDelimiter() {
+      return (CRLF + "--" + boundary + "--" + CRLF).getBytes(StandardCharsets.US_ASCII);
     }
   }
 }
@@ -30,11 +30,12 @@ import javax.servlet.http.HttpServletResponse;
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.StreamingOutput;
-import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.regex.Matcher;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
 
 import static org.silverpeas.kernel.util.StringUtil.isNotDefined;
 
@@ -45,6 +46,12 @@ import static org.silverpeas.kernel.util.StringUtil.isNotDefined;
  */
 public class RestFileResponse extends FileResponse {
 
+  private static final String CONTENT_LENGTH = "Content-Length";
+  private static final String CONTENT_RANGE = "Content-Range";
+  private static final String CONTENT_DISPOSITION = "Content-Disposition";
+  private static final String ACCEPT_RANGES = "Accept-Ranges";
+  private static final String ETAG = "ETag";
+
   /**
    * Hidden constructor.
    * @param request the current http request.
@@ -97,24 +104,43 @@ public class RestFileResponse extends FileResponse {
       final String fileName = getFileName(absoluteFilePath);
       final String fileMimeType = getMimeType(absoluteFilePath);
 
-      final int fullContentLength = (int) Files.size(absoluteFilePath);
-      final Matcher partialMatcher = getPartialMatcher();
-      final boolean isPartialRequest = partialMatcher.matches();
+      final long fullContentLength = Files.size(absoluteFilePath);
+      final String fileId = getFileIdentifier(absoluteFilePath);
+      final Date lastModified = getLastModifiedDate(absoluteFilePath);
+      if (isNotModified(fileId, lastModified)) {
+        // the client already owns the current version of the content
+        return Response.notModified()
+            .header(ACCEPT_RANGES, "bytes")
+            .header(ETAG, fileId)
+            .lastModified(lastModified);
+      }
 
+      final Optional<List<ContentRangeData>> ranges =
+          getContentRanges(fullContentLength, fileId, lastModified);
       final Response.ResponseBuilder responseBuilder;
-      if (isPartialRequest) {
-        // Handling here a partial response (pseudo streaming)
-        responseBuilder =
-            getPartialResponseBuilder(partialMatcher, absoluteFilePath, fullContentLength);
-      } else {
+      String contentType = fileMimeType;
+      if (ranges.isEmpty()) {
         // Handling here a full response
         responseBuilder = getFullResponseBuilder(absoluteFilePath, fullContentLength);
+      } else if (ranges.get().isEmpty()) {
+        // None of the asked ranges can be satisfied
+        return Response.status(Response.Status.REQUESTED_RANGE_NOT_SATISFIABLE)
+            .header(CONTENT_RANGE, "bytes */" + fullContentLength);
+      } else if (ranges.get().size() == 1) {
+        // Handling here a partial response (pseudo streaming)
+        responseBuilder = getPartialResponseBuilder(ranges.get().get(0), absoluteFilePath);
+      } else {
+        // Handling here a partial response made of several ranges
+        final MultipartByteRanges multipart = new MultipartByteRanges(ranges.get(), fileMimeType);
+        responseBuilder = getMultipartResponseBuilder(multipart, absoluteFilePath);
+        contentType = multipart.getContentType();
       }
 
-      final String filename = downloadContext
-          ? encodeAttachmentFilenameAsUtf8(fileName)
-          : encodeInlineFilenameAsUtf8(fileName);
-      return responseBuilder.type(fileMimeType).header("Content-Disposition", filename);
+      return responseBuilder.type(contentType)
+          .header(ACCEPT_RANGES, "bytes")
+          .header(ETAG, fileId)
+          .lastModified(lastModified)
+          .header(CONTENT_DISPOSITION, getContentDisposition(fileName, downloadContext));
     } catch (final WebApplicationException ex) {
       throw ex;
     } catch (final Exception ex) {
@@ -152,26 +178,41 @@ public class RestFileResponse extends FileResponse {
     return this;
   }
 
+  private String getContentDisposition(final String fileName, final boolean downloadContext) {
+    return downloadContext
+        ? encodeAttachmentFilenameAsUtf8(fileName)
+        : encodeInlineFilenameAsUtf8(fileName);
+  }
+
   /**
-   * Gets the full response builder according to given parameters.
+   * Gets the partial response builder according to given parameters.
+   * @param data the range of the file content to send.
    * @param path the full path of the file to send.
-   * @param fullContentLength the full content length of the file to send.
    * @return the parametrized response builder.
-   * @throws IOException if the file is not readable.
    */
-  private Response.ResponseBuilder getPartialResponseBuilder(Matcher partialHeaders, Path path,
-      final int fullContentLength) throws IOException {
-    final ContentRangeData data = getContentRangeData(partialHeaders, fullContentLength);
+  private Response.ResponseBuilder getPartialResponseBuilder(final ContentRangeData data,
+      final Path path) {
     return Response.status(Response.Status.PARTIAL_CONTENT)
         .entity(getPartialOutputStream(path, data))
-        .header("Content-Length", data.partContentLength)
-        .header("Accept-Ranges", "bytes")
-        .header("ETag", getFileIdentifier(path))
-        .lastModified(getLastModifiedDate(path))
+        .header(CONTENT_LENGTH, data.partContentLength)
         .expires(getExpirationDate())
-        .header("Content-Range", data.headerValue);
+        .header(CONTENT_RANGE, data.headerValue);
   }
 
+  /**
+   * Gets the partial response builder of a multipart/byteranges content.
+   * @param multipart the ranges of the file content to send.
+   * @param path the full path of the file to send.
+   * @return the parametrized response builder.
+   */
+  private Response.ResponseBuilder getMultipartResponseBuilder(final MultipartByteRanges multipart,
+      final Path path) {
+    final StreamingOutput streamingOutput = output -> multipartOutputStream(path, multipart, output);
+    return Response.status(Response.Status.PARTIAL_CONTENT)
+        .entity(streamingOutput)
+        .header(CONTENT_LENGTH, multipart.getContentLength())
+        .expires(getExpirationDate());
+  }
 
   /**
    * Gets the partial streaming output.
@@ -191,8 +232,8 @@ public class RestFileResponse extends FileResponse {
    * @return the parametrized response builder.
    */
   private Response.ResponseBuilder getFullResponseBuilder(final Path path,
-      final int fullContentLength) {
+      final long fullContentLength) {
     StreamingOutput streamingOutput = output -> fullOutputStream(path, output);
-    return Response.ok(streamingOutput).header("Content-Length", fullContentLength);
+    return Response.ok(streamingOutput).header(CONTENT_LENGTH, fullContentLength);
   }
 }
@@ -32,7 +32,9 @@ import javax.ws.rs.core.Response;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.regex.Matcher;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
 
 import static org.silverpeas.kernel.util.StringUtil.isNotDefined;
 
@@ -44,6 +46,7 @@ import static org.silverpeas.kernel.util.StringUtil.isNotDefined;
 public class ServletFileResponse extends FileResponse {
 
   private static final String CONTENT_LENGTH = "Content-Length";
+  private static final String CONTENT_RANGE = "Content-Range";
 
   /**
    * Hidden constructor.
@@ -94,30 +97,50 @@ public class ServletFileResponse extends FileResponse {
       final String fileName = getFileName(absoluteFilePath);
       final String fileMimeType = getMimeType(absoluteFilePath);
 
-      final int fullContentLength = (int) Files.size(absoluteFilePath);
-      final Matcher partialMatcher = getPartialMatcher();
-      final boolean isPartialRequest = partialMatcher.matches();
+      final long fullContentLength = Files.size(absoluteFilePath);
+      final String fileId = getFileIdentifier(absoluteFilePath);
+      final Date lastModified = getLastModifiedDate(absoluteFilePath);
+
+      response.setHeader("Accept-Ranges", "bytes");
+      response.setHeader("ETag", fileId);
+      response.setDateHeader("Last-Modified", lastModified.getTime());
+      if (isNotModified(fileId, lastModified)) {
+        // the client already owns the current version of the content
+        response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+        return;
+      }
 
       response.setContentType(fileMimeType);
       final String filename = downloadContext
           ? encodeAttachmentFilenameAsUtf8(fileName)
           : encodeInlineFilenameAsUtf8(fileName);
       response.setHeader("Content-Disposition", filename);
-      if (isPartialRequest) {
+      final Optional<List<ContentRangeData>> ranges =
+          getContentRanges(fullContentLength, fileId, lastModified);
+      if (ranges.isEmpty()) {
+        // Handling here a full response
+        response.setHeader(CONTENT_LENGTH, String.valueOf(fullContentLength));
+        fullOutputStream(absoluteFilePath, response.getOutputStream());
+      } else if (ranges.get().isEmpty()) {
+        // None of the asked ranges can be satisfied
+        response.setHeader(CONTENT_RANGE, "bytes */" + fullContentLength);
+        response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+      } else if (ranges.get().size() == 1) {
         // Handling here a partial response (pseudo streaming)
-        final ContentRangeData data = getContentRangeData(partialMatcher, fullContentLength);
-        response.setHeader(CONTENT_LENGTH, String.format("%s", data.partContentLength));
-        response.setHeader("Accept-Ranges", "bytes");
-        response.setHeader("ETag", getFileIdentifier(path));
-        response.setDateHeader("Last-Modified", getLastModifiedDate(path).getTime());
+        final ContentRangeData data = ranges.get().get(0);
+        response.setHeader(CONTENT_LENGTH, String.valueOf(data.partContentLength));
         response.setDateHeader("Expires", getExpirationDate().getTime());
-        response.setHeader("Content-Range", data.headerValue);
+        response.setHeader(CONTENT_RANGE, data.headerValue);
         response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
         partialOutputStream(absoluteFilePath, data, response.getOutputStream());
       } else {
-        // Handling here a full response
-        response.setHeader(CONTENT_LENGTH, String.valueOf(fullContentLength));
-        fullOutputStream(path, response.getOutputStream());
+        // Handling here a partial response made of several ranges
+        final MultipartByteRanges multipart = new MultipartByteRanges(ranges.get(), fileMimeType);
+        response.setContentType(multipart.getContentType());
+        response.setHeader(CONTENT_LENGTH, String.valueOf(multipart.getContentLength()));
+        response.setDateHeader("Expires", getExpirationDate().getTime());
+        response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+        multipartOutputStream(absoluteFilePath, multipart, response.getOutputStream());
       }
 
     } catch (final WebApplicationException ex) {
@@ -27,6 +27,10 @@ import org.silverpeas.core.admin.user.model.User;
 import org.silverpeas.core.notification.sse.AbstractServerEvent;
 import org.silverpeas.core.notification.sse.behavior.IgnoreStoring;
 
+import java.util.Set;
+
+import static java.util.Collections.singleton;
+
 /**
  * @author Yohann Chastagnier
  */
@@ -58,4 +62,9 @@ class InitializationServerEvent extends AbstractServerEvent implements IgnoreSto
   public boolean isConcerned(final String receiverSessionId, final User receiver) {
     return emitterSessionId.equals(receiverSessionId);
   }
+
+  @Override
+  public Set<String> getTargetedSessionIds() {
+    return singleton(emitterSessionId);
+  }
 }
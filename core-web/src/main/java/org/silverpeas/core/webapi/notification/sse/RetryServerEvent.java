@@ -27,6 +27,10 @@ import org.silverpeas.core.admin.user.model.User;
 import org.silverpeas.core.notification.sse.AbstractServerEvent;
 import org.silverpeas.core.notification.sse.behavior.IgnoreStoring;
 
+import java.util.Set;
+
+import static java.util.Collections.singleton;
+
 /**
  * @author Yohann Chastagnier
  */
@@ -66,4 +70,9 @@ class RetryServerEvent extends AbstractServerEvent implements IgnoreStoring {
   public boolean isConcerned(final String receiverSessionId, final User receiver) {
     return emitterSessionId.equals(receiverSessionId);
   }
+
+  @Override
+  public Set<String> getTargetedSessionIds() {
+    return singleton(emitterSessionId);
+  }
 }
@@ -36,6 +36,7 @@ import java.util.List;
 import java.util.Optional;
 
 import static java.text.MessageFormat.format;
+import static java.util.Collections.singleton;
 import static org.silverpeas.core.notification.sse.ServerEventDispatcherTask.getLastServerEventsFromId;
 import static org.silverpeas.core.notification.sse.ServerEventDispatcherTask.registerContext;
 import static org.silverpeas.core.notification.user.client.NotificationManagerSettings.isCheckPreviousAsyncContextEnabled;
@@ -83,8 +84,9 @@ interface SilverpeasServerEventWebAccess {
       Optional.of(initialServerEvent)
           .filter(InitializationServerEvent.class::isInstance)
           .stream()
-          .flatMap(s -> SilverpeasServerEventContextManager.get().getContextSnapshot().stream())
-          .filter(c -> sessionId.equals(c.getSessionId()))
+          .flatMap(s -> SilverpeasServerEventContextManager.get()
+              .getContextSnapshotOfSessions(singleton(sessionId))
+              .stream())
           .forEach(SilverpeasServerEventContext::closeOnPreviousCheckFailure);
     }
     registerContext(context);
@@ -0,0 +1,154 @@
+/*
+ * Copyright (C) 2000 - 2024 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.web.http;
+
+import com.carrotsearch.junitbenchmarks.BenchmarkOptions;
+import com.carrotsearch.junitbenchmarks.BenchmarkRule;
+import com.carrotsearch.junitbenchmarks.annotation.BenchmarkMethodChart;
+import org.apache.commons.io.FileUtils;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestRule;
+import org.silverpeas.kernel.test.UnitTest;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.Random;
+
+import static java.nio.file.StandardOpenOption.READ;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.emptyString;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Benchmark of the sending of a file content by {@link FileResponse} against the implementation
+ * it replaced: the copy through a heap buffer and the file identifier computed from a checksum
+ * of the whole content.
+ * @author mmoquillon
+ */
+@UnitTest
+@BenchmarkMethodChart
+@BenchmarkOptions(benchmarkRounds = 10, warmupRounds = 2)
+public class FileResponseTransferTest {
+
+  private static final int FILE_SIZE = 16 * 1024 * 1024;
+
+  private static Path directory;
+  private static Path file;
+
+  @Rule
+  public TestRule benchmarkRun = new BenchmarkRule();
+
+  @BeforeClass
+  public static void createFile() throws IOException {
+    directory = Files.createTempDirectory("file-transfer");
+    file = directory.resolve("big.bin");
+    final byte[] block = new byte[1024 * 1024];
+    new Random(42).nextBytes(block);
+    try (OutputStream out = Files.newOutputStream(file)) {
+      for (int i = 0; i < FILE_SIZE / block.length; i++) {
+        out.write(block);
+      }
+    }
+  }
+
+  @AfterClass
+  public static void deleteFile() throws IOException {
+    FileUtils.deleteDirectory(directory.toFile());
+  }
+
+  @Test
+  public void transferByFileChannel() throws IOException {
+    final CountingOutputStream output = new CountingOutputStream();
+    try (FileChannel input = FileChannel.open(file, READ)) {
+      FileResponse.transfer(input, 0, FILE_SIZE, output);
+    }
+    assertThat(output.count, is((long) FILE_SIZE));
+  }
+
+  /**
+   * The copy of the file as it was done before the use of a transfer by file channel.
+   */
+  @Test
+  public void previousTransferByHeapBuffer() throws IOException {
+    final CountingOutputStream output = new CountingOutputStream();
+    try (SeekableByteChannel input = Files.newByteChannel(file, READ)) {
+      input.position(0);
+      int bytesRead;
+      int bytesLeft = FILE_SIZE;
+      ByteBuffer buffer = ByteBuffer.allocate(1024 * 16);
+      while ((bytesRead = input.read(buffer)) != -1 && bytesLeft > 0) {
+        buffer.clear();
+        output.write(buffer.array(), 0, Math.min(bytesLeft, bytesRead));
+        bytesLeft -= bytesRead;
+      }
+    }
+    assertThat(output.count, is((long) FILE_SIZE));
+  }
+
+  @Test
+  public void fileIdentifier() throws IOException {
+    final String id = FileResponse.fromServlet(mock(HttpServletRequest.class),
+        mock(HttpServletResponse.class)).getFileIdentifier(file);
+    assertThat(id, not(emptyString()));
+  }
+
+  /**
+   * The file identifier as it was computed before, that is by reading the whole file content.
+   */
+  @Test
+  public void previousFileIdentifierByChecksum() throws IOException {
+    final String sb = FileUtils.checksumCRC32(file.toFile()) + "|" + file.getFileName() + "|" +
+        Files.size(file) + "|" + Files.getLastModifiedTime(file).toMillis();
+    final String id = Base64.getEncoder().encodeToString(sb.getBytes(StandardCharsets.UTF_8));
+    assertThat(id, not(emptyString()));
+  }
+
+  private static class CountingOutputStream extends OutputStream {
+    private long count = 0;
+
+    @Override
+    public void write(final byte[] b, final int off, final int len) {
+      count += len;
+    }
+
+    @Override
+    public void write(final int b) {
+      count++;
+    }
+  }
+}
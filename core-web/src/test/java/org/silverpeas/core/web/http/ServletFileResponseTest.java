@@ -0,0 +1,246 @@
+/*
+ * Copyright (C) 2000 - 2024 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.core.web.http;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.silverpeas.core.test.unit.extention.JEETestContext;
+import org.silverpeas.kernel.test.extension.EnableSilverTestEnv;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests on the sending of a file content, fully or by ranges, with a servlet response.
+ * @author mmoquillon
+ */
+@EnableSilverTestEnv(context = JEETestContext.class)
+class ServletFileResponseTest {
+
+  private static final int CONTENT_LENGTH = 1000;
+  private static final String MIME_TYPE = "video/mp4";
+
+  private Path directory;
+  private Path file;
+  private byte[] content;
+  private HttpServletRequest request;
+  private HttpServletResponse response;
+  private ByteArrayOutputStream output;
+
+  @BeforeEach
+  void prepareFileAndHttpContext() throws IOException {
+    directory = Files.createTempDirectory("file-response");
+    content = new byte[CONTENT_LENGTH];
+    new Random(42).nextBytes(content);
+    file = Files.write(directory.resolve("video.mp4"), content);
+
+    request = mock(HttpServletRequest.class);
+    when(request.getDateHeader(anyString())).thenReturn(-1L);
+    response = mock(HttpServletResponse.class);
+    output = new ByteArrayOutputStream();
+    when(response.getOutputStream()).thenReturn(new ServletOutputStream() {
+      @Override
+      public boolean isReady() {
+        return true;
+      }
+
+      @Override
+      public void setWriteListener(final WriteListener writeListener) {
+        // not used by the synchronous sending of the file
+      }
+
+      @Override
+      public void write(final int b) {
+        output.write(b);
+      }
+
+      @Override
+      public void write(final byte[] b, final int off, final int len) {
+        output.write(b, off, len);
+      }
+    });
+  }
+
+  @AfterEach
+  void deleteFile() throws IOException {
+    FileUtils.deleteDirectory(directory.toFile());
+  }
+
+  @Test
+  @DisplayName("Without any range, the full content is sent with its validators")
+  void sendFullContent() {
+    send();
+    verify(response).setHeader("Content-Length", String.valueOf(CONTENT_LENGTH));
+    verify(response).setHeader(eq("ETag"), anyString());
+    verify(response).setDateHeader(eq("Last-Modified"), anyLong());
+    verify(response, never()).setStatus(anyInt());
+    assertThat(output.toByteArray(), is(content));
+  }
+
+  @Test
+  @DisplayName("A single range is sent as a partial content")
+  void sendOneRange() {
+    when(request.getHeader("Range")).thenReturn("bytes=100-199");
+    send();
+    verify(response).setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+    verify(response).setHeader("Content-Length", "100");
+    verify(response).setHeader("Content-Range", "bytes 100-199/" + CONTENT_LENGTH);
+    assertThat(output.toByteArray(), is(Arrays.copyOfRange(content, 100, 200)));
+  }
+
+  @Test
+  @DisplayName("A suffix range is about the last bytes of the content")
+  void sendSuffixRange() {
+    when(request.getHeader("Range")).thenReturn("bytes=-10");
+    send();
+    verify(response).setHeader("Content-Range", "bytes 990-999/" + CONTENT_LENGTH);
+    assertThat(output.toByteArray(),
+        is(Arrays.copyOfRange(content, CONTENT_LENGTH - 10, CONTENT_LENGTH)));
+  }
+
+  @Test
+  @DisplayName("Several ranges are sent as a multipart/byteranges content of the announced length")
+  void sendSeveralRanges() {
+    when(request.getHeader("Range")).thenReturn("bytes=0-9, 500-509");
+    send();
+    verify(response).setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+    verify(response).setContentType(startsWith("multipart/byteranges; boundary="));
+    verify(response).setHeader("Content-Length", String.valueOf(output.size()));
+    final String body = new String(output.toByteArray(), StandardCharsets.ISO_8859_1);
+    assertThat(body, containsString("Content-Type: " + MIME_TYPE));
+    assertThat(body, containsString("Content-Range: bytes 0-9/" + CONTENT_LENGTH));
+    assertThat(body, containsString("Content-Range: bytes 500-509/" + CONTENT_LENGTH));
+    assertThat(body, containsString(
+        new String(Arrays.copyOfRange(content, 500, 510), StandardCharsets.ISO_8859_1)));
+    assertThat(body, endsWith("--\r\n"));
+  }
+
+  @Test
+  @DisplayName("Overlapping and adjacent ranges are merged into a single one")
+  void sendMergedRanges() {
+    when(request.getHeader("Range")).thenReturn("bytes=50-99,0-49,20-30");
+    send();
+    verify(response).setHeader("Content-Range", "bytes 0-99/" + CONTENT_LENGTH);
+    assertThat(output.toByteArray(), is(Arrays.copyOfRange(content, 0, 100)));
+  }
+
+  @Test
+  @DisplayName("Ranges out of the content cannot be satisfied")
+  void sendNotSatisfiableRange() {
+    when(request.getHeader("Range")).thenReturn("bytes=2000-2100");
+    send();
+    verify(response).setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+    verify(response).setHeader("Content-Range", "bytes */" + CONTENT_LENGTH);
+    assertThat(output.size(), is(0));
+  }
+
+  @Test
+  @DisplayName("A malformed range is ignored and the full content is sent")
+  void sendFullContentWithMalformedRange() {
+    when(request.getHeader("Range")).thenReturn("bytes=200-100");
+    send();
+    verify(response, never()).setStatus(anyInt());
+    assertThat(output.toByteArray(), is(content));
+  }
+
+  @Test
+  @DisplayName("The ranges are ignored when the content has changed since the If-Range tag")
+  void sendFullContentWhenIfRangeDoesNotMatch() {
+    when(request.getHeader("Range")).thenReturn("bytes=100-199");
+    when(request.getHeader("If-Range")).thenReturn("\"an-old-version\"");
+    send();
+    verify(response, never()).setStatus(anyInt());
+    assertThat(output.toByteArray(), is(content));
+  }
+
+  @Test
+  @DisplayName("Nothing is sent when the client owns already the content with the same tag")
+  void sendNotModifiedWhenETagMatches() throws IOException {
+    final String fileId = FileResponse.fromServlet(request, response).getFileIdentifier(file);
+    when(request.getHeader("If-None-Match")).thenReturn("\"other\", \"" + fileId + "\"");
+    send();
+    verify(response).setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+    verify(response).setHeader("ETag", fileId);
+    assertThat(output.size(), is(0));
+  }
+
+  @Test
+  @DisplayName("Nothing is sent when the content has not been modified since the given date")
+  void sendNotModifiedWhenNotModifiedSince() {
+    when(request.getDateHeader("If-Modified-Since")).thenReturn(System.currentTimeMillis());
+    send();
+    verify(response).setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+    assertThat(output.size(), is(0));
+  }
+
+  @Test
+  @DisplayName("The content is sent when it has been modified since the given date")
+  void sendModifiedSince() {
+    when(request.getDateHeader("If-Modified-Since")).thenReturn(0L);
+    send();
+    verify(response, never()).setStatus(anyInt());
+    assertThat(output.toByteArray(), is(content));
+  }
+
+  @Test
+  @DisplayName("The ranges beyond 2 GB are correctly computed")
+  void computeRangesBeyondTwoGigaBytes() {
+    final long fullContentLength = 5L * 1024 * 1024 * 1024;
+    when(request.getHeader("Range")).thenReturn("bytes=4294967296-,-100");
+    final Optional<List<FileResponse.ContentRangeData>> ranges =
+        FileResponse.fromServlet(request, response)
+            .getContentRanges(fullContentLength, "id", new Date());
+    assertThat(ranges.isPresent(), is(true));
+    assertThat(ranges.get().size(), is(1));
+    final FileResponse.ContentRangeData range = ranges.get().get(0);
+    assertThat(range.start, is(4294967296L));
+    assertThat(range.end, is(fullContentLength - 1));
+    assertThat(range.partContentLength, is(fullContentLength - 4294967296L));
+    assertThat(range.headerValue,
+        is("bytes 4294967296-" + (fullContentLength - 1) + "/" + fullContentLength));
+  }
+
+  private void send() {
+    FileResponse.fromServlet(request, response).forceMimeType(MIME_TYPE).sendPath(file, false);
+  }
+}